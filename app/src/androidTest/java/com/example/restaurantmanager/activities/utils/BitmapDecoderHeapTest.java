@@ -0,0 +1,144 @@
+package com.example.restaurantmanager.activities.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Debug;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ BitmapDecoderHeapTest - Memory used by menu thumbnails decoded from 12MP photos
+ Writes a 4000x3000 JPEG and a small PNG to the cache dir, decodes them the way
+ MenuImageLoader and MenuImageIngest do, and checks bitmap sizes and heap growth.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BitmapDecoderHeapTest {
+
+    private static final int PHOTO_WIDTH = 4000;
+    private static final int PHOTO_HEIGHT = 3000;
+    // 60dp thumbnail on an xxhdpi screen
+    private static final int THUMB_PX = 180;
+    private static final long FULL_SIZE_BYTES = (long) PHOTO_WIDTH * PHOTO_HEIGHT * 4;
+    private static final int THUMBNAILS = 20;
+
+    private File photo;
+    private File png;
+
+    @Before
+    public void setUp() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        photo = new File(context.getCacheDir(), "bitmap_decoder_test.jpg");
+        png = new File(context.getCacheDir(), "bitmap_decoder_test.png");
+        write(PHOTO_WIDTH, PHOTO_HEIGHT, Bitmap.Config.RGB_565, Bitmap.CompressFormat.JPEG, photo);
+        write(400, 300, Bitmap.Config.ARGB_8888, Bitmap.CompressFormat.PNG, png);
+    }
+
+    @After
+    public void tearDown() {
+        photo.delete();
+        png.delete();
+    }
+
+    @Test
+    public void thumbnailIsOrdersOfMagnitudeSmaller() {
+        Bitmap thumbnail = BitmapDecoder.decodeFile(photo.getPath(), THUMB_PX, THUMB_PX);
+
+        assertNotNull(thumbnail);
+        assertEquals(Bitmap.Config.RGB_565, thumbnail.getConfig());
+        // Covers the view (centerCrop) without being much larger
+        assertTrue(thumbnail.getWidth() >= THUMB_PX && thumbnail.getHeight() >= THUMB_PX);
+        assertTrue(Math.min(thumbnail.getWidth(), thumbnail.getHeight()) <= THUMB_PX + 1);
+
+        long bytes = thumbnail.getAllocationByteCount();
+        assertTrue(bytes + " bytes", FULL_SIZE_BYTES / bytes >= 100);
+        assertEquals(BitmapDecoder.estimateBytes(PHOTO_WIDTH, PHOTO_HEIGHT, THUMB_PX, THUMB_PX, true),
+                bytes, bytes * 0.02);
+    }
+
+    @Test
+    public void heapGrowsByThumbnailsNotPhotos() {
+        long before = heapUsed();
+        List<Bitmap> thumbnails = new ArrayList<>();
+        for (int i = 0; i < THUMBNAILS; i++) {
+            thumbnails.add(BitmapDecoder.decodeFile(photo.getPath(), THUMB_PX, THUMB_PX));
+        }
+        long grown = heapUsed() - before;
+
+        // One full-size decode alone would be 48MB
+        assertEquals(THUMBNAILS, thumbnails.size());
+        assertTrue(grown + " bytes for " + THUMBNAILS + " thumbnails", grown < FULL_SIZE_BYTES / 4);
+    }
+
+    @Test
+    public void pngKeepsItsAlphaChannel() {
+        Bitmap bitmap = BitmapDecoder.decodeFile(png.getPath(), 100, 100);
+
+        assertNotNull(bitmap);
+        assertEquals(Bitmap.Config.ARGB_8888, bitmap.getConfig());
+        assertTrue(bitmap.getWidth() >= 100 && bitmap.getHeight() >= 100);
+    }
+
+    @Test
+    public void noTargetDecodesFullSize() {
+        Bitmap bitmap = BitmapDecoder.decodeFile(png.getPath(), 0, 0);
+
+        assertEquals(400, bitmap.getWidth());
+        assertEquals(300, bitmap.getHeight());
+    }
+
+    @Test
+    public void streamIsFittedInsideTheSquare() throws IOException {
+        Bitmap bitmap = BitmapDecoder.decodeStreamToFit(() -> new FileInputStream(photo), 1024);
+
+        assertNotNull(bitmap);
+        assertEquals(Bitmap.Config.ARGB_8888, bitmap.getConfig());
+        assertTrue(bitmap.getWidth() <= 1024 + 1 && bitmap.getWidth() >= 1000);
+        assertTrue(bitmap.getHeight() <= 768 + 1);
+    }
+
+    @Test
+    public void missingFileGivesNull() {
+        assertNull(BitmapDecoder.decodeFile(new File(photo.getParentFile(), "missing.jpg").getPath(),
+                THUMB_PX, THUMB_PX));
+    }
+
+    //Java and native heap in use; bitmap pixels live in one or the other depending on the API level
+    private static long heapUsed() {
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+    }
+
+    //Write a gradient with some detail, so the JPEG is not trivially small
+    private static void write(int width, int height, Bitmap.Config config, Bitmap.CompressFormat format,
+                              File file) throws IOException {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, config);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.drawColor(Color.rgb(200, 120, 40));
+        Paint paint = new Paint();
+        for (int x = 0; x < width; x += width / 20) {
+            paint.setColor(Color.rgb(x * 255 / width, 80, 255 - x * 255 / width));
+            canvas.drawRect(x, 0, x + width / 40f, height, paint);
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            bitmap.compress(format, 90, out);
+        }
+        bitmap.recycle();
+    }
+}
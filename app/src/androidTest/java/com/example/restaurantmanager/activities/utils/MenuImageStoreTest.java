@@ -0,0 +1,150 @@
+package com.example.restaurantmanager.activities.utils;
+
+import android.content.Context;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.database.DatabaseHelper;
+import com.example.restaurantmanager.models.MenuItem;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ MenuImageStoreTest - Which files garbage collection deletes and which it keeps
+ Runs a store over scratch directories in the cache dir and a scratch database,
+ with files aged by setting their modification time.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MenuImageStoreTest {
+
+    private static final String DATABASE = "menu_image_store_test.db";
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+    // Well past the one hour grace period
+    private static final long OLD_MS = 2 * HOUR_MS;
+
+    private Context context;
+    private DatabaseHelper databaseHelper;
+    private File root;
+    private File images;
+    private File legacy;
+    private File captures;
+    private MenuImageStore store;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE);
+        databaseHelper = new DatabaseHelper(context, DATABASE);
+        root = new File(context.getCacheDir(), "menu_image_store_test");
+        deleteRecursively(root);
+        images = new File(root, "menu_images");
+        legacy = new File(root, "files");
+        captures = new File(root, "captures");
+        assertTrue(images.mkdirs() && legacy.mkdirs() && captures.mkdirs());
+        store = new MenuImageStore(databaseHelper, images, legacy, captures);
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+        context.deleteDatabase(DATABASE);
+        deleteRecursively(root);
+    }
+
+    @Test
+    public void oldUnreferencedImagesAreDeleted() throws IOException {
+        File stored = create(images, "0123456789abcdef0123456789abcdef.webp", OLD_MS);
+        File legacyPhoto = create(legacy, "menu_1700000000000.jpg", OLD_MS);
+        File capture = create(captures, "menu_item_1700000000000.jpg", OLD_MS);
+
+        assertEquals(3, store.collectGarbageNow());
+        assertFalse(stored.exists());
+        assertFalse(legacyPhoto.exists());
+        assertFalse(capture.exists());
+    }
+
+    @Test
+    public void referencedImagesAreKept() throws IOException {
+        File original = create(images, "aaaa.webp", OLD_MS);
+        File thumbnail = create(images, "aaaa_thumb.webp", OLD_MS);
+        File detail = create(images, "aaaa_detail.webp", OLD_MS);
+        File legacyPhoto = create(legacy, "menu_1700000000000.jpg", OLD_MS);
+
+        MenuItem item = new MenuItem("Soup", 4.5, original.getAbsolutePath(), "Of the day", "Starters");
+        item.setThumbnailUrl(thumbnail.getAbsolutePath());
+        item.setDetailUrl(detail.getAbsolutePath());
+        databaseHelper.addMenuItem(item);
+        databaseHelper.addMenuItem(new MenuItem("Bread", 2, legacyPhoto.getAbsolutePath(), "", "Starters"));
+
+        assertEquals(0, store.collectGarbageNow());
+        assertTrue(original.exists() && thumbnail.exists() && detail.exists() && legacyPhoto.exists());
+    }
+
+    @Test
+    public void imagesInsideTheGracePeriodAreKept() throws IOException {
+        // Stored a moment ago, the item using it not saved yet
+        File fresh = create(images, "bbbb.webp", 0);
+        File almostOld = create(images, "cccc.webp", HOUR_MS - 5 * 60 * 1000L);
+
+        assertEquals(0, store.collectGarbageNow());
+        assertTrue(fresh.exists());
+        assertTrue(almostOld.exists());
+    }
+
+    @Test
+    public void findRestartsTheGracePeriod() throws IOException {
+        String hash = "dddd";
+        File original = create(images, hash + ".webp", OLD_MS);
+        File thumbnail = create(images, hash + "_thumb.webp", OLD_MS);
+        File detail = create(images, hash + "_detail.webp", OLD_MS);
+
+        // Picked again: the stored copies are reused for an item about to be saved
+        assertNotNull(store.find(hash));
+
+        assertEquals(0, store.collectGarbageNow());
+        assertTrue(original.exists() && thumbnail.exists() && detail.exists());
+    }
+
+    @Test
+    public void unrelatedFilesAreNeverTouched() throws IOException {
+        File metrics = create(legacy, "api_metrics.json", OLD_MS);
+        File preferences = create(legacy, "settings.xml", OLD_MS);
+        File otherCapture = create(captures, "IMG_0001.jpg", OLD_MS);
+        File nested = new File(legacy, "menu_images_backup");
+        assertTrue(nested.mkdir());
+        nested.setLastModified(System.currentTimeMillis() - OLD_MS);
+
+        assertEquals(0, store.collectGarbageNow());
+        assertTrue(metrics.exists());
+        assertTrue(preferences.exists());
+        assertTrue(otherCapture.exists());
+        assertTrue(nested.isDirectory());
+    }
+
+    //Write a small file and backdate it by ageMs
+    private static File create(File dir, String name, long ageMs) throws IOException {
+        File file = new File(dir, name);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{1, 2, 3});
+        }
+        assertTrue(file.setLastModified(System.currentTimeMillis() - ageMs));
+        return file;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
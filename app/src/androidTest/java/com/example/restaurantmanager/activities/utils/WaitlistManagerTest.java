@@ -0,0 +1,125 @@
+package com.example.restaurantmanager.activities.utils;
+
+import android.content.Context;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.database.DatabaseHelper;
+import com.example.restaurantmanager.models.Reservation;
+import com.example.restaurantmanager.models.WaitlistEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ WaitlistManagerTest - Promotion from the waitlist under concurrent cancellations
+ Uses a slot far in the future so real bookings are never touched, and removes
+ everything it created afterwards.
+ */
+@RunWith(AndroidJUnit4.class)
+public class WaitlistManagerTest {
+
+    private static final String TIME = "19:00";
+    private static final int PARTY = 4;
+    private static final int PARTIES = DatabaseHelper.MAX_GUESTS_PER_SLOT / PARTY;
+
+    private DatabaseHelper databaseHelper;
+    private WaitlistManager waitlistManager;
+    private String date;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        databaseHelper = DatabaseHelper.getInstance(context);
+        waitlistManager = WaitlistManager.getInstance(context);
+
+        Random random = new Random();
+        date = String.format("2099-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28));
+        clearSlot();
+    }
+
+    @After
+    public void tearDown() {
+        clearSlot();
+    }
+
+    @Test
+    public void concurrentCancellationsPromoteEveryoneWithoutOverbooking() throws Exception {
+        // Fill the slot, then queue the same number of parties behind it
+        List<Reservation> booked = new ArrayList<>();
+        for (int i = 0; i < PARTIES; i++) {
+            Reservation reservation = new Reservation("waitlist_test_booked" + i, date, TIME, PARTY, "confirmed");
+            long id = databaseHelper.reserveIfAvailable(reservation, DatabaseHelper.MAX_GUESTS_PER_SLOT);
+            assertTrue(id > 0);
+            reservation.setId((int) id);
+            booked.add(reservation);
+        }
+        for (int i = 0; i < PARTIES; i++) {
+            waitlistManager.joinWaitlist(new WaitlistEntry("waitlist_test_waiting" + i, date, TIME, PARTY, 0));
+        }
+        assertEquals(PARTIES, databaseHelper.getWaitlistForSlot(date, TIME).size());
+
+        // Cancel every booking at once from several threads
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (Reservation reservation : booked) {
+            threads.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                databaseHelper.deleteReservation(reservation.getId());
+                waitlistManager.onReservationCancelled(reservation);
+            });
+        }
+        start.countDown();
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Every waiting party fits into the freed seats, and never more than that
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!databaseHelper.getWaitlistForSlot(date, TIME).isEmpty()
+                && System.currentTimeMillis() < deadline) {
+            assertTrue(databaseHelper.getBookedGuestCount(date, TIME) <= DatabaseHelper.MAX_GUESTS_PER_SLOT);
+            Thread.sleep(20);
+        }
+        assertTrue(databaseHelper.getWaitlistForSlot(date, TIME).isEmpty());
+        assertEquals(DatabaseHelper.MAX_GUESTS_PER_SLOT, databaseHelper.getBookedGuestCount(date, TIME));
+    }
+
+    @Test
+    public void fullSlotKeepsItsWaitlist() throws Exception {
+        for (int i = 0; i < PARTIES; i++) {
+            databaseHelper.reserveIfAvailable(
+                    new Reservation("waitlist_test_booked" + i, date, TIME, PARTY, "confirmed"),
+                    DatabaseHelper.MAX_GUESTS_PER_SLOT);
+        }
+        waitlistManager.joinWaitlist(new WaitlistEntry("waitlist_test_waiting", date, TIME, PARTY, 0));
+        waitlistManager.onSlotFreed(date, TIME);
+
+        Thread.sleep(500);
+        assertEquals(1, databaseHelper.getWaitlistForSlot(date, TIME).size());
+        assertEquals(DatabaseHelper.MAX_GUESTS_PER_SLOT, databaseHelper.getBookedGuestCount(date, TIME));
+    }
+
+    private void clearSlot() {
+        for (Reservation reservation : databaseHelper.getAllReservations()) {
+            if (reservation.getDate().equals(date) && reservation.getTime().equals(TIME)) {
+                databaseHelper.deleteReservation(reservation.getId());
+            }
+        }
+        for (WaitlistEntry entry : databaseHelper.getWaitlistForSlot(date, TIME)) {
+            databaseHelper.removeFromWaitlist(entry.getId());
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.restaurantmanager.api;
+
+import android.os.Build;
+import android.os.Debug;
+import android.util.Log;
+import com.example.restaurantmanager.models.User;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ ApiLoadDriver - Fires many concurrent ApiService calls and reports throughput and latency
+ Latency is measured per call from the ApiService method call until its callback
+ runs on the main thread, so it includes queueing, network, parsing and delivery.
+ Typical use: start a StandInApiServer, seed it with seedUsers(), create an
+ ApiService with ApiService.create(context, server.getConfig(...), name), so its
+ writes and logins stay out of the app's outbox and credentials, call run()
+ from a background thread, and shut the service down afterwards.
+ Compare SIGNUP with SIGNUP_CHECK_FIRST (with setLatency on the server) to see
+ what the single round trip signup saves.
+ Threading: run() blocks until every call has completed - never call it on the
+ main thread, the callbacks need the main looper to be free.
+ */
+public class ApiLoadDriver {
+
+    private static final String TAG = "ApiLoadDriver";
+
+    // Username prefix of seeded users
+    private static final String USER_PREFIX = "load_user_";
+
+    public enum Workload {
+        READ_USER,      // Profile reads spread over all seeded users
+        LOGIN,          // Logins, always revalidated with the server
+        CHECK_USER,     // Existence checks
+        UPDATE_USER,    // Profile writes through the outbox
+        SIGNUP,         // New accounts with signUp() - one round trip
+        SIGNUP_CHECK_FIRST, // New accounts the old way: checkUserExists, then createUser
+        MIXED           // 70% reads, 15% logins, 10% checks, 5% writes
+    }
+
+    private final ApiService apiService;
+    private final int userCount;
+
+    // Signups use fresh usernames so none of them is refused as a duplicate
+    private final AtomicInteger nextSignup = new AtomicInteger();
+
+    /**
+     @param apiService Service to drive, usually pointed at a StandInApiServer
+     @param userCount Number of distinct seeded users the calls are spread over
+     */
+    public ApiLoadDriver(ApiService apiService, int userCount) {
+        this.apiService = apiService;
+        this.userCount = userCount;
+    }
+
+    //Add the users the driver calls with to a stand-in server
+    public static void seedUsers(StandInApiServer server, String studentId, int userCount) {
+        for (int i = 0; i < userCount; i++) {
+            server.seedUser(studentId, userFor(i));
+        }
+    }
+
+    /**
+     Run a load test
+     @param workload Kind of calls to make
+     @param totalCalls Number of calls
+     @param concurrency Maximum calls waiting for their callback at the same time
+     @param timeoutSeconds Give up waiting after this long
+     */
+    public Result run(Workload workload, int totalCalls, int concurrency, long timeoutSeconds)
+            throws InterruptedException {
+        final long[] latenciesNanos = new long[totalCalls];
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(totalCalls);
+        final Semaphore permits = new Semaphore(concurrency);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < totalCalls; i++) {
+            permits.acquire();
+            final int index = i;
+            final long callStart = System.nanoTime();
+            call(workload, i, new Completion() {
+                @Override
+                public void onComplete(boolean success) {
+                    latenciesNanos[index] = System.nanoTime() - callStart;
+                    if (!success) {
+                        errors.incrementAndGet();
+                    }
+                    permits.release();
+                    done.countDown();
+                }
+            });
+        }
+
+        boolean finished = done.await(timeoutSeconds, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        Result result = new Result(workload.name(), totalCalls, concurrency,
+                (int) (totalCalls - done.getCount()), errors.get(), elapsed, latenciesNanos, finished,
+                allocatedDelta(allocatedBefore));
+        Log.i(TAG, result.toString());
+        return result;
+    }
+
+    /**
+     Run a load test while background reads saturate the host
+     Compare with run() to see how much the background traffic delays the workload,
+     e.g. LOGIN p99 should stay close to its unloaded value
+     @param backgroundCalls Number of background reads queued before the run starts
+     */
+    public Result runUnderBackgroundLoad(Workload workload, int totalCalls, int concurrency,
+                                         int backgroundCalls, long timeoutSeconds)
+            throws InterruptedException {
+        // Usernames past the seeded range are never cached, so every read hits the wire
+        for (int i = 0; i < backgroundCalls; i++) {
+            final String username = USER_PREFIX + (userCount + i);
+            apiService.send(new ApiRequest("read_user", ApiRequest.GET, apiService.readUserUrl(username),
+                            null, new RequestTimings("read_user"))
+                            .setPriority(ApiRequest.Priority.BACKGROUND),
+                    new ApiRequest.Listener() {
+                        @Override
+                        public void onResponse(ApiResponse response) {
+                            // Only there to keep the host busy
+                        }
+
+                        @Override
+                        public void onError(ApiError error) {
+                            Log.w(TAG, "Background read failed for " + username + ": " + error.getMessage());
+                        }
+                    });
+        }
+
+        return run(workload, totalCalls, concurrency, timeoutSeconds);
+    }
+
+    /**
+     Bytes allocated by the whole process so far, -1 where ART does not report it (API < 23)
+     Other threads count too, so compare runs made under the same conditions
+     */
+    static long allocatedBytes() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return -1;
+        }
+        String value = Debug.getRuntimeStat("art.gc.bytes-allocated");
+        try {
+            return value != null ? Long.parseLong(value) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static long allocatedDelta(long before) {
+        long after = allocatedBytes();
+        return before < 0 || after < 0 ? -1 : after - before;
+    }
+
+    private interface Completion {
+        void onComplete(boolean success);
+    }
+
+    private void call(Workload workload, int index, Completion completion) {
+        Workload kind = workload == Workload.MIXED ? pickMixed(index) : workload;
+        // Spread calls over users so the cache only helps as much as in real use
+        final User user = userFor(index % userCount);
+
+        ApiService.UserCallback userCallback = new ApiService.UserCallback() {
+            @Override
+            public void onSuccess(User result) {
+                completion.onComplete(true);
+            }
+
+            @Override
+            public void onError(String error) {
+                completion.onComplete(false);
+            }
+        };
+        ApiService.ApiCallback apiCallback = new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(String response) {
+                completion.onComplete(true);
+            }
+
+            @Override
+            public void onError(String error) {
+                completion.onComplete(false);
+            }
+        };
+
+        switch (kind) {
+            case LOGIN:
+                apiService.loginUser(user.getUsername(), user.getPassword(), userCallback);
+                break;
+            case CHECK_USER:
+                apiService.checkUserExists(user.getUsername(), apiCallback);
+                break;
+            case UPDATE_USER:
+                user.setContact(String.valueOf(index));
+                apiService.updateUser(user.getUsername(), user, apiCallback);
+                break;
+            case SIGNUP:
+                apiService.signUp(newSignupUser(), new ApiService.SignupCallback() {
+                    @Override
+                    public void onResult(ApiService.SignupResult result, String response) {
+                        completion.onComplete(result == ApiService.SignupResult.CREATED);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        completion.onComplete(false);
+                    }
+                });
+                break;
+            case SIGNUP_CHECK_FIRST:
+                final User signupUser = newSignupUser();
+                apiService.checkUserExists(signupUser.getUsername(), new ApiService.ApiCallback() {
+                    @Override
+                    public void onSuccess(String response) {
+                        completion.onComplete(false); // fresh names never exist
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        apiService.createUser(signupUser, apiCallback);
+                    }
+                });
+                break;
+            default:
+                apiService.readUser(user.getUsername(), userCallback);
+                break;
+        }
+    }
+
+    //Deterministic mix so two runs with the same arguments make the same calls
+    private static Workload pickMixed(int index) {
+        int slot = index % 20;
+        if (slot < 14) {
+            return Workload.READ_USER;
+        } else if (slot < 17) {
+            return Workload.LOGIN;
+        } else if (slot < 19) {
+            return Workload.CHECK_USER;
+        }
+        return Workload.UPDATE_USER;
+    }
+
+    private User newSignupUser() {
+        int i = nextSignup.getAndIncrement();
+        return new User("signup_" + i, "password" + i, "Sign", "Up " + i,
+                "signup" + i + "@example.com", "07100" + i, "guest");
+    }
+
+    //Username of the i-th seeded user
+    static String usernameFor(int i) {
+        return USER_PREFIX + i;
+    }
+
+    private static User userFor(int i) {
+        return new User(usernameFor(i), "password" + i, "Load", "User " + i,
+                "load" + i + "@example.com", "07000" + i, "guest");
+    }
+
+    /**
+     Result - Outcome of one load test run
+     */
+    public static class Result {
+        private final String label;
+        private final int calls;
+        private final int concurrency;
+        private final int completed;
+        private final int errors;
+        private final long elapsedNanos;
+        private final long[] sortedLatenciesNanos;
+        private final boolean finished;
+        private final long allocatedBytes;
+
+        Result(String label, int calls, int concurrency, int completed, int errors,
+               long elapsedNanos, long[] latenciesNanos, boolean finished, long allocatedBytes) {
+            this.label = label;
+            this.calls = calls;
+            this.concurrency = concurrency;
+            this.completed = completed;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatenciesNanos = Arrays.copyOf(latenciesNanos, latenciesNanos.length);
+            Arrays.sort(this.sortedLatenciesNanos);
+            this.finished = finished;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getLabel() { return label; }
+        public int getCompleted() { return completed; }
+        public int getErrors() { return errors; }
+        public boolean isFinished() { return finished; }
+
+        //Bytes allocated per completed call, -1 if unknown
+        public long getAllocatedBytesPerCall() {
+            return allocatedBytes < 0 || completed == 0 ? -1 : allocatedBytes / completed;
+        }
+
+        //Completed calls per second
+        public double getThroughput() {
+            return completed / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        //Latency percentile in ms, e.g. getPercentileMs(99)
+        public double getPercentileMs(double percentile) {
+            if (sortedLatenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatenciesNanos.length) - 1;
+            index = Math.max(0, Math.min(sortedLatenciesNanos.length - 1, index));
+            return sortedLatenciesNanos[index] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.UK,
+                    "%s calls=%d concurrency=%d completed=%d errors=%d %.0f calls/s "
+                            + "p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms alloc=%dB/call%s",
+                    label, calls, concurrency, completed, errors, getThroughput(),
+                    getPercentileMs(50), getPercentileMs(90), getPercentileMs(99), getPercentileMs(100),
+                    getAllocatedBytesPerCall(), finished ? "" : " (timed out)");
+        }
+    }
+}
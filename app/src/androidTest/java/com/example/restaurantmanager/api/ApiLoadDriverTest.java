@@ -0,0 +1,86 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.database.DatabaseHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ ApiLoadDriverTest - Load runs against a StandInApiServer leave the app's state alone
+ Writes must land in the created service's own outbox and logins in its own
+ credential store, never in the app's api_outbox table or CredentialCache prefs.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ApiLoadDriverTest {
+
+    private static final String STUDENT_ID = "load_driver_test";
+    private static final String STORAGE = "load_driver_test";
+    private static final int USERS = 20;
+    private static final int CALLS = 100;
+
+    private Context context;
+    private StandInApiServer server;
+    private ApiService apiService;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+        server = new StandInApiServer();
+        ApiLoadDriver.seedUsers(server, STUDENT_ID, USERS);
+        apiService = ApiService.create(context, server.getConfig(STUDENT_ID, 4), STORAGE);
+    }
+
+    @After
+    public void tearDown() {
+        apiService.shutdown();
+        server.close();
+        context.getSharedPreferences("CredentialCache_" + STORAGE, Context.MODE_PRIVATE)
+                .edit().clear().commit();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+    }
+
+    @Test
+    public void writesGoToTheCreatedServicesOutbox() throws Exception {
+        long appOutboxBefore = DatabaseHelper.getInstance(context).getOutboxCount();
+
+        ApiLoadDriver.Result result = new ApiLoadDriver(apiService, USERS)
+                .run(ApiLoadDriver.Workload.UPDATE_USER, CALLS, 8, 60);
+        assertTrue(result.isFinished());
+        assertEquals(0, result.getErrors());
+
+        // Every write is replayed to the stand-in server from the separate outbox
+        DatabaseHelper ownOutbox = new DatabaseHelper(context, ApiService.outboxDatabaseName(STORAGE));
+        long deadline = SystemClock.elapsedRealtime() + 30_000;
+        while (ownOutbox.getOutboxCount() > 0 && SystemClock.elapsedRealtime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, ownOutbox.getOutboxCount());
+        ownOutbox.close();
+        assertEquals(CALLS, server.getRequestCount("update_user"));
+
+        assertEquals(appOutboxBefore, DatabaseHelper.getInstance(context).getOutboxCount());
+    }
+
+    @Test
+    public void loginsDoNotTouchTheAppsCredentials() throws Exception {
+        ApiLoadDriver.Result result = new ApiLoadDriver(apiService, USERS)
+                .run(ApiLoadDriver.Workload.LOGIN, CALLS, 8, 60);
+        assertTrue(result.isFinished());
+        assertEquals(0, result.getErrors());
+
+        SharedPreferences appCredentials =
+                context.getSharedPreferences("CredentialCache", Context.MODE_PRIVATE);
+        for (String key : appCredentials.getAll().keySet()) {
+            assertFalse(key, key.startsWith("load_user_"));
+        }
+    }
+}
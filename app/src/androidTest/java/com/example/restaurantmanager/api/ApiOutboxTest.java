@@ -0,0 +1,219 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.database.DatabaseHelper;
+import com.example.restaurantmanager.models.OutboxEntry;
+import com.example.restaurantmanager.models.User;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ ApiOutboxTest - Queued writes against a StandInApiServer that drops connections
+ Every write must arrive, in order per user, however often its connection is
+ dropped. A write that cannot be stored must be reported, never acknowledged, and
+ one the server keeps failing is dropped after a bounded number of attempts.
+ Passwords never reach the outbox table. Runs against scratch database files.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ApiOutboxTest {
+
+    private static final String TAG = "ApiOutboxTest";
+
+    private static final String DATABASE = "api_outbox_test.db";
+    private static final String STORAGE = "outbox_test";
+    private static final String STUDENT_ID = "outbox_test";
+    private static final int USERS = 5;
+    private static final int WRITES = 40;
+
+    private Context context;
+    private DatabaseHelper databaseHelper;
+    private StandInApiServer server;
+    private RequestDispatcher dispatcher;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE);
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+        databaseHelper = new DatabaseHelper(context, DATABASE);
+        server = new StandInApiServer();
+        dispatcher = new RequestDispatcher(context, 4, HttpTransport.Type.URL_CONNECTION);
+        for (int i = 0; i < USERS; i++) {
+            server.seedUser(STUDENT_ID, user(i, "seed"));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+        server.close();
+        databaseHelper.close();
+        context.deleteDatabase(DATABASE);
+        context.getSharedPreferences("CredentialCache_" + STORAGE, Context.MODE_PRIVATE)
+                .edit().clear().commit();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+    }
+
+    @Test
+    public void everyWriteArrivesInOrderDespiteDroppedConnections() throws InterruptedException {
+        server.setDropRate(0.2);
+        CountDownLatch delivered = new CountDownLatch(WRITES);
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger notStored = new AtomicInteger();
+        ApiOutbox outbox = new ApiOutbox(context, databaseHelper, dispatcher, OutboxEntry::getBody,
+                new ApiOutbox.Listener() {
+            @Override
+            public void onDelivered(OutboxEntry entry, ApiResponse response) {
+                delivered.countDown();
+            }
+
+            @Override
+            public void onRejected(OutboxEntry entry, ApiError error) {
+                rejected.incrementAndGet();
+            }
+        });
+        outbox.start();
+
+        long start = SystemClock.elapsedRealtime();
+        for (int i = 0; i < WRITES; i++) {
+            User update = user(i % USERS, "v" + i);
+            outbox.enqueue(new OutboxEntry("update_user", ApiRequest.PUT,
+                            server.getConfig(STUDENT_ID, 4).endpointUrl("update_user", update.getUsername()),
+                            UserTypeAdapter.INSTANCE.toJson(update)),
+                    () -> { }, notStored::incrementAndGet);
+        }
+
+        assertTrue(delivered.await(180, TimeUnit.SECONDS));
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        Log.i(TAG, WRITES + " queued writes delivered in " + elapsed + " ms with "
+                + server.getRequestCount("update_user") + " update_user requests");
+
+        assertEquals(0, notStored.get());
+        assertEquals(0, rejected.get());
+        assertEquals(0, outbox.getPendingCount());
+        assertEquals(0, databaseHelper.getOutboxCount());
+
+        // The last write for each user is the one the server kept
+        for (int i = 0; i < USERS; i++) {
+            int last = WRITES - USERS + i;
+            assertEquals("v" + last, server.getUser(STUDENT_ID, "outbox_user_" + i).getFirstname());
+        }
+    }
+
+    @Test
+    public void failedInsertIsReportedNotAcknowledged() throws InterruptedException {
+        DatabaseHelper failing = new DatabaseHelper(context, DATABASE) {
+            @Override
+            public long addOutboxEntry(OutboxEntry entry) {
+                return -1;
+            }
+        };
+        ApiOutbox outbox = new ApiOutbox(context, failing, dispatcher, OutboxEntry::getBody,
+                new ApiOutbox.Listener() {
+            @Override
+            public void onDelivered(OutboxEntry entry, ApiResponse response) {
+            }
+
+            @Override
+            public void onRejected(OutboxEntry entry, ApiError error) {
+            }
+        });
+
+        CountDownLatch failed = new CountDownLatch(1);
+        AtomicInteger persisted = new AtomicInteger();
+        outbox.enqueue(new OutboxEntry("update_user", ApiRequest.PUT,
+                        server.getConfig(STUDENT_ID, 4).endpointUrl("update_user", "outbox_user_0"),
+                        UserTypeAdapter.INSTANCE.toJson(user(0, "lost"))),
+                persisted::incrementAndGet, failed::countDown);
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, persisted.get());
+        assertEquals(0, outbox.getPendingCount());
+        failing.close();
+    }
+
+    @Test
+    public void failingEntryIsDroppedAfterMaxAttempts() throws InterruptedException {
+        server.setErrorRate(1.0);
+        CountDownLatch rejected = new CountDownLatch(1);
+        // 10ms base backoff: all attempts fit in a few seconds
+        ApiOutbox outbox = new ApiOutbox(context, databaseHelper, dispatcher, OutboxEntry::getBody,
+                new ApiOutbox.Listener() {
+                    @Override
+                    public void onDelivered(OutboxEntry entry, ApiResponse response) {
+                    }
+
+                    @Override
+                    public void onRejected(OutboxEntry entry, ApiError error) {
+                        rejected.countDown();
+                    }
+                }, 10);
+        outbox.start();
+
+        outbox.enqueue(new OutboxEntry("update_user", ApiRequest.PUT,
+                        server.getConfig(STUDENT_ID, 4).endpointUrl("update_user", "outbox_user_0"),
+                        UserTypeAdapter.INSTANCE.toJson(user(0, "never"))),
+                () -> { }, () -> { });
+
+        assertTrue(rejected.await(60, TimeUnit.SECONDS));
+        assertEquals(0, outbox.getPendingCount());
+        assertEquals(0, databaseHelper.getOutboxCount());
+        // The circuit breaker may have failed some attempts without sending them
+        assertTrue(server.getRequestCount("update_user") <= 10);
+        assertEquals("seed", server.getUser(STUDENT_ID, "outbox_user_0").getFirstname());
+    }
+
+    @Test
+    public void updatesAreStoredWithoutThePassword() throws InterruptedException {
+        ApiService service = ApiService.create(context, server.getConfig(STUDENT_ID, 4), STORAGE);
+        // Keep the write in the outbox long enough to look at it
+        server.setErrorRate(1.0);
+
+        CountDownLatch acknowledged = new CountDownLatch(1);
+        service.updateUser("outbox_user_0", user(0, "changed"), new ApiService.ApiCallback() {
+            @Override
+            public void onSuccess(String response) {
+                acknowledged.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+            }
+        });
+        assertTrue(acknowledged.await(10, TimeUnit.SECONDS));
+
+        DatabaseHelper ownOutbox = new DatabaseHelper(context, ApiService.outboxDatabaseName(STORAGE));
+        List<OutboxEntry> rows = ownOutbox.getOutboxBatch(20);
+        assertEquals(1, rows.size());
+        assertFalse(rows.get(0).getBody().contains("password"));
+        assertFalse(rows.get(0).getBody().contains("pw0"));
+
+        // Once the server is back the update is sent with the password it already had
+        server.setErrorRate(0);
+        long deadline = SystemClock.elapsedRealtime() + 60_000;
+        while (ownOutbox.getOutboxCount() > 0 && SystemClock.elapsedRealtime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, ownOutbox.getOutboxCount());
+        ownOutbox.close();
+        assertEquals("changed", server.getUser(STUDENT_ID, "outbox_user_0").getFirstname());
+        assertEquals("pw0", server.getUser(STUDENT_ID, "outbox_user_0").getPassword());
+        service.shutdown();
+    }
+
+    private static User user(int i, String firstname) {
+        return new User("outbox_user_" + i, "pw" + i, firstname, "Test", null, null, "guest");
+    }
+}
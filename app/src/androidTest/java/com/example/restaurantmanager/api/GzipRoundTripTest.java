@@ -0,0 +1,171 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.models.User;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ GzipRoundTripTest - Compressed and uncompressed answers from a StandInApiServer
+ Reads a full batch of users with the server's gzip on and off, checks that the
+ users arrive intact either way, and compares the bytes.in.wire / bytes.in.decoded
+ counters. Also checks the request side: every request offers gzip, and the
+ read_users body is sent gzipped as its EndpointPolicy asks.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GzipRoundTripTest {
+
+    private static final String TAG = "GzipRoundTripTest";
+    private static final String STUDENT_ID = "gzip_test";
+    private static final String STORAGE = "gzip_test";
+    // A full batch, sent without waiting for the batch window
+    private static final int USERS = 50;
+
+    private Context context;
+    private StandInApiServer server;
+    private ApiService apiService;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+        deleteCache();
+        server = new StandInApiServer();
+        apiService = ApiService.create(context, server.getConfig(STUDENT_ID, 4), STORAGE);
+    }
+
+    @After
+    public void tearDown() {
+        apiService.shutdown();
+        server.close();
+        context.getSharedPreferences("CredentialCache_" + STORAGE, Context.MODE_PRIVATE)
+                .edit().clear().commit();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+        deleteCache();
+    }
+
+    @Test
+    public void gzippedAnswerIsDecodedAndSavesBytes() throws InterruptedException {
+        server.setGzipEnabled(true);
+        long[] bytes = readBatch("zipped_");
+
+        Log.i(TAG, "gzip on: " + bytes[0] + " bytes on the wire, " + bytes[1] + " decoded");
+        assertEquals(1, server.getRequestCount("read_users"));
+        assertEquals(1, server.getAcceptGzipCount("read_users"));
+        assertEquals(1, server.getGzipBodyCount("read_users"));
+        // Rows of near-identical JSON compress well
+        assertTrue(bytes[0] + " vs " + bytes[1], bytes[0] * 3 < bytes[1]);
+    }
+
+    @Test
+    public void plainAnswerIsCountedOneToOne() throws InterruptedException {
+        server.setGzipEnabled(false);
+        long[] bytes = readBatch("plain_");
+
+        Log.i(TAG, "gzip off: " + bytes[0] + " bytes on the wire, " + bytes[1] + " decoded");
+        assertEquals(1, server.getRequestCount("read_users"));
+        // The client still offers gzip and still compresses its own body
+        assertEquals(1, server.getAcceptGzipCount("read_users"));
+        assertEquals(1, server.getGzipBodyCount("read_users"));
+        assertEquals(bytes[1], bytes[0]);
+    }
+
+    @Test
+    public void singleReadsOfferGzip() throws InterruptedException {
+        server.seedUser(STUDENT_ID, user("single_0"));
+        CountDownLatch done = new CountDownLatch(1);
+        apiService.readUser("single_0", new ApiService.UserCallback() {
+            @Override
+            public void onSuccess(User user) {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, server.getAcceptGzipCount("read_user"));
+        // Bodyless GET, nothing to compress
+        assertEquals(0, server.getGzipBodyCount("read_user"));
+    }
+
+    /**
+     Seed USERS users and read them all in one batch
+     @return {bytes.in.wire, bytes.in.decoded} added by the batch
+     */
+    private long[] readBatch(String prefix) throws InterruptedException {
+        for (int i = 0; i < USERS; i++) {
+            server.seedUser(STUDENT_ID, user(prefix + i));
+        }
+        ApiMetrics metrics = ApiMetrics.getInstance();
+        long wireBefore = metrics.get("bytes.in.wire");
+        long decodedBefore = metrics.get("bytes.in.decoded");
+
+        CountDownLatch done = new CountDownLatch(USERS);
+        Map<String, User> found = new ConcurrentHashMap<>();
+        AtomicInteger errors = new AtomicInteger();
+        for (int i = 0; i < USERS; i++) {
+            apiService.readUserBatched(prefix + i, new ApiService.UserCallback() {
+                @Override
+                public void onSuccess(User user) {
+                    found.put(user.getUsername(), user);
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String error) {
+                    errors.incrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(0, errors.get());
+        assertEquals(USERS, found.size());
+        for (int i = 0; i < USERS; i++) {
+            User expected = user(prefix + i);
+            User actual = found.get(prefix + i);
+            assertEquals(expected.getFirstname(), actual.getFirstname());
+            assertEquals(expected.getLastname(), actual.getLastname());
+            assertEquals(expected.getEmail(), actual.getEmail());
+            assertEquals(expected.getContact(), actual.getContact());
+            assertEquals(expected.getUsertype(), actual.getUsertype());
+        }
+        return new long[]{metrics.get("bytes.in.wire") - wireBefore,
+                metrics.get("bytes.in.decoded") - decodedBefore};
+    }
+
+    //Users cached by an earlier run would be answered without a batch
+    private void deleteCache() {
+        File directory = new File(context.getCacheDir(), ApiService.cacheDirectoryName(STORAGE));
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static User user(String username) {
+        return new User(username, "password", "Guest", "Number " + username,
+                username + "@example.com", "07700900123", "guest");
+    }
+}
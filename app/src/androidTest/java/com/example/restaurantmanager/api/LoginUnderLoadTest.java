@@ -0,0 +1,80 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ LoginUnderLoadTest - Login latency while background reads saturate the host
+ Runs LOGIN once on an idle host and once behind a queue of background reads, and
+ checks that the p99 only grows by a few round trips. With FIFO scheduling every
+ login would wait for the whole background queue (BACKGROUND_CALLS / 4 round trips).
+ Each login is for a different user and saved credentials are cleared between the
+ runs, so every login goes to the server.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LoginUnderLoadTest {
+
+    private static final String TAG = "LoginUnderLoadTest";
+    private static final String STUDENT_ID = "login_load_test";
+    private static final String STORAGE = "login_load_test";
+    private static final long LATENCY_MS = 100;
+    private static final int CALLS = 40;
+    private static final int CONCURRENCY = 4;
+    private static final int BACKGROUND_CALLS = 200;
+
+    private Context context;
+    private StandInApiServer server;
+    private ApiService apiService;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+        server = new StandInApiServer();
+        server.setLatency(LATENCY_MS, 0);
+        ApiLoadDriver.seedUsers(server, STUDENT_ID, CALLS);
+        apiService = ApiService.create(context, server.getConfig(STUDENT_ID, 4), STORAGE);
+    }
+
+    @After
+    public void tearDown() {
+        apiService.shutdown();
+        server.close();
+        clearCredentials();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+    }
+
+    @Test
+    public void loginP99StaysCloseToUnloaded() throws InterruptedException {
+        ApiLoadDriver driver = new ApiLoadDriver(apiService, CALLS);
+
+        clearCredentials();
+        ApiLoadDriver.Result unloaded = driver.run(ApiLoadDriver.Workload.LOGIN, CALLS, CONCURRENCY, 60);
+        clearCredentials();
+        ApiLoadDriver.Result loaded = driver.runUnderBackgroundLoad(ApiLoadDriver.Workload.LOGIN,
+                CALLS, CONCURRENCY, BACKGROUND_CALLS, 120);
+        Log.i(TAG, "unloaded " + unloaded);
+        Log.i(TAG, "loaded   " + loaded);
+
+        assertTrue(unloaded.isFinished() && loaded.isFinished());
+        assertEquals(0, unloaded.getErrors());
+        assertEquals(0, loaded.getErrors());
+        // At most the background reads already on the wire, plus the one allowed alongside logins
+        double bound = unloaded.getPercentileMs(99) + 3 * LATENCY_MS;
+        assertTrue("Loaded p99 " + loaded.getPercentileMs(99) + "ms, bound " + bound + "ms",
+                loaded.getPercentileMs(99) <= bound);
+    }
+
+    private void clearCredentials() {
+        context.getSharedPreferences("CredentialCache_" + STORAGE, Context.MODE_PRIVATE)
+                .edit().clear().commit();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.os.SystemClock;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.models.User;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ RequestCoalescerTest - Identical concurrent calls share one request, different ones never do
+ Runs against a StandInApiServer whose latency keeps the first request in flight
+ while the others arrive. Also checks that an interactive caller joining a queued
+ background request is not held back by the background limit.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RequestCoalescerTest {
+
+    private static final String STUDENT_ID = "coalescer_test";
+    private static final int CALLERS = 20;
+    private static final long LATENCY_MS = 300;
+    // Background reads queued ahead of the shared one; at most 3 run at a time
+    private static final int BACKGROUND_LOAD = 24;
+
+    private StandInApiServer server;
+    private ApiConfig config;
+    private RequestDispatcher dispatcher;
+    private RequestCoalescer coalescer;
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        server = new StandInApiServer();
+        server.setLatency(LATENCY_MS, 0);
+        config = server.getConfig(STUDENT_ID, 4);
+        dispatcher = new RequestDispatcher(context, 4, HttpTransport.Type.URL_CONNECTION);
+        coalescer = new RequestCoalescer(dispatcher);
+
+        // "Aa" and "BB" have the same String and byte[] hash codes
+        server.seedUser(STUDENT_ID, new User("Aa", "pw", "First", "A", null, null, "guest"));
+        server.seedUser(STUDENT_ID, new User("BB", "pw", "Second", "B", null, null, "guest"));
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void identicalCallsCostOneRequest() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(CALLERS);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        for (int i = 0; i < CALLERS; i++) {
+            coalescer.send(new ApiRequest("read_user", ApiRequest.GET,
+                    config.endpointUrl("read_user", "Aa"), null, new RequestTimings("read_user")),
+                    listener(done, response -> {
+                        if (response.getStatusCode() == 200) {
+                            succeeded.incrementAndGet();
+                        }
+                    }));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(CALLERS, succeeded.get());
+        assertEquals(1, server.getRequestCount("read_user"));
+        assertEquals(1, coalescer.getDispatchedCount());
+        assertEquals(CALLERS - 1, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void bodiesWithCollidingHashesAreSentSeparately() throws InterruptedException {
+        byte[] bodyA = ApiRequest.jsonBody(UserTypeAdapter.INSTANCE.writeBatchRequest(Collections.singletonList("Aa")));
+        byte[] bodyB = ApiRequest.jsonBody(UserTypeAdapter.INSTANCE.writeBatchRequest(Collections.singletonList("BB")));
+        assertEquals(Arrays.hashCode(bodyA), Arrays.hashCode(bodyB));
+
+        CountDownLatch done = new CountDownLatch(2);
+        final String[] answered = new String[2];
+        sendBatch(bodyA, done, answered, 0);
+        sendBatch(bodyB, done, answered, 1);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount("read_users"));
+        assertEquals("Aa", answered[0]);
+        assertEquals("BB", answered[1]);
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void interactiveJoinerRaisesTheSharedRequest() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(BACKGROUND_LOAD + 2);
+        for (int i = 0; i < BACKGROUND_LOAD; i++) {
+            String username = "background_" + i;
+            server.seedUser(STUDENT_ID, new User(username, "pw", "Load", "User", null, null, "guest"));
+            dispatcher.enqueue(readUser(username, ApiRequest.Priority.BACKGROUND), listener(done, response -> { }));
+        }
+
+        // A prefetch queued behind the load, then a screen that needs the same user now
+        coalescer.send(readUser("Aa", ApiRequest.Priority.BACKGROUND), listener(done, response -> { }));
+        final long[] waitedMs = new long[1];
+        long joinedAt = SystemClock.elapsedRealtime();
+        coalescer.send(readUser("Aa", ApiRequest.Priority.INTERACTIVE), listener(done, response -> {
+            waitedMs[0] = SystemClock.elapsedRealtime() - joinedAt;
+        }));
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertEquals(1, coalescer.getCoalescedCount());
+        // Raised, it takes the slot kept free for interactive work instead of waiting
+        // out BACKGROUND_LOAD / 3 rounds of LATENCY_MS
+        assertTrue("Interactive caller waited " + waitedMs[0] + "ms",
+                waitedMs[0] > 0 && waitedMs[0] < 3 * LATENCY_MS);
+    }
+
+    private ApiRequest readUser(String username, ApiRequest.Priority priority) {
+        return new ApiRequest("read_user", ApiRequest.GET, config.endpointUrl("read_user", username),
+                null, new RequestTimings("read_user")).setPriority(priority);
+    }
+
+    private void sendBatch(byte[] body, CountDownLatch done, String[] answered, int index) {
+        coalescer.send(new ApiRequest("read_users", ApiRequest.POST,
+                config.endpointUrl("read_users", null), body, new RequestTimings("read_users")),
+                listener(done, response -> {
+                    try {
+                        List<User> users = UserTypeAdapter.INSTANCE.readBatchEnvelope(response.getData());
+                        answered[index] = users.size() == 1 ? users.get(0).getUsername() : null;
+                    } catch (IOException e) {
+                        answered[index] = null;
+                    }
+                }));
+    }
+
+    private interface ResponseCheck {
+        void check(ApiResponse response);
+    }
+
+    private static ApiRequest.Listener listener(CountDownLatch done, ResponseCheck check) {
+        return new ApiRequest.Listener() {
+            @Override
+            public void onResponse(ApiResponse response) {
+                check.check(response);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(ApiError error) {
+                done.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.models.User;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ RequestDispatcherTest - Per-host concurrency cap and the latency breakdown of a call
+ Runs against a StandInApiServer with a fixed latency. Stages are marked the way
+ ApiService marks them: built on the calling thread, parsed on the network thread,
+ delivered on the main thread.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RequestDispatcherTest {
+
+    private static final String STUDENT_ID = "dispatcher_test";
+    private static final long LATENCY_MS = 200;
+    private static final int MAX_PER_HOST = 2;
+    private static final int REQUESTS = 8;
+
+    private StandInApiServer server;
+    private ApiConfig config;
+    private RequestDispatcher dispatcher;
+    // host:port of the stand-in server, as the dispatcher counts it
+    private String host;
+    private final Handler mainThread = new Handler(Looper.getMainLooper());
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        server = new StandInApiServer();
+        server.setLatency(LATENCY_MS, 0);
+        config = server.getConfig(STUDENT_ID, MAX_PER_HOST);
+        dispatcher = new RequestDispatcher(context, MAX_PER_HOST, HttpTransport.Type.URL_CONNECTION);
+        host = readUser("user_0", new RequestTimings("read_user")).getHost();
+        for (int i = 0; i < REQUESTS; i++) {
+            server.seedUser(STUDENT_ID, new User("user_" + i, "pw", "User", String.valueOf(i), null, null, "guest"));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void requestsBeyondTheHostCapWait() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<RequestTimings> timings = new ArrayList<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            timings.add(send("user_" + i, done, succeeded));
+        }
+        // Handed to the transport on this thread, no executor hop in between
+        assertEquals(MAX_PER_HOST, dispatcher.getInFlightCount(host));
+        assertEquals(REQUESTS - MAX_PER_HOST, dispatcher.getWaitingCount(host));
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertEquals(REQUESTS, succeeded.get());
+        assertEquals(0, dispatcher.getInFlightCount(host));
+        assertEquals(0, dispatcher.getWaitingCount(host));
+
+        // The last request waited for (REQUESTS / MAX_PER_HOST - 1) rounds before its I/O started
+        RequestTimings last = timings.get(REQUESTS - 1);
+        assertTrue("Queue wait " + last.getQueueMs() + "ms",
+                last.getQueueMs() >= (REQUESTS / MAX_PER_HOST - 1) * LATENCY_MS * 0.9);
+    }
+
+    @Test
+    public void stagesAddUpToTheTotal() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        RequestTimings timings = send("user_0", done, succeeded);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(1, succeeded.get());
+        timings.log();
+
+        assertTrue("Network " + timings.getNetworkMs() + "ms", timings.getNetworkMs() >= LATENCY_MS);
+        // An idle host starts I/O right away
+        assertTrue("Queue wait " + timings.getQueueMs() + "ms", timings.getQueueMs() < LATENCY_MS);
+        assertTrue(timings.getBuildMs() >= 0);
+        assertTrue(timings.getParseMs() >= 0);
+        assertTrue(timings.getDeliveryMs() >= 0);
+
+        double stages = timings.getBuildMs() + timings.getQueueMs() + timings.getNetworkMs()
+                + timings.getParseMs() + timings.getDeliveryMs();
+        assertEquals(timings.getTotalMs(), stages, 1.0);
+    }
+
+    private ApiRequest readUser(String username, RequestTimings timings) {
+        return new ApiRequest("read_user", ApiRequest.GET, config.endpointUrl("read_user", username), null, timings);
+    }
+
+    //Send a read_user the way ApiService does; counts down once the result is on the main thread
+    private RequestTimings send(String username, CountDownLatch done, AtomicInteger succeeded) {
+        RequestTimings timings = new RequestTimings("read_user");
+        ApiRequest request = readUser(username, timings);
+        timings.markBuilt();
+
+        dispatcher.enqueue(request, new ApiRequest.Listener() {
+            @Override
+            public void onResponse(ApiResponse response) {
+                boolean parsed;
+                try {
+                    parsed = username.equals(UserTypeAdapter.INSTANCE.readEnvelope(response.getData()).getUsername());
+                } catch (IOException e) {
+                    parsed = false;
+                }
+                timings.markParsed();
+                boolean success = parsed;
+                mainThread.post(() -> {
+                    timings.markDelivered();
+                    if (success) {
+                        succeeded.incrementAndGet();
+                    }
+                    done.countDown();
+                });
+            }
+
+            @Override
+            public void onError(ApiError error) {
+                done.countDown();
+            }
+        });
+        return timings;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ ResponseCacheTest - Memory and disk levels, and answers that arrive after an invalidation
+ Runs in a scratch directory under the cache dir.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ResponseCacheTest {
+
+    private static final String KEY = "http://127.0.0.1/read_user/test/amy";
+
+    private File directory;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        directory = new File(context.getCacheDir(), "response_cache_test");
+        deleteDirectory();
+    }
+
+    @After
+    public void tearDown() {
+        deleteDirectory();
+    }
+
+    @Test
+    public void putThenLookupFromMemoryAndDisk() throws InterruptedException {
+        ResponseCache cache = new ResponseCache(directory, 64 * 1024, 1024 * 1024);
+        assertTrue(cache.put(KEY, entry("one"), cache.getGeneration(KEY)));
+        assertEquals("one", body(lookup(cache)));
+
+        // A new instance only has the disk level
+        ResponseCache reopened = new ResponseCache(directory, 64 * 1024, 1024 * 1024);
+        drainDisk(cache);
+        assertEquals("one", body(lookup(reopened)));
+    }
+
+    @Test
+    public void answerRequestedBeforeInvalidateIsDropped() throws InterruptedException {
+        ResponseCache cache = new ResponseCache(directory, 64 * 1024, 1024 * 1024);
+        cache.put(KEY, entry("old"), cache.getGeneration(KEY));
+
+        // A GET starts, then a write invalidates the user before the GET's answer arrives
+        long generation = cache.getGeneration(KEY);
+        cache.invalidate(KEY);
+        assertFalse(cache.put(KEY, entry("stale"), generation));
+        assertNull(lookup(cache));
+
+        // A GET started after the invalidation is stored
+        assertTrue(cache.put(KEY, entry("fresh"), cache.getGeneration(KEY)));
+        assertEquals("fresh", body(lookup(cache)));
+    }
+
+    @Test
+    public void invalidateRemovesTheDiskCopy() throws InterruptedException {
+        ResponseCache cache = new ResponseCache(directory, 64 * 1024, 1024 * 1024);
+        cache.put(KEY, entry("one"), cache.getGeneration(KEY));
+        cache.invalidate(KEY);
+        drainDisk(cache);
+
+        assertNull(lookup(new ResponseCache(directory, 64 * 1024, 1024 * 1024)));
+    }
+
+    private static ResponseCache.Entry entry(String body) {
+        return new ResponseCache.Entry(body.getBytes(StandardCharsets.UTF_8), "\"" + body + "\"", null,
+                System.currentTimeMillis());
+    }
+
+    private static String body(ResponseCache.Entry entry) {
+        return entry == null ? null : new String(entry.getData(), StandardCharsets.UTF_8);
+    }
+
+    private static ResponseCache.Entry lookup(ResponseCache cache) throws InterruptedException {
+        final ResponseCache.Entry[] found = new ResponseCache.Entry[1];
+        CountDownLatch done = new CountDownLatch(1);
+        cache.lookup(KEY, entry -> {
+            found[0] = entry;
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return found[0];
+    }
+
+    //Wait until the disk writes queued so far have run (the disk thread runs them in order)
+    private static void drainDisk(ResponseCache cache) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        cache.lookup("drain", entry -> done.countDown());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private void deleteDirectory() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
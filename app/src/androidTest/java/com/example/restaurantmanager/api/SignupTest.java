@@ -0,0 +1,139 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.models.User;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ SignupTest - One round trip signups with an explicit USERNAME_TAKEN result
+ Runs a created ApiService against a StandInApiServer, and compares latency with
+ the old check-then-create flow.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SignupTest {
+
+    private static final String TAG = "SignupTest";
+    private static final String STUDENT_ID = "signup_test";
+    private static final String STORAGE = "signup_test";
+    private static final long LATENCY_MS = 100;
+    private static final int RACERS = 10;
+
+    private Context context;
+    private StandInApiServer server;
+    private ApiService apiService;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+        server = new StandInApiServer();
+        server.setLatency(LATENCY_MS, 0);
+        apiService = ApiService.create(context, server.getConfig(STUDENT_ID, 4), STORAGE);
+    }
+
+    @After
+    public void tearDown() {
+        apiService.shutdown();
+        server.close();
+        context.getSharedPreferences("CredentialCache_" + STORAGE, Context.MODE_PRIVATE)
+                .edit().clear().commit();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+    }
+
+    @Test
+    public void newUsernameIsCreatedInOneRequest() throws InterruptedException {
+        assertEquals(ApiService.SignupResult.CREATED, signUp(guest("amy", "Amy")));
+
+        assertEquals(1, server.getRequestCount("create_user"));
+        assertEquals(0, server.getRequestCount("read_user"));
+        assertNotNull(server.getUser(STUDENT_ID, "amy"));
+    }
+
+    @Test
+    public void takenUsernameIsReported() throws InterruptedException {
+        server.seedUser(STUDENT_ID, guest("amy", "Amy"));
+
+        assertEquals(ApiService.SignupResult.USERNAME_TAKEN, signUp(guest("amy", "Someone else")));
+        assertEquals(1, server.getRequestCount("create_user"));
+        assertEquals("Amy", server.getUser(STUDENT_ID, "amy").getFirstname());
+    }
+
+    @Test
+    public void onlyOneOfManyConcurrentSignupsWins() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(RACERS);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger taken = new AtomicInteger();
+
+        for (int i = 0; i < RACERS; i++) {
+            // Different people, so the requests differ and are not coalesced
+            apiService.signUp(guest("rory", "Racer " + i), new ApiService.SignupCallback() {
+                @Override
+                public void onResult(ApiService.SignupResult result, String response) {
+                    if (result == ApiService.SignupResult.CREATED) {
+                        created.incrementAndGet();
+                    } else if (result == ApiService.SignupResult.USERNAME_TAKEN) {
+                        taken.incrementAndGet();
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String error) {
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertEquals(1, created.get());
+        assertEquals(RACERS - 1, taken.get());
+    }
+
+    @Test
+    public void signupIsFasterThanCheckingFirst() throws Exception {
+        ApiLoadDriver driver = new ApiLoadDriver(apiService, 1);
+        ApiLoadDriver.Result checkFirst = driver.run(ApiLoadDriver.Workload.SIGNUP_CHECK_FIRST, 40, 4, 60);
+        ApiLoadDriver.Result oneTrip = driver.run(ApiLoadDriver.Workload.SIGNUP, 40, 4, 60);
+        Log.i(TAG, checkFirst.toString());
+        Log.i(TAG, oneTrip.toString());
+
+        assertEquals(0, checkFirst.getErrors());
+        assertEquals(0, oneTrip.getErrors());
+        // Two round trips of LATENCY_MS against one
+        assertTrue(oneTrip.getPercentileMs(50) < checkFirst.getPercentileMs(50) * 0.75);
+    }
+
+    private static User guest(String username, String firstname) {
+        return new User(username, "pw", firstname, "Test", null, null, "guest");
+    }
+
+    private ApiService.SignupResult signUp(User user) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        final ApiService.SignupResult[] result = new ApiService.SignupResult[1];
+        apiService.signUp(user, new ApiService.SignupCallback() {
+            @Override
+            public void onResult(ApiService.SignupResult signupResult, String response) {
+                result[0] = signupResult;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return result[0];
+    }
+}
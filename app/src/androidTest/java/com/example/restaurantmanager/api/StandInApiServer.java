@@ -0,0 +1,509 @@
+package com.example.restaurantmanager.api;
+
+import android.util.Log;
+import com.example.restaurantmanager.models.User;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ StandInApiServer - Local HTTP server that behaves like the coursework API
+ Implements create_student, create_user, read_user, update_user and the bulk
+ read_users endpoint on 127.0.0.1, so ApiService can be tested and load-tested
+ without the university host. Point an ApiService at it with getConfig().
+ Fault injection: added latency (with jitter), a share of 503 answers, and a
+ share of connections dropped without any answer. Also supports ETag / 304,
+ gzip responses and Idempotency-Key replay, matching what ApiService relies on.
+ Threading: One accept thread plus one thread per open connection
+ */
+public class StandInApiServer implements Closeable {
+
+    private static final String TAG = "StandInApiServer";
+
+    // Responses at least this large are gzipped when the client accepts it
+    private static final int GZIP_MIN_BYTES = 256;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionPool = Executors.newCachedThreadPool();
+
+    // Users per "studentId/username", plus a version per user for ETags
+    private final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong nextVersion = new AtomicLong(1);
+
+    // Idempotency-Key -> first answer, replayed for repeats
+    private final ConcurrentHashMap<String, Answer> idempotentResponses = new ConcurrentHashMap<>();
+
+    // Requests seen per endpoint name, and how many of them offered or sent gzip
+    private final ConcurrentHashMap<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> acceptGzipCounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> gzipBodyCounts = new ConcurrentHashMap<>();
+
+    // Requests being answered right now, and the most there ever were at once
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    // Fault injection, changeable while running
+    private volatile long latencyMs;
+    private volatile long latencyJitterMs;
+    private volatile double errorRate;
+    private volatile double dropRate;
+    private volatile boolean batchEnabled = true;
+    private volatile boolean gzipEnabled = true;
+
+    private volatile boolean running = true;
+
+    //Start a server on a free local port
+    public StandInApiServer() throws IOException {
+        serverSocket = new ServerSocket(0, 128, InetAddress.getByName("127.0.0.1"));
+        Thread acceptThread = new Thread(this::acceptLoop, "stand-in-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    //Config that points an ApiService at this server
+    public ApiConfig getConfig(String studentId, int maxRequestsPerHost) {
+        return new ApiConfig("http://127.0.0.1:" + serverSocket.getLocalPort(), studentId, maxRequestsPerHost);
+    }
+
+    /**
+     Delay every answer
+     @param latencyMs Fixed delay
+     @param jitterMs Extra random delay between 0 and jitterMs
+     */
+    public void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = jitterMs;
+    }
+
+    //Share of requests (0..1) answered with 503
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    //Share of requests (0..1) whose connection is closed without an answer
+    public void setDropRate(double dropRate) {
+        this.dropRate = dropRate;
+    }
+
+    //Turn the read_users endpoint off to exercise the single-read fallback
+    public void setBatchEnabled(boolean batchEnabled) {
+        this.batchEnabled = batchEnabled;
+    }
+
+    //Answer uncompressed even when the client accepts gzip
+    public void setGzipEnabled(boolean gzipEnabled) {
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    //Add a user directly, without a request
+    public void seedUser(String studentId, User user) {
+        putUser(studentId, user);
+    }
+
+    //Stored copy of a user, null if unknown - lets tests check what writes arrived
+    public User getUser(String studentId, String username) {
+        return users.get(studentId + "/" + username);
+    }
+
+    //Number of requests received for an endpoint, e.g. "read_user"
+    public long getRequestCount(String endpoint) {
+        return get(requestCounts, endpoint);
+    }
+
+    //Most requests that were ever being answered at the same time, over all endpoints
+    public int getPeakConcurrency() {
+        return peakInFlight.get();
+    }
+
+    //Requests for an endpoint that sent "Accept-Encoding: gzip"
+    public long getAcceptGzipCount(String endpoint) {
+        return get(acceptGzipCounts, endpoint);
+    }
+
+    //Requests for an endpoint whose body arrived gzipped
+    public long getGzipBodyCount(String endpoint) {
+        return get(gzipBodyCounts, endpoint);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+        connectionPool.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionPool.execute(() -> serveConnection(socket));
+            } catch (IOException e) {
+                if (running) {
+                    Log.w(TAG, "Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    //Handle requests on one keep-alive connection until the client closes it
+    private void serveConnection(Socket socket) {
+        try (Socket s = socket) {
+            // One write per response, sent at once - otherwise Nagle and delayed ACKs
+            // add tens of milliseconds to every answer and swamp what is being measured
+            s.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(s.getInputStream());
+            OutputStream out = new BufferedOutputStream(s.getOutputStream());
+
+            while (running) {
+                HttpRequest request = HttpRequest.read(in);
+                if (request == null) {
+                    return;
+                }
+
+                int concurrent = inFlight.incrementAndGet();
+                try {
+                    int peak;
+                    while (concurrent > (peak = peakInFlight.get())
+                            && !peakInFlight.compareAndSet(peak, concurrent)) {
+                        // Another request raised the peak meanwhile, compare again
+                    }
+
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    if (latencyMs > 0 || latencyJitterMs > 0) {
+                        Thread.sleep(latencyMs + (latencyJitterMs > 0 ? random.nextLong(latencyJitterMs + 1) : 0));
+                    }
+                    if (random.nextDouble() < dropRate) {
+                        // Simulate a lost connection: no status line, no body
+                        return;
+                    }
+
+                    Answer response = random.nextDouble() < errorRate
+                            ? answer(503, "{\"message\":\"Service unavailable\"}")
+                            : handle(request);
+                    writeResponse(out, request, response);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+
+                if ("close".equalsIgnoreCase(request.header("Connection"))) {
+                    return;
+                }
+            }
+        } catch (SocketException e) {
+            // Client went away
+        } catch (IOException | InterruptedException e) {
+            Log.w(TAG, "Connection failed: " + e.getMessage());
+        }
+    }
+
+    //Route a request to its endpoint
+    private Answer handle(HttpRequest request) throws IOException {
+        // Paths look like /{endpoint}/{studentId}[/{username}]
+        String[] parts = request.path.split("/");
+        if (parts.length < 3) {
+            return answer(404, "{\"message\":\"Not found\"}");
+        }
+        String endpoint = parts[1];
+        String studentId = parts[2];
+        String username = parts.length > 3 ? parts[3] : null;
+        count(requestCounts, endpoint);
+        String acceptEncoding = request.header("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains(Gzip.ENCODING)) {
+            count(acceptGzipCounts, endpoint);
+        }
+        if (Gzip.isGzip(request.header("Content-Encoding"))) {
+            count(gzipBodyCounts, endpoint);
+        }
+
+        String idempotencyKey = request.header("Idempotency-Key");
+        if (idempotencyKey != null) {
+            Answer earlier = idempotentResponses.get(idempotencyKey);
+            if (earlier != null) {
+                return earlier;
+            }
+        }
+
+        Answer response;
+        switch (endpoint) {
+            case "create_student":
+                response = answer(200, "{\"message\":\"Student database created\"}");
+                break;
+            case "create_user":
+                response = createUser(studentId, request);
+                break;
+            case "read_user":
+                response = readUser(studentId, username, request);
+                break;
+            case "update_user":
+                response = updateUser(studentId, username, request);
+                break;
+            case "read_users":
+                response = batchEnabled
+                        ? readUsers(studentId, request)
+                        : answer(404, "{\"message\":\"Not found\"}");
+                break;
+            default:
+                response = answer(404, "{\"message\":\"Not found\"}");
+                break;
+        }
+
+        if (idempotencyKey != null) {
+            idempotentResponses.putIfAbsent(idempotencyKey, response);
+        }
+        return response;
+    }
+
+    private Answer createUser(String studentId, HttpRequest request) throws IOException {
+        User user = UserTypeAdapter.INSTANCE.fromJson(request.bodyString());
+        String key = studentId + "/" + user.getUsername();
+        // Atomic, so two concurrent signups for one name cannot both succeed
+        if (users.putIfAbsent(key, user) != null) {
+            return answer(400, "{\"message\":\"User already exists\"}");
+        }
+        versions.put(key, nextVersion.getAndIncrement());
+        return answer(200, "{\"message\":\"User created\"}");
+    }
+
+    private Answer readUser(String studentId, String username, HttpRequest request) throws IOException {
+        String key = studentId + "/" + username;
+        User user = users.get(key);
+        if (user == null) {
+            return answer(404, "{\"message\":\"User not found\"}");
+        }
+
+        String etag = "\"" + versions.get(key) + "\"";
+        if (etag.equals(request.header("If-None-Match"))) {
+            return new Answer(304, "", etag);
+        }
+        return new Answer(200, userEnvelope(user), etag);
+    }
+
+    //{"user": {...}} with the password, as the coursework server sends it
+    private static String userEnvelope(User user) throws IOException {
+        StringWriter json = new StringWriter();
+        JsonWriter out = new JsonWriter(json);
+        out.beginObject().name("user");
+        UserTypeAdapter.INSTANCE.write(out, user);
+        out.endObject();
+        out.close();
+        return json.toString();
+    }
+
+    private Answer updateUser(String studentId, String username, HttpRequest request) throws IOException {
+        if (!users.containsKey(studentId + "/" + username)) {
+            return answer(404, "{\"message\":\"User not found\"}");
+        }
+        putUser(studentId, UserTypeAdapter.INSTANCE.fromJson(request.bodyString()));
+        return answer(200, "{\"message\":\"User updated\"}");
+    }
+
+    //Body {"usernames": [...]} -> {"users": [...]}, unknown usernames are left out
+    private Answer readUsers(String studentId, HttpRequest request) throws IOException {
+        JsonReader in = new JsonReader(
+                new StringReader(request.bodyString()));
+        List<String> usernames = new ArrayList<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("usernames".equals(in.nextName())) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    usernames.add(in.nextString());
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        StringWriter json = new StringWriter();
+        JsonWriter out = new JsonWriter(json);
+        out.beginObject().name("users").beginArray();
+        for (String username : usernames) {
+            User user = users.get(studentId + "/" + username);
+            if (user != null) {
+                UserTypeAdapter.INSTANCE.write(out, user);
+            }
+        }
+        out.endArray().endObject();
+        out.close();
+        return answer(200, json.toString());
+    }
+
+    private void putUser(String studentId, User user) {
+        String key = studentId + "/" + user.getUsername();
+        users.put(key, user);
+        versions.put(key, nextVersion.getAndIncrement());
+    }
+
+    private static long get(ConcurrentHashMap<String, AtomicLong> counts, String endpoint) {
+        AtomicLong count = counts.get(endpoint);
+        return count == null ? 0 : count.get();
+    }
+
+    private static void count(ConcurrentHashMap<String, AtomicLong> counts, String endpoint) {
+        AtomicLong count = counts.get(endpoint);
+        if (count == null) {
+            AtomicLong created = new AtomicLong();
+            count = counts.putIfAbsent(endpoint, created);
+            if (count == null) {
+                count = created;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    private static Answer answer(int status, String body) {
+        return new Answer(status, body, null);
+    }
+
+    private void writeResponse(OutputStream out, HttpRequest request, Answer answer) throws IOException {
+        byte[] data = answer.body.getBytes(StandardCharsets.UTF_8);
+        boolean gzip = gzipEnabled && data.length >= GZIP_MIN_BYTES
+                && request.header("Accept-Encoding") != null
+                && request.header("Accept-Encoding").contains(Gzip.ENCODING);
+        if (gzip) {
+            data = Gzip.compress(data);
+        }
+
+        StringBuilder head = new StringBuilder();
+        head.append("HTTP/1.1 ").append(answer.status).append(' ').append(reason(answer.status)).append("\r\n");
+        head.append("Content-Type: application/json; charset=utf-8\r\n");
+        head.append("Content-Length: ").append(data.length).append("\r\n");
+        if (answer.etag != null) {
+            head.append("ETag: ").append(answer.etag).append("\r\n");
+        }
+        if (gzip) {
+            head.append("Content-Encoding: gzip\r\n");
+        }
+        head.append("\r\n");
+
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        out.write(data);
+        out.flush();
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200: return "OK";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 404: return "Not Found";
+            case 503: return "Service Unavailable";
+            default: return "Status";
+        }
+    }
+
+    //Status, body and optional ETag of one answer
+    private static final class Answer {
+        final int status;
+        final String body;
+        final String etag;
+
+        Answer(int status, String body, String etag) {
+            this.status = status;
+            this.body = body;
+            this.etag = etag;
+        }
+    }
+
+    //Minimal HTTP/1.1 request: request line, headers and a Content-Length body
+    private static final class HttpRequest {
+        String method;
+        String path;
+        final Map<String, String> headers = new HashMap<>();
+        byte[] body = new byte[0];
+
+        //Read the next request, or null if the client closed the connection
+        static HttpRequest read(InputStream in) throws IOException {
+            String requestLine = readLine(in);
+            if (requestLine == null || requestLine.isEmpty()) {
+                return null;
+            }
+
+            HttpRequest request = new HttpRequest();
+            String[] parts = requestLine.split(" ");
+            request.method = parts[0];
+            request.path = parts.length > 1 ? parts[1] : "/";
+
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    request.headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                            line.substring(colon + 1).trim());
+                }
+            }
+
+            String length = request.header("Content-Length");
+            if (length != null) {
+                byte[] body = new byte[Integer.parseInt(length)];
+                int read = 0;
+                while (read < body.length) {
+                    int n = in.read(body, read, body.length - read);
+                    if (n < 0) {
+                        throw new IOException("Body cut short");
+                    }
+                    read += n;
+                }
+                request.body = Gzip.isGzip(request.header("Content-Encoding"))
+                        ? Gzip.decompress(body) : body;
+            }
+            return request;
+        }
+
+        String header(String name) {
+            return headers.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        String bodyString() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\n') {
+                    break;
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            if (b == -1 && line.size() == 0) {
+                return null;
+            }
+            return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+        }
+    }
+}
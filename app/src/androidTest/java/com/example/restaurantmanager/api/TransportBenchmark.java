@@ -0,0 +1,172 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.util.Log;
+import com.example.restaurantmanager.models.User;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ TransportBenchmark - Compares the HttpTransport implementations on the same calls
+ Each transport gets its own StandInApiServer and RequestDispatcher and runs the
+ same scenarios, driving the dispatcher directly so the response cache, coalescing
+ and main thread delivery stay out of the numbers. Latency runs from enqueue until
+ the listener is called on the network thread.
+ Allocations are the process-wide ART counter (API 23+), so close other work and
+ compare runs made under the same conditions.
+ Typical use: new TransportBenchmark(context, 200).run(2000, 8, 120) from a
+ background thread, then compare the logged lines per scenario.
+ TransportBenchmarkTest runs it this way and logs the results as one table.
+ Threading: run() blocks until every call has completed - never call it on the main thread
+ */
+public class TransportBenchmark {
+
+    private static final String TAG = "TransportBenchmark";
+
+    private static final String STUDENT_ID = "transport_benchmark";
+
+    // Users asked for in one read_users call
+    private static final int BATCH_SIZE = 50;
+
+    // Calls made and thrown away before measuring, so connections and JIT are warm
+    private static final int WARMUP_CALLS = 50;
+
+    public enum Scenario {
+        SMALL_GET,      // read_user - a few hundred bytes each way
+        LARGE_BATCH,    // read_users for BATCH_SIZE users - large request and response bodies
+        CREATE          // create_user with a fresh username - a small POST body
+    }
+
+    private final Context context;
+    private final int userCount;
+
+    // Created users get fresh usernames so none of them is refused as a duplicate
+    private final AtomicInteger nextCreate = new AtomicInteger();
+
+    /**
+     @param context Any context, only used to set up the transports
+     @param userCount Number of seeded users reads are spread over (at least BATCH_SIZE)
+     */
+    public TransportBenchmark(Context context, int userCount) {
+        this.context = context.getApplicationContext();
+        this.userCount = Math.max(userCount, BATCH_SIZE);
+    }
+
+    /**
+     Run every scenario on every transport
+     @param calls Measured calls per scenario
+     @param concurrency Maximum calls in flight at the same time, also used as the host limit
+     @param timeoutSeconds Give up waiting on one scenario after this long
+     @return One result per transport and scenario, labelled "TRANSPORT/SCENARIO"
+     */
+    public List<ApiLoadDriver.Result> run(int calls, int concurrency, long timeoutSeconds)
+            throws IOException, InterruptedException {
+        List<ApiLoadDriver.Result> results = new ArrayList<>();
+        for (HttpTransport.Type type : HttpTransport.Type.values()) {
+            try (StandInApiServer server = new StandInApiServer()) {
+                ApiLoadDriver.seedUsers(server, STUDENT_ID, userCount);
+                ApiConfig config = server.getConfig(STUDENT_ID, concurrency);
+                RequestDispatcher dispatcher = new RequestDispatcher(context, concurrency, type);
+                try {
+                    for (Scenario scenario : Scenario.values()) {
+                        String label = type + "/" + scenario;
+                        measure(label, dispatcher, config, scenario, WARMUP_CALLS, concurrency, timeoutSeconds);
+                        ApiLoadDriver.Result result = measure(label, dispatcher, config, scenario,
+                                calls, concurrency, timeoutSeconds);
+                        Log.i(TAG, result.toString());
+                        results.add(result);
+                    }
+                } finally {
+                    dispatcher.shutdown();
+                }
+            }
+        }
+        return results;
+    }
+
+    private ApiLoadDriver.Result measure(String label, RequestDispatcher dispatcher, ApiConfig config,
+                                         Scenario scenario, int calls, int concurrency, long timeoutSeconds)
+            throws InterruptedException {
+        final long[] latenciesNanos = new long[calls];
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(calls);
+        final Semaphore permits = new Semaphore(concurrency);
+
+        long allocatedBefore = ApiLoadDriver.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            permits.acquire();
+            final int index = i;
+            final long callStart = System.nanoTime();
+            dispatcher.enqueue(requestFor(config, scenario, i), new ApiRequest.Listener() {
+                @Override
+                public void onResponse(ApiResponse response) {
+                    finish(true);
+                }
+
+                @Override
+                public void onError(ApiError error) {
+                    finish(false);
+                }
+
+                private void finish(boolean success) {
+                    latenciesNanos[index] = System.nanoTime() - callStart;
+                    if (!success) {
+                        errors.incrementAndGet();
+                    }
+                    permits.release();
+                    done.countDown();
+                }
+            });
+        }
+
+        boolean finished = done.await(timeoutSeconds, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        return new ApiLoadDriver.Result(label, calls, concurrency,
+                (int) (calls - done.getCount()), errors.get(), elapsed, latenciesNanos, finished,
+                ApiLoadDriver.allocatedDelta(allocatedBefore));
+    }
+
+    private ApiRequest requestFor(ApiConfig config, Scenario scenario, int index) {
+        RequestTimings timings = new RequestTimings(endpointFor(scenario));
+        switch (scenario) {
+            case LARGE_BATCH: {
+                List<String> usernames = new ArrayList<>(BATCH_SIZE);
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    usernames.add(ApiLoadDriver.usernameFor((index + i) % userCount));
+                }
+                String body = UserTypeAdapter.INSTANCE.writeBatchRequest(usernames);
+                return new ApiRequest("read_users", ApiRequest.POST, config.endpointUrl("read_users", null),
+                        ApiRequest.jsonBody(body), timings);
+            }
+            case CREATE: {
+                int i = nextCreate.getAndIncrement();
+                User user = new User("bench_" + i, "password" + i, "Bench", "User " + i,
+                        "bench" + i + "@example.com", "07200" + i, "guest");
+                return new ApiRequest("create_user", ApiRequest.POST, config.endpointUrl("create_user", null),
+                        ApiRequest.jsonBody(UserTypeAdapter.INSTANCE.toJson(user)), timings);
+            }
+            default:
+                return new ApiRequest("read_user", ApiRequest.GET,
+                        config.endpointUrl("read_user", ApiLoadDriver.usernameFor(index % userCount)),
+                        null, timings);
+        }
+    }
+
+    private static String endpointFor(Scenario scenario) {
+        switch (scenario) {
+            case LARGE_BATCH:
+                return "read_users";
+            case CREATE:
+                return "create_user";
+            default:
+                return "read_user";
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.restaurantmanager.api;
+
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.util.List;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ TransportBenchmarkTest - Runs TransportBenchmark on the device
+ Every scenario on every transport, logged as one table under the tag
+ "TransportBenchmarkTest" (throughput, latency percentiles and bytes allocated
+ per call). Only checks that each run completed without errors; the numbers are
+ for comparing transports, not for pass/fail.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TransportBenchmarkTest {
+
+    private static final String TAG = "TransportBenchmarkTest";
+    private static final int USERS = 200;
+    private static final int CALLS = 500;
+    private static final int CONCURRENCY = 8;
+
+    @Test
+    public void everyScenarioOnEveryTransport() throws Exception {
+        List<ApiLoadDriver.Result> results = new TransportBenchmark(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), USERS)
+                .run(CALLS, CONCURRENCY, 120);
+
+        Log.i(TAG, String.format(Locale.UK, "%-28s %9s %9s %9s %9s %12s",
+                "transport/scenario", "calls/s", "p50 ms", "p99 ms", "max ms", "alloc B/call"));
+        for (ApiLoadDriver.Result result : results) {
+            Log.i(TAG, String.format(Locale.UK, "%-28s %9.0f %9.1f %9.1f %9.1f %12d",
+                    result.getLabel(), result.getThroughput(), result.getPercentileMs(50),
+                    result.getPercentileMs(99), result.getPercentileMs(100),
+                    result.getAllocatedBytesPerCall()));
+        }
+
+        assertEquals(HttpTransport.Type.values().length * TransportBenchmark.Scenario.values().length,
+                results.size());
+        for (ApiLoadDriver.Result result : results) {
+            assertTrue(result.getLabel() + " timed out", result.isFinished());
+            assertEquals(result.getLabel(), 0, result.getErrors());
+            assertEquals(result.getLabel(), CALLS, result.getCompleted());
+        }
+    }
+}
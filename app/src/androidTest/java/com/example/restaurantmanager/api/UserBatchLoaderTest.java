@@ -0,0 +1,206 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.models.User;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ UserBatchLoaderTest - Batched user lookups against a StandInApiServer
+ Goes through ApiService.readUserBatched and checks the batch window, the split
+ into batches of 50, the fallback to at most 4 single reads when the server has
+ no read_users, that every caller gets its own answer, and that users with a
+ fresh cache entry never join a batch.
+ */
+@RunWith(AndroidJUnit4.class)
+public class UserBatchLoaderTest {
+
+    private static final String STUDENT_ID = "batch_loader_test";
+    private static final String STORAGE = "batch_loader_test";
+    private static final int USERS = 120;
+    // Several times the loader's 20ms window
+    private static final long PAUSE_MS = 200;
+
+    private Context context;
+    private StandInApiServer server;
+    private ApiService apiService;
+
+    @Before
+    public void setUp() throws Exception {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+        deleteCache();
+        server = new StandInApiServer();
+        ApiLoadDriver.seedUsers(server, STUDENT_ID, USERS);
+        // Host limit well above 4, so only the loader bounds the fallback reads
+        apiService = ApiService.create(context, server.getConfig(STUDENT_ID, 16), STORAGE);
+    }
+
+    @After
+    public void tearDown() {
+        apiService.shutdown();
+        server.close();
+        context.getSharedPreferences("CredentialCache_" + STORAGE, Context.MODE_PRIVATE)
+                .edit().clear().commit();
+        context.deleteDatabase(ApiService.outboxDatabaseName(STORAGE));
+        deleteCache();
+    }
+
+    @Test
+    public void lookupsInOneWindowShareOneRequest() throws InterruptedException {
+        List<String> usernames = usernames(0, 10);
+        // The same user asked for by several callers, and a user the server does not know
+        usernames.add(ApiLoadDriver.usernameFor(3));
+        usernames.add(ApiLoadDriver.usernameFor(3));
+        usernames.add("nobody");
+
+        List<String> outcomes = load(usernames).await();
+
+        assertEquals(1, server.getRequestCount("read_users"));
+        assertEquals(0, server.getRequestCount("read_user"));
+        List<String> expected = usernames(0, 10);
+        expected.add(ApiLoadDriver.usernameFor(3));
+        expected.add(ApiLoadDriver.usernameFor(3));
+        expected.add("error: User not found");
+        assertEquals(expected, outcomes);
+    }
+
+    @Test
+    public void lookupsAfterTheWindowGoInANewBatch() throws InterruptedException {
+        Outcomes first = load(usernames(0, 5));
+        Thread.sleep(PAUSE_MS);
+        Outcomes second = load(usernames(5, 10));
+
+        assertEquals(usernames(0, 5), first.await());
+        assertEquals(usernames(5, 10), second.await());
+        assertEquals(2, server.getRequestCount("read_users"));
+    }
+
+    @Test
+    public void largeListsAreSplitIntoBatchesOfFifty() throws InterruptedException {
+        List<String> outcomes = load(usernames(0, USERS)).await();
+
+        // 50 + 50 + 20
+        assertEquals(3, server.getRequestCount("read_users"));
+        assertEquals(0, server.getRequestCount("read_user"));
+        assertEquals(usernames(0, USERS), outcomes);
+    }
+
+    @Test
+    public void withoutBatchEndpointFourSingleReadsRunAtATime() throws InterruptedException {
+        server.setBatchEnabled(false);
+        server.setLatency(100, 0);
+
+        assertEquals(usernames(0, 12), load(usernames(0, 12)).await());
+        assertEquals(1, server.getRequestCount("read_users"));
+        assertEquals(12, server.getRequestCount("read_user"));
+        assertEquals(4, server.getPeakConcurrency());
+
+        // The 404 is remembered, later lookups go straight to single reads
+        assertEquals(usernames(20, 30), load(usernames(20, 30)).await());
+        assertEquals(1, server.getRequestCount("read_users"));
+        assertEquals(22, server.getRequestCount("read_user"));
+        assertEquals(4, server.getPeakConcurrency());
+    }
+
+    @Test
+    public void freshCachedUsersDoNotJoinABatch() throws InterruptedException {
+        // The batch answer fills the read_user cache
+        assertEquals(usernames(0, 10), load(usernames(0, 10)).await());
+        assertEquals(1, server.getRequestCount("read_users"));
+
+        assertEquals(usernames(0, 10), load(usernames(0, 10)).await());
+        assertEquals(1, server.getRequestCount("read_users"));
+        assertEquals(0, server.getRequestCount("read_user"));
+
+        // Only the one uncached user is fetched, on its own
+        assertEquals(usernames(0, 11), load(usernames(0, 11)).await());
+        assertEquals(1, server.getRequestCount("read_users"));
+        assertEquals(1, server.getRequestCount("read_user"));
+    }
+
+    //Usernames of seeded users from (inclusive) to (exclusive)
+    private static List<String> usernames(int from, int to) {
+        List<String> usernames = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            usernames.add(ApiLoadDriver.usernameFor(i));
+        }
+        return usernames;
+    }
+
+    //Start one readUserBatched per username, without waiting
+    private Outcomes load(List<String> usernames) {
+        Outcomes outcomes = new Outcomes(usernames.size());
+        for (int i = 0; i < usernames.size(); i++) {
+            final int index = i;
+            apiService.readUserBatched(usernames.get(i), new ApiService.UserCallback() {
+                @Override
+                public void onSuccess(User user) {
+                    outcomes.set(index, user.getUsername());
+                }
+
+                @Override
+                public void onError(String error) {
+                    outcomes.set(index, "error: " + error);
+                }
+            });
+        }
+        return outcomes;
+    }
+
+    private void deleteCache() {
+        File directory = new File(context.getCacheDir(), ApiService.cacheDirectoryName(STORAGE));
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    //What each caller received, in call order: the username delivered or "error: <message>"
+    private static final class Outcomes {
+        private final AtomicReferenceArray<String> results;
+        private final CountDownLatch done;
+        private final AtomicInteger repeated = new AtomicInteger();
+
+        Outcomes(int calls) {
+            results = new AtomicReferenceArray<>(calls);
+            done = new CountDownLatch(calls);
+        }
+
+        //Runs on the main thread, so failures are counted here and asserted in await()
+        void set(int index, String outcome) {
+            if (results.compareAndSet(index, null, outcome)) {
+                done.countDown();
+            } else {
+                repeated.incrementAndGet();
+            }
+        }
+
+        List<String> await() throws InterruptedException {
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals("callbacks after the first", 0, repeated.get());
+            String[] list = new String[results.length()];
+            for (int i = 0; i < list.length; i++) {
+                list[i] = results.get(i);
+            }
+            return Arrays.asList(list);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.restaurantmanager.database;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.models.Reservation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ ReserveIfAvailableStressTest - Many threads booking and editing into the same few slots
+ Threads are split over two DatabaseHelper instances on one file, so bookings also
+ race across separate connections like two processes would. Every slot must end at
+ or below capacity, with exactly the seats of the bookings that were accepted.
+ Throughput is logged for comparison between runs.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ReserveIfAvailableStressTest {
+
+    private static final String TAG = "ReserveStressTest";
+
+    private static final String DATABASE = "reserve_stress_test.db";
+    private static final String DATE = "2040-03-15";
+    private static final String[] TIMES = {"18:00", "18:15", "18:30"};
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    private Context context;
+    private DatabaseHelper connectionA;
+    private DatabaseHelper connectionB;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE);
+        connectionA = new DatabaseHelper(context, DATABASE);
+        connectionB = new DatabaseHelper(context, DATABASE);
+
+        // Create the schema before the threads race to open it
+        connectionA.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        connectionA.close();
+        connectionB.close();
+        context.deleteDatabase(DATABASE);
+    }
+
+    @Test
+    public void concurrentBookingsNeverOversell() throws Exception {
+        AtomicInteger[] acceptedSeats = new AtomicInteger[TIMES.length];
+        for (int i = 0; i < TIMES.length; i++) {
+            acceptedSeats[i] = new AtomicInteger();
+        }
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger full = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        long elapsed = runThreads(thread -> {
+            DatabaseHelper database = thread % 2 == 0 ? connectionA : connectionB;
+            Random random = new Random(thread);
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                int slot = random.nextInt(TIMES.length);
+                int party = 1 + random.nextInt(6);
+                long result = database.reserveIfAvailable(
+                        new Reservation("stress_" + thread, DATE, TIMES[slot], party, "confirmed"),
+                        DatabaseHelper.MAX_GUESTS_PER_SLOT);
+
+                if (result == DatabaseHelper.RESERVATION_SLOT_FULL) {
+                    full.incrementAndGet();
+                } else if (result > 0) {
+                    accepted.incrementAndGet();
+                    acceptedSeats[slot].addAndGet(party);
+                } else {
+                    failed.incrementAndGet();
+                }
+            }
+        });
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        Log.i(TAG, attempts + " booking attempts in " + elapsed + " ms ("
+                + (attempts * 1000L / Math.max(1, elapsed)) + "/s): "
+                + accepted + " accepted, " + full + " full, " + failed + " failed");
+
+        for (int i = 0; i < TIMES.length; i++) {
+            int booked = connectionA.getBookedGuestCount(DATE, TIMES[i]);
+            assertTrue(TIMES[i] + " has " + booked + " guests", booked <= DatabaseHelper.MAX_GUESTS_PER_SLOT);
+            assertEquals(acceptedSeats[i].get(), booked);
+        }
+        assertEquals(0, failed.get());
+    }
+
+    @Test
+    public void concurrentEditsNeverOversell() throws Exception {
+        // Two parties of four in each slot, then everyone tries to grow and move at once
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Reservation reservation = new Reservation("stress_" + i, DATE, TIMES[i % TIMES.length], 4, "confirmed");
+            long id = connectionA.reserveIfAvailable(reservation, DatabaseHelper.MAX_GUESTS_PER_SLOT);
+            assertTrue(id > 0);
+            reservation.setId((int) id);
+            reservations.add(reservation);
+        }
+
+        AtomicInteger full = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long elapsed = runThreads(thread -> {
+            DatabaseHelper database = thread % 2 == 0 ? connectionA : connectionB;
+            Random random = new Random(thread);
+            Reservation own = reservations.get(thread);
+            for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                Reservation edited = new Reservation(own.getId(), own.getGuestUsername(), DATE,
+                        TIMES[random.nextInt(TIMES.length)], 1 + random.nextInt(12), "confirmed");
+                int result = database.updateIfAvailable(edited, DatabaseHelper.MAX_GUESTS_PER_SLOT);
+                if (result == DatabaseHelper.RESERVATION_SLOT_FULL) {
+                    full.incrementAndGet();
+                } else if (result != 1) {
+                    failed.incrementAndGet();
+                }
+            }
+        });
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        Log.i(TAG, attempts + " edit attempts in " + elapsed + " ms ("
+                + (attempts * 1000L / Math.max(1, elapsed)) + "/s): " + full + " full, " + failed + " failed");
+
+        int total = 0;
+        for (String time : TIMES) {
+            int booked = connectionA.getBookedGuestCount(DATE, time);
+            assertTrue(time + " has " + booked + " guests", booked <= DatabaseHelper.MAX_GUESTS_PER_SLOT);
+            total += booked;
+        }
+
+        // Each booking is in exactly one slot with its last accepted party size
+        int stored = 0;
+        for (Reservation reservation : reservations) {
+            stored += connectionA.getReservationById(reservation.getId()).getNumberOfGuests();
+        }
+        assertEquals(stored, total);
+        assertEquals(0, failed.get());
+    }
+
+    private interface Worker {
+        void run(int thread);
+    }
+
+    //Start all threads together and return the wall time until the last one finishes
+    private long runThreads(Worker worker) throws InterruptedException {
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            threads.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                worker.run(thread);
+            });
+        }
+
+        long startTime = SystemClock.elapsedRealtime();
+        start.countDown();
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(60, TimeUnit.SECONDS));
+        return SystemClock.elapsedRealtime() - startTime;
+    }
+}
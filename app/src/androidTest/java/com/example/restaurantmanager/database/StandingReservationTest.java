@@ -0,0 +1,109 @@
+package com.example.restaurantmanager.database;
+
+import android.content.Context;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.restaurantmanager.models.RecurringReservation;
+import com.example.restaurantmanager.models.Reservation;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ StandingReservationTest - Capacity of standing reservations and the guest's view of them
+ Runs against a scratch database file.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StandingReservationTest {
+
+    private static final String DATABASE = "standing_test.db";
+    private static final String START = "2040-01-02"; // A Monday
+    private static final String TIME = "19:00";
+    private static final int CAPACITY = DatabaseHelper.MAX_GUESTS_PER_SLOT;
+
+    private Context context;
+    private DatabaseHelper databaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE);
+        databaseHelper = new DatabaseHelper(context, DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        databaseHelper.close();
+        context.deleteDatabase(DATABASE);
+    }
+
+    @Test
+    public void laterFullOccurrenceRejectsTheRule() {
+        // Fourth week is fully booked, the first date is empty
+        fill(RecurrenceExpander.addDays(START, 21), CAPACITY);
+
+        long result = databaseHelper.addRecurringIfAvailable(weekly("regular", 2, null), CAPACITY);
+        assertEquals(DatabaseHelper.RESERVATION_SLOT_FULL, result);
+    }
+
+    @Test
+    public void fullDateBeyondOneYearIsStillChecked() {
+        fill(RecurrenceExpander.addDays(START, 7 * 60), CAPACITY);
+
+        long result = databaseHelper.addRecurringIfAvailable(weekly("regular", 2, null), CAPACITY);
+        assertEquals(DatabaseHelper.RESERVATION_SLOT_FULL, result);
+    }
+
+    @Test
+    public void fullDateAfterEndDateDoesNotMatter() {
+        fill(RecurrenceExpander.addDays(START, 28), CAPACITY);
+
+        long result = databaseHelper.addRecurringIfAvailable(
+                weekly("regular", 2, RecurrenceExpander.addDays(START, 21)), CAPACITY);
+        assertTrue(result > 0);
+    }
+
+    @Test
+    public void oneOffBookingsCountStandingSeats() {
+        assertTrue(databaseHelper.addRecurringIfAvailable(weekly("regular", 10, null), CAPACITY) > 0);
+
+        String farDate = RecurrenceExpander.addDays(START, 7 * 200);
+        assertEquals(10, databaseHelper.getBookedGuestCount(farDate, TIME));
+        assertEquals(DatabaseHelper.RESERVATION_SLOT_FULL, databaseHelper.reserveIfAvailable(
+                new Reservation("walk_in", farDate, TIME, CAPACITY - 9, "confirmed"), CAPACITY));
+    }
+
+    @Test
+    public void guestSeesAndCancelsOccurrences() {
+        long ruleId = databaseHelper.addRecurringIfAvailable(weekly("regular", 2, null), CAPACITY);
+        databaseHelper.addRecurringIfAvailable(weekly("someone_else", 2, null), CAPACITY);
+        String windowEnd = RecurrenceExpander.addDays(START, 27);
+
+        List<Reservation> reservations =
+                databaseHelper.getReservationsByGuestWithStanding("regular", START, windowEnd);
+        assertEquals(4, reservations.size());
+        for (Reservation reservation : reservations) {
+            assertEquals("regular", reservation.getGuestUsername());
+            assertEquals(ruleId, RecurrenceExpander.getRuleId(reservation));
+        }
+
+        databaseHelper.addRecurrenceException((int) ruleId, RecurrenceExpander.addDays(START, 7));
+        assertEquals(3, databaseHelper.getReservationsByGuestWithStanding("regular", START, windowEnd).size());
+
+        databaseHelper.deleteRecurringReservation((int) ruleId);
+        assertTrue(databaseHelper.getReservationsByGuestWithStanding("regular", START, windowEnd).isEmpty());
+    }
+
+    private RecurringReservation weekly(String guest, int guests, String endDate) {
+        return new RecurringReservation(guest, TIME, guests, RecurringReservation.FREQUENCY_WEEKLY, START, endDate);
+    }
+
+    private void fill(String date, int guests) {
+        assertTrue(databaseHelper.reserveIfAvailable(
+                new Reservation("filler", date, TIME, guests, "confirmed"), CAPACITY) > 0);
+    }
+}
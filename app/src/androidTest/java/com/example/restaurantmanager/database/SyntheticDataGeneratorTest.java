@@ -0,0 +1,133 @@
+package com.example.restaurantmanager.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ SyntheticDataGeneratorTest - Generated data respects slot capacity, is repeatable,
+ and gives a baseline for how the reservation queries scale
+ Runs against scratch database files, never the app's own database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyntheticDataGeneratorTest {
+
+    private static final String TAG = "SyntheticDataGeneratorTest";
+
+    private static final String DATABASE_A = "synthetic_test_a.db";
+    private static final String DATABASE_B = "synthetic_test_b.db";
+
+    // Far from the sample rows insertSampleData writes
+    private static final String START_DATE = "2040-01-01";
+
+    private Context context;
+    private DatabaseHelper databaseA;
+    private DatabaseHelper databaseB;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DATABASE_A);
+        context.deleteDatabase(DATABASE_B);
+        databaseA = new DatabaseHelper(context, DATABASE_A);
+        databaseB = new DatabaseHelper(context, DATABASE_B);
+    }
+
+    @After
+    public void tearDown() {
+        databaseA.close();
+        databaseB.close();
+        context.deleteDatabase(DATABASE_A);
+        context.deleteDatabase(DATABASE_B);
+    }
+
+    @Test
+    public void noSlotIsOverbooked() {
+        int inserted = new SyntheticDataGenerator(databaseA, 42)
+                .generateReservations(50_000, START_DATE, 365, 2_000);
+        assertEquals(50_000, inserted);
+
+        Cursor cursor = databaseA.getReadableDatabase().rawQuery(
+                "SELECT MAX(booked) FROM (SELECT SUM(number_of_guests) AS booked FROM reservations"
+                        + " WHERE date >= ? AND LOWER(status) != 'cancelled' GROUP BY date, time)",
+                new String[]{START_DATE});
+        assertTrue(cursor.moveToFirst());
+        int busiest = cursor.getInt(0);
+        cursor.close();
+
+        assertTrue("Busiest slot has " + busiest + " guests", busiest <= DatabaseHelper.MAX_GUESTS_PER_SLOT);
+    }
+
+    @Test
+    public void sameSeedGivesSameRows() {
+        new SyntheticDataGenerator(databaseA, 7).generateReservations(5_000, START_DATE, 90, 300);
+        new SyntheticDataGenerator(databaseB, 7).generateReservations(5_000, START_DATE, 90, 300);
+
+        assertEquals(fingerprint(databaseA), fingerprint(databaseB));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyReservationsForTheRangeAreRejected() {
+        // One day holds 44 slots of 40 guests - 2000 parties cannot fit
+        new SyntheticDataGenerator(databaseA, 1).generateReservations(2_000, START_DATE, 1, 50);
+    }
+
+    @Test
+    public void queryTimesAtScale() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(databaseA, 2024);
+
+        long start = SystemClock.elapsedRealtime();
+        generator.generateReservations(200_000, START_DATE, 3 * 365, 5_000);
+        generator.generateMenuItems(2_000, null);
+        Log.i(TAG, "Generated 200000 reservations and 2000 menu items in "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+
+        start = SystemClock.elapsedRealtime();
+        int guestRows = databaseA.getReservationsByGuest("guest_0").size();
+        Log.i(TAG, "getReservationsByGuest: " + guestRows + " rows in "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+
+        start = SystemClock.elapsedRealtime();
+        int rangeRows = databaseA.getReservationsInRange("2041-06-01", "2041-06-07").size();
+        Log.i(TAG, "getReservationsInRange (one week): " + rangeRows + " rows in "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+
+        start = SystemClock.elapsedRealtime();
+        for (int i = 0; i < 100; i++) {
+            databaseA.getBookedGuestCount("2041-06-0" + (1 + i % 7), "19:00");
+        }
+        Log.i(TAG, "getBookedGuestCount: " + (SystemClock.elapsedRealtime() - start) / 100.0 + " ms per call");
+
+        start = SystemClock.elapsedRealtime();
+        int menuRows = databaseA.getAllMenuItems().size();
+        Log.i(TAG, "getAllMenuItems: " + menuRows + " rows in "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+
+        assertTrue(guestRows > 0);
+        assertTrue(rangeRows > 0);
+    }
+
+    //Summary of every generated reservation, equal only if the rows are
+    private static String fingerprint(DatabaseHelper database) {
+        Cursor cursor = database.getReadableDatabase().rawQuery(
+                "SELECT COUNT(*), SUM(number_of_guests), SUM(LENGTH(guest_username) * id),"
+                        + " SUM(CAST(REPLACE(date, '-', '') AS INTEGER) % 9973 * id),"
+                        + " SUM(CAST(REPLACE(time, ':', '') AS INTEGER) * id)"
+                        + " FROM reservations WHERE date >= ?",
+                new String[]{START_DATE});
+        assertTrue(cursor.moveToFirst());
+        String fingerprint = cursor.getLong(0) + "/" + cursor.getLong(1) + "/" + cursor.getLong(2)
+                + "/" + cursor.getLong(3) + "/" + cursor.getLong(4);
+        cursor.close();
+        return fingerprint;
+    }
+}
@@ -42,7 +42,7 @@ public class LoginActivity extends AppCompatActivity {
         setContentView(R.layout.activity_login);
 
         // Initialize services
-        apiService = ApiService.getInstance(this);
+        apiService = ApiService.getInstance(this).withOwner(this);
         sessionManager = SessionManager.getInstance(this);
 
         // Check if already logged in
@@ -13,12 +13,6 @@ import com.example.restaurantmanager.activities.utils.SessionManager;
 import com.example.restaurantmanager.api.ApiService;
 import com.example.restaurantmanager.models.NotificationPreferences;
 import com.example.restaurantmanager.models.User;
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  GuestChangeSettingsActivity - Manage guest user settings
@@ -59,7 +53,7 @@ public class GuestChangeSettingsActivity extends AppCompatActivity {
 
         //Initialise services
         sessionManager = SessionManager.getInstance(this);
-        apiService = ApiService.getInstance(this);
+        apiService = ApiService.getInstance(this).withOwner(this);
         notificationPreferences = NotificationPreferences.getInstance(this);
 
         initializeViews();
@@ -96,37 +90,24 @@ public class GuestChangeSettingsActivity extends AppCompatActivity {
             return;
         }
 
-        // Use read_user endpoint
-        String url = "http://10.240.72.69/comp2000/coursework/read_user/10921081/" + username;
-
-        JsonObjectRequest request = new JsonObjectRequest(
-                Request.Method.GET,
-                url,
-                null,
-                response -> {
-                    try {
-                        JSONObject userJson = response.getJSONObject("user");
-
-                        // Populate fields
-                        firstNameInput.setText(userJson.getString("firstname"));
-                        lastNameInput.setText(userJson.getString("lastname"));
-                        phoneInput.setText(userJson.getString("contact"));
-                        emailInput.setText(userJson.getString("email"));
-
-                        Log.d("SettingsActivity", "User loaded: " + userJson.getString("firstname"));
-                    } catch (JSONException e) {
-                        Toast.makeText(this, "Error parsing user data", Toast.LENGTH_SHORT).show();
-                        Log.e("SettingsActivity", "JSON error: " + e.getMessage());
-                    }
-                },
-                error -> {
-                    Toast.makeText(this, "Could not load user data", Toast.LENGTH_SHORT).show();
-                    Log.e("SettingsActivity", "Error: " + error.getMessage());
-                }
-        );
-
-        RequestQueue queue = Volley.newRequestQueue(this);
-        queue.add(request);
+        apiService.readUser(username, new ApiService.UserCallback() {
+            @Override
+            public void onSuccess(User user) {
+                // Populate fields
+                firstNameInput.setText(user.getFirstname());
+                lastNameInput.setText(user.getLastname());
+                phoneInput.setText(user.getContact());
+                emailInput.setText(user.getEmail());
+
+                Log.d("GuestSettings", "User loaded: " + user.getFirstname());
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(GuestChangeSettingsActivity.this, "Could not load user data", Toast.LENGTH_SHORT).show();
+                Log.e("GuestSettings", "Error: " + error);
+            }
+        });
     }
 
     //Load notification preferences from SharedPreferences
@@ -206,61 +187,43 @@ public class GuestChangeSettingsActivity extends AppCompatActivity {
         String username = sessionManager.getUsername();
 
         //Fetch user without password check
-        String readUrl = "http://10.240.72.69/comp2000/coursework/read_user/10921081/" + username;
-
-        JsonObjectRequest readRequest = new JsonObjectRequest(
-                Request.Method.GET,
-                readUrl,
-                null,
-                response -> {
-                    try {
-                        JSONObject userJson = response.getJSONObject("user");
-                        String currentPassword = userJson.getString("password");
-
-                        // Create updated user JSON
-                        JSONObject updateJson = new JSONObject();
-                        updateJson.put("username", username);
-                        updateJson.put("password", currentPassword); // Keep existing password
-                        updateJson.put("firstname", firstName);
-                        updateJson.put("lastname", lastName);
-                        updateJson.put("email", email);
-                        updateJson.put("contact", phone);
-                        updateJson.put("usertype", "guest");
-
-                        // Update the user
-                        String updateUrl = "http://10.240.72.69/comp2000/coursework/update_user/10921081/" + username;
-
-                        JsonObjectRequest updateRequest = new JsonObjectRequest(
-                                Request.Method.PUT,
-                                updateUrl,
-                                updateJson,
-                                updateResponse -> {
-                                    Toast.makeText(this, "Settings saved successfully", Toast.LENGTH_SHORT).show();
-                                    Log.d("GuestSettings", "User updated successfully");
-                                    finish();
-                                },
-                                error -> {
-                                    Toast.makeText(this, "Failed to save settings", Toast.LENGTH_LONG).show();
-                                    Log.e("GuestSettings", "Update error: " + error.getMessage());
-                                }
-                        );
-
-                        RequestQueue updateQueue = Volley.newRequestQueue(this);
-                        updateQueue.add(updateRequest);
-
-                    } catch (JSONException e) {
-                        Toast.makeText(this, "Error processing user data", Toast.LENGTH_SHORT).show();
-                        Log.e("GuestSettings", "JSON error: " + e.getMessage());
+        apiService.readUserForUpdate(username, new ApiService.UserCallback() {
+            @Override
+            public void onSuccess(User currentUser) {
+                // Create updated user
+                User updatedUser = new User(
+                        username,
+                        currentUser.getPassword(), // Keep existing password
+                        firstName,
+                        lastName,
+                        email,
+                        phone,
+                        "guest"
+                );
+
+                // Update the user
+                apiService.updateUser(username, updatedUser, new ApiService.ApiCallback() {
+                    @Override
+                    public void onSuccess(String response) {
+                        Toast.makeText(GuestChangeSettingsActivity.this, "Settings saved successfully", Toast.LENGTH_SHORT).show();
+                        Log.d("GuestSettings", "User updated successfully");
+                        finish();
                     }
-                },
-                error -> {
-                    Toast.makeText(this, "Could not retrieve current user data", Toast.LENGTH_SHORT).show();
-                    Log.e("GuestSettings", "Read error: " + error.getMessage());
-                }
-        );
-
-        RequestQueue readQueue = Volley.newRequestQueue(this);
-        readQueue.add(readRequest);
+
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(GuestChangeSettingsActivity.this, "Failed to save settings", Toast.LENGTH_LONG).show();
+                        Log.e("GuestSettings", "Update error: " + error);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(GuestChangeSettingsActivity.this, "Could not retrieve current user data", Toast.LENGTH_SHORT).show();
+                Log.e("GuestSettings", "Read error: " + error);
+            }
+        });
     }
 
 }
\ No newline at end of file
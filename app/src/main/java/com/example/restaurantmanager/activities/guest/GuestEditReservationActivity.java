@@ -15,7 +15,9 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.restaurantmanager.R;
 import com.example.restaurantmanager.activities.guest.SuccessfulEditReservationActivity;
+import com.example.restaurantmanager.activities.utils.ClockService;
 import com.example.restaurantmanager.activities.utils.NotificationHelper;
+import com.example.restaurantmanager.activities.utils.WaitlistManager;
 import com.example.restaurantmanager.database.DatabaseHelper;
 import com.example.restaurantmanager.models.Reservation;
 import java.util.Calendar;
@@ -38,6 +40,7 @@ public class GuestEditReservationActivity extends AppCompatActivity {
 
     private static final int OPENING_HOUR = 11;  // 11:00 AM
     private static final int CLOSING_HOUR = 22;  // 10:00 PM
+    private static final long ONE_HOUR_MILLIS = 60 * 60 * 1000;
 
     // Data
     private DatabaseHelper databaseHelper;
@@ -251,13 +254,19 @@ public class GuestEditReservationActivity extends AppCompatActivity {
                 existingReservation.getStatus()
         );
 
-        // Update in database
-        int result = databaseHelper.updateReservation(updatedReservation);
+        // Update in database - checks the new slot's capacity in the same transaction
+        int result = databaseHelper.updateIfAvailable(updatedReservation, DatabaseHelper.MAX_GUESTS_PER_SLOT);
 
-        if (result > 0) {
+        if (result == DatabaseHelper.RESERVATION_SLOT_FULL) {
+            Toast.makeText(this, "This time slot is fully booked. Please choose another time.",
+                    Toast.LENGTH_LONG).show();
+        } else if (result > 0) {
             NotificationHelper notificationHelper = NotificationHelper.getInstance(this);
             notificationHelper.sendStaffReservationChanged(updatedReservation);
 
+            // Moving or shrinking a booking frees seats in the original slot
+            WaitlistManager.getInstance(this).onReservationCancelled(existingReservation);
+
             // Success - go to confirmation screen
             Intent intent = new Intent(this, SuccessfulEditReservationActivity.class);
             intent.putExtra("reservation_date", selectedDate);
@@ -282,32 +291,17 @@ public class GuestEditReservationActivity extends AppCompatActivity {
 
         // If booking for today, check if time is in the future
         if (isToday(selectedDate)) {
-            Calendar now = Calendar.getInstance();
+            ClockService clockService = ClockService.getInstance();
+
+            // Build the selected time from today's cached midnight - no date parsing
             Calendar selectedDateTime = Calendar.getInstance();
+            selectedDateTime.setTimeInMillis(clockService.todayStartMillis());
+            selectedDateTime.set(Calendar.HOUR_OF_DAY, hour);
+            selectedDateTime.set(Calendar.MINUTE, minute);
 
-            // Parse the selected date
-            String[] dateParts = selectedDate.split("-");
-            if (dateParts.length == 3) {
-                selectedDateTime.set(
-                        Integer.parseInt(dateParts[0]),
-                        Integer.parseInt(dateParts[1]) - 1,
-                        Integer.parseInt(dateParts[2]),
-                        hour,
-                        minute
-                );
-
-                // Check if selected time is in the past
-                if (selectedDateTime.before(now)) {
-                    return false;
-                }
-
-                // Require at least 1 hour advance booking
-                Calendar oneHourFromNow = Calendar.getInstance();
-                oneHourFromNow.add(Calendar.HOUR_OF_DAY, 1);
-
-                if (selectedDateTime.before(oneHourFromNow)) {
-                    return false;
-                }
+            // Reject past times and require at least 1 hour advance booking
+            if (selectedDateTime.getTimeInMillis() < clockService.now() + ONE_HOUR_MILLIS) {
+                return false;
             }
         }
 
@@ -322,14 +316,7 @@ public class GuestEditReservationActivity extends AppCompatActivity {
             return false;
         }
 
-        Calendar today = Calendar.getInstance();
-        String todayString = String.format("%04d-%02d-%02d",
-                today.get(Calendar.YEAR),
-                today.get(Calendar.MONTH) + 1,
-                today.get(Calendar.DAY_OF_MONTH)
-        );
-
-        return dateString.equals(todayString);
+        return ClockService.getInstance().isToday(dateString);
     }
 
 }
\ No newline at end of file
@@ -12,12 +12,17 @@ import android.widget.ImageView;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.restaurantmanager.R;
 import com.example.restaurantmanager.activities.guest.SuccessfulReservationActivity;
+import com.example.restaurantmanager.activities.utils.ClockService;
 import com.example.restaurantmanager.activities.utils.NotificationHelper;
+import com.example.restaurantmanager.activities.utils.WaitlistManager;
 import com.example.restaurantmanager.database.DatabaseHelper;
+import com.example.restaurantmanager.models.RecurringReservation;
 import com.example.restaurantmanager.models.Reservation;
+import com.example.restaurantmanager.models.WaitlistEntry;
 import com.example.restaurantmanager.activities.utils.SessionManager;
 import java.util.Calendar;
 
@@ -30,6 +35,7 @@ public class GuestMakeReservationActivity extends AppCompatActivity {
     // UI Components
     private ImageView backButton;
     private Spinner numberOfPeopleSpinner;
+    private Spinner repeatSpinner;
     private EditText datePicker;
     private EditText timePicker;
     private TextView peopleWarning;
@@ -40,6 +46,18 @@ public class GuestMakeReservationActivity extends AppCompatActivity {
     // Restaurant operating hours
     private static final int OPENING_HOUR = 11;  // 11:00 AM
     private static final int CLOSING_HOUR = 22;  // 10:00 PM
+    private static final long ONE_HOUR_MILLIS = 60 * 60 * 1000;
+
+    // Repeat options and the recurrence frequency each one maps to (null = one-off)
+    private static final String[] REPEAT_OPTIONS = {
+            "Does not repeat", "Weekly", "Every 2 weeks", "Monthly"
+    };
+    private static final String[] REPEAT_FREQUENCIES = {
+            null,
+            RecurringReservation.FREQUENCY_WEEKLY,
+            RecurringReservation.FREQUENCY_BIWEEKLY,
+            RecurringReservation.FREQUENCY_MONTHLY
+    };
 
     // Data
     private DatabaseHelper databaseHelper;
@@ -65,6 +83,7 @@ public class GuestMakeReservationActivity extends AppCompatActivity {
     private void initializeViews() {
         backButton = findViewById(R.id.backButton);
         numberOfPeopleSpinner = findViewById(R.id.numberOfPeopleSpinner);
+        repeatSpinner = findViewById(R.id.repeatSpinner);
         datePicker = findViewById(R.id.datePicker);
         timePicker = findViewById(R.id.timePicker);
         peopleWarning = findViewById(R.id.peopleWarning);
@@ -100,6 +119,15 @@ public class GuestMakeReservationActivity extends AppCompatActivity {
         );
         adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         numberOfPeopleSpinner.setAdapter(adapter);
+
+        // Repeat options for standing reservations
+        ArrayAdapter<String> repeatAdapter = new ArrayAdapter<>(
+                this,
+                android.R.layout.simple_spinner_item,
+                REPEAT_OPTIONS
+        );
+        repeatAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        repeatSpinner.setAdapter(repeatAdapter);
     }
 
     //Set up button listeners
@@ -232,6 +260,13 @@ public class GuestMakeReservationActivity extends AppCompatActivity {
             username = "guest_user";
         }
 
+        // Standing reservation - store the rule once instead of one row per visit
+        String frequency = REPEAT_FREQUENCIES[repeatSpinner.getSelectedItemPosition()];
+        if (frequency != null) {
+            createStandingReservation(username, numberOfGuests, frequency);
+            return;
+        }
+
         // Create reservation object
         Reservation reservation = new Reservation(
                 username,
@@ -241,10 +276,13 @@ public class GuestMakeReservationActivity extends AppCompatActivity {
                 "confirmed" // Default status
         );
 
-        // Save to database
-        long result = databaseHelper.addReservation(reservation);
+        // Save to database - capacity check and insert happen in one transaction
+        long result = databaseHelper.reserveIfAvailable(reservation, DatabaseHelper.MAX_GUESTS_PER_SLOT);
 
-        if (result != -1) {
+        if (result == DatabaseHelper.RESERVATION_SLOT_FULL) {
+            // Slot already full - offer the waitlist instead
+            showJoinWaitlistDialog(WaitlistManager.getInstance(this), username, numberOfGuests);
+        } else if (result != -1) {
             // Create reservation object with ID for notification
             Reservation newReservation = new Reservation(
                     (int) result,
@@ -272,6 +310,61 @@ public class GuestMakeReservationActivity extends AppCompatActivity {
         }
     }
 
+    //Save a recurring rule starting on the selected date
+    private void createStandingReservation(String username, int numberOfGuests, String frequency) {
+        RecurringReservation rule = new RecurringReservation(
+                username,
+                selectedTime,
+                numberOfGuests,
+                frequency,
+                selectedDate,
+                null // Open-ended
+        );
+
+        // Every repeat is checked against capacity in the same transaction as the insert
+        long result = databaseHelper.addRecurringIfAvailable(rule, DatabaseHelper.MAX_GUESTS_PER_SLOT);
+
+        if (result == DatabaseHelper.RESERVATION_SLOT_FULL) {
+            Toast.makeText(this, "This time is fully booked on one of the repeat dates. Please choose another time.",
+                    Toast.LENGTH_LONG).show();
+        } else if (result != -1) {
+            // First occurrence stands in for the whole series in the staff notification
+            NotificationHelper.getInstance(this).sendStaffNewReservation(
+                    new Reservation(-(int) result, username, selectedDate, selectedTime,
+                            numberOfGuests, "confirmed"));
+
+            Intent intent = new Intent(this, SuccessfulReservationActivity.class);
+            intent.putExtra("reservation_date", selectedDate);
+            intent.putExtra("reservation_time", selectedTime);
+            intent.putExtra("reservation_guests", numberOfGuests);
+            startActivity(intent);
+            finish();
+        } else {
+            Toast.makeText(this, "Failed to create reservation. Please try again.", Toast.LENGTH_LONG).show();
+        }
+    }
+
+    //Ask guest whether to wait for a table in a full slot
+    private void showJoinWaitlistDialog(WaitlistManager waitlistManager, String username, int numberOfGuests) {
+        new AlertDialog.Builder(this)
+                .setTitle("Fully Booked")
+                .setMessage("There are no tables left for " + selectedDate + " at " + selectedTime +
+                        ". Would you like to join the waitlist? We will notify you if a table opens up.")
+                .setPositiveButton("Join Waitlist", (dialog, which) -> {
+                    long result = waitlistManager.joinWaitlist(
+                            new WaitlistEntry(username, selectedDate, selectedTime, numberOfGuests, 0));
+
+                    if (result != -1) {
+                        Toast.makeText(this, "You have been added to the waitlist", Toast.LENGTH_LONG).show();
+                        finish();
+                    } else {
+                        Toast.makeText(this, "Failed to join the waitlist. Please try again.", Toast.LENGTH_LONG).show();
+                    }
+                })
+                .setNegativeButton("Choose Another Time", null)
+                .show();
+    }
+
     /**
      * Validate that the selected time is within restaurant hours
      * and not in the past (if booking for today)
@@ -284,32 +377,17 @@ public class GuestMakeReservationActivity extends AppCompatActivity {
 
         // If booking for today, check if time is in the future
         if (isToday(selectedDate)) {
-            Calendar now = Calendar.getInstance();
-            Calendar selectedDateTime = Calendar.getInstance();
-
-            // Parse the selected date
-            String[] dateParts = selectedDate.split("-");
-            if (dateParts.length == 3) {
-                selectedDateTime.set(
-                        Integer.parseInt(dateParts[0]),
-                        Integer.parseInt(dateParts[1]) - 1,
-                        Integer.parseInt(dateParts[2]),
-                        hour,
-                        minute
-                );
-
-                // Check if selected time is in the past
-                if (selectedDateTime.before(now)) {
-                    return false;
-                }
+            ClockService clockService = ClockService.getInstance();
 
-                // Require at least 1 hour advance booking
-                Calendar oneHourFromNow = Calendar.getInstance();
-                oneHourFromNow.add(Calendar.HOUR_OF_DAY, 1);
+            // Build the selected time from today's cached midnight - no date parsing
+            Calendar selectedDateTime = Calendar.getInstance();
+            selectedDateTime.setTimeInMillis(clockService.todayStartMillis());
+            selectedDateTime.set(Calendar.HOUR_OF_DAY, hour);
+            selectedDateTime.set(Calendar.MINUTE, minute);
 
-                if (selectedDateTime.before(oneHourFromNow)) {
-                    return false;
-                }
+            // Reject past times and require at least 1 hour advance booking
+            if (selectedDateTime.getTimeInMillis() < clockService.now() + ONE_HOUR_MILLIS) {
+                return false;
             }
         }
 
@@ -324,13 +402,6 @@ public class GuestMakeReservationActivity extends AppCompatActivity {
             return false;
         }
 
-        Calendar today = Calendar.getInstance();
-        String todayString = String.format("%04d-%02d-%02d",
-                today.get(Calendar.YEAR),
-                today.get(Calendar.MONTH) + 1,
-                today.get(Calendar.DAY_OF_MONTH)
-        );
-
-        return dateString.equals(todayString);
+        return ClockService.getInstance().isToday(dateString);
     }
 }
@@ -13,8 +13,12 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.restaurantmanager.R;
 import com.example.restaurantmanager.adapters.ReservationAdapter;
 import com.example.restaurantmanager.database.DatabaseHelper;
+import com.example.restaurantmanager.database.RecurrenceExpander;
 import com.example.restaurantmanager.models.Reservation;
+import com.example.restaurantmanager.models.WaitlistEntry;
+import com.example.restaurantmanager.activities.utils.ClockService;
 import com.example.restaurantmanager.activities.utils.SessionManager;
+import com.example.restaurantmanager.activities.utils.WaitlistManager;
 import java.util.List;
 
 /**
@@ -23,16 +27,21 @@ import java.util.List;
  */
 public class MyReservationsActivity extends AppCompatActivity implements ReservationAdapter.OnReservationDeleteListener {
 
+    // How far ahead standing reservations are listed (same as the staff list)
+    private static final int STANDING_WINDOW_DAYS = 56;
+
     // UI Components
     private ImageView backButton;
     private RecyclerView reservationsRecyclerView;
     private TextView emptyStateText;
+    private TextView waitlistText;
 
     // Data
     private DatabaseHelper databaseHelper;
     private SessionManager sessionManager;
     private List<Reservation> reservations;
     private ReservationAdapter reservationAdapter;
+    private List<WaitlistEntry> waitlistEntries;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -54,6 +63,7 @@ public class MyReservationsActivity extends AppCompatActivity implements Reserva
         backButton = findViewById(R.id.backButton);
         reservationsRecyclerView = findViewById(R.id.reservationsRecyclerView);
         emptyStateText = findViewById(R.id.emptyStateText);
+        waitlistText = findViewById(R.id.waitlistText);
     }
 
     //Load reservations from database for current user
@@ -63,7 +73,11 @@ public class MyReservationsActivity extends AppCompatActivity implements Reserva
             username = "guest_user"; // Fallback for testing
         }
 
-        reservations = databaseHelper.getReservationsByGuest(username);
+        // Standing bookings are expanded on read, so only the coming weeks are listed
+        String today = ClockService.getInstance().todayKey();
+        reservations = databaseHelper.getReservationsByGuestWithStanding(
+                username, today, RecurrenceExpander.addDays(today, STANDING_WINDOW_DAYS));
+        loadWaitlist(username);
 
         // Show/hide empty state
         if (reservations.isEmpty()) {
@@ -75,6 +89,46 @@ public class MyReservationsActivity extends AppCompatActivity implements Reserva
         }
     }
 
+    //Show the slots the guest is waiting for, if any
+    private void loadWaitlist(String username) {
+        waitlistEntries = databaseHelper.getWaitlistByGuest(username);
+        if (waitlistEntries.isEmpty()) {
+            waitlistText.setVisibility(View.GONE);
+            return;
+        }
+
+        StringBuilder text = new StringBuilder("On the waitlist for:");
+        for (WaitlistEntry entry : waitlistEntries) {
+            text.append("\n").append(describe(entry));
+        }
+        text.append("\nTap to leave a waitlist");
+        waitlistText.setText(text);
+        waitlistText.setVisibility(View.VISIBLE);
+    }
+
+    private static String describe(WaitlistEntry entry) {
+        return entry.getDate() + " at " + entry.getTime() + " - " + entry.getNumberOfGuests() + " guests";
+    }
+
+    //Let the guest pick a waitlist to leave
+    private void showLeaveWaitlistDialog() {
+        String[] slots = new String[waitlistEntries.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = describe(waitlistEntries.get(i));
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("Leave Waitlist")
+                .setItems(slots, (dialog, which) -> {
+                    WaitlistEntry entry = waitlistEntries.get(which);
+                    databaseHelper.removeFromWaitlist(entry.getId());
+                    loadWaitlist(entry.getGuestUsername());
+                    Toast.makeText(this, "Removed from waitlist", Toast.LENGTH_SHORT).show();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
     /**
      Set up RecyclerView with adapter
      Design Pattern: Adapter Pattern
@@ -92,11 +146,18 @@ public class MyReservationsActivity extends AppCompatActivity implements Reserva
             Intent intent = new Intent(this, GuestDashboardActivity.class);
             startActivity(intent);
         });
+
+        waitlistText.setOnClickListener(v -> showLeaveWaitlistDialog());
     }
     //Handle reservation deletion
 
     @Override
     public void onReservationDelete(Reservation reservation, int position) {
+        if (RecurrenceExpander.isOccurrence(reservation)) {
+            showCancelStandingDialog(reservation);
+            return;
+        }
+
         // Show confirmation dialog
         new AlertDialog.Builder(this)
                 .setTitle("Cancel Reservation")
@@ -105,6 +166,9 @@ public class MyReservationsActivity extends AppCompatActivity implements Reserva
                     // Delete from database
                     databaseHelper.deleteReservation(reservation.getId());
 
+                    // Offer the freed seats to the waitlist
+                    WaitlistManager.getInstance(this).onReservationCancelled(reservation);
+
                     // Remove from adapter
                     reservationAdapter.removeItem(position);
 
@@ -120,6 +184,42 @@ public class MyReservationsActivity extends AppCompatActivity implements Reserva
                 .show();
     }
 
+    //Standing reservation - cancel one date or the whole series
+    private void showCancelStandingDialog(Reservation occurrence) {
+        int ruleId = RecurrenceExpander.getRuleId(occurrence);
+        new AlertDialog.Builder(this)
+                .setTitle("Cancel Standing Reservation")
+                .setMessage("Cancel only " + occurrence.getDate() + ", or every date of this booking?")
+                .setPositiveButton("This Date", (dialog, which) -> {
+                    // Skip just this date, keep the rule
+                    databaseHelper.addRecurrenceException(ruleId, occurrence.getDate());
+                    WaitlistManager.getInstance(this).onReservationCancelled(occurrence);
+                    refreshReservations();
+                    Toast.makeText(this, "Reservation cancelled", Toast.LENGTH_SHORT).show();
+                })
+                .setNeutralButton("All Dates", (dialog, which) -> {
+                    databaseHelper.deleteRecurringReservation(ruleId);
+
+                    // Offer the freed seats of the listed dates to their waitlists
+                    WaitlistManager waitlistManager = WaitlistManager.getInstance(this);
+                    for (Reservation reservation : reservations) {
+                        if (RecurrenceExpander.isOccurrence(reservation)
+                                && RecurrenceExpander.getRuleId(reservation) == ruleId) {
+                            waitlistManager.onReservationCancelled(reservation);
+                        }
+                    }
+                    refreshReservations();
+                    Toast.makeText(this, "Standing reservation cancelled", Toast.LENGTH_SHORT).show();
+                })
+                .setNegativeButton("No", null)
+                .show();
+    }
+
+    private void refreshReservations() {
+        loadReservations();
+        reservationAdapter.updateReservations(reservations);
+    }
+
     //Refresh reservations when returning from edit screen
 
     @Override
@@ -3,15 +3,15 @@ package com.example.restaurantmanager.activities.staff;
 import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
+import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.ImageView;
+import android.widget.ProgressBar;
 import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -22,11 +22,12 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.core.content.FileProvider;
 import com.example.restaurantmanager.R;
+import com.example.restaurantmanager.activities.utils.MenuImageIngest;
+import com.example.restaurantmanager.activities.utils.MenuImageLoader;
+import com.example.restaurantmanager.activities.utils.MenuImageRenditions;
 import com.example.restaurantmanager.database.DatabaseHelper;
 import com.example.restaurantmanager.models.MenuItem;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.InputStream;
 import java.util.Arrays;
 
 /**
@@ -40,6 +41,7 @@ public class StaffAddEditMenuItemActivity extends AppCompatActivity {
     private ImageView backArrow;
     private TextView titleText;
     private ImageView menuItemImagePreview;
+    private ProgressBar imageIngestProgress;
     private Button btnSelectFromGallery;
     private Button btnTakePhoto;
     private EditText editItemName;
@@ -56,7 +58,10 @@ public class StaffAddEditMenuItemActivity extends AppCompatActivity {
     private boolean isEditMode = false;
     private int editItemId = -1;
     private String currentImagePath = null;
+    private String currentThumbnailPath = null;
+    private String currentDetailPath = null;
     private Uri photoUri;
+    private File photoFile;
 
     //Categories
     private static final String[] CATEGORIES = {
@@ -104,6 +109,7 @@ public class StaffAddEditMenuItemActivity extends AppCompatActivity {
         backArrow = findViewById(R.id.backArrow);
         titleText = findViewById(R.id.titleText);
         menuItemImagePreview = findViewById(R.id.menuItemImagePreview);
+        imageIngestProgress = findViewById(R.id.imageIngestProgress);
         btnSelectFromGallery = findViewById(R.id.btnSelectFromGallery);
         btnTakePhoto = findViewById(R.id.btnTakePhoto);
         editItemName = findViewById(R.id.editItemName);
@@ -143,6 +149,8 @@ public class StaffAddEditMenuItemActivity extends AppCompatActivity {
                         if (photoUri != null) {
                             handleImageSelected(photoUri);
                         }
+                    } else {
+                        deleteCapture();
                     }
                 });
     }
@@ -172,8 +180,10 @@ public class StaffAddEditMenuItemActivity extends AppCompatActivity {
         editItemDescription.setText(intent.getStringExtra("ITEM_DESCRIPTION"));
 
         currentImagePath = intent.getStringExtra("ITEM_IMAGE");
+        currentThumbnailPath = intent.getStringExtra("ITEM_THUMBNAIL");
+        currentDetailPath = intent.getStringExtra("ITEM_DETAIL");
         if (currentImagePath != null && !currentImagePath.isEmpty()) {
-            loadImageIntoPreview(currentImagePath);
+            loadImageIntoPreview(currentDetailPath != null ? currentDetailPath : currentImagePath);
         }
 
         // Load category
@@ -198,55 +208,81 @@ public class StaffAddEditMenuItemActivity extends AppCompatActivity {
         Intent intent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
 
         // Create file for photo
-        File photoFile = new File(getExternalFilesDir(null), "menu_item_" + System.currentTimeMillis() + ".jpg");
+        photoFile = new File(getExternalFilesDir(null), "menu_item_" + System.currentTimeMillis() + ".jpg");
         photoUri = FileProvider.getUriForFile(this, getPackageName() + ".fileprovider", photoFile);
 
         intent.putExtra(MediaStore.EXTRA_OUTPUT, photoUri);
         cameraLauncher.launch(intent);
     }
 
-    //Handle selected/captured image
+    //Handle selected/captured image - stored in the background, the form stays usable
     private void handleImageSelected(Uri imageUri) {
-        try {
-            // Save image to internal storage
-            InputStream inputStream = getContentResolver().openInputStream(imageUri);
-            if (inputStream != null) {
-                Bitmap bitmap = BitmapFactory.decodeStream(inputStream);
-                inputStream.close();
-
-                // Save to internal storage
-                String filename = "menu_" + System.currentTimeMillis() + ".jpg";
-                File file = new File(getFilesDir(), filename);
-
-                FileOutputStream out = new FileOutputStream(file);
-                bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
-                out.flush();
-                out.close();
+        setIngesting(true);
+        MenuImageIngest.getInstance(this).ingest(imageUri, new MenuImageIngest.Listener() {
+            @Override
+            public void onProgress(int percent) {
+                imageIngestProgress.setProgress(percent);
+            }
 
-                currentImagePath = file.getAbsolutePath();
+            @Override
+            public void onComplete(MenuImageRenditions.Renditions renditions) {
+                deleteCapture(imageUri);
+                if (isDestroyed()) {
+                    return;
+                }
+                setIngesting(false);
+                currentImagePath = renditions.getOriginalPath();
+                currentThumbnailPath = renditions.getThumbnailPath();
+                currentDetailPath = renditions.getDetailPath();
 
                 // Display in preview
-                menuItemImagePreview.setImageBitmap(bitmap);
+                loadImageIntoPreview(currentDetailPath != null ? currentDetailPath : currentImagePath);
 
-                Toast.makeText(this, "Image selected", Toast.LENGTH_SHORT).show();
+                Toast.makeText(StaffAddEditMenuItemActivity.this, "Image selected", Toast.LENGTH_SHORT).show();
             }
-        } catch (Exception e) {
-            Toast.makeText(this, "Error loading image: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+
+            @Override
+            public void onError(String message) {
+                deleteCapture(imageUri);
+                if (isDestroyed()) {
+                    return;
+                }
+                setIngesting(false);
+                Toast.makeText(StaffAddEditMenuItemActivity.this,
+                        "Error loading image: " + message, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    //The camera's full-size file is not needed once it has been stored (or failed to be)
+    private void deleteCapture(Uri ingested) {
+        if (ingested.equals(photoUri)) {
+            deleteCapture();
         }
     }
 
+    private void deleteCapture() {
+        if (photoFile != null) {
+            photoFile.delete();
+            photoFile = null;
+            photoUri = null;
+        }
+    }
+
+    //Show progress and hold off saving or picking another photo while one is stored
+    private void setIngesting(boolean ingesting) {
+        imageIngestProgress.setProgress(0);
+        imageIngestProgress.setVisibility(ingesting ? View.VISIBLE : View.GONE);
+        btnSave.setEnabled(!ingesting);
+        btnSelectFromGallery.setEnabled(!ingesting);
+        btnTakePhoto.setEnabled(!ingesting);
+    }
+
     //Load image into preview
 
     private void loadImageIntoPreview(String imagePath) {
-        try {
-            File file = new File(imagePath);
-            if (file.exists()) {
-                Bitmap bitmap = BitmapFactory.decodeFile(imagePath);
-                menuItemImagePreview.setImageBitmap(bitmap);
-            }
-        } catch (Exception e) {
-            // Keep default image
-        }
+        // Decoded in the background at the preview's size
+        MenuImageLoader.getInstance(this).load(imagePath, menuItemImagePreview, android.R.drawable.ic_menu_gallery);
     }
 
     //Save menu item to database
@@ -298,6 +334,8 @@ public class StaffAddEditMenuItemActivity extends AppCompatActivity {
                 description,
                 category
         );
+        menuItem.setThumbnailUrl(currentThumbnailPath);
+        menuItem.setDetailUrl(currentDetailPath);
 
         if (isEditMode) {
             int result = databaseHelper.updateMenuItem(menuItem);
@@ -0,0 +1,79 @@
+package com.example.restaurantmanager.activities.staff;
+
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.ImageView;
+import android.widget.TextView;
+import androidx.appcompat.app.AppCompatActivity;
+import com.example.restaurantmanager.R;
+import com.example.restaurantmanager.api.ApiMetrics;
+import com.example.restaurantmanager.api.Histogram;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ StaffApiMetricsActivity - Hidden debug screen showing API latency and error metrics
+ Opened by long-pressing the "Change Details" title in StaffSettingsActivity.
+ Shows p50/p95/p99 per endpoint first so slow endpoints stand out, then every counter.
+ Design Pattern: MVC (Controller)
+ SOLID: Single Responsibility - Only displays ApiMetrics
+ */
+public class StaffApiMetricsActivity extends AppCompatActivity {
+
+    private TextView metricsText;
+    private ApiMetrics metrics;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_staff_api_metrics);
+
+        metrics = ApiMetrics.getInstance();
+        metricsText = findViewById(R.id.metricsText);
+        ImageView backButton = findViewById(R.id.backArrow);
+        Button refreshButton = findViewById(R.id.refreshButton);
+
+        backButton.setOnClickListener(v -> finish());
+        refreshButton.setOnClickListener(v -> showMetrics());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showMetrics();
+    }
+
+    //Render the current snapshot as plain text
+    private void showMetrics() {
+        StringBuilder text = new StringBuilder();
+        Map<String, Long> counters = metrics.snapshot();
+
+        text.append("LATENCY (ms)            n    p50    p95    p99    max\n");
+        for (Map.Entry<String, Long> entry : counters.entrySet()) {
+            // Every endpoint that was called has a request.<endpoint> counter
+            if (!entry.getKey().startsWith("request.")) {
+                continue;
+            }
+            String endpoint = entry.getKey().substring("request.".length());
+            appendHistogram(text, endpoint, metrics.getHistogram("latency." + endpoint));
+            appendHistogram(text, "  network", metrics.getHistogram("network." + endpoint));
+            appendHistogram(text, "  bytes in", metrics.getHistogram("size.in." + endpoint));
+        }
+
+        text.append("\nCOUNTERS\n");
+        for (Map.Entry<String, Long> entry : counters.entrySet()) {
+            text.append(entry.getKey()).append(" = ").append(entry.getValue()).append('\n');
+        }
+
+        metricsText.setText(text);
+    }
+
+    private static void appendHistogram(StringBuilder text, String label, Histogram histogram) {
+        if (histogram == null || histogram.getCount() == 0) {
+            return;
+        }
+        text.append(String.format(Locale.UK, "%-18s %6d %6d %6d %6d %6d\n",
+                label, histogram.getCount(), histogram.getPercentile(50), histogram.getPercentile(95),
+                histogram.getPercentile(99), histogram.getMax()));
+    }
+}
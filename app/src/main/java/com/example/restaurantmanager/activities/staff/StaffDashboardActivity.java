@@ -12,13 +12,11 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import com.example.restaurantmanager.R;
 import com.example.restaurantmanager.activities.common.WelcomeActivity;
+import com.example.restaurantmanager.activities.utils.ClockService;
 import com.example.restaurantmanager.activities.utils.SessionManager;
 import com.example.restaurantmanager.database.DatabaseHelper;
 import com.example.restaurantmanager.models.Reservation;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 /**
  StaffDashboardActivity - Main dashboard for staff users
@@ -114,34 +112,24 @@ public class StaffDashboardActivity extends AppCompatActivity {
      Design Pattern: Data access through DatabaseHelper (Singleton)
      */
     private void loadDashboardData() {
-        // Get today's date in YYYY-MM-DD format
-        SimpleDateFormat dbDateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.UK);
-        String todayDate = dbDateFormat.format(new Date());
+        // Get today's date in YYYY-MM-DD format (cached by ClockService)
+        ClockService clockService = ClockService.getInstance();
+        String todayDate = clockService.todayKey();
 
-        android.util.Log.d("StaffDashboard", "Today's date (YYYY-MM-DD): " + todayDate);
-
-        // Get today's reservations count (excluding cancelled)
-        List<Reservation> allReservations = databaseHelper.getAllReservations();
-        android.util.Log.d("StaffDashboard", "Total reservations: " + allReservations.size());
+        // Get today's reservations count (excluding cancelled), standing bookings included
+        List<Reservation> allReservations = databaseHelper.getReservationsInRange(todayDate, todayDate);
 
         int todayCount = 0;
         for (Reservation reservation : allReservations) {
             //Only count if date matches AND status is not cancelled
-            boolean isToday = reservation.getDate().equals(todayDate);
+            boolean isToday = clockService.isToday(reservation.getDate());
             boolean isNotCancelled = !reservation.getStatus().equalsIgnoreCase("Cancelled");
 
-            android.util.Log.d("StaffDashboard", "Guest: " + reservation.getGuestUsername() +
-                    ", Date: " + reservation.getDate() +
-                    ", Status: " + reservation.getStatus() +
-                    ", IsToday: " + isToday +
-                    ", NotCancelled: " + isNotCancelled);
-
             if (isToday && isNotCancelled) {
                 todayCount++;
             }
         }
 
-        android.util.Log.d("StaffDashboard", "Today's ACTIVE count: " + todayCount);
         todayReservationsCount.setText(String.valueOf(todayCount));
 
         // Get total menu items count
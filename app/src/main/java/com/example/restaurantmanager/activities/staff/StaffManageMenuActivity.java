@@ -12,6 +12,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.restaurantmanager.R;
+import com.example.restaurantmanager.activities.utils.MenuImageStore;
 import com.example.restaurantmanager.adapters.StaffMenuAdapter;
 import com.example.restaurantmanager.database.DatabaseHelper;
 import com.example.restaurantmanager.models.MenuItem;
@@ -51,6 +52,9 @@ public class StaffManageMenuActivity extends AppCompatActivity
         setupRecyclerView();
         setupListeners();
         loadMenuItems();
+
+        // Remove images left behind by deleted or changed items
+        MenuImageStore.getInstance(this).collectGarbage();
     }
 
     //Initialize view components
@@ -111,6 +115,8 @@ public class StaffManageMenuActivity extends AppCompatActivity
         intent.putExtra("ITEM_PRICE", item.getPrice());
         intent.putExtra("ITEM_DESCRIPTION", item.getDescription());
         intent.putExtra("ITEM_IMAGE", item.getImageUrl());
+        intent.putExtra("ITEM_THUMBNAIL", item.getThumbnailUrl());
+        intent.putExtra("ITEM_DETAIL", item.getDetailUrl());
         intent.putExtra("ITEM_CATEGORY", item.getCategory());
         startActivityForResult(intent, REQUEST_EDIT_ITEM);
     }
@@ -125,6 +131,7 @@ public class StaffManageMenuActivity extends AppCompatActivity
                     databaseHelper.deleteMenuItem(item.getId());
                     Toast.makeText(this, "Menu item deleted", Toast.LENGTH_SHORT).show();
                     loadMenuItems();
+                    MenuImageStore.getInstance(this).collectGarbage();
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -140,6 +147,8 @@ public class StaffManageMenuActivity extends AppCompatActivity
                 Toast.makeText(this, "Menu item added successfully", Toast.LENGTH_SHORT).show();
             } else if (requestCode == REQUEST_EDIT_ITEM) {
                 Toast.makeText(this, "Menu item updated successfully", Toast.LENGTH_SHORT).show();
+                // The item may have a new image now
+                MenuImageStore.getInstance(this).collectGarbage();
             }
             loadMenuItems();
         }
@@ -14,14 +14,18 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.restaurantmanager.R;
+import com.example.restaurantmanager.activities.utils.ClockService;
 import com.example.restaurantmanager.activities.utils.NotificationHelper;
+import com.example.restaurantmanager.activities.utils.WaitlistManager;
 import com.example.restaurantmanager.adapters.StaffReservationsAdapter;
+import com.example.restaurantmanager.api.ApiService;
 import com.example.restaurantmanager.database.DatabaseHelper;
+import com.example.restaurantmanager.database.RecurrenceExpander;
 import com.example.restaurantmanager.models.Reservation;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import com.example.restaurantmanager.models.User;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Set;
 
 /**
  StaffManageReservationsActivity - Staff view/manage customer reservations
@@ -43,11 +47,17 @@ public class StaffManageReservationsActivity extends AppCompatActivity
 
     // Services
     private DatabaseHelper databaseHelper;
+    private ApiService apiService;
     private StaffReservationsAdapter adapter;
 
     // State
     private String currentFilter = "all";
-    private String todayDate;
+
+    // Guests whose profiles were already asked for
+    private final Set<String> requestedGuests = new HashSet<>();
+
+    // How far ahead standing reservations are listed
+    private static final int STANDING_WINDOW_DAYS = 56;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,10 +66,7 @@ public class StaffManageReservationsActivity extends AppCompatActivity
 
         // Initialize services
         databaseHelper = DatabaseHelper.getInstance(this);
-
-        // Get today's date
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.UK);
-        todayDate = dateFormat.format(new Date());
+        apiService = ApiService.getInstance(this).withOwner(this);
 
         initializeViews();
         setupRecyclerView();
@@ -125,11 +132,38 @@ public class StaffManageReservationsActivity extends AppCompatActivity
      Design Pattern: Data access via Singleton DatabaseHelper
      */
     private void loadReservations() {
-        List<Reservation> allReservations = databaseHelper.getAllReservations();
+        List<Reservation> allReservations = getReservationsWithStanding();
         adapter.setReservations(allReservations);
+        loadGuestProfiles(allReservations);
         updateEmptyState();
     }
 
+    /**
+     Fetch the names of the listed guests from the API
+     Lookups go through readUserBatched, so the whole list costs one read_users request
+     instead of one read_user per guest. Rows show the username until the name arrives.
+     */
+    private void loadGuestProfiles(List<Reservation> reservations) {
+        for (Reservation reservation : reservations) {
+            String username = reservation.getGuestUsername();
+            if (!requestedGuests.add(username)) {
+                continue;
+            }
+            apiService.readUserBatched(username, new ApiService.UserCallback() {
+                @Override
+                public void onSuccess(User user) {
+                    adapter.setGuest(user);
+                }
+
+                @Override
+                public void onError(String error) {
+                    // Keep showing the username; ask again on the next reload
+                    requestedGuests.remove(username);
+                }
+            });
+        }
+    }
+
     /**
      Apply date filter to reservations
      @param filter "all", "today", or "upcoming"
@@ -161,14 +195,15 @@ public class StaffManageReservationsActivity extends AppCompatActivity
         searchBar.setText("");
 
         // Reload everything from database
-        List<Reservation> allReservations = databaseHelper.getAllReservations();
+        List<Reservation> allReservations = getReservationsWithStanding();
         android.util.Log.d("StaffManageRes", "Reloaded " + allReservations.size() + " reservations from DB");
 
         adapter.setReservations(allReservations);
+        loadGuestProfiles(allReservations);
         android.util.Log.d("StaffManageRes", "Set reservations to adapter");
 
         // Apply filter
-        adapter.filterByDate(filter, todayDate);
+        adapter.filterByDate(filter, ClockService.getInstance());
         android.util.Log.d("StaffManageRes", "Filter applied, count: " + adapter.getItemCount());
 
         // Scroll to top to make change visible
@@ -180,6 +215,16 @@ public class StaffManageReservationsActivity extends AppCompatActivity
         android.util.Log.d("StaffManageRes", "===================");
     }
 
+    /**
+     Stored reservations plus standing (recurring) bookings for the coming weeks
+     Standing bookings are expanded on read, so only a window of them is listed
+     */
+    private List<Reservation> getReservationsWithStanding() {
+        String today = ClockService.getInstance().todayKey();
+        return databaseHelper.getAllReservationsWithStanding(
+                today, RecurrenceExpander.addDays(today, STANDING_WINDOW_DAYS));
+    }
+
     //Reset all filter button colors
 
     private void resetFilterButtons() {
@@ -209,11 +254,21 @@ public class StaffManageReservationsActivity extends AppCompatActivity
      */
     @Override
     public void onViewDetails(Reservation reservation) {
+        // Guest contact details, once the profile has loaded
+        String contactDetails = "";
+        User guest = adapter.getGuest(reservation.getGuestUsername());
+        if (guest != null) {
+            contactDetails = "Name: " + adapter.getGuestDisplayName(guest.getUsername()) + "\n"
+                    + (guest.getEmail() != null ? "Email: " + guest.getEmail() + "\n" : "")
+                    + (guest.getContact() != null ? "Contact: " + guest.getContact() + "\n" : "");
+        }
+
         // Show detailed dialog
         new AlertDialog.Builder(this)
                 .setTitle("Reservation Details")
                 .setMessage(
                         "Guest: " + reservation.getGuestUsername() + "\n" +
+                                contactDetails +
                                 "Date: " + reservation.getDate() + "\n" +
                                 "Time: " + reservation.getTime() + "\n" +
                                 "Guests: " + reservation.getNumberOfGuests() + "\n" +
@@ -236,9 +291,18 @@ public class StaffManageReservationsActivity extends AppCompatActivity
                 .setMessage("Are you sure you want to cancel this reservation for "
                         + reservation.getGuestUsername() + "?")
                 .setPositiveButton("Yes, Cancel", (dialog, which) -> {
-                    // Update reservation status
-                    reservation.setStatus("Cancelled");
-                    int result = databaseHelper.updateReservation(reservation);
+                    int result;
+                    if (RecurrenceExpander.isOccurrence(reservation)) {
+                        // Standing booking - skip just this date, keep the rule
+                        databaseHelper.addRecurrenceException(
+                                RecurrenceExpander.getRuleId(reservation), reservation.getDate());
+                        reservation.setStatus("Cancelled");
+                        result = 1;
+                    } else {
+                        // Update reservation status
+                        reservation.setStatus("Cancelled");
+                        result = databaseHelper.updateReservation(reservation);
+                    }
 
                     if (result > 0) {
                         Toast.makeText(this, "Reservation cancelled successfully",
@@ -252,6 +316,9 @@ public class StaffManageReservationsActivity extends AppCompatActivity
                             NotificationHelper notificationHelper = NotificationHelper.getInstance(this);
                             notificationHelper.sendGuestReservationCancelled(reservation);
 
+                            // Offer the freed seats to the waitlist
+                            WaitlistManager.getInstance(this).onReservationCancelled(reservation);
+
                             // Reload data
                             loadReservations();
                             applyFilter(currentFilter);
@@ -1,26 +1,22 @@
 package com.example.restaurantmanager.activities.staff;
 
+import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.ImageButton;
 import android.widget.ImageView;
+import android.widget.TextView;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.Volley;
 import com.example.restaurantmanager.R;
 import com.example.restaurantmanager.activities.utils.SessionManager;
 import com.example.restaurantmanager.api.ApiService;
 import com.example.restaurantmanager.models.NotificationPreferences;
 import com.example.restaurantmanager.models.User;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
 /**
  StaffSettingsActivity - Manage staff user settings
  Design Pattern: MVC (Controller)
@@ -31,6 +27,7 @@ public class StaffSettingsActivity extends AppCompatActivity {
 
     // UI components
     private ImageView backButton;
+    private TextView changeDetailsTitle;
     private EditText firstNameInput;
     private EditText lastNameInput;
     private EditText phoneInput;
@@ -62,7 +59,7 @@ public class StaffSettingsActivity extends AppCompatActivity {
 
         // Initialize services
         sessionManager = SessionManager.getInstance(this);
-        apiService = ApiService.getInstance(this);
+        apiService = ApiService.getInstance(this).withOwner(this);
         notificationPreferences = NotificationPreferences.getInstance(this);
 
         initializeViews();
@@ -74,6 +71,7 @@ public class StaffSettingsActivity extends AppCompatActivity {
     //Initialize view components
     private void initializeViews() {
         backButton = findViewById(R.id.backArrow);
+        changeDetailsTitle = findViewById(R.id.changeDetailsTitle);
         firstNameInput = findViewById(R.id.firstNameInput);
         lastNameInput = findViewById(R.id.lastNameInput);
         phoneInput = findViewById(R.id.phoneInput);
@@ -97,37 +95,24 @@ public class StaffSettingsActivity extends AppCompatActivity {
             return;
         }
 
-        // Direct API call to read_user endpoint
-        String url = "http://10.240.72.69/comp2000/coursework/read_user/10921081/" + username;
-
-        JsonObjectRequest request = new JsonObjectRequest(
-                Request.Method.GET,
-                url,
-                null,
-                response -> {
-                    try {
-                        JSONObject userJson = response.getJSONObject("user");
-
-                        // Populate fields
-                        firstNameInput.setText(userJson.getString("firstname"));
-                        lastNameInput.setText(userJson.getString("lastname"));
-                        phoneInput.setText(userJson.getString("contact"));
-                        emailInput.setText(userJson.getString("email"));
-
-                        android.util.Log.d("StaffSettings", "User loaded: " + userJson.getString("firstname"));
-                    } catch (JSONException e) {
-                        Toast.makeText(this, "Error parsing user data", Toast.LENGTH_SHORT).show();
-                        android.util.Log.e("StaffSettings", "JSON error: " + e.getMessage());
-                    }
-                },
-                error -> {
-                    Toast.makeText(this, "Could not load user data", Toast.LENGTH_SHORT).show();
-                    android.util.Log.e("StaffSettings", "Error: " + error.getMessage());
-                }
-        );
-
-        RequestQueue queue = Volley.newRequestQueue(this);
-        queue.add(request);
+        apiService.readUser(username, new ApiService.UserCallback() {
+            @Override
+            public void onSuccess(User user) {
+                // Populate fields
+                firstNameInput.setText(user.getFirstname());
+                lastNameInput.setText(user.getLastname());
+                phoneInput.setText(user.getContact());
+                emailInput.setText(user.getEmail());
+
+                Log.d("StaffSettings", "User loaded: " + user.getFirstname());
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(StaffSettingsActivity.this, "Could not load user data", Toast.LENGTH_SHORT).show();
+                Log.e("StaffSettings", "Error: " + error);
+            }
+        });
     }
 
     //Load notification preferences from SharedPreferences
@@ -149,6 +134,12 @@ public class StaffSettingsActivity extends AppCompatActivity {
         // Back button
         backButton.setOnClickListener(v -> finish());
 
+        // Hidden debug screen
+        changeDetailsTitle.setOnLongClickListener(v -> {
+            startActivity(new Intent(this, StaffApiMetricsActivity.class));
+            return true;
+        });
+
         // Notification toggles
         newReservationToggle.setOnClickListener(v -> {
             newReservationEnabled = !newReservationEnabled;
@@ -215,60 +206,42 @@ public class StaffSettingsActivity extends AppCompatActivity {
         String username = sessionManager.getUsername();
 
         // Step 1: Fetch current user to get password
-        String readUrl = "http://10.240.72.69/comp2000/coursework/read_user/10921081/" + username;
-
-        JsonObjectRequest readRequest = new JsonObjectRequest(
-                Request.Method.GET,
-                readUrl,
-                null,
-                response -> {
-                    try {
-                        JSONObject userJson = response.getJSONObject("user");
-                        String currentPassword = userJson.getString("password");
-
-                        // Step 2: Create updated user JSON
-                        JSONObject updateJson = new JSONObject();
-                        updateJson.put("username", username);
-                        updateJson.put("password", currentPassword); // Keep existing password
-                        updateJson.put("firstname", firstName);
-                        updateJson.put("lastname", lastName);
-                        updateJson.put("email", email);
-                        updateJson.put("contact", phone);
-                        updateJson.put("usertype", "staff");
-
-                        // Step 3: Update user via API
-                        String updateUrl = "http://10.240.72.69/comp2000/coursework/update_user/10921081/" + username;
-
-                        JsonObjectRequest updateRequest = new JsonObjectRequest(
-                                Request.Method.PUT,
-                                updateUrl,
-                                updateJson,
-                                updateResponse -> {
-                                    Toast.makeText(this, "Settings saved successfully", Toast.LENGTH_SHORT).show();
-                                    android.util.Log.d("StaffSettings", "User updated successfully");
-                                    finish();
-                                },
-                                error -> {
-                                    Toast.makeText(this, "Failed to save settings", Toast.LENGTH_LONG).show();
-                                    android.util.Log.e("StaffSettings", "Update error: " + error.getMessage());
-                                }
-                        );
-
-                        RequestQueue updateQueue = Volley.newRequestQueue(this);
-                        updateQueue.add(updateRequest);
-
-                    } catch (JSONException e) {
-                        Toast.makeText(this, "Error processing user data", Toast.LENGTH_SHORT).show();
-                        android.util.Log.e("StaffSettings", "JSON error: " + e.getMessage());
+        apiService.readUserForUpdate(username, new ApiService.UserCallback() {
+            @Override
+            public void onSuccess(User currentUser) {
+                // Step 2: Create updated user
+                User updatedUser = new User(
+                        username,
+                        currentUser.getPassword(), // Keep existing password
+                        firstName,
+                        lastName,
+                        email,
+                        phone,
+                        "staff"
+                );
+
+                // Step 3: Update user via API
+                apiService.updateUser(username, updatedUser, new ApiService.ApiCallback() {
+                    @Override
+                    public void onSuccess(String response) {
+                        Toast.makeText(StaffSettingsActivity.this, "Settings saved successfully", Toast.LENGTH_SHORT).show();
+                        Log.d("StaffSettings", "User updated successfully");
+                        finish();
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(StaffSettingsActivity.this, "Failed to save settings", Toast.LENGTH_LONG).show();
+                        Log.e("StaffSettings", "Update error: " + error);
                     }
-                },
-                error -> {
-                    Toast.makeText(this, "Could not retrieve current user data", Toast.LENGTH_SHORT).show();
-                    android.util.Log.e("StaffSettings", "Read error: " + error.getMessage());
-                }
-        );
-
-        RequestQueue readQueue = Volley.newRequestQueue(this);
-        readQueue.add(readRequest);
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(StaffSettingsActivity.this, "Could not retrieve current user data", Toast.LENGTH_SHORT).show();
+                Log.e("StaffSettings", "Read error: " + error);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -75,7 +75,7 @@ public class StaffSignupActivity extends AppCompatActivity {
         setContentView(R.layout.activity_staff_signup);
 
         // Initialize API service (Singleton pattern)
-        apiService = ApiService.getInstance(this);
+        apiService = ApiService.getInstance(this).withOwner(this);
 
         // Initialize UI components
         initializeViews();
@@ -258,49 +258,28 @@ public class StaffSignupActivity extends AppCompatActivity {
 
         Log.d(TAG, "Attempting to create staff account for username: " + username);
 
-        // Check if username already exists first
-        // This provides better user feedback (HCI principle)
-        apiService.checkUserExists(username, new ApiService.ApiCallback() {
+        // One round trip: create straight away, the server rejects a taken username
+        apiService.signUp(newUser, new ApiService.SignupCallback() {
             @Override
-            public void onSuccess(String response) {
-                // User already exists
-                Log.w(TAG, "Username already exists: " + username);
+            public void onResult(ApiService.SignupResult result, String response) {
+                if (result == ApiService.SignupResult.USERNAME_TAKEN) {
+                    Log.w(TAG, "Username already exists: " + username);
 
-                // Re-enable button
-                signupButton.setEnabled(true);
-                signupButton.setText("Sign Up");
+                    // Re-enable button
+                    signupButton.setEnabled(true);
+                    signupButton.setText("Sign Up");
 
-                // Show error message
-                usernameWarning.setText("Username already taken. Please choose another.");
-                usernameWarning.setVisibility(View.VISIBLE);
-
-                Toast.makeText(StaffSignupActivity.this,
-                        "Username already exists",
-                        Toast.LENGTH_SHORT).show();
-            }
-
-            @Override
-            public void onError(String error) {
-                // User doesn't exist - proceed with creation
-                // This is the success case for this check
-                Log.d(TAG, "Username available, proceeding with staff account creation");
+                    // Show error message
+                    usernameWarning.setText("Username already taken. Please choose another.");
+                    usernameWarning.setVisibility(View.VISIBLE);
 
-                createUserAccount(newUser);
-            }
-        });
-    }
+                    Toast.makeText(StaffSignupActivity.this,
+                            "Username already exists",
+                            Toast.LENGTH_SHORT).show();
+                    return;
+                }
 
-    /**
-     Create user account via API
-     Called after verifying username doesn't exist
-     @param newUser User object containing account details
-     */
-    private void createUserAccount(User newUser) {
-        // Call API to create user
-        apiService.createUser(newUser, new ApiService.ApiCallback() {
-            @Override
-            public void onSuccess(String response) {
-                // Account created successfully
+                // Account created
                 Log.d(TAG, "Staff account created successfully: " + response);
 
                 // HCI: Provide positive feedback
@@ -0,0 +1,157 @@
+package com.example.restaurantmanager.activities.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ BitmapDecoder - Decodes images at the size they are shown, not the size they were taken
+ A 12MP camera photo is ~48MB as ARGB_8888; shown in a 60dp thumbnail it needs
+ well under 100KB. Decoding reads the bounds first, then:
+ - inSampleSize skips whole pixels while decoding (powers of two), staying at or
+   above the target size so quality is not lost,
+ - inDensity/inTargetDensity scale the sampled image the rest of the way down
+   during the same decode, with no second full-size bitmap,
+ - JPEGs (which have no alpha) are decoded as RGB_565, half the bytes per pixel.
+ Threading: Safe from any thread; meant for background threads as decoding does file I/O
+ */
+public final class BitmapDecoder {
+
+    private static final String TAG = "BitmapDecoder";
+
+    //Opens the image again for each pass (bounds, then pixels), e.g. from a content URI
+    public interface StreamSource {
+        InputStream open() throws IOException;
+    }
+
+    private BitmapDecoder() {
+    }
+
+    /**
+     Decode a file to cover a target size (like centerCrop)
+     @param imagePath File to decode
+     @param targetWidth Width it is shown at in pixels, 0 or less for full size
+     @param targetHeight Height it is shown at in pixels, 0 or less for full size
+     @return The bitmap, at least targetWidth x targetHeight unless the image is
+             smaller, or null if the file is missing or not an image
+     */
+    public static Bitmap decodeFile(String imagePath, int targetWidth, int targetHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(imagePath, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        configure(options, options.outWidth, options.outHeight, targetWidth, targetHeight,
+                isOpaque(options.outMimeType));
+        try {
+            return finish(BitmapFactory.decodeFile(imagePath, options), options);
+        } catch (OutOfMemoryError e) {
+            Log.e(TAG, "Out of memory decoding " + imagePath);
+            return null;
+        }
+    }
+
+    /**
+     Decode a stream so it fits inside a square, keeping full colour depth
+     Only the sampled pixels are decoded, the full-size image is never in memory.
+     @param maxSide Longest side of the result in pixels
+     @return The bitmap, or null if the stream is not an image
+     */
+    public static Bitmap decodeStreamToFit(StreamSource source, int maxSide) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream in = source.open()) {
+            BitmapFactory.decodeStream(in, null, options);
+        }
+        int width = options.outWidth;
+        int height = options.outHeight;
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        // Target with the image's own aspect ratio, so "cover" is an exact fit
+        int longest = Math.max(width, height);
+        if (longest > maxSide) {
+            configure(options, width, height, Math.max(1, (int) ((long) width * maxSide / longest)),
+                    Math.max(1, (int) ((long) height * maxSide / longest)), false);
+        } else {
+            configure(options, width, height, 0, 0, false);
+        }
+
+        try (InputStream in = source.open()) {
+            return finish(BitmapFactory.decodeStream(in, null, options), options);
+        } catch (OutOfMemoryError e) {
+            Log.e(TAG, "Out of memory decoding a " + width + "x" + height + " image");
+            return null;
+        }
+    }
+
+    //The scale was a decode trick, not a density - draw at the pixel size
+    private static Bitmap finish(Bitmap bitmap, BitmapFactory.Options options) {
+        if (bitmap != null && options.inDensity > 0) {
+            bitmap.setDensity(Bitmap.DENSITY_NONE);
+        }
+        return bitmap;
+    }
+
+    /**
+     Set up options, whose bounds have been read, for a decode at the target size
+     @param opaque True if the image has no alpha channel
+     */
+    static void configure(BitmapFactory.Options options, int width, int height,
+                          int targetWidth, int targetHeight, boolean opaque) {
+        options.inJustDecodeBounds = false;
+        options.inPreferredConfig = opaque ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            options.inSampleSize = 1;
+            return;
+        }
+
+        options.inSampleSize = calculateInSampleSize(width, height, targetWidth, targetHeight);
+
+        // Scale the rest of the way in the same decode; keep the side that covers the target
+        int sampledWidth = width / options.inSampleSize;
+        int sampledHeight = height / options.inSampleSize;
+        float scale = Math.max((float) targetWidth / sampledWidth, (float) targetHeight / sampledHeight);
+        if (scale < 1f) {
+            boolean byWidth = (float) targetWidth / sampledWidth >= (float) targetHeight / sampledHeight;
+            options.inScaled = true;
+            options.inDensity = byWidth ? sampledWidth : sampledHeight;
+            options.inTargetDensity = byWidth ? targetWidth : targetHeight;
+        }
+    }
+
+    /**
+     Largest power of two that keeps both sides at or above the target
+     e.g. 4000x3000 for a 180x180 view gives 16 (250x187)
+     */
+    public static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    //Bytes a decode at the target size will allocate, for checking memory use without decoding
+    public static long estimateBytes(int width, int height, int targetWidth, int targetHeight, boolean opaque) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        configure(options, width, height, targetWidth, targetHeight, opaque);
+        long decodedWidth = width / options.inSampleSize;
+        long decodedHeight = height / options.inSampleSize;
+        if (options.inScaled && options.inDensity > 0) {
+            decodedWidth = Math.round(decodedWidth * (double) options.inTargetDensity / options.inDensity);
+            decodedHeight = Math.round(decodedHeight * (double) options.inTargetDensity / options.inDensity);
+        }
+        return decodedWidth * decodedHeight * (opaque ? 2 : 4);
+    }
+
+    //JPEG cannot carry alpha; anything else (PNG, WebP) might
+    private static boolean isOpaque(String mimeType) {
+        return "image/jpeg".equals(mimeType);
+    }
+}
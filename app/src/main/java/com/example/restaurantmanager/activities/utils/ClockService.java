@@ -0,0 +1,196 @@
+package com.example.restaurantmanager.activities.utils;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ ClockService - Shared source of "now", today and tomorrow
+ Design Pattern: Singleton (with an injectable Clock for tests and benchmarks)
+ SOLID: Single Responsibility - Only handles time and day boundaries
+ Threading: Safe from any thread. Day boundaries and the "yyyy-MM-dd" keys are
+ computed once per day and published as one immutable snapshot, so the
+ comparison helpers do not allocate or parse anything per call.
+ */
+public class ClockService {
+
+    // Source of the current time - swap for a FakeClock in tests
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    public static final Clock SYSTEM_CLOCK = System::currentTimeMillis;
+
+    private static ClockService instance;
+
+    private final Clock clock;
+    private final TimeZone timeZone;
+    private volatile DayBoundaries boundaries;
+
+    /**
+     Create a clock service for a given clock and time zone
+     Use getInstance() in app code; this constructor is for tests and benchmarks,
+     which can hand the result to setInstance() to drive the app's own clock
+     */
+    public ClockService(Clock clock, TimeZone timeZone) {
+        this.clock = clock;
+        this.timeZone = timeZone;
+        this.boundaries = computeBoundaries(clock.currentTimeMillis());
+    }
+
+    //Get singleton instance, backed by the system clock unless one was set with setInstance()
+    public static synchronized ClockService getInstance() {
+        if (instance == null) {
+            instance = new ClockService(SYSTEM_CLOCK, TimeZone.getDefault());
+        }
+        return instance;
+    }
+
+    /**
+     Replace the instance getInstance() returns, e.g. with one on a FakeClock
+     @param clockService New instance, null to go back to the system clock
+     */
+    public static synchronized void setInstance(ClockService clockService) {
+        instance = clockService;
+    }
+
+    //Current time in epoch millis
+    public long now() {
+        return clock.currentTimeMillis();
+    }
+
+    //Today's date key, format "yyyy-MM-dd"
+    public String todayKey() {
+        return current().todayKey;
+    }
+
+    //Tomorrow's date key, format "yyyy-MM-dd"
+    public String tomorrowKey() {
+        return current().tomorrowKey;
+    }
+
+    //Epoch millis of today's midnight
+    public long todayStartMillis() {
+        return current().todayStart;
+    }
+
+    //Epoch millis of tomorrow's midnight
+    public long tomorrowStartMillis() {
+        return current().tomorrowStart;
+    }
+
+    /**
+     Check if a "yyyy-MM-dd" date is today
+     @param date Date key, may be null
+     */
+    public boolean isToday(String date) {
+        return date != null && date.equals(current().todayKey);
+    }
+
+    /**
+     Check if a "yyyy-MM-dd" date is tomorrow
+     @param date Date key, may be null
+     */
+    public boolean isTomorrow(String date) {
+        return date != null && date.equals(current().tomorrowKey);
+    }
+
+    /**
+     Check if a "yyyy-MM-dd" date is after today
+     Zero-padded ISO dates sort lexicographically, so no parsing is needed
+     @param date Date key, may be null
+     */
+    public boolean isAfterToday(String date) {
+        return date != null && date.compareTo(current().todayKey) > 0;
+    }
+
+    /**
+     Check if a "yyyy-MM-dd" date is before today
+     @param date Date key, may be null
+     */
+    public boolean isBeforeToday(String date) {
+        return date != null && date.compareTo(current().todayKey) < 0;
+    }
+
+    //Check if an epoch millis timestamp falls on today
+    public boolean isToday(long epochMillis) {
+        DayBoundaries day = current();
+        return epochMillis >= day.todayStart && epochMillis < day.tomorrowStart;
+    }
+
+    //Return cached boundaries, recomputing them once the day has rolled over
+    private DayBoundaries current() {
+        long now = clock.currentTimeMillis();
+        DayBoundaries day = boundaries;
+        if (now < day.todayStart || now >= day.tomorrowStart) {
+            day = computeBoundaries(now);
+            boundaries = day;
+        }
+        return day;
+    }
+
+    private DayBoundaries computeBoundaries(long now) {
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.setTimeInMillis(now);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+
+        long todayStart = calendar.getTimeInMillis();
+        String todayKey = formatDateKey(calendar);
+
+        // Calendar handles DST days that are 23 or 25 hours long
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        long tomorrowStart = calendar.getTimeInMillis();
+        String tomorrowKey = formatDateKey(calendar);
+
+        return new DayBoundaries(todayStart, tomorrowStart, todayKey, tomorrowKey);
+    }
+
+    private static String formatDateKey(Calendar calendar) {
+        return String.format(Locale.UK, "%04d-%02d-%02d",
+                calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH) + 1,
+                calendar.get(Calendar.DAY_OF_MONTH));
+    }
+
+    //Immutable snapshot of one day's boundaries
+    private static final class DayBoundaries {
+        final long todayStart;
+        final long tomorrowStart;
+        final String todayKey;
+        final String tomorrowKey;
+
+        DayBoundaries(long todayStart, long tomorrowStart, String todayKey, String tomorrowKey) {
+            this.todayStart = todayStart;
+            this.tomorrowStart = tomorrowStart;
+            this.todayKey = todayKey;
+            this.tomorrowKey = tomorrowKey;
+        }
+    }
+
+    /**
+     FakeClock - Manually controlled clock for deterministic tests and benchmarks
+     */
+    public static class FakeClock implements Clock {
+        private volatile long timeMillis;
+
+        public FakeClock(long timeMillis) {
+            this.timeMillis = timeMillis;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return timeMillis;
+        }
+
+        public void setTime(long timeMillis) {
+            this.timeMillis = timeMillis;
+        }
+
+        public void advance(long millis) {
+            this.timeMillis += millis;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.restaurantmanager.activities.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.exifinterface.media.ExifInterface;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ MenuImageIngest - Turns a picked or captured photo into the stored menu images
+ Pipeline, all on a worker thread:
+ 0. hash the picked file - if MenuImageStore already has it, reuse the stored copies
+ 1. read the EXIF orientation, streaming from the content URI
+ 2. decode only the sampled pixels, capped at ORIGINAL_MAX_PX on the long side
+ 3. rotate/mirror upright as the EXIF orientation says
+ 4. write the original, thumbnail and detail renditions as WebP
+ Progress and the result are posted to the main thread.
+ Design Pattern: Singleton
+ SOLID: Single Responsibility - Only ingests menu photos
+ Threading: ingest() can be called from any thread; photos are processed one at a
+ time in order. Listener callbacks run on the main thread.
+ */
+public class MenuImageIngest {
+
+    private static final String TAG = "MenuImageIngest";
+
+    // Large enough for any screen the app shows it on, ~4x smaller than a 12MP photo per side
+    static final int ORIGINAL_MAX_PX = 1600;
+
+    private static MenuImageIngest instance;
+
+    private final Context context;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    //Progress and outcome of one ingest, on the main thread
+    public interface Listener {
+        //percent 0-100
+        void onProgress(int percent);
+
+        void onComplete(MenuImageRenditions.Renditions renditions);
+
+        void onError(String message);
+    }
+
+    //Private constructor (Singleton pattern)
+    private MenuImageIngest(Context context) {
+        this.context = context;
+    }
+
+    //Get singleton instance
+    public static synchronized MenuImageIngest getInstance(Context context) {
+        if (instance == null) {
+            instance = new MenuImageIngest(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     Store a photo and its renditions in MenuImageStore, named by content
+     @param source content:// or file:// URI of the picked or captured photo
+     */
+    public void ingest(Uri source, Listener listener) {
+        worker.execute(() -> {
+            try {
+                MenuImageRenditions.Renditions renditions = process(source, listener);
+                mainHandler.post(() -> listener.onComplete(renditions));
+            } catch (IOException e) {
+                Log.e(TAG, "Ingest failed: " + e.getMessage());
+                mainHandler.post(() -> listener.onError(e.getMessage()));
+            }
+        });
+    }
+
+    private MenuImageRenditions.Renditions process(Uri source, Listener listener) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+        BitmapDecoder.StreamSource stream = () -> {
+            InputStream in = resolver.openInputStream(source);
+            if (in == null) {
+                throw new FileNotFoundException("Cannot open " + source);
+            }
+            return in;
+        };
+
+        // Identical pictures are stored once
+        MenuImageStore store = MenuImageStore.getInstance(context);
+        String hash = MenuImageStore.hash(stream);
+        MenuImageRenditions.Renditions existing = store.find(hash);
+        if (existing != null) {
+            progress(listener, 100);
+            Log.d(TAG, "Already stored as " + hash);
+            return existing;
+        }
+
+        progress(listener, 10);
+        int orientation;
+        try (InputStream in = stream.open()) {
+            orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        }
+
+        progress(listener, 20);
+        Bitmap decoded = BitmapDecoder.decodeStreamToFit(stream, ORIGINAL_MAX_PX);
+        if (decoded == null) {
+            throw new IOException("Not an image");
+        }
+
+        progress(listener, 50);
+        Bitmap image = applyOrientation(decoded, orientation);
+        try {
+            File original = store.originalFile(hash);
+
+            progress(listener, 60);
+            if (!MenuImageRenditions.writeWebp(image, original, MenuImageRenditions.ORIGINAL_QUALITY)) {
+                throw new IOException("Could not save image");
+            }
+
+            progress(listener, 85);
+            String thumbnail = MenuImageRenditions.writeThumbnail(context, image, original);
+
+            progress(listener, 95);
+            String detail = MenuImageRenditions.writeDetail(context, image, original);
+
+            progress(listener, 100);
+            Log.d(TAG, "Stored " + original.getName() + " (" + original.length() + " bytes, "
+                    + image.getWidth() + "x" + image.getHeight() + ")");
+            return new MenuImageRenditions.Renditions(original.getAbsolutePath(), thumbnail, detail);
+        } finally {
+            image.recycle();
+        }
+    }
+
+    private void progress(Listener listener, int percent) {
+        mainHandler.post(() -> listener.onProgress(percent));
+    }
+
+    //Rotate/mirror a bitmap upright, recycling the input if a new bitmap is made
+    static Bitmap applyOrientation(Bitmap bitmap, int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(270);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(270);
+                matrix.postScale(-1, 1);
+                break;
+            default:
+                return bitmap;
+        }
+
+        Bitmap rotated = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (rotated != bitmap) {
+            bitmap.recycle();
+        }
+        return rotated;
+    }
+}
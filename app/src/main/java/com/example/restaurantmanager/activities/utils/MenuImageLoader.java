@@ -0,0 +1,232 @@
+package com.example.restaurantmanager.activities.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.LruCache;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ MenuImageLoader - Loads menu item photos into ImageViews off the main thread
+ Images are decoded at the size of the view they go in (see BitmapDecoder) and kept
+ in an LRU cache sized in bytes (1/8 of the app's heap), keyed by path and size,
+ so scrolling back over a list shows them straight away. Misses are decoded on a
+ small pool of background threads.
+ Each ImageView has at most one load in flight: binding it to another item, or
+ cancel() when it is recycled, drops the old load, and a finished decode is only
+ shown if the view still asks for the same image.
+ Design Pattern: Singleton
+ SOLID: Single Responsibility - Only loads and caches menu images
+ Threading: load() and cancel() must be called on the main thread. Decoding runs
+ on the decode threads, results are set on the main thread.
+ */
+public class MenuImageLoader {
+
+    private static final String TAG = "MenuImageLoader";
+
+    // Decoding is CPU and I/O bound, more threads only add memory pressure
+    private static final int DECODE_THREADS = 2;
+
+    private static MenuImageLoader instance;
+
+    private final LruCache<String, Bitmap> memoryCache;
+    private final ExecutorService decodePool;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Load in flight per view - only touched on the main thread
+    private final Map<ImageView, LoadTask> loads = new WeakHashMap<>();
+
+    //Private constructor (Singleton pattern)
+    private MenuImageLoader(Context context) {
+        int cacheBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE);
+        memoryCache = new LruCache<String, Bitmap>(cacheBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+
+        decodePool = Executors.newFixedThreadPool(DECODE_THREADS, runnable -> {
+            Thread thread = new Thread(() -> {
+                // Stay behind the UI thread and RenderThread
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "menu-image-decode");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Give memory back when the system asks for it
+        context.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                if (level >= TRIM_MEMORY_MODERATE) {
+                    memoryCache.evictAll();
+                } else if (level >= TRIM_MEMORY_BACKGROUND) {
+                    memoryCache.trimToSize(memoryCache.maxSize() / 2);
+                }
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                memoryCache.evictAll();
+            }
+        });
+    }
+
+    //Get singleton instance
+    public static synchronized MenuImageLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new MenuImageLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     Show a menu image, decoding it in the background if it is not cached
+     @param imagePath File path of the image, or null/empty/"placeholder" for none
+     @param imageView View to show it in
+     @param placeholderResId Shown until the image is ready, and kept if there is none
+     */
+    public void load(String imagePath, ImageView imageView, int placeholderResId) {
+        cancel(imageView);
+
+        if (imagePath == null || imagePath.isEmpty() || imagePath.equals("placeholder")) {
+            imageView.setImageResource(placeholderResId);
+            return;
+        }
+
+        // Decode at the size the image is shown
+        ViewGroup.LayoutParams params = imageView.getLayoutParams();
+        DisplayMetrics screen = imageView.getResources().getDisplayMetrics();
+        int width = targetSize(params != null ? params.width : 0, imageView.getWidth(), screen.widthPixels);
+        int height = targetSize(params != null ? params.height : 0, imageView.getHeight(), screen.heightPixels);
+
+        String key = cacheKey(imagePath, width, height);
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            imageView.setImageBitmap(cached);
+            return;
+        }
+
+        imageView.setImageResource(placeholderResId);
+        LoadTask task = new LoadTask(imagePath, key, width, height, imageView);
+        loads.put(imageView, task);
+        task.future = decodePool.submit(task);
+    }
+
+    //Drop the load in flight for a view, e.g. when its ViewHolder is recycled
+    public void cancel(ImageView imageView) {
+        LoadTask task = loads.remove(imageView);
+        if (task != null) {
+            task.cancelled = true;
+            if (task.future != null) {
+                task.future.cancel(false);
+            }
+        }
+    }
+
+    //Forget every cached size of an image, e.g. after its file was replaced or deleted
+    public void evict(String imagePath) {
+        if (imagePath == null) {
+            return;
+        }
+        String prefix = imagePath + "@";
+        for (String key : memoryCache.snapshot().keySet()) {
+            if (key.startsWith(prefix)) {
+                memoryCache.remove(key);
+            }
+        }
+    }
+
+    private static String cacheKey(String imagePath, int width, int height) {
+        return imagePath + "@" + width + "x" + height;
+    }
+
+    //Fixed layout size if there is one, else the laid out size, else the screen
+    private static int targetSize(int layoutSize, int measuredSize, int screenSize) {
+        if (layoutSize > 0) {
+            return layoutSize;
+        }
+        return measuredSize > 0 ? measuredSize : screenSize;
+    }
+
+    //Decode a file at a target size, or null if it is missing or unreadable
+    private static Bitmap decode(String imagePath, int width, int height) {
+        if (!new File(imagePath).exists()) {
+            return null;
+        }
+        return BitmapDecoder.decodeFile(imagePath, width, height);
+    }
+
+    //Decode one image for one view
+    private final class LoadTask implements Runnable {
+
+        private final String imagePath;
+        private final String key;
+        private final int width;
+        private final int height;
+        private final WeakReference<ImageView> viewRef;
+        private volatile boolean cancelled;
+        private Future<?> future; // Main thread only
+
+        LoadTask(String imagePath, String key, int width, int height, ImageView imageView) {
+            this.imagePath = imagePath;
+            this.key = key;
+            this.width = width;
+            this.height = height;
+            this.viewRef = new WeakReference<>(imageView);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+
+            // Another view may have decoded the same image meanwhile
+            Bitmap bitmap = memoryCache.get(key);
+            if (bitmap == null) {
+                bitmap = decode(imagePath, width, height);
+                if (bitmap == null) {
+                    Log.w(TAG, "Could not load image: " + imagePath);
+                } else {
+                    memoryCache.put(key, bitmap);
+                }
+            }
+
+            final Bitmap result = bitmap;
+            mainHandler.post(() -> deliver(result));
+        }
+
+        //Main thread: show the result if the view still wants this image
+        private void deliver(Bitmap bitmap) {
+            ImageView imageView = viewRef.get();
+            if (cancelled || imageView == null || loads.get(imageView) != this) {
+                return;
+            }
+            loads.remove(imageView);
+            if (bitmap != null) {
+                imageView.setImageBitmap(bitmap);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.restaurantmanager.activities.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.util.Log;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ MenuImageRenditions - Writes the stored copies of a menu photo
+ Next to the original <hash>.webp (see MenuImageStore) go <hash>_thumb.webp for
+ list rows and <hash>_detail.webp for the add/edit preview, each just large enough
+ to cover its view on this device. Lists then read a file of a few KB instead of the original.
+ All copies are lossy WebP, which at these qualities is roughly a third smaller
+ than JPEG for the same visible quality.
+ Threading: Blocking - scales, encodes and writes files on the calling thread
+ */
+public final class MenuImageRenditions {
+
+    private static final String TAG = "MenuImageRenditions";
+
+    // View sizes the renditions are made for (item_menu.xml, activity_staff_add_edit_menu_item.xml)
+    public static final int THUMBNAIL_DP = 60;
+    public static final int DETAIL_DP = 200;
+
+    // WebP quality: artefacts start to show below ~75 on food photos; thumbnails hide them
+    static final int ORIGINAL_QUALITY = 80;
+    static final int RENDITION_QUALITY = 75;
+
+    static final String EXTENSION = ".webp";
+
+    private MenuImageRenditions() {
+    }
+
+    /**
+     Paths of the stored renditions of one image
+     A rendition that could not be written is null; callers fall back to the original
+     */
+    public static class Renditions {
+        private final String originalPath;
+        private final String thumbnailPath;
+        private final String detailPath;
+
+        public Renditions(String originalPath, String thumbnailPath, String detailPath) {
+            this.originalPath = originalPath;
+            this.thumbnailPath = thumbnailPath;
+            this.detailPath = detailPath;
+        }
+
+        // Getters
+        public String getOriginalPath() { return originalPath; }
+        public String getThumbnailPath() { return thumbnailPath; }
+        public String getDetailPath() { return detailPath; }
+    }
+
+    //Write the list thumbnail of an image, returning its path or null
+    static String writeThumbnail(Context context, Bitmap image, File original) {
+        return writeScaled(image, renditionFile(original, "_thumb"), dpToPx(context, THUMBNAIL_DP));
+    }
+
+    //Write the detail rendition of an image, returning its path or null
+    static String writeDetail(Context context, Bitmap image, File original) {
+        return writeScaled(image, renditionFile(original, "_detail"), dpToPx(context, DETAIL_DP));
+    }
+
+    //File a rendition of an original is stored in, e.g. 3f2a.webp -> 3f2a_thumb.webp
+    static File renditionFile(File original, String suffix) {
+        String name = original.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return new File(original.getParentFile(), base + suffix + EXTENSION);
+    }
+
+    //Encode a bitmap as lossy WebP, via a temporary file so a half-written image is never seen
+    static boolean writeWebp(Bitmap bitmap, File file, int quality) {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        boolean written = false;
+        try (OutputStream out = new FileOutputStream(temp)) {
+            written = bitmap.compress(webpFormat(), quality, out);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not write " + file + ": " + e.getMessage());
+        }
+        if (written && temp.renameTo(file)) {
+            return true;
+        }
+        temp.delete();
+        return false;
+    }
+
+    //Scale an image down to cover a square of sizePx and store it
+    private static String writeScaled(Bitmap image, File file, int sizePx) {
+        float scale = Math.max((float) sizePx / image.getWidth(), (float) sizePx / image.getHeight());
+        Bitmap scaled = scale < 1f
+                ? Bitmap.createScaledBitmap(image, Math.round(image.getWidth() * scale),
+                        Math.round(image.getHeight() * scale), true)
+                : image;
+        try {
+            return writeWebp(scaled, file, RENDITION_QUALITY) ? file.getAbsolutePath() : null;
+        } finally {
+            if (scaled != image) {
+                scaled.recycle();
+            }
+        }
+    }
+
+    private static int dpToPx(Context context, int dp) {
+        return Math.round(dp * context.getResources().getDisplayMetrics().density);
+    }
+
+    //WEBP means lossy below quality 100 until API 30, where it was split in two
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.restaurantmanager.activities.utils;
+
+import android.content.Context;
+import android.util.Log;
+import com.example.restaurantmanager.database.DatabaseHelper;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ MenuImageStore - Content-addressed storage for menu photos, with garbage collection
+ Photos live in files/menu_images/ named by a hash of the picked file's bytes
+ (<hash>.webp, <hash>_thumb.webp, <hash>_detail.webp), so picking the same picture
+ again reuses the stored copies instead of decoding and writing them again.
+ Files are never deleted when a menu item changes. Instead collectGarbage() deletes
+ every stored image that no menu_items row refers to, including older
+ menu_<time>.jpg files and leftover camera captures.
+ Design Pattern: Singleton
+ SOLID: Single Responsibility - Only names, finds and cleans up stored images
+ Threading: Safe from any thread. Garbage collection runs on its own background thread.
+ */
+public class MenuImageStore {
+
+    private static final String TAG = "MenuImageStore";
+
+    private static final String DIRECTORY = "menu_images";
+
+    // Hex digits of SHA-256 kept in file names - 128 bits, collisions are not a concern
+    private static final int HASH_CHARS = 32;
+
+    // Unreferenced files younger than this are kept: a photo is stored before its item is saved
+    private static final long GRACE_PERIOD_MS = 60 * 60 * 1000L;
+
+    // Earlier versions stored images as files/menu_<time>.jpg and captured to external menu_item_<time>.jpg
+    private static final String LEGACY_PREFIX = "menu_";
+    private static final String CAPTURE_PREFIX = "menu_item_";
+
+    private static MenuImageStore instance;
+
+    private final DatabaseHelper databaseHelper;
+    private final File directory;
+    private final File legacyDirectory;
+    private final File captureDirectory;
+    private final ExecutorService collector = Executors.newSingleThreadExecutor();
+
+    //Private constructor (Singleton pattern)
+    private MenuImageStore(Context context) {
+        this(DatabaseHelper.getInstance(context), new File(context.getFilesDir(), DIRECTORY),
+                context.getFilesDir(), context.getExternalFilesDir(null));
+    }
+
+    /**
+     Create a store over other directories and another database
+     Use getInstance() in app code; this constructor is for tests
+     @param directory Where new images are stored
+     @param legacyDirectory Holds older menu_<time>.jpg files, among unrelated files
+     @param captureDirectory Holds camera captures, may be null
+     */
+    public MenuImageStore(DatabaseHelper databaseHelper, File directory, File legacyDirectory,
+                          File captureDirectory) {
+        this.databaseHelper = databaseHelper;
+        this.directory = directory;
+        this.legacyDirectory = legacyDirectory;
+        this.captureDirectory = captureDirectory;
+    }
+
+    //Get singleton instance
+    public static synchronized MenuImageStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new MenuImageStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    //Directory new images are stored in, created if missing
+    public File getDirectory() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Could not create " + directory);
+        }
+        return directory;
+    }
+
+    //Original file for a content hash; renditions sit next to it
+    public File originalFile(String hash) {
+        return new File(getDirectory(), hash + MenuImageRenditions.EXTENSION);
+    }
+
+    /**
+     Stored renditions of a content hash, or null if any of them is missing
+     Found files are touched so a concurrent collection treats them as new.
+     */
+    public MenuImageRenditions.Renditions find(String hash) {
+        File original = originalFile(hash);
+        File thumbnail = MenuImageRenditions.renditionFile(original, "_thumb");
+        File detail = MenuImageRenditions.renditionFile(original, "_detail");
+        if (!original.isFile() || !thumbnail.isFile() || !detail.isFile()) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        original.setLastModified(now);
+        thumbnail.setLastModified(now);
+        detail.setLastModified(now);
+        return new MenuImageRenditions.Renditions(original.getAbsolutePath(),
+                thumbnail.getAbsolutePath(), detail.getAbsolutePath());
+    }
+
+    //Hash of everything a stream returns, as the hex name used for stored files
+    public static String hash(BitmapDecoder.StreamSource source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+
+        byte[] buffer = new byte[16 * 1024];
+        try (InputStream in = source.open()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        byte[] bytes = digest.digest();
+        StringBuilder hex = new StringBuilder(HASH_CHARS);
+        for (int i = 0; i < HASH_CHARS / 2; i++) {
+            hex.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16));
+            hex.append(Character.forDigit(bytes[i] & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    //Delete unreferenced images in the background
+    public void collectGarbage() {
+        collector.execute(this::collectGarbageNow);
+    }
+
+    /**
+     Delete every stored image no menu item refers to, blocking
+     @return Number of files deleted
+     */
+    public int collectGarbageNow() {
+        Set<String> referenced = databaseHelper.getMenuImagePaths();
+        long cutoff = System.currentTimeMillis() - GRACE_PERIOD_MS;
+
+        int deleted = sweep(directory, null, referenced, cutoff)
+                + sweep(legacyDirectory, LEGACY_PREFIX, referenced, cutoff)
+                + sweep(captureDirectory, CAPTURE_PREFIX, referenced, cutoff);
+        if (deleted > 0) {
+            Log.d(TAG, "Deleted " + deleted + " unreferenced images");
+        }
+        return deleted;
+    }
+
+    //Delete old, unreferenced files in a directory, optionally only those with a name prefix
+    private int sweep(File dir, String prefix, Set<String> referenced, long cutoff) {
+        File[] files = dir != null ? dir.listFiles() : null;
+        if (files == null) {
+            return 0;
+        }
+
+        int deleted = 0;
+        for (File file : files) {
+            if (!file.isFile() || (prefix != null && !file.getName().startsWith(prefix))) {
+                continue;
+            }
+            if (file.lastModified() > cutoff || referenced.contains(file.getAbsolutePath())) {
+                continue;
+            }
+            if (file.delete()) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
@@ -11,6 +11,7 @@ import android.util.Log;
 import androidx.core.app.NotificationCompat;
 import com.example.restaurantmanager.R;
 import com.example.restaurantmanager.activities.guest.GuestMakeReservationActivity;
+import com.example.restaurantmanager.activities.guest.MyReservationsActivity;
 import com.example.restaurantmanager.activities.staff.StaffManageReservationsActivity;
 import com.example.restaurantmanager.models.NotificationPreferences;
 import com.example.restaurantmanager.models.Reservation;
@@ -33,6 +34,7 @@ public class NotificationHelper {
     private static final int NOTIF_ID_GUEST_CANCELLATION = 1001;
     private static final int NOTIF_ID_GUEST_DAY_BEFORE = 1002;
     private static final int NOTIF_ID_GUEST_HOUR_BEFORE = 1003;
+    private static final int NOTIF_ID_GUEST_WAITLIST_PROMOTED = 1004;
     private static final int NOTIF_ID_STAFF_NEW_RESERVATION = 2001;
     private static final int NOTIF_ID_STAFF_RESERVATION_CHANGE = 2002;
     private static final int NOTIF_ID_STAFF_15_MIN_BEFORE = 2003;
@@ -178,6 +180,24 @@ public class NotificationHelper {
         );
     }
 
+    /**
+     Send notification when guest is moved from the waitlist into a reservation
+     @param reservation The reservation created for the guest
+     */
+    public void sendGuestWaitlistPromoted(Reservation reservation) {
+        String title = "Table Available";
+        String message = "A table opened up! Your waitlisted booking for " +
+                reservation.getDate() + " at " + reservation.getTime() + " for " +
+                reservation.getNumberOfGuests() + " guests is now confirmed.";
+
+        sendGuestNotification(
+                NOTIF_ID_GUEST_WAITLIST_PROMOTED,
+                title,
+                message,
+                MyReservationsActivity.class
+        );
+    }
+
     //Helper method to send guest notifications
     private void sendGuestNotification(int notificationId, String title, String message, Class<?> activityClass) {
         Intent intent = new Intent(context, activityClass);
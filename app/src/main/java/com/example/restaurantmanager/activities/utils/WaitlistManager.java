@@ -0,0 +1,137 @@
+package com.example.restaurantmanager.activities.utils;
+
+import android.content.Context;
+import android.util.Log;
+import com.example.restaurantmanager.database.DatabaseHelper;
+import com.example.restaurantmanager.models.Reservation;
+import com.example.restaurantmanager.models.WaitlistEntry;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ WaitlistManager - Fills freed capacity from the waitlist
+ Design Pattern: Singleton
+ SOLID: Single Responsibility - Only handles waitlist joining and promotion
+ Threading: Promotion runs on worker threads. Each slot has its own signal counter,
+ so bursts of cancellations for one slot collapse into a single drain while other
+ slots are promoted in parallel - no global lock is taken.
+ */
+public class WaitlistManager {
+
+    private static final String TAG = "WaitlistManager";
+
+    // Counter value of a slot whose drain has finished; it is never reused
+    private static final int RETIRED = -1;
+
+    private static WaitlistManager instance;
+    private final DatabaseHelper databaseHelper;
+    private final NotificationHelper notificationHelper;
+    private final ExecutorService executorService;
+
+    // Pending "slot freed" signals per slot key (date + time), removed once the slot is drained
+    private final ConcurrentHashMap<String, AtomicInteger> pendingSignals = new ConcurrentHashMap<>();
+
+    //Private constructor (Singleton pattern)
+    private WaitlistManager(Context context) {
+        databaseHelper = DatabaseHelper.getInstance(context);
+        notificationHelper = NotificationHelper.getInstance(context);
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    //Get singleton instance
+    public static synchronized WaitlistManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new WaitlistManager(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     Put guest on the waitlist for a full slot
+     @param entry Waitlist entry to store
+     @return row ID of the entry, -1 if error
+     */
+    public long joinWaitlist(WaitlistEntry entry) {
+        long id = databaseHelper.addToWaitlist(entry);
+        Log.d(TAG, "Waitlisted " + entry.getGuestUsername() + " for " +
+                entry.getDate() + " " + entry.getTime());
+
+        // Capacity may have been freed between the full check and the insert
+        onSlotFreed(entry.getDate(), entry.getTime());
+        return id;
+    }
+
+    /**
+     Call after a cancellation has been committed to the database
+     @param reservation The cancelled (or deleted) reservation
+     */
+    public void onReservationCancelled(Reservation reservation) {
+        onSlotFreed(reservation.getDate(), reservation.getTime());
+    }
+
+    /**
+     Signal that seats in a slot became free.
+     Only the caller that moves the counter off zero schedules a drain; later
+     signals just bump the counter and are picked up by the running drain.
+     */
+    public void onSlotFreed(String date, String time) {
+        String slotKey = date + " " + time;
+        while (true) {
+            AtomicInteger signals = signalsFor(slotKey);
+            int count = signals.get();
+            if (count == RETIRED) {
+                // Its drain just finished and is removing it - start a new counter
+                pendingSignals.remove(slotKey, signals);
+                continue;
+            }
+            if (signals.compareAndSet(count, count + 1)) {
+                if (count == 0) {
+                    executorService.execute(() -> drainSlot(slotKey, date, time, signals));
+                }
+                return;
+            }
+        }
+    }
+
+    //Counter for a slot, created if missing (computeIfAbsent needs API 24)
+    private AtomicInteger signalsFor(String slotKey) {
+        AtomicInteger signals = pendingSignals.get(slotKey);
+        if (signals == null) {
+            AtomicInteger created = new AtomicInteger();
+            signals = pendingSignals.putIfAbsent(slotKey, created);
+            if (signals == null) {
+                signals = created;
+            }
+        }
+        return signals;
+    }
+
+    //Promote until no signals arrived during the last pass, then drop the slot's counter
+    private void drainSlot(String slotKey, String date, String time, AtomicInteger signals) {
+        while (true) {
+            int seen = signals.get();
+            try {
+                List<Reservation> promoted = databaseHelper.promoteFromWaitlist(
+                        date, time, DatabaseHelper.MAX_GUESTS_PER_SLOT);
+
+                for (Reservation reservation : promoted) {
+                    Log.d(TAG, "Promoted " + reservation.getGuestUsername() +
+                            " into " + date + " " + time);
+                    notificationHelper.sendGuestWaitlistPromoted(reservation);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Promotion failed for " + date + " " + time + ": " + e.getMessage());
+            }
+
+            // Nothing new arrived: retire the counter so later signals start a fresh one
+            if (signals.compareAndSet(seen, RETIRED)) {
+                pendingSignals.remove(slotKey, signals);
+                return;
+            }
+            signals.addAndGet(-seen);
+        }
+    }
+}
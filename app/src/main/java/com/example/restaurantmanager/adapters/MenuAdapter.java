@@ -10,9 +10,9 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.restaurantmanager.R;
+import com.example.restaurantmanager.activities.utils.MenuImageLoader;
 import com.example.restaurantmanager.models.MenuItem;
 
-import java.io.File;
 import java.util.List;
 
 
@@ -25,10 +25,12 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.MenuViewHolder
 
     private Context context;
     private List<MenuItem> menuItems;
+    private final MenuImageLoader imageLoader;
 
     public MenuAdapter(Context context, List<MenuItem> menuItems) {
         this.context = context;
         this.menuItems = menuItems;
+        this.imageLoader = MenuImageLoader.getInstance(context);
     }
 
     @NonNull
@@ -47,8 +49,8 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.MenuViewHolder
         holder.priceTextView.setText(String.format("£%.2f", item.getPrice()));
         holder.descriptionTextView.setText(item.getDescription());
 
-        // Load real image
-        loadMenuItemImage(holder.menuItemImage, item.getImageUrl());
+        // Load real image in the background, placeholder until then
+        imageLoader.load(item.getListImageUrl(), holder.menuItemImage, android.R.drawable.ic_menu_gallery);
 
         // Initially hide description
         holder.descriptionTextView.setVisibility(View.GONE);
@@ -71,6 +73,12 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.MenuViewHolder
         holder.itemView.setOnClickListener(v -> holder.expandButton.performClick());
     }
 
+    //Stop loading an image the recycled row no longer shows
+    @Override
+    public void onViewRecycled(@NonNull MenuViewHolder holder) {
+        imageLoader.cancel(holder.menuItemImage);
+    }
+
     @Override
     public int getItemCount() {
         return menuItems.size();
@@ -104,27 +112,4 @@ public class MenuAdapter extends RecyclerView.Adapter<MenuAdapter.MenuViewHolder
             expandButton = itemView.findViewById(R.id.expandButton);
         }
     }
-
-    private void loadMenuItemImage(ImageView imageView, String imagePath) {
-        // Reset to placeholder first
-        imageView.setImageResource(android.R.drawable.ic_menu_gallery);
-
-        // Keep placeholder if no image
-        if (imagePath == null || imagePath.isEmpty() || imagePath.equals("placeholder")) {
-            return;
-        }
-
-        try {
-            File imageFile = new File(imagePath);
-            if (imageFile.exists()) {
-                android.graphics.Bitmap bitmap =
-                        android.graphics.BitmapFactory.decodeFile(imagePath);
-                if (bitmap != null) {
-                    imageView.setImageBitmap(bitmap);
-                }
-            }
-        } catch (Exception e) {
-            android.util.Log.e("MenuAdapter", "Error loading image: " + e.getMessage());
-        }
-    }
 }
\ No newline at end of file
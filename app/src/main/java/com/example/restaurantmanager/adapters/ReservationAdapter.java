@@ -11,6 +11,7 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.restaurantmanager.R;
 import com.example.restaurantmanager.activities.guest.GuestEditReservationActivity;
+import com.example.restaurantmanager.database.RecurrenceExpander;
 import com.example.restaurantmanager.models.Reservation;
 import java.util.List;
 
@@ -62,7 +63,8 @@ public class ReservationAdapter extends RecyclerView.Adapter<ReservationAdapter.
             holder.statusTextView.setTextColor(context.getResources().getColor(android.R.color.holo_red_dark));
         }
 
-        // Edit button - opens edit activity
+        // Edit button - opens edit activity (not for one date of a standing reservation)
+        holder.editButton.setVisibility(RecurrenceExpander.isOccurrence(reservation) ? View.GONE : View.VISIBLE);
         holder.editButton.setOnClickListener(v -> {
             Intent intent = new Intent(context, GuestEditReservationActivity.class);
             intent.putExtra("reservation_id", reservation.getId());
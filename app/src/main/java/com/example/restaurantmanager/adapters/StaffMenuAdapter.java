@@ -11,9 +11,9 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.restaurantmanager.R;
+import com.example.restaurantmanager.activities.utils.MenuImageLoader;
 import com.example.restaurantmanager.models.MenuItem;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -29,6 +29,7 @@ public class StaffMenuAdapter extends RecyclerView.Adapter<StaffMenuAdapter.Menu
     private List<MenuItem> menuItems;
     private Context context;
     private OnMenuActionListener listener;
+    private final MenuImageLoader imageLoader;
 
     /**
      Interface for menu item actions
@@ -43,6 +44,7 @@ public class StaffMenuAdapter extends RecyclerView.Adapter<StaffMenuAdapter.Menu
         this.context = context;
         this.menuItems = new ArrayList<>();
         this.listener = listener;
+        this.imageLoader = MenuImageLoader.getInstance(context);
     }
 
     //Update adapter with new data
@@ -66,6 +68,12 @@ public class StaffMenuAdapter extends RecyclerView.Adapter<StaffMenuAdapter.Menu
         holder.bind(item);
     }
 
+    //Stop loading an image the recycled row no longer shows
+    @Override
+    public void onViewRecycled(@NonNull MenuViewHolder holder) {
+        imageLoader.cancel(holder.menuItemImage);
+    }
+
     @Override
     public int getItemCount() {
         return menuItems.size();
@@ -96,8 +104,8 @@ public class StaffMenuAdapter extends RecyclerView.Adapter<StaffMenuAdapter.Menu
             menuItemDescription.setText(item.getDescription());
             menuItemPrice.setText(String.format(Locale.UK, "£%.2f", item.getPrice()));
 
-            // Load real image
-            loadMenuItemImage(item.getImageUrl());
+            // Load real image in the background, placeholder until then
+            imageLoader.load(item.getListImageUrl(), menuItemImage, android.R.drawable.ic_menu_gallery);
 
             ImageButton btnEdit = itemView.findViewById(R.id.btnEdit);
             ImageButton btnDelete = itemView.findViewById(R.id.btnDelete);
@@ -112,31 +120,6 @@ public class StaffMenuAdapter extends RecyclerView.Adapter<StaffMenuAdapter.Menu
                 if (listener != null) listener.onDelete(item);
             });
         }
-
-        //Load menu item image from file path or use placeholder
-        private void loadMenuItemImage(String imagePath) {
-
-            // No image then keep the XML placeholder image
-            if (imagePath == null || imagePath.isEmpty() || imagePath.equals("placeholder")) {
-                return; // Don't override the ImageView's default XML image
-            }
-
-            // Try to load from internal storage
-            try {
-                File imageFile = new File(imagePath);
-                if (imageFile.exists()) {
-                    android.graphics.Bitmap bitmap = android.graphics.BitmapFactory.decodeFile(imagePath);
-                    if (bitmap != null) {
-                        menuItemImage.setImageBitmap(bitmap);
-                        return;
-                    }
-                }
-            } catch (Exception e) {
-                android.util.Log.e("StaffMenuAdapter", "Error loading image: " + e.getMessage());
-            }
-        }
-
-
         }
 
     }
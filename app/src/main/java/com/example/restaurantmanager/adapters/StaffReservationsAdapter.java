@@ -1,6 +1,5 @@
 package com.example.restaurantmanager.adapters;
 
-import android.annotation.SuppressLint;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,12 +8,13 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.restaurantmanager.R;
+import com.example.restaurantmanager.activities.utils.ClockService;
 import com.example.restaurantmanager.models.Reservation;
+import com.example.restaurantmanager.models.User;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
+import java.util.Map;
 
 /**
  StaffReservationAdapter - Adapter for staff reservation list
@@ -27,6 +27,9 @@ public class StaffReservationsAdapter extends RecyclerView.Adapter<StaffReservat
     private List<Reservation> reservationsFiltered; // For search/filter
     private OnReservationActionListener listener;
 
+    // Guest profiles loaded so far, by username - kept across reloads
+    private final Map<String, User> guests = new HashMap<>();
+
     /**
      Interface for handling reservation actions
      SOLID: Interface Segregation - specific callbacks for staff actions
@@ -52,9 +55,34 @@ public class StaffReservationsAdapter extends RecyclerView.Adapter<StaffReservat
         notifyDataSetChanged();
     }
 
+    /**
+     Show a guest's name instead of the username once their profile is loaded
+     @param guest Profile from ApiService (no password)
+     */
+    public void setGuest(User guest) {
+        guests.put(guest.getUsername(), guest);
+        notifyDataSetChanged();
+    }
+
+    //Profile of a guest, null until it has been loaded
+    public User getGuest(String username) {
+        return guests.get(username);
+    }
+
+    //"First Last" when the profile is loaded, otherwise the username
+    public String getGuestDisplayName(String username) {
+        User guest = guests.get(username);
+        if (guest == null) {
+            return username;
+        }
+        String name = ((guest.getFirstname() != null ? guest.getFirstname() : "") + " "
+                + (guest.getLastname() != null ? guest.getLastname() : "")).trim();
+        return name.isEmpty() ? username : name;
+    }
+
     /**
      Filter reservations by guest name
-     @param query Search query
+     @param query Search query, matched against the username and the loaded name
      */
     public void filter(String query) {
         reservationsFiltered.clear();
@@ -64,7 +92,8 @@ public class StaffReservationsAdapter extends RecyclerView.Adapter<StaffReservat
         } else {
             String lowerCaseQuery = query.toLowerCase();
             for (Reservation reservation : reservations) {
-                if (reservation.getGuestUsername().toLowerCase().contains(lowerCaseQuery)) {
+                if (reservation.getGuestUsername().toLowerCase().contains(lowerCaseQuery)
+                        || getGuestDisplayName(reservation.getGuestUsername()).toLowerCase().contains(lowerCaseQuery)) {
                     reservationsFiltered.add(reservation);
                 }
             }
@@ -75,77 +104,33 @@ public class StaffReservationsAdapter extends RecyclerView.Adapter<StaffReservat
     /**
      Filter by date criteria
      @param filter "all", "today", "upcoming"
+     @param clockService Source of today's date key
      */
-    @SuppressLint("LongLogTag")
-    public void filterByDate(String filter, String todayDate) {
-        android.util.Log.d("StaffReservationsAdapter", "=== FILTER CALLED ===");
-        android.util.Log.d("StaffReservationsAdapter", "Filter type: " + filter);
-        android.util.Log.d("StaffReservationsAdapter", "Today's date: " + todayDate);
-        android.util.Log.d("StaffReservationsAdapter", "Total reservations: " + reservations.size());
-
+    public void filterByDate(String filter, ClockService clockService) {
         reservationsFiltered.clear();
 
         if (filter.equals("all")) {
             // Show all reservations
             reservationsFiltered.addAll(reservations);
-            android.util.Log.d("StaffReservationsAdapter", "Showing ALL: " + reservationsFiltered.size());
 
         } else if (filter.equals("today")) {
             // Show only today's reservations
             for (Reservation reservation : reservations) {
-                boolean isToday = reservation.getDate().equals(todayDate);
-                android.util.Log.d("StaffReservationsAdapter", "  " + reservation.getGuestUsername() +
-                        " - Date: " + reservation.getDate() +
-                        " - IsToday: " + isToday);
-
-                if (isToday) {
+                if (clockService.isToday(reservation.getDate())) {
                     reservationsFiltered.add(reservation);
                 }
             }
-            android.util.Log.d("StaffReservationsAdapter", "Showing TODAY: " + reservationsFiltered.size());
 
         } else if (filter.equals("upcoming")) {
-            // Show future reservations (dates after today)
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.UK);
-                Date today = sdf.parse(todayDate);
-
-                for (Reservation reservation : reservations) {
-                    try {
-                        Date reservationDate = sdf.parse(reservation.getDate());
-
-                        // Check if reservation date is AFTER today
-                        boolean isFuture = reservationDate != null && reservationDate.after(today);
-
-                        android.util.Log.d("StaffReservationsAdapter", "  " + reservation.getGuestUsername() +
-                                " - Date: " + reservation.getDate() +
-                                " - IsFuture: " + isFuture);
-
-                        if (isFuture) {
-                            reservationsFiltered.add(reservation);
-                        }
-                    } catch (Exception e) {
-                        android.util.Log.e("StaffReservationsAdapter", "Error parsing date: " + reservation.getDate());
-                    }
-                }
-                android.util.Log.d("StaffReservationsAdapter", "Showing UPCOMING: " + reservationsFiltered.size());
-
-            } catch (Exception e) {
-                android.util.Log.e("StaffReservationsAdapter", "Error parsing today's date", e);
-                // Fallback: show all except today
-                for (Reservation reservation : reservations) {
-                    if (!reservation.getDate().equals(todayDate)) {
-                        reservationsFiltered.add(reservation);
-                    }
+            // Show future reservations (dates after today) - compared as date keys, no parsing
+            for (Reservation reservation : reservations) {
+                if (clockService.isAfterToday(reservation.getDate())) {
+                    reservationsFiltered.add(reservation);
                 }
             }
         }
 
-        android.util.Log.d("StaffReservationsAdapter", "Final filtered count: " + reservationsFiltered.size());
-        android.util.Log.d("StaffReservationsAdapter", "=====================");
-
         notifyDataSetChanged();
-        android.util.Log.d("StaffReservationsAdapter", "notifyDataSetChanged() called");
     }
 
     @NonNull
@@ -193,7 +178,7 @@ public class StaffReservationsAdapter extends RecyclerView.Adapter<StaffReservat
 
         public void bind(Reservation reservation) {
             // Set reservation details
-            guestName.setText(reservation.getGuestUsername());
+            guestName.setText(getGuestDisplayName(reservation.getGuestUsername()));
             reservationStatus.setText(reservation.getStatus());
             reservationDate.setText(reservation.getDate());
             reservationTime.setText(reservation.getTime());
@@ -0,0 +1,57 @@
+package com.example.restaurantmanager.api;
+
+/**
+ ApiConfig - Where ApiService sends its requests
+ DEFAULT points at the coursework server. Tests and the load driver pass
+ their own config, e.g. the address of a StandInApiServer, or another
+ HttpTransport to compare stacks.
+ */
+public class ApiConfig {
+
+    // Coursework server
+    public static final ApiConfig DEFAULT = new ApiConfig(
+            "http://10.240.72.69/comp2000/coursework",
+            "10921081", // Your student ID
+            RequestDispatcher.DEFAULT_MAX_PER_HOST);
+
+    private final String baseUrl;
+    private final String studentId;
+    private final int maxRequestsPerHost;
+    private final HttpTransport.Type transport;
+
+    /**
+     @param baseUrl URL the endpoint paths are appended to, without a trailing slash
+     @param studentId Student ID used in every endpoint path
+     @param maxRequestsPerHost Concurrent requests allowed to the server
+     */
+    public ApiConfig(String baseUrl, String studentId, int maxRequestsPerHost) {
+        this(baseUrl, studentId, maxRequestsPerHost, HttpTransport.Type.VOLLEY);
+    }
+
+    /**
+     @param transport HTTP stack the requests are sent with
+     */
+    public ApiConfig(String baseUrl, String studentId, int maxRequestsPerHost, HttpTransport.Type transport) {
+        this.baseUrl = baseUrl;
+        this.studentId = studentId;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.transport = transport;
+    }
+
+    //Copy of this config using another HTTP stack
+    public ApiConfig withTransport(HttpTransport.Type transport) {
+        return new ApiConfig(baseUrl, studentId, maxRequestsPerHost, transport);
+    }
+
+    // Getters
+    public String getBaseUrl() { return baseUrl; }
+    public String getStudentId() { return studentId; }
+    public int getMaxRequestsPerHost() { return maxRequestsPerHost; }
+    public HttpTransport.Type getTransport() { return transport; }
+
+    //Full URL of an endpoint, e.g. endpointUrl("read_user", "alice")
+    public String endpointUrl(String endpoint, String username) {
+        String url = baseUrl + "/" + endpoint + "/" + studentId;
+        return username != null ? url + "/" + username : url;
+    }
+}
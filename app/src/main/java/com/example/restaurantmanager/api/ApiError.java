@@ -0,0 +1,39 @@
+package com.example.restaurantmanager.api;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ ApiError - Failure of an API request
+ Either the server answered with an error status (statusCode > 0)
+ or no response arrived at all (statusCode == 0, e.g. timeout or no connection).
+ */
+public class ApiError {
+
+    private final int statusCode;
+    private final byte[] data;
+    private final String message;
+
+    public ApiError(int statusCode, byte[] data, String message) {
+        this.statusCode = statusCode;
+        this.data = data;
+        this.message = message;
+    }
+
+    // Getters
+    public int getStatusCode() { return statusCode; }
+    public byte[] getData() { return data; }
+    public String getMessage() { return message; }
+
+    //True if the server sent a response (possibly an error status)
+    public boolean hasResponse() {
+        return statusCode > 0;
+    }
+
+    //Response body decoded as UTF-8, falls back to the message when there is none
+    public String getBodyString() {
+        if (data == null || data.length == 0) {
+            return message;
+        }
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
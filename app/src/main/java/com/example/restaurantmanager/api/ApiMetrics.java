@@ -0,0 +1,183 @@
+package com.example.restaurantmanager.api;
+
+import android.util.Log;
+import com.google.gson.stream.JsonWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ ApiMetrics - Named counters and histograms for the API layer
+ Counters, e.g. "request.read_user", "retry.read_user", "short_circuit.login",
+ "error.read_user.timeout", "breaker.<host>.open".
+ Histograms, e.g. "latency.read_user" (caller to callback, ms), "network.read_user"
+ (ms on the wire), "size.in.read_user" / "size.out.create_user" (decoded bytes).
+ Both are created on first use. toJson() gives a snapshot of everything, and
+ startExport() writes it to a file periodically so it survives the process.
+ Design Pattern: Singleton
+ Threading: Safe from any thread, counting and recording are lock-free
+ */
+public class ApiMetrics {
+
+    private static ApiMetrics instance;
+
+    private static final String TAG = "ApiMetrics";
+
+    private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService exporter;
+
+    //Get singleton instance
+    public static synchronized ApiMetrics getInstance() {
+        if (instance == null) {
+            instance = new ApiMetrics();
+        }
+        return instance;
+    }
+
+    public void increment(String name) {
+        counter(name).incrementAndGet();
+    }
+
+    public void add(String name, long delta) {
+        counter(name).addAndGet(delta);
+    }
+
+    public long get(String name) {
+        AtomicLong counter = counters.get(name);
+        return counter == null ? 0 : counter.get();
+    }
+
+    //Add a value to a histogram
+    public void record(String name, long value) {
+        histogram(name).record(value);
+    }
+
+    //Histogram by name, null if nothing was recorded yet
+    public Histogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    //Record the latency of a completed call
+    public void record(RequestTimings timings) {
+        String endpoint = timings.getEndpoint();
+        record("latency." + endpoint, (long) timings.getTotalMs());
+        if (timings.isCacheHit()) {
+            increment("cache_hit." + endpoint);
+        } else {
+            record("network." + endpoint, (long) timings.getNetworkMs());
+        }
+    }
+
+    //Copy of all counters, sorted by name
+    public Map<String, Long> snapshot() {
+        Map<String, Long> copy = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().get());
+        }
+        return copy;
+    }
+
+    /**
+     Snapshot of all counters and histograms as JSON
+     {"timestamp":..., "counters":{...}, "histograms":{"latency.login":{"count":..,
+     "mean":.., "p50":.., "p95":.., "p99":.., "max":..}, ...}}
+     */
+    public String toJson() {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("timestamp").value(System.currentTimeMillis());
+
+            writer.name("counters").beginObject();
+            for (Map.Entry<String, Long> entry : snapshot().entrySet()) {
+                writer.name(entry.getKey()).value(entry.getValue());
+            }
+            writer.endObject();
+
+            writer.name("histograms").beginObject();
+            for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+                Histogram histogram = entry.getValue();
+                writer.name(entry.getKey()).beginObject()
+                        .name("count").value(histogram.getCount())
+                        .name("mean").value(Math.round(histogram.getMean()))
+                        .name("p50").value(histogram.getPercentile(50))
+                        .name("p95").value(histogram.getPercentile(95))
+                        .name("p99").value(histogram.getPercentile(99))
+                        .name("max").value(histogram.getMax())
+                        .endObject();
+            }
+            writer.endObject();
+
+            writer.endObject();
+        } catch (IOException e) {
+            // StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     Write toJson() to a file every periodMs, replacing the previous snapshot
+     The file is written next to the target and renamed, so readers never see half a snapshot.
+     Calling again has no effect.
+     */
+    public synchronized void startExport(File file, long periodMs) {
+        if (exporter != null) {
+            return;
+        }
+        exporter = Executors.newSingleThreadScheduledExecutor();
+        exporter.scheduleWithFixedDelay(() -> export(file), periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    //Write one snapshot now (on the calling thread)
+    public void export(File file) {
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write metrics: " + e.getMessage());
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.w(TAG, "Could not replace " + file);
+        }
+    }
+
+    private Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            Histogram created = new Histogram();
+            histogram = histograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    private AtomicLong counter(String name) {
+        AtomicLong counter = counters.get(name);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = counters.putIfAbsent(name, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.util.Log;
+import com.example.restaurantmanager.database.DatabaseHelper;
+import com.example.restaurantmanager.models.OutboxEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ ApiOutbox - Durable queue for API writes
+ Writes are stored in the api_outbox table first and acknowledged to the caller
+ once the row is written; a failed insert is reported instead. A single drainer
+ thread then replays them strictly in insertion order, one request at a time
+ (rows are read BATCH_SIZE at a time). Every attempt carries the entry's
+ Idempotency-Key, so a write that reached the server before a dropped connection
+ can be recognised when it is replayed.
+ Failures without a response, timeouts, 408, 429 and 5xx are retried with
+ exponential backoff, at most MAX_ATTEMPTS times so one bad entry cannot hold up
+ the writes behind it for ever. Other 4xx answers are final. Dropped entries are
+ reported through Listener.onRejected.
+ Bodies are stored as given, so callers must leave secrets out; a BodyResolver can
+ fill them in from elsewhere just before each attempt.
+ Draining restarts as soon as the device regains a network connection.
+ Design Pattern: Transactional outbox
+ Threading: All database work and sending happens on one background thread
+ SOLID: Single Responsibility - Only persists and replays queued writes
+ */
+public class ApiOutbox {
+
+    private static final String TAG = "ApiOutbox";
+
+    // Rows loaded per query while draining
+    private static final int BATCH_SIZE = 20;
+
+    // Exponential backoff between attempts on the head entry
+    private static final long BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 5 * 60 * 1000;
+
+    // Attempts on one entry before it is dropped; with the backoff above about 13 minutes
+    private static final int MAX_ATTEMPTS = 10;
+
+    // Upper bound on waiting for one send, the network stack times out well before this
+    private static final long SEND_TIMEOUT_MS = 60 * 1000;
+
+    /**
+     Outcome of a replayed write
+     Threading: Called on the drainer thread
+     */
+    public interface Listener {
+        void onDelivered(OutboxEntry entry, ApiResponse response);
+        void onRejected(OutboxEntry entry, ApiError error);
+    }
+
+    /**
+     Completes a stored body just before it is sent, e.g. with a password that is never stored
+     Threading: Called on the drainer thread, may block (see fetch())
+     */
+    public interface BodyResolver {
+        //Body to send, or null if it cannot be completed now - counts as a failed attempt
+        String resolve(OutboxEntry entry);
+    }
+
+    private final Context context;
+    private final DatabaseHelper databaseHelper;
+    private final RequestDispatcher dispatcher;
+    private final Listener listener;
+    private final BodyResolver bodyResolver;
+    private final long baseBackoffMs;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    // Only touched on the drainer thread
+    private ScheduledFuture<?> scheduledDrain;
+
+    // Registered by start(), unregistered by shutdown()
+    private ConnectivityManager.NetworkCallback networkCallback;
+
+    public ApiOutbox(Context context, DatabaseHelper databaseHelper, RequestDispatcher dispatcher,
+                     BodyResolver bodyResolver, Listener listener) {
+        this(context, databaseHelper, dispatcher, bodyResolver, listener, BASE_BACKOFF_MS);
+    }
+
+    //Tests shorten the backoff so MAX_ATTEMPTS is reached in seconds
+    ApiOutbox(Context context, DatabaseHelper databaseHelper, RequestDispatcher dispatcher,
+              BodyResolver bodyResolver, Listener listener, long baseBackoffMs) {
+        this.context = context.getApplicationContext();
+        this.databaseHelper = databaseHelper;
+        this.dispatcher = dispatcher;
+        this.bodyResolver = bodyResolver;
+        this.listener = listener;
+        this.baseBackoffMs = baseBackoffMs;
+    }
+
+    //Load the pending count, watch connectivity and send anything left from a previous run
+    public void start() {
+        executor.execute(() -> {
+            pendingCount.set(databaseHelper.getOutboxCount());
+            drain(false);
+        });
+        registerConnectivityCallback();
+    }
+
+    /**
+     Persist a write and queue it for sending
+     @param entry Write to send
+     @param onPersisted Run on the drainer thread once the entry is stored
+     @param onFailed Run on the drainer thread if it could not be stored - it will not be sent
+     */
+    public void enqueue(OutboxEntry entry, Runnable onPersisted, Runnable onFailed) {
+        executor.execute(() -> {
+            long id;
+            try {
+                id = databaseHelper.addOutboxEntry(entry);
+            } catch (RuntimeException e) {
+                // e.g. SQLiteFullException - nothing was stored
+                Log.e(TAG, "Could not store " + entry.getEndpoint() + ": " + e.getMessage());
+                id = -1;
+            }
+            if (id == -1) {
+                onFailed.run();
+                return;
+            }
+            entry.setId(id);
+            pendingCount.incrementAndGet();
+            onPersisted.run();
+            drain(false);
+        });
+    }
+
+    /**
+     Stop draining and stop watching connectivity, for outboxes that are thrown away
+     Entries not yet sent stay in the database; an attempt on the wire is cancelled.
+     */
+    public void shutdown() {
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        synchronized (this) {
+            if (connectivityManager != null && networkCallback != null) {
+                connectivityManager.unregisterNetworkCallback(networkCallback);
+                networkCallback = null;
+            }
+        }
+        // Interrupts a send waiting on the dispatcher, which cancels it there
+        executor.shutdownNow();
+    }
+
+    //Number of writes not yet sent - callers use this to keep later writes behind queued ones
+    public long getPendingCount() {
+        return pendingCount.get();
+    }
+
+    //Send queued writes in order until the outbox is empty or the head entry must wait
+    private void drain(boolean ignoreBackoff) {
+        if (scheduledDrain != null) {
+            scheduledDrain.cancel(false);
+            scheduledDrain = null;
+        }
+
+        while (true) {
+            List<OutboxEntry> batch = databaseHelper.getOutboxBatch(BATCH_SIZE);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<Long> finished = new ArrayList<>();
+            try {
+                for (OutboxEntry entry : batch) {
+                    long now = System.currentTimeMillis();
+                    if (!ignoreBackoff && entry.getNextAttemptAt() > now) {
+                        scheduleDrain(entry.getNextAttemptAt() - now);
+                        return;
+                    }
+                    ignoreBackoff = false;
+
+                    Outcome outcome = send(entry);
+                    if (outcome.response != null) {
+                        finished.add(entry.getId());
+                        listener.onDelivered(entry, outcome.response);
+                    } else if (!isRetryable(outcome.error)) {
+                        Log.e(TAG, "Dropping " + entry.getEndpoint() + " rejected with "
+                                + outcome.error.getStatusCode() + ": " + outcome.error.getBodyString());
+                        finished.add(entry.getId());
+                        listener.onRejected(entry, outcome.error);
+                    } else if (entry.getAttempts() + 1 >= MAX_ATTEMPTS) {
+                        Log.e(TAG, "Dropping " + entry.getEndpoint() + " after " + MAX_ATTEMPTS
+                                + " attempts: " + outcome.error.getMessage());
+                        finished.add(entry.getId());
+                        listener.onRejected(entry, outcome.error);
+                    } else {
+                        // Keep order: nothing behind the head entry is sent until it succeeds
+                        long delay = backoffFor(entry.getAttempts() + 1);
+                        entry.setAttempts(entry.getAttempts() + 1);
+                        entry.setNextAttemptAt(now + delay);
+                        databaseHelper.updateOutboxAttempt(entry);
+                        Log.w(TAG, entry.getEndpoint() + " attempt " + entry.getAttempts()
+                                + " failed, retrying in " + delay + "ms");
+                        scheduleDrain(delay);
+                        return;
+                    }
+                }
+            } finally {
+                if (!finished.isEmpty()) {
+                    databaseHelper.deleteOutboxEntries(finished);
+                    pendingCount.addAndGet(-finished.size());
+                }
+            }
+        }
+    }
+
+    //Send one entry and wait for the result on the drainer thread
+    private Outcome send(OutboxEntry entry) {
+        String body = bodyResolver.resolve(entry);
+        if (body == null && entry.getBody() != null) {
+            return Outcome.failed(new ApiError(0, null, "Could not complete queued " + entry.getEndpoint()));
+        }
+
+        ApiRequest request = new ApiRequest(entry.getEndpoint(), entry.getMethod(), entry.getUrl(),
+                body != null ? ApiRequest.jsonBody(body) : null,
+                new RequestTimings(entry.getEndpoint()));
+        request.getHeaders().put("Idempotency-Key", entry.getIdempotencyKey());
+        return await(request);
+    }
+
+    /**
+     Send a request for a BodyResolver and wait for the answer
+     Threading: Only on the drainer thread, from BodyResolver.resolve()
+     @return The response, or null if the request failed
+     */
+    ApiResponse fetch(ApiRequest request) {
+        return await(request).response;
+    }
+
+    //Send at background priority and block until the dispatcher answers or SEND_TIMEOUT_MS passes
+    private Outcome await(ApiRequest request) {
+        // Queued writes were already acknowledged - nobody is waiting on the wire
+        request.setPriority(ApiRequest.Priority.BACKGROUND);
+        request.getTimings().markBuilt();
+
+        final Outcome outcome = new Outcome();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.enqueue(request, new ApiRequest.Listener() {
+            @Override
+            public void onResponse(ApiResponse response) {
+                outcome.response = response;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(ApiError error) {
+                outcome.error = error;
+                done.countDown();
+            }
+        });
+
+        try {
+            if (!done.await(SEND_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                // Stop it, or the retry could go out while this attempt is still on the wire
+                dispatcher.cancel(request);
+                return Outcome.failed(new ApiError(0, null, "Outbox send timed out"));
+            }
+        } catch (InterruptedException e) {
+            dispatcher.cancel(request);
+            Thread.currentThread().interrupt();
+            return Outcome.failed(new ApiError(0, null, "Interrupted"));
+        }
+        return outcome;
+    }
+
+    private static boolean isRetryable(ApiError error) {
+        return CircuitBreaker.isHealthFailure(error);
+    }
+
+    private long backoffFor(int attempt) {
+        long delay = baseBackoffMs << Math.min(attempt - 1, 20);
+        return Math.min(delay, MAX_BACKOFF_MS);
+    }
+
+    private void scheduleDrain(long delayMs) {
+        if (executor.isShutdown()) {
+            return; // shut down while an attempt was failing
+        }
+        scheduledDrain = executor.schedule(() -> drain(false), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    //Retry immediately, skipping the backoff wait, when a network becomes available
+    private void registerConnectivityCallback() {
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            return;
+        }
+
+        NetworkRequest request = new NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                .build();
+        ConnectivityManager.NetworkCallback callback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                if (pendingCount.get() > 0 && !executor.isShutdown()) {
+                    executor.execute(() -> drain(true));
+                }
+            }
+        };
+        synchronized (this) {
+            if (executor.isShutdown()) {
+                return;
+            }
+            connectivityManager.registerNetworkCallback(request, callback);
+            networkCallback = callback;
+        }
+    }
+
+    //Result of one send, exactly one field is set
+    private static final class Outcome {
+        volatile ApiResponse response;
+        volatile ApiError error;
+
+        static Outcome failed(ApiError error) {
+            Outcome outcome = new Outcome();
+            outcome.error = error;
+            return outcome;
+        }
+    }
+}
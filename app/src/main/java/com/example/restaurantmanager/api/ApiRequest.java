@@ -0,0 +1,134 @@
+package com.example.restaurantmanager.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ ApiRequest - Description of one HTTP call made by ApiService
+ Holds everything needed to send the call (method, URL, body, headers) but no
+ networking code, so the dispatcher decides how and when it is sent.
+ */
+public class ApiRequest {
+
+    // HTTP methods
+    public static final String GET = "GET";
+    public static final String POST = "POST";
+    public static final String PUT = "PUT";
+
+    /**
+     Scheduling class of a request, highest first
+     INTERACTIVE: the user is waiting on this screen (login, signup checks)
+     USER_INITIATED: the user asked for it but can wait a little (profile loads)
+     BACKGROUND: nobody is waiting (outbox replay, prefetching) - throttled while
+     interactive requests are running
+     */
+    public enum Priority { INTERACTIVE, USER_INITIATED, BACKGROUND }
+
+    /**
+     Listener for the raw result of a request
+     Threading: Called on a network thread - parse here, then post to the main thread
+     */
+    public interface Listener {
+        void onResponse(ApiResponse response);
+        void onError(ApiError error);
+    }
+
+    private final String endpoint;
+    private final String method;
+    private final String url;
+    private final byte[] body;
+    private final Map<String, String> headers = new HashMap<>();
+    private final RequestTimings timings;
+    // Set before sending; RequestDispatcher.raisePriority() may raise it while the request waits
+    private volatile Priority priority = Priority.USER_INITIATED;
+
+    // Owner the request was made for (e.g. an activity), null if none
+    private volatile Object tag;
+    // Epoch millis after which no attempt or retry is started, 0 = from the endpoint policy
+    private volatile long deadlineAt;
+    // ResponseCache generation of the URL when the request was built, see ResponseCache
+    private volatile long cacheGeneration;
+    private volatile boolean cancelled;
+
+    /**
+     @param endpoint Endpoint name, e.g. "read_user" - used for logging and policies
+     @param method HTTP method (GET, POST, PUT)
+     @param url Full request URL
+     @param body Request body, null for none
+     @param timings Timings started when the caller entered ApiService
+     */
+    public ApiRequest(String endpoint, String method, String url, byte[] body, RequestTimings timings) {
+        this.endpoint = endpoint;
+        this.method = method;
+        this.url = url;
+        this.body = body;
+        this.timings = timings;
+        if (body != null) {
+            headers.put("Content-Type", "application/json; charset=utf-8");
+        }
+    }
+
+    //Convenience for JSON string bodies
+    public static byte[] jsonBody(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Getters
+    public String getEndpoint() { return endpoint; }
+    public String getMethod() { return method; }
+    public String getUrl() { return url; }
+    public byte[] getBody() { return body; }
+    public Map<String, String> getHeaders() { return headers; }
+    public RequestTimings getTimings() { return timings; }
+    public Priority getPriority() { return priority; }
+
+    //Set before the request is sent, returns this for chaining
+    public ApiRequest setPriority(Priority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    public Object getTag() { return tag; }
+    public long getDeadlineAt() { return deadlineAt; }
+    public long getCacheGeneration() { return cacheGeneration; }
+    public boolean isCancelled() { return cancelled; }
+
+    //Set before the request is sent, returns this for chaining
+    public ApiRequest setTag(Object tag) {
+        this.tag = tag;
+        return this;
+    }
+
+    //Set before the request is sent, returns this for chaining
+    public ApiRequest setDeadlineAt(long deadlineAt) {
+        this.deadlineAt = deadlineAt;
+        return this;
+    }
+
+    /**
+     Set before the request is sent, returns this for chaining
+     Requests with different generations are never merged by RequestCoalescer, so a
+     response requested before a cache invalidation does not reach a later caller
+     */
+    public ApiRequest setCacheGeneration(long cacheGeneration) {
+        this.cacheGeneration = cacheGeneration;
+        return this;
+    }
+
+    //Mark as cancelled - no further attempt is started and no listener is called
+    public void cancel() {
+        cancelled = true;
+    }
+
+    //Host part of the URL, used to bound concurrency per server
+    public String getHost() {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+            end++;
+        }
+        return url.substring(start, end);
+    }
+}
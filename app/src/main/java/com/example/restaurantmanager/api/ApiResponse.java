@@ -0,0 +1,49 @@
+package com.example.restaurantmanager.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ ApiResponse - Raw HTTP response handed back by the dispatcher
+ */
+public class ApiResponse {
+
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final byte[] data;
+    private final long networkTimeMs;
+
+    public ApiResponse(int statusCode, Map<String, String> headers, byte[] data, long networkTimeMs) {
+        this.statusCode = statusCode;
+        this.headers = headers != null ? headers : Collections.<String, String>emptyMap();
+        this.data = data != null ? data : new byte[0];
+        this.networkTimeMs = networkTimeMs;
+    }
+
+    // Getters
+    public int getStatusCode() { return statusCode; }
+    public Map<String, String> getHeaders() { return headers; }
+    public byte[] getData() { return data; }
+    public long getNetworkTimeMs() { return networkTimeMs; }
+
+    //True for "304 Not Modified" answers to a conditional GET
+    public boolean isNotModified() {
+        return statusCode == 304;
+    }
+
+    //Header value by case-insensitive name, or null
+    public String getHeader(String name) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey() != null && header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    //Body decoded as UTF-8
+    public String getBodyString() {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -4,63 +4,237 @@ import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
-import com.android.volley.Request;
-import com.android.volley.RequestQueue;
-import com.android.volley.toolbox.JsonObjectRequest;
-import com.android.volley.toolbox.StringRequest;
-import com.android.volley.toolbox.Volley;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import com.example.restaurantmanager.database.DatabaseHelper;
+import com.example.restaurantmanager.models.OutboxEntry;
 import com.example.restaurantmanager.models.User;
 import com.google.gson.Gson;
-import org.json.JSONException;
-import org.json.JSONObject;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  ApiService - Handles all API communication
  Design Pattern: Singleton
- Threading: All API calls run on worker threads
+ Threading: Requests are built on the calling thread and sent by RequestDispatcher
+ over the HttpTransport chosen in ApiConfig.
+ Responses are parsed on the network thread and callbacks are posted to the main thread.
+ Lifecycle: withOwner(activity) returns a view whose reads are cancelled and whose
+ callbacks are dropped once the activity is destroyed. Writes are never cancelled
+ half-way (the server may already have applied them), only their callbacks are dropped.
  SOLID: Single Responsibility - Only handles API operations
  */
 public class ApiService {
 
     private static final String TAG = "ApiService";
 
-    // API Configuration
-    private static final String BASE_URL = "http://10.240.72.69/comp2000/coursework";
-    private static final String STUDENT_ID = "10921081"; // Your student ID
+
+    // Response cache sizes
+    private static final int CACHE_MEMORY_BYTES = 256 * 1024;
+    private static final long CACHE_DISK_BYTES = 2 * 1024 * 1024;
+
+    // Per-endpoint TTLs - how long a cached response is used without asking the server.
+    // Cached read_user bodies have no password, so login always goes to the server.
+    private static final long READ_USER_TTL_MS = 5 * 60 * 1000;
+
+    // How often the metrics snapshot in files/api_metrics.json is rewritten
+    private static final long METRICS_EXPORT_MS = 60 * 1000;
 
     // Singleton instance
     private static ApiService instance;
 
-    // Request queue
-    private RequestQueue requestQueue;
+    // Server address and student ID
+    private final ApiConfig config;
 
-    // Gson for JSON parsing
-    private Gson gson;
+    // Sends requests with bounded concurrency per host
+    private RequestDispatcher dispatcher;
+
+    // Merges identical requests that are in flight at the same time
+    private RequestCoalescer coalescer;
+
+    // Durable queue for writes made while the server is unreachable
+    private ApiOutbox outbox;
 
-    // Executor for background threads
-    private ExecutorService executorService;
+    // Collects user lookups into read_users batches
+    private UserBatchLoader batchLoader;
+
+    // Cache for read_user lookups
+    private ResponseCache responseCache;
+
+    // Gson for JSON parsing, with the streaming User adapter registered
+    private Gson gson;
 
     // Handler for main thread callbacks
     private Handler mainThreadHandler;
 
-    //Private constructor
-    private ApiService(Context context) {
-        requestQueue = Volley.newRequestQueue(context.getApplicationContext());
-        gson = new Gson();
-        executorService = Executors.newFixedThreadPool(4); // 4 worker threads
+    // Salted password hashes for instant and offline login
+    private CredentialCache credentialCache;
+
+    // The service views were created from (itself for the service)
+    private final ApiService root;
+
+    // Views created by withOwner(), shared by all views of one service
+    private final Map<LifecycleOwner, ApiService> ownerViews;
+
+    // Owner of this view, null for the service itself
+    private final LifecycleOwner owner;
+    private volatile boolean ownerDestroyed;
+
+    /**
+     Private constructor
+     @param storageName null for the app's own storage, otherwise the suffix of a separate
+     outbox database, credential store and cache directory (see create())
+     */
+    private ApiService(Context context, ApiConfig config, String storageName) {
+        this.config = config;
+        this.owner = null;
+        this.root = this;
+        ownerViews = new WeakHashMap<>();
+        boolean appStorage = storageName == null;
+        credentialCache = appStorage ? new CredentialCache(context)
+                : new CredentialCache(context, "CredentialCache_" + storageName);
+        dispatcher = new RequestDispatcher(context.getApplicationContext(),
+                config.getMaxRequestsPerHost(), config.getTransport());
+        coalescer = new RequestCoalescer(dispatcher);
+        responseCache = new ResponseCache(
+                new File(context.getApplicationContext().getCacheDir(),
+                        appStorage ? "api_cache" : cacheDirectoryName(storageName)),
+                CACHE_MEMORY_BYTES, CACHE_DISK_BYTES);
+        gson = new GsonBuilder()
+                .registerTypeAdapter(User.class, UserTypeAdapter.INSTANCE)
+                .create();
         mainThreadHandler = new Handler(Looper.getMainLooper());
+        DatabaseHelper outboxDatabase = appStorage ? DatabaseHelper.getInstance(context)
+                : new DatabaseHelper(context, outboxDatabaseName(storageName));
+        outbox = new ApiOutbox(context, outboxDatabase, dispatcher, this::resolveOutboxBody,
+                new ApiOutbox.Listener() {
+                    @Override
+                    public void onDelivered(OutboxEntry entry, ApiResponse response) {
+                        Log.d(TAG, "Queued " + entry.getEndpoint() + " delivered");
+                        invalidateUserFromBody(entry.getBody());
+                    }
+
+                    @Override
+                    public void onRejected(OutboxEntry entry, ApiError error) {
+                        invalidateUserFromBody(entry.getBody());
+                    }
+                });
+        outbox.start();
+        if (appStorage) {
+            // Separate instances still record into ApiMetrics, but never start the app's export
+            ApiMetrics.getInstance().startExport(
+                    new File(context.getApplicationContext().getFilesDir(), "api_metrics.json"),
+                    METRICS_EXPORT_MS);
+        }
+        batchLoader = new UserBatchLoader(this, config.endpointUrl("read_users", null));
+    }
+
+    //View of a service bound to an owner - shares everything but the owner
+    private ApiService(ApiService service, LifecycleOwner owner) {
+        this.config = service.config;
+        this.dispatcher = service.dispatcher;
+        this.coalescer = service.coalescer;
+        this.outbox = service.outbox;
+        this.batchLoader = service.batchLoader;
+        this.responseCache = service.responseCache;
+        this.gson = service.gson;
+        this.mainThreadHandler = service.mainThreadHandler;
+        this.credentialCache = service.credentialCache;
+        this.ownerViews = service.ownerViews;
+        this.root = service.root;
+        this.owner = owner;
     }
 
     //Get singleton instance
     public static synchronized ApiService getInstance(Context context) {
         if (instance == null) {
-            instance = new ApiService(context);
+            instance = new ApiService(context, ApiConfig.DEFAULT, null);
         }
         return instance;
     }
 
+    /**
+     Create a separate instance for another server (tests, load driver)
+     It never touches the app's state: queued writes go to their own outbox database
+     (outboxDatabaseName(storageName)), logins to their own credential store and
+     responses to their own cache directory. App code should use getInstance()
+     @param storageName Short name that keeps this instance's storage apart, e.g. "load_test"
+     */
+    public static ApiService create(Context context, ApiConfig config, String storageName) {
+        return new ApiService(context, config, storageName);
+    }
+
+    /**
+     Release an instance made by create(): its outbox thread and connectivity callback,
+     dispatcher, cache and hashing threads. Writes not yet sent stay in its outbox database.
+     The app's instance lives as long as the process and must not be shut down.
+     */
+    public void shutdown() {
+        if (root == instance) {
+            throw new IllegalStateException("Only instances made by create() can be shut down");
+        }
+        outbox.shutdown();
+        dispatcher.shutdown();
+        responseCache.shutdown();
+        credentialCache.shutdown();
+    }
+
+    //Database file holding the outbox of an instance made by create(), tests delete it afterwards
+    public static String outboxDatabaseName(String storageName) {
+        return "api_outbox_" + storageName + ".db";
+    }
+
+    //Directory under getCacheDir() holding the response cache of an instance made by create()
+    public static String cacheDirectoryName(String storageName) {
+        return "api_cache_" + storageName;
+    }
+
+    /**
+     Get a view of this service whose calls belong to an activity (or other owner)
+     When the owner is destroyed, its reads still waiting or on the wire are cancelled
+     and none of its callbacks run. Threading: call on the main thread (e.g. onCreate)
+     */
+    public ApiService withOwner(LifecycleOwner owner) {
+        synchronized (ownerViews) {
+            ApiService view = ownerViews.get(owner);
+            if (view != null) {
+                return view;
+            }
+            view = new ApiService(this, owner);
+            ownerViews.put(owner, view);
+
+            final ApiService ownedView = view;
+            if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+                ownedView.ownerDestroyed = true;
+            } else {
+                owner.getLifecycle().addObserver(new LifecycleEventObserver() {
+                    @Override
+                    public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+                        if (event == Lifecycle.Event.ON_DESTROY) {
+                            ownedView.cancelOwnedCalls();
+                        }
+                    }
+                });
+            }
+            return view;
+        }
+    }
+
+    //Drop the owner's callbacks and cancel its reads
+    private void cancelOwnedCalls() {
+        ownerDestroyed = true;
+        synchronized (ownerViews) {
+            ownerViews.remove(owner);
+        }
+        coalescer.cancelAll(owner);
+        Log.d(TAG, "Cancelled calls of " + owner.getClass().getSimpleName());
+    }
+
     //CALLBACK INTERFACES
 
     //Callback for API responses
@@ -75,224 +249,626 @@ public class ApiService {
         void onError(String error);
     }
 
+    //Outcome of signUp()
+    public enum SignupResult {
+        CREATED,         // Account exists on the server
+        USERNAME_TAKEN   // Server refused the username as a duplicate
+    }
+
+    //Callback for signUp()
+    public interface SignupCallback {
+        //response is the server's message
+        void onResult(SignupResult result, String response);
+        void onError(String error);
+    }
+
     //API ENDPOINTS
 
     public void createStudentDatabase(final ApiCallback callback) {
-        // Run on worker thread
-        executorService.execute(() -> {
-            String url = BASE_URL + "/create_student/" + STUDENT_ID;
-
-            Log.d(TAG, "Creating student database: " + url);
-
-            // Create POST request
-            StringRequest request = new StringRequest(
-                    Request.Method.POST,
-                    url,
-                    response -> {
-                        Log.d(TAG, "Database created successfully: " + response);
-                        // Callback on main thread
-                        mainThreadHandler.post(() -> callback.onSuccess(response));
-                    },
-                    error -> {
+        RequestTimings timings = new RequestTimings("create_student");
+        String url = config.endpointUrl("create_student", null);
+
+        Log.d(TAG, "Creating student database: " + url);
+
+        send(new ApiRequest("create_student", ApiRequest.POST, url, null, timings),
+                new ApiRequest.Listener() {
+                    @Override
+                    public void onResponse(ApiResponse response) {
+                        String body = response.getBodyString();
+                        Log.d(TAG, "Database created successfully: " + body);
+                        deliver(timings, () -> callback.onSuccess(body));
+                    }
+
+                    @Override
+                    public void onError(ApiError error) {
                         String errorMsg = "Failed to create database: " + error.getMessage();
                         Log.e(TAG, errorMsg);
-                        // Callback on main thread
-                        mainThreadHandler.post(() -> callback.onError(errorMsg));
+                        deliver(timings, () -> callback.onError(errorMsg));
                     }
-            );
+                });
+    }
 
-            requestQueue.add(request);
+    //Create new user, a taken username is reported through onError (see signUp)
+    public void createUser(User user, final ApiCallback callback) {
+        signUp(user, new SignupCallback() {
+            @Override
+            public void onResult(SignupResult result, String response) {
+                if (result == SignupResult.USERNAME_TAKEN) {
+                    callback.onError("Failed to create user: " + response);
+                } else {
+                    callback.onSuccess(response);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
         });
     }
 
-    //Create new user (Sign Up)
-    //Runs on worker thread
+    /**
+     Sign up in one round trip
+     The user is created straight away instead of checking the username first; the
+     server refusing a duplicate is reported as USERNAME_TAKEN. This also closes the
+     gap where two signups for the same name both passed the check.
+     */
+    public void signUp(User user, final SignupCallback callback) {
+        RequestTimings timings = new RequestTimings("create_user");
+        String url = config.endpointUrl("create_user", null);
+
+        Log.d(TAG, "Creating user: " + url);
+
+        String jsonBody = gson.toJson(user, User.class);
+
+        // A cached "not found" or stale profile must not outlive the write
+        String userUrl = readUserUrl(user.getUsername());
+        responseCache.invalidate(userUrl);
+
+        // Never queued: the body carries the new password, which must not be stored on disk.
+        // The user is waiting on the signup screen
+        send(new ApiRequest("create_user", ApiRequest.POST, url,
+                        ApiRequest.jsonBody(jsonBody), timings)
+                        .setPriority(ApiRequest.Priority.INTERACTIVE),
+                new ApiRequest.Listener() {
+                    @Override
+                    public void onResponse(ApiResponse response) {
+                        String body = response.getBodyString();
+                        Log.d(TAG, "User created successfully: " + body);
+                        responseCache.invalidate(userUrl);
+                        deliver(timings, () -> callback.onResult(SignupResult.CREATED, body));
+                    }
 
-    public void createUser(User user, final ApiCallback callback) {
-        executorService.execute(() -> {
-            String url = BASE_URL + "/create_user/" + STUDENT_ID;
-
-            Log.d(TAG, "Creating user: " + url);
-
-            try {
-                // Convert User to JSON
-                JSONObject jsonBody = new JSONObject();
-                jsonBody.put("username", user.getUsername());
-                jsonBody.put("password", user.getPassword());
-                jsonBody.put("firstname", user.getFirstname());
-                jsonBody.put("lastname", user.getLastname());
-                jsonBody.put("email", user.getEmail());
-                jsonBody.put("contact", user.getContact());
-                jsonBody.put("usertype", user.getUsertype());
-
-                Log.d(TAG, "Request body: " + jsonBody.toString());
-
-                // Create POST request
-                JsonObjectRequest request = new JsonObjectRequest(
-                        Request.Method.POST,
-                        url,
-                        jsonBody,
-                        response -> {
-                            Log.d(TAG, "User created successfully: " + response.toString());
-                            mainThreadHandler.post(() -> callback.onSuccess(response.toString()));
-                        },
-                        error -> {
-                            final String errorMsg;
-
-                            if (error.networkResponse != null) {
-                                errorMsg = "Failed to create user: " + new String(error.networkResponse.data);
-                            } else {
-                                errorMsg = "Failed to create user: " + error.getMessage();
-                            }
+                    @Override
+                    public void onError(ApiError error) {
+                        if (!error.hasResponse()) {
+                            Log.w(TAG, "Create user failed: " + error.getMessage());
+                            deliver(timings, () -> callback.onError(
+                                    "Could not reach the server, please try again"));
+                            return;
+                        }
 
-                            Log.e(TAG, errorMsg);
-                            mainThreadHandler.post(() -> callback.onError(errorMsg));
+                        String body = error.getBodyString();
+                        if (isUsernameConflict(error)) {
+                            Log.w(TAG, "Username already exists: " + user.getUsername());
+                            deliver(timings, () -> callback.onResult(SignupResult.USERNAME_TAKEN, body));
+                            return;
                         }
-                );
 
-                requestQueue.add(request);
+                        final String errorMsg = "Failed to create user: " + body;
+                        Log.e(TAG, errorMsg);
+                        deliver(timings, () -> callback.onError(errorMsg));
+                    }
+                });
+    }
 
-            } catch (JSONException e) {
-                Log.e(TAG, "JSON Error: " + e.getMessage());
-                mainThreadHandler.post(() -> callback.onError("Invalid user data: " + e.getMessage()));
+    /**
+     Login user (authenticate)
+     Returning users are checked against CredentialCache first: a match logs in at once,
+     even offline, and the server is asked again in the background. Anyone else is
+     fetched from the server and the password compared here, as before.
+     */
+    public void loginUser(String username, String password, final UserCallback callback) {
+        RequestTimings timings = new RequestTimings("login");
+
+        credentialCache.verify(username, password, (result, cachedUser) -> {
+            if (result == CredentialCache.Result.MATCH) {
+                Log.d(TAG, "Login verified on device for user: " + username);
+                ApiMetrics.getInstance().increment("login.cached");
+                timings.markBuilt();
+                timings.markCacheHit();
+                deliver(timings, () -> callback.onSuccess(cachedUser));
+
+                // Not tied to the login screen, which closes right away
+                root.revalidateLogin(username, password, cachedUser);
+                return;
             }
+            loginOnline(username, password, timings, callback);
         });
     }
 
-    //Login user (authenticate)
-    //Fetches user by username and verifies password
-    public void loginUser(String username, String password, final UserCallback callback) {
-        executorService.execute(() -> {
-            String url = BASE_URL + "/read_user/" + STUDENT_ID + "/" + username;
+    //Fetch the user by username and verify the password, caching the credentials on success
+    private void loginOnline(String username, String password, RequestTimings timings,
+                             final UserCallback callback) {
+        String url = readUserUrl(username);
 
-            Log.d(TAG, "Logging in user: " + url);
+        Log.d(TAG, "Logging in user: " + url);
 
-            JsonObjectRequest request = new JsonObjectRequest(
-                    Request.Method.GET,
-                    url,
-                    null,
-                    response -> {
+        sendPasswordGet("login", url, timings, ApiRequest.Priority.INTERACTIVE,
+                new ApiRequest.Listener() {
+                    @Override
+                    public void onResponse(ApiResponse response) {
                         try {
-                            Log.d(TAG, "Login response: " + response.toString());
-
                             // Parse user from response
-                            JSONObject userJson = response.getJSONObject("user");
-
-                            String storedPassword = userJson.getString("password");
+                            User user = parseUser(response);
 
                             // Verify password
-                            if (storedPassword.equals(password)) {
-                                // Password correct - create User object
-                                User user = new User(
-                                        userJson.getString("username"),
-                                        userJson.getString("password"),
-                                        userJson.getString("firstname"),
-                                        userJson.getString("lastname"),
-                                        userJson.getString("email"),
-                                        userJson.getString("contact"),
-                                        userJson.getString("usertype")
-                                );
-
+                            if (user.getPassword().equals(password)) {
                                 Log.d(TAG, "Login successful for user: " + user.getUsername());
-                                mainThreadHandler.post(() -> callback.onSuccess(user));
+                                credentialCache.store(user);
+                                deliver(timings, () -> callback.onSuccess(user));
                             } else {
                                 // Password incorrect
                                 Log.e(TAG, "Incorrect password");
-                                mainThreadHandler.post(() -> callback.onError("Incorrect password"));
+                                deliver(timings, () -> callback.onError("Incorrect password"));
                             }
 
-                        } catch (JSONException e) {
+                        } catch (IOException e) {
                             Log.e(TAG, "JSON parsing error: " + e.getMessage());
-                            mainThreadHandler.post(() -> callback.onError("Error parsing user data"));
+                            deliver(timings, () -> callback.onError("Error parsing user data"));
                         }
-                    },
-                    error -> {
+                    }
+
+                    @Override
+                    public void onError(ApiError error) {
                         final String errorMsg;
 
-                        if (error.networkResponse != null && error.networkResponse.statusCode == 404) {
+                        if (error.getStatusCode() == 404) {
                             errorMsg = "User not found";
-                        } else if (error.networkResponse != null) {
-                            errorMsg = "Login failed: " + new String(error.networkResponse.data);
+                            credentialCache.remove(username);
+                        } else if (error.hasResponse()) {
+                            errorMsg = "Login failed: " + error.getBodyString();
                         } else {
                             errorMsg = "Login failed: " + error.getMessage();
                         }
 
                         Log.e(TAG, errorMsg);
-                        mainThreadHandler.post(() -> callback.onError(errorMsg));
+                        deliver(timings, () -> callback.onError(errorMsg));
                     }
-            );
+                });
+    }
 
-            requestQueue.add(request);
-        });
+    /**
+     Check a login that was verified on the device against the server
+     A changed password or deleted user drops the cached credentials, so the next
+     login has to go to the server. Network errors keep them (offline login).
+     */
+    private void revalidateLogin(String username, String password, User cachedUser) {
+        RequestTimings timings = new RequestTimings("login");
+
+        sendPasswordGet("login", readUserUrl(username), timings, ApiRequest.Priority.BACKGROUND,
+                new ApiRequest.Listener() {
+                    @Override
+                    public void onResponse(ApiResponse response) {
+                        try {
+                            User user = parseUser(response);
+                            if (!user.getPassword().equals(password)) {
+                                Log.w(TAG, "Cached login no longer valid for user: " + username);
+                                ApiMetrics.getInstance().increment("login.revoked");
+                                credentialCache.remove(username);
+                            } else if (!sameProfile(user, cachedUser)) {
+                                credentialCache.store(user);
+                            }
+                        } catch (IOException e) {
+                            Log.w(TAG, "Could not revalidate login: " + e.getMessage());
+                        }
+                    }
+
+                    @Override
+                    public void onError(ApiError error) {
+                        if (error.getStatusCode() == 404) {
+                            ApiMetrics.getInstance().increment("login.revoked");
+                            credentialCache.remove(username);
+                        }
+                    }
+                });
+    }
+
+    private static boolean sameProfile(User a, User b) {
+        return equal(a.getFirstname(), b.getFirstname())
+                && equal(a.getLastname(), b.getLastname())
+                && equal(a.getEmail(), b.getEmail())
+                && equal(a.getContact(), b.getContact())
+                && equal(a.getUsertype(), b.getUsertype());
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
     }
 
     //Check if user exists
     public void checkUserExists(String username, final ApiCallback callback) {
-        executorService.execute(() -> {
-            String url = BASE_URL + "/read_user/" + STUDENT_ID + "/" + username;
+        RequestTimings timings = new RequestTimings("read_user");
+        String url = readUserUrl(username);
 
-            Log.d(TAG, "Checking if user exists: " + url);
+        Log.d(TAG, "Checking if user exists: " + url);
 
-            JsonObjectRequest request = new JsonObjectRequest(
-                    Request.Method.GET,
-                    url,
-                    null,
-                    response -> {
+        sendCachedGet("read_user", url, timings, ApiRequest.Priority.INTERACTIVE,
+                new ApiRequest.Listener() {
+                    @Override
+                    public void onResponse(ApiResponse response) {
                         // User exists
-                        mainThreadHandler.post(() -> callback.onSuccess("User exists"));
-                    },
-                    error -> {
-                        if (error.networkResponse != null && error.networkResponse.statusCode == 404) {
+                        deliver(timings, () -> callback.onSuccess("User exists"));
+                    }
+
+                    @Override
+                    public void onError(ApiError error) {
+                        if (error.getStatusCode() == 404) {
                             // User doesn't exist
-                            mainThreadHandler.post(() -> callback.onError("User not found"));
+                            deliver(timings, () -> callback.onError("User not found"));
                         } else {
                             // Other error
-                            mainThreadHandler.post(() -> callback.onError("Error checking user"));
+                            deliver(timings, () -> callback.onError("Error checking user"));
+                        }
+                    }
+                });
+    }
+
+    //Read a user's profile (served from cache while fresh), the password is left out
+    public void readUser(String username, final UserCallback callback) {
+        RequestTimings timings = new RequestTimings("read_user");
+        String url = readUserUrl(username);
+
+        Log.d(TAG, "Reading user: " + url);
+
+        sendCachedGet("read_user", url, timings, ApiRequest.Priority.USER_INITIATED,
+                new ApiRequest.Listener() {
+                    @Override
+                    public void onResponse(ApiResponse response) {
+                        try {
+                            User user = UserTypeAdapter.INSTANCE.readProfileEnvelope(response.getData());
+                            deliver(timings, () -> callback.onSuccess(user));
+                        } catch (IOException e) {
+                            Log.e(TAG, "JSON parsing error: " + e.getMessage());
+                            deliver(timings, () -> callback.onError("Error parsing user data"));
                         }
                     }
-            );
 
-            requestQueue.add(request);
+                    @Override
+                    public void onError(ApiError error) {
+                        final String errorMsg;
+
+                        if (error.getStatusCode() == 404) {
+                            errorMsg = "User not found";
+                        } else {
+                            errorMsg = "Could not load user data: " + error.getMessage();
+                        }
+
+                        Log.e(TAG, errorMsg);
+                        deliver(timings, () -> callback.onError(errorMsg));
+                    }
+                });
+    }
+
+    /**
+     Read a user including the password, always from the server
+     Only for writing the user back with updateUser, which needs the password.
+     The response is never cached with the password in it.
+     */
+    public void readUserForUpdate(String username, final UserCallback callback) {
+        RequestTimings timings = new RequestTimings("read_user");
+        String url = readUserUrl(username);
+
+        Log.d(TAG, "Reading user for update: " + url);
+
+        sendPasswordGet("read_user", url, timings, ApiRequest.Priority.USER_INITIATED,
+                new ApiRequest.Listener() {
+                    @Override
+                    public void onResponse(ApiResponse response) {
+                        try {
+                            User user = parseUser(response);
+                            deliver(timings, () -> callback.onSuccess(user));
+                        } catch (IOException e) {
+                            Log.e(TAG, "JSON parsing error: " + e.getMessage());
+                            deliver(timings, () -> callback.onError("Error parsing user data"));
+                        }
+                    }
+
+                    @Override
+                    public void onError(ApiError error) {
+                        final String errorMsg;
+
+                        if (error.getStatusCode() == 404) {
+                            errorMsg = "User not found";
+                        } else {
+                            errorMsg = "Could not load user data: " + error.getMessage();
+                        }
+
+                        Log.e(TAG, errorMsg);
+                        deliver(timings, () -> callback.onError(errorMsg));
+                    }
+                });
+    }
+
+    /**
+     Read a user's profile as part of a batch
+     Use when many users are needed at once (e.g. guests in a reservation list):
+     lookups made together are sent as one read_users request. Like readUser, the
+     password is left out.
+     */
+    public void readUserBatched(String username, final UserCallback callback) {
+        batchLoader.load(username, new UserCallback() {
+            // The loader is shared by all views, so the owner check happens here
+            @Override
+            public void onSuccess(User user) {
+                if (!ownerDestroyed) {
+                    callback.onSuccess(user);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                if (!ownerDestroyed) {
+                    callback.onError(error);
+                }
+            }
         });
     }
 
     //Update user information
     public void updateUser(String username, User updatedUser, final ApiCallback callback) {
-        executorService.execute(() -> {
-            String url = BASE_URL + "/update_user/" + STUDENT_ID + "/" + username;
-
-            Log.d(TAG, "Updating user: " + url);
-
-            try {
-                JSONObject jsonBody = new JSONObject();
-                jsonBody.put("username", updatedUser.getUsername());
-                jsonBody.put("password", updatedUser.getPassword());
-                jsonBody.put("firstname", updatedUser.getFirstname());
-                jsonBody.put("lastname", updatedUser.getLastname());
-                jsonBody.put("email", updatedUser.getEmail());
-                jsonBody.put("contact", updatedUser.getContact());
-                jsonBody.put("usertype", updatedUser.getUsertype());
-
-                JsonObjectRequest request = new JsonObjectRequest(
-                        Request.Method.PUT,
-                        url,
-                        jsonBody,
-                        response -> {
-                            Log.d(TAG, "User updated successfully");
-                            mainThreadHandler.post(() -> callback.onSuccess(response.toString()));
-                        },
-                        error -> {
-                            final String errorMsg = "Failed to update user: " + error.getMessage();
-                            Log.e(TAG, errorMsg);
-                            mainThreadHandler.post(() -> callback.onError(errorMsg));
-                        }
-                );
+        String url = config.endpointUrl("update_user", username);
+
+        Log.d(TAG, "Updating user: " + url);
+
+        // Stored without the password (null fields are left out); resolveOutboxBody()
+        // puts the current one back just before the update is sent
+        User stored = new User(updatedUser.getUsername(), null, updatedUser.getFirstname(),
+                updatedUser.getLastname(), updatedUser.getEmail(), updatedUser.getContact(),
+                updatedUser.getUsertype());
+        String jsonBody = gson.toJson(stored, User.class);
+
+        // Drop the cached profile so the next read sees the new values once they are sent
+        responseCache.invalidate(readUserUrl(username));
+
+        // Always goes through the outbox: stored first, acknowledged, then sent in order
+        queueWrite("update_user", ApiRequest.PUT, url, jsonBody, callback);
+    }
+
+    //HELPERS
+
+    //Hand a built request to the dispatcher, joining an identical one if it is already in flight
+    void send(ApiRequest request, ApiRequest.Listener listener) {
+        // Only reads are tagged: a cancelled write may still have reached the server
+        if (owner != null && ApiRequest.GET.equals(request.getMethod())) {
+            request.setTag(owner);
+        }
+        request.getTimings().markBuilt();
+        coalescer.send(request, listener);
+    }
+
+    //Persist a write in the outbox and acknowledge it once stored, or report that it was not
+    private void queueWrite(String endpoint, String method, String url, String body,
+                            final ApiCallback callback) {
+        OutboxEntry entry = new OutboxEntry(endpoint, method, url, body);
+        outbox.enqueue(entry,
+                () -> mainThreadHandler.post(() -> {
+                    if (!ownerDestroyed) {
+                        callback.onSuccess("Queued");
+                    }
+                }),
+                () -> mainThreadHandler.post(() -> {
+                    if (!ownerDestroyed) {
+                        callback.onError("Could not save the change, please try again");
+                    }
+                }));
+    }
+
+    //Cache generation of a user's read_user entry, read before fetching the user some other way
+    long userCacheGeneration(String username) {
+        return responseCache.getGeneration(readUserUrl(username));
+    }
+
+    /**
+     Look up a user's cached read_user entry for a lookup that would otherwise go to the server
+     Hands over the entry only while it is fresh, null otherwise. The callback runs on the
+     calling thread for a memory hit and on the cache's disk thread otherwise.
+     */
+    void lookupFreshUser(String username, ResponseCache.LookupCallback callback) {
+        long ttl = ttlFor("read_user");
+        responseCache.lookup(readUserUrl(username), entry -> callback.onLookup(
+                entry != null && entry.isFresh(ttl, System.currentTimeMillis()) ? entry : null));
+    }
+
+    /**
+     Seed the read_user cache with a user fetched some other way (e.g. a batch), without the password
+     @param generation userCacheGeneration() from before the fetch was sent
+     */
+    void cacheUser(User user, long generation) {
+        responseCache.put(readUserUrl(user.getUsername()), new ResponseCache.Entry(
+                UserTypeAdapter.INSTANCE.writeProfileEnvelope(user), null, null, System.currentTimeMillis()),
+                generation);
+    }
+
+    /**
+     Complete a queued write just before the outbox sends it
+     update_user bodies are stored without the password, but the server replaces the whole
+     user, so the current password is read from the server (never from disk) and put back.
+     Runs on the outbox thread; returns null to retry later if the server cannot be read.
+     */
+    private String resolveOutboxBody(OutboxEntry entry) {
+        if (!"update_user".equals(entry.getEndpoint()) || entry.getBody() == null) {
+            return entry.getBody();
+        }
+        try {
+            User user = UserTypeAdapter.INSTANCE.readProfile(entry.getBody());
+            ApiResponse response = outbox.fetch(new ApiRequest("read_user", ApiRequest.GET,
+                    readUserUrl(user.getUsername()), null, new RequestTimings("read_user")));
+            if (response == null) {
+                return null;
+            }
+            user.setPassword(UserTypeAdapter.INSTANCE.readEnvelope(response.getData()).getPassword());
+            return gson.toJson(user, User.class);
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Could not complete queued update: " + e.getMessage());
+            return null;
+        }
+    }
+
+    //Invalidate the cached profile of the user a queued write was about
+    private void invalidateUserFromBody(String body) {
+        try {
+            responseCache.invalidate(readUserUrl(UserTypeAdapter.INSTANCE.readProfile(body).getUsername()));
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Queued write without username: " + e.getMessage());
+        }
+    }
+
+    /**
+     Send a GET through the response cache
+     Fresh entries (younger than the endpoint's TTL) are returned without a request.
+     Expired entries with an ETag or Last-Modified are revalidated with a conditional
+     GET, and a 304 answer reuses the cached body. Answers are only stored if the
+     URL was not invalidated since the call was made.
+     */
+    private void sendCachedGet(String endpoint, String url, RequestTimings timings,
+                               ApiRequest.Priority priority, ApiRequest.Listener listener) {
+        timings.markBuilt();
+        long ttl = ttlFor(endpoint);
+        long generation = responseCache.getGeneration(url);
+
+        responseCache.lookup(url, entry -> {
+            if (ownerDestroyed) {
+                return; // owner went away during the cache lookup
+            }
+            if (entry != null && entry.isFresh(ttl, System.currentTimeMillis())) {
+                timings.markCacheHit();
+                listener.onResponse(new ApiResponse(200, null, entry.getData(), 0));
+                return;
+            }
+
+            ApiRequest request = new ApiRequest(endpoint, ApiRequest.GET, url, null, timings)
+                    .setPriority(priority)
+                    .setCacheGeneration(generation);
+            if (entry != null && entry.getEtag() != null) {
+                request.getHeaders().put("If-None-Match", entry.getEtag());
+            }
+            if (entry != null && entry.getLastModified() != null) {
+                request.getHeaders().put("If-Modified-Since", entry.getLastModified());
+            }
+
+            send(request, new ApiRequest.Listener() {
+                @Override
+                public void onResponse(ApiResponse response) {
+                    if (response.isNotModified() && entry != null) {
+                        responseCache.put(url, entry.refreshedAt(System.currentTimeMillis()), generation);
+                        listener.onResponse(new ApiResponse(200, response.getHeaders(),
+                                entry.getData(), response.getNetworkTimeMs()));
+                        return;
+                    }
+                    storeInCache(url, response, generation);
+                    listener.onResponse(response);
+                }
+
+                @Override
+                public void onError(ApiError error) {
+                    listener.onError(error);
+                }
+            });
+        });
+    }
+
+    /**
+     Send a read_user GET whose answer has to include the password
+     Skips the cache (cached bodies have no password) but still refreshes it, stripped,
+     so the profile screens reuse the answer.
+     */
+    private void sendPasswordGet(String endpoint, String url, RequestTimings timings,
+                                 ApiRequest.Priority priority, ApiRequest.Listener listener) {
+        long generation = responseCache.getGeneration(url);
+        send(new ApiRequest(endpoint, ApiRequest.GET, url, null, timings)
+                        .setPriority(priority)
+                        .setCacheGeneration(generation),
+                new ApiRequest.Listener() {
+                    @Override
+                    public void onResponse(ApiResponse response) {
+                        storeInCache(url, response, generation);
+                        listener.onResponse(response);
+                    }
 
-                requestQueue.add(request);
+                    @Override
+                    public void onError(ApiError error) {
+                        listener.onError(error);
+                    }
+                });
+    }
 
-            } catch (JSONException e) {
-                mainThreadHandler.post(() -> callback.onError("Invalid data: " + e.getMessage()));
+    /**
+     Check if a create_user error means the username is taken
+     409 Conflict, or the coursework server's 400 "User already exists"
+     */
+    private static boolean isUsernameConflict(ApiError error) {
+        if (error.getStatusCode() == 409) {
+            return true;
+        }
+        String body = error.getBodyString();
+        return error.getStatusCode() == 400 && body != null
+                && body.toLowerCase(Locale.UK).contains("already exists");
+    }
+
+    //Cache a successful read_user GET, without the password, unless the server forbids it
+    private void storeInCache(String url, ApiResponse response, long generation) {
+        if (response.getStatusCode() != 200) {
+            return;
+        }
+        String cacheControl = response.getHeader("Cache-Control");
+        if (cacheControl != null && cacheControl.contains("no-store")) {
+            return;
+        }
+        byte[] profile;
+        try {
+            profile = UserTypeAdapter.INSTANCE.stripPassword(response.getData());
+        } catch (IOException e) {
+            Log.w(TAG, "Not caching unreadable user response: " + e.getMessage());
+            return;
+        }
+        responseCache.put(url, new ResponseCache.Entry(
+                profile,
+                response.getHeader("ETag"),
+                response.getHeader("Last-Modified"),
+                System.currentTimeMillis()), generation);
+    }
+
+    //Endpoints without a TTL are always revalidated
+    private static long ttlFor(String endpoint) {
+        if ("read_user".equals(endpoint)) {
+            return READ_USER_TTL_MS;
+        }
+        return 0;
+    }
+
+    //Also used by ApiLoadDriver for its background traffic
+    String readUserUrl(String username) {
+        return config.endpointUrl("read_user", username);
+    }
+
+    //Post a parsed result to the main thread and log the latency breakdown
+    void deliver(RequestTimings timings, Runnable callback) {
+        timings.markParsed();
+        mainThreadHandler.post(() -> {
+            // The owner may have been destroyed while the response was on its way
+            if (ownerDestroyed) {
+                return;
             }
+            timings.markDelivered();
+            callback.run();
+            timings.log();
+            ApiMetrics.getInstance().record(timings);
         });
     }
-}
\ No newline at end of file
+
+    //Parse the "user" object of a read_user response, streaming from the raw bytes
+    private static User parseUser(ApiResponse response) throws IOException {
+        return UserTypeAdapter.INSTANCE.readEnvelope(response.getData());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.restaurantmanager.api;
+
+import android.util.Log;
+import java.util.Locale;
+
+/**
+ CircuitBreaker - Stops sending requests to a server that keeps failing
+ CLOSED: requests flow, consecutive failures are counted.
+ OPEN: after failureThreshold failures in a row every request fails fast
+ for openMillis, without touching the network.
+ HALF_OPEN: after that a single trial request is let through. Success closes
+ the breaker again, failure opens it for another openMillis.
+ Only failures that say something about server health count (no response,
+ timeouts, 5xx); a 404 or other 4xx is a healthy answer.
+ Threading: All methods are synchronized, one breaker is shared per host
+ */
+public class CircuitBreaker {
+
+    private static final String TAG = "CircuitBreaker";
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final ApiMetrics metrics;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis, ApiMetrics metrics) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.metrics = metrics;
+    }
+
+    //Check if a request may be sent now; a true answer must be followed by exactly one of
+    //onSuccess/onFailure/onCancelled, a false answer by none of them
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && now() - openedAt >= openMillis) {
+            moveTo(State.HALF_OPEN);
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            moveTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+            open();
+        } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    //A request let through by allowRequest was cancelled before its outcome was known
+    public synchronized void onCancelled() {
+        // Says nothing about the server - just let the next request be the trial
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    //True if a failure tells us the server is unhealthy rather than that the request was wrong
+    public static boolean isHealthFailure(ApiError error) {
+        int status = error.getStatusCode();
+        return status == 0 || status == 408 || status == 429 || status >= 500;
+    }
+
+    private void open() {
+        openedAt = now();
+        moveTo(State.OPEN);
+    }
+
+    private void moveTo(State next) {
+        Log.w(TAG, name + ": " + state + " -> " + next);
+        state = next;
+        metrics.increment("breaker." + name + "." + next.name().toLowerCase(Locale.ROOT));
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000L;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+import android.util.Log;
+import com.example.restaurantmanager.models.User;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ CredentialCache - Verifies returning users on the device, without the network
+ Stores a random salt and a PBKDF2 hash of the password per username, plus the
+ profile fields login needs (name, user type). The password itself is never stored.
+ PBKDF2WithHmacSHA1 is used because it is available on every supported API level
+ (the SHA-256 variant needs API 26); the iteration count makes guessing slow.
+ Threading: Hashing is deliberately slow, so verify() and store() run on a single
+ worker thread and report back on it. SharedPreferences access is thread-safe.
+ SOLID: Single Responsibility - Only handles cached credentials
+ */
+public class CredentialCache {
+
+    private static final String TAG = "CredentialCache";
+
+    private static final String PREF_NAME = "CredentialCache";
+
+    // Keys are "<username>.<field>"
+    private static final String KEY_SALT = ".salt";
+    private static final String KEY_HASH = ".hash";
+    private static final String KEY_ITERATIONS = ".iterations";
+    private static final String KEY_FIRSTNAME = ".firstname";
+    private static final String KEY_LASTNAME = ".lastname";
+    private static final String KEY_EMAIL = ".email";
+    private static final String KEY_CONTACT = ".contact";
+    private static final String KEY_USERTYPE = ".usertype";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA1";
+    // ~50-100ms per hash on a mid-range phone; stored per entry so it can be raised later
+    private static final int ITERATIONS = 20000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    public enum Result {
+        MATCH,      // Password matches the cached hash
+        MISMATCH,   // User is cached but the password differs (may have changed on the server)
+        UNKNOWN     // Nothing cached for this username
+    }
+
+    public interface VerifyCallback {
+        //user is the cached profile on MATCH (password is null), otherwise null
+        void onResult(Result result, User user);
+    }
+
+    private final SharedPreferences preferences;
+    private final SecureRandom random = new SecureRandom();
+    private final ExecutorService hasher = Executors.newSingleThreadExecutor();
+
+    public CredentialCache(Context context) {
+        this(context, PREF_NAME);
+    }
+
+    //Credentials kept in their own preferences file, apart from the app's logins
+    public CredentialCache(Context context, String prefName) {
+        preferences = context.getApplicationContext().getSharedPreferences(prefName, Context.MODE_PRIVATE);
+    }
+
+    //Stop the hashing thread; only for caches that are thrown away
+    public void shutdown() {
+        hasher.shutdown();
+    }
+
+    /**
+     Check a password against the cached hash
+     @param callback Called on the hashing thread
+     */
+    public void verify(String username, String password, VerifyCallback callback) {
+        hasher.execute(() -> {
+            String salt = preferences.getString(username + KEY_SALT, null);
+            String hash = preferences.getString(username + KEY_HASH, null);
+            if (salt == null || hash == null) {
+                callback.onResult(Result.UNKNOWN, null);
+                return;
+            }
+
+            int iterations = preferences.getInt(username + KEY_ITERATIONS, ITERATIONS);
+            byte[] expected = Base64.decode(hash, Base64.NO_WRAP);
+            byte[] actual;
+            try {
+                actual = pbkdf2(password, Base64.decode(salt, Base64.NO_WRAP), iterations);
+            } catch (GeneralSecurityException e) {
+                Log.e(TAG, "Hashing failed: " + e.getMessage());
+                callback.onResult(Result.UNKNOWN, null);
+                return;
+            }
+
+            // Constant-time comparison
+            if (!MessageDigest.isEqual(expected, actual)) {
+                callback.onResult(Result.MISMATCH, null);
+                return;
+            }
+            callback.onResult(Result.MATCH, new User(
+                    username,
+                    null,
+                    preferences.getString(username + KEY_FIRSTNAME, null),
+                    preferences.getString(username + KEY_LASTNAME, null),
+                    preferences.getString(username + KEY_EMAIL, null),
+                    preferences.getString(username + KEY_CONTACT, null),
+                    preferences.getString(username + KEY_USERTYPE, null)));
+        });
+    }
+
+    //Hash and store a user's password (with a new salt) and profile, on the hashing thread
+    public void store(User user) {
+        if (user.getPassword() == null) {
+            return;
+        }
+        hasher.execute(() -> {
+            byte[] salt = new byte[SALT_BYTES];
+            random.nextBytes(salt);
+            byte[] hash;
+            try {
+                hash = pbkdf2(user.getPassword(), salt, ITERATIONS);
+            } catch (GeneralSecurityException e) {
+                Log.e(TAG, "Hashing failed: " + e.getMessage());
+                return;
+            }
+
+            String username = user.getUsername();
+            preferences.edit()
+                    .putString(username + KEY_SALT, Base64.encodeToString(salt, Base64.NO_WRAP))
+                    .putString(username + KEY_HASH, Base64.encodeToString(hash, Base64.NO_WRAP))
+                    .putInt(username + KEY_ITERATIONS, ITERATIONS)
+                    .putString(username + KEY_FIRSTNAME, user.getFirstname())
+                    .putString(username + KEY_LASTNAME, user.getLastname())
+                    .putString(username + KEY_EMAIL, user.getEmail())
+                    .putString(username + KEY_CONTACT, user.getContact())
+                    .putString(username + KEY_USERTYPE, user.getUsertype())
+                    .apply();
+        });
+    }
+
+    //Forget a user, e.g. after the server no longer accepts the cached password
+    public void remove(String username) {
+        hasher.execute(() -> preferences.edit()
+                .remove(username + KEY_SALT)
+                .remove(username + KEY_HASH)
+                .remove(username + KEY_ITERATIONS)
+                .remove(username + KEY_FIRSTNAME)
+                .remove(username + KEY_LASTNAME)
+                .remove(username + KEY_EMAIL)
+                .remove(username + KEY_CONTACT)
+                .remove(username + KEY_USERTYPE)
+                .apply());
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
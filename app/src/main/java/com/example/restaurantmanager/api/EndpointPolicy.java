@@ -0,0 +1,110 @@
+package com.example.restaurantmanager.api;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ EndpointPolicy - Timeout and retry settings for one API endpoint
+ Retries wait with "decorrelated jitter": each delay is picked at random between
+ the base delay and three times the previous delay, capped at maxBackoffMs.
+ This spreads retries from many clients out instead of having them arrive in waves.
+ Only GETs and writes carrying an Idempotency-Key are ever retried, and never
+ past the call's deadline (getDeadlineMs unless the request sets its own).
+ Request bodies are gzipped only for endpoints whose server side accepts it
+ (see withRequestGzip); responses are always requested with gzip.
+ */
+public class EndpointPolicy {
+
+    // Used for endpoints without their own entry
+    public static final EndpointPolicy DEFAULT = new EndpointPolicy(5000, 2, 250, 2000);
+
+    private static final Map<String, EndpointPolicy> POLICIES = new HashMap<>();
+
+    static {
+        // Interactive reads: short timeout, retry quickly
+        POLICIES.put("login", new EndpointPolicy(5000, 2, 200, 1000));
+        POLICIES.put("read_user", new EndpointPolicy(5000, 3, 250, 2000));
+        // Batch reads fall back to single reads on failure, so no retries here.
+        // A full batch of usernames is around 1KB; only servers with read_users get it,
+        // and those decode gzip bodies (a server without it answers 404 either way)
+        POLICIES.put("read_users", new EndpointPolicy(8000, 1, 0, 0).withRequestGzip(512));
+        // Writes are not retried here - ApiOutbox replays them with its own backoff
+        POLICIES.put("create_user", new EndpointPolicy(10000, 1, 0, 0));
+        POLICIES.put("update_user", new EndpointPolicy(10000, 1, 0, 0));
+        POLICIES.put("create_student", new EndpointPolicy(10000, 1, 0, 0));
+    }
+
+    private final int timeoutMs;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final int gzipRequestMinBytes;
+
+    /**
+     @param timeoutMs Connect and read timeout of each attempt
+     @param maxAttempts Total attempts including the first, 1 = no retries
+     @param baseBackoffMs Smallest delay before a retry
+     @param maxBackoffMs Largest delay before a retry
+     */
+    public EndpointPolicy(int timeoutMs, int maxAttempts, long baseBackoffMs, long maxBackoffMs) {
+        this(timeoutMs, maxAttempts, baseBackoffMs, maxBackoffMs, 0);
+    }
+
+    private EndpointPolicy(int timeoutMs, int maxAttempts, long baseBackoffMs, long maxBackoffMs,
+                           int gzipRequestMinBytes) {
+        this.timeoutMs = timeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.gzipRequestMinBytes = gzipRequestMinBytes;
+    }
+
+    /**
+     Copy of this policy that gzips request bodies of at least minBytes
+     Small bodies are sent as-is, the gzip header would make them larger
+     */
+    public EndpointPolicy withRequestGzip(int minBytes) {
+        return new EndpointPolicy(timeoutMs, maxAttempts, baseBackoffMs, maxBackoffMs, minBytes);
+    }
+
+    //Policy for an endpoint name, DEFAULT if none is registered
+    public static synchronized EndpointPolicy forEndpoint(String endpoint) {
+        EndpointPolicy policy = POLICIES.get(endpoint);
+        return policy != null ? policy : DEFAULT;
+    }
+
+    //Replace the policy of an endpoint (e.g. from tests or the load driver)
+    public static synchronized void register(String endpoint, EndpointPolicy policy) {
+        POLICIES.put(endpoint, policy);
+    }
+
+    // Getters
+    public int getTimeoutMs() { return timeoutMs; }
+    public int getMaxAttempts() { return maxAttempts; }
+    public long getBaseBackoffMs() { return baseBackoffMs; }
+    public long getMaxBackoffMs() { return maxBackoffMs; }
+
+    //Overall budget of one call: every attempt timing out plus the longest backoffs in between
+    public long getDeadlineMs() {
+        return (long) timeoutMs * maxAttempts + maxBackoffMs * (maxAttempts - 1);
+    }
+
+    //True if a body of this size should be sent gzipped
+    public boolean shouldGzipRequest(int bodyBytes) {
+        return gzipRequestMinBytes > 0 && bodyBytes >= gzipRequestMinBytes;
+    }
+
+    /**
+     Delay before the next retry
+     The first retry counts the base delay as its previous one, so it is already
+     spread over [base, 3 * base] instead of every client waiting exactly base
+     @param previousDelayMs Delay used before the previous retry, 0 for the first retry
+     */
+    public long nextBackoffMs(long previousDelayMs) {
+        long upper = Math.max(baseBackoffMs, previousDelayMs) * 3;
+        long delay = baseBackoffMs + (upper > baseBackoffMs
+                ? ThreadLocalRandom.current().nextLong(upper - baseBackoffMs + 1) : 0);
+        return Math.min(maxBackoffMs, delay);
+    }
+}
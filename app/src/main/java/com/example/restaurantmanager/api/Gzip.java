@@ -0,0 +1,44 @@
+package com.example.restaurantmanager.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ Gzip - Compression helpers for request and response bodies
+ */
+public final class Gzip {
+
+    public static final String ENCODING = "gzip";
+
+    private Gzip() {
+    }
+
+    public static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static byte[] decompress(byte[] data) throws IOException {
+        // JSON usually compresses 4-10x, start with a buffer that rarely needs to grow
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(256, data.length * 4));
+        byte[] buffer = new byte[8192];
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    //True if a Content-Encoding header value says the body is gzip
+    public static boolean isGzip(String contentEncoding) {
+        return contentEncoding != null && contentEncoding.trim().equalsIgnoreCase(ENCODING);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.restaurantmanager.api;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ Histogram - Fixed-bucket distribution of non-negative values (ms or bytes)
+ Buckets grow by ~26% (ten per decade), so percentiles are accurate to within one
+ bucket from 1 up to 10^9, using under a kilobyte per histogram.
+ Percentiles report the upper bound of the bucket they fall in, capped at the max.
+ Threading: Safe from any thread, recording is lock-free
+ */
+public class Histogram {
+
+    // Upper bounds (inclusive) of each bucket; the last bucket takes everything larger
+    private static final long[] BOUNDS = buildBounds();
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.incrementAndGet(bucketFor(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long getCount() { return count.get(); }
+    public long getMax() { return max.get(); }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     Estimated value at a percentile
+     @param percentile 0-100, e.g. 99 for p99
+     */
+    public long getPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return i < BOUNDS.length ? Math.min(BOUNDS[i], max.get()) : max.get();
+            }
+        }
+        return max.get();
+    }
+
+    private static int bucketFor(long value) {
+        // Binary search for the first bound >= value
+        int low = 0;
+        int high = BOUNDS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BOUNDS[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    //0, then ten bounds per decade (1, 2, 3, 4, 5, 6, 8, 10, 13, 16, ...) up to 10^9
+    private static long[] buildBounds() {
+        long[] bounds = new long[92];
+        int size = 0;
+        bounds[size++] = 0;
+        for (int step = 0; step <= 90; step++) {
+            long bound = Math.round(Math.pow(10, step / 10.0));
+            if (bound > bounds[size - 1]) {
+                bounds[size++] = bound;
+            }
+        }
+        long[] trimmed = new long[size];
+        System.arraycopy(bounds, 0, trimmed, 0, size);
+        return trimmed;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ HttpTransport - Sends one HTTP attempt and reports the raw result
+ RequestDispatcher decides what is sent and when (host slots, retries, deadlines,
+ gzip); a transport only moves bytes. Bodies are passed exactly as they are on the
+ wire, so Content-Encoding stays the dispatcher's job.
+ Implementations: VolleyTransport, UrlConnectionTransport
+ Threading: send() is safe from any thread. Callbacks run on a transport thread.
+ */
+public interface HttpTransport {
+
+    enum Type { VOLLEY, URL_CONNECTION }
+
+    //Result of one attempt
+    interface Callback {
+        //Any HTTP answer, including 304, 4xx and 5xx
+        void onResponse(int statusCode, Map<String, String> headers, byte[] body, long networkTimeMs);
+
+        /**
+         No HTTP answer at all
+         @param error SocketTimeoutException on timeout, ConnectException or
+                      UnknownHostException when the server cannot be reached
+         */
+        void onFailure(IOException error, long networkTimeMs);
+    }
+
+    //Handle of an attempt in progress
+    interface Exchange {
+        //Stop the attempt; the callback is not called afterwards
+        void cancel();
+    }
+
+    /**
+     Start one attempt
+     @param headers Request headers, including Content-Type when there is a body
+     @param body Body as sent on the wire, null for none
+     @param timeoutMs Connect and read timeout
+     @param priority Attempts waiting for a transport thread are started highest priority first
+     */
+    Exchange send(String method, String url, Map<String, String> headers, byte[] body,
+                  int timeoutMs, ApiRequest.Priority priority, Callback callback);
+
+    //Stop the transport's threads
+    void shutdown();
+
+    //Create a transport of the given type with a number of network threads
+    static HttpTransport create(Type type, Context context, int threads) {
+        return type == Type.URL_CONNECTION
+                ? new UrlConnectionTransport(threads)
+                : new VolleyTransport(context, threads);
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.restaurantmanager.api;
+
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ RequestCoalescer - Merges identical requests that are in flight at the same time
+ The first caller's request goes to the dispatcher. Callers that send the same
+ method, URL, body and headers before it completes are attached to it and get
+ the same response or error, so N identical calls cost one network round trip.
+ A caller that joins with a higher priority raises the shared request to it, so an
+ interactive call never waits behind the background request it joined.
+ The map key only narrows the search; bodies and headers are compared exactly,
+ so requests whose hashes collide are still sent separately.
+ Callers are tagged with their request's owner; cancelAll(owner) detaches that
+ owner's callers and cancels a shared request only once nobody else waits on it.
+ Threading: send() is safe from any thread. Listeners are called one after another
+ on the network thread that completed the shared request.
+ SOLID: Single Responsibility - Only de-duplicates concurrent requests
+ */
+public class RequestCoalescer {
+
+    private static final String TAG = "RequestCoalescer";
+
+    private final RequestDispatcher dispatcher;
+
+    // Guarded by "this" - key -> requests with that key and the callers waiting on each
+    private final Map<String, List<Call>> inFlight = new HashMap<>();
+    private long dispatchedCount;
+    private long coalescedCount;
+
+    public RequestCoalescer(RequestDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     Send a request, or attach to an identical one already in flight
+     @param request Request to send
+     @param listener Receives the (possibly shared) response or error
+     */
+    public void send(ApiRequest request, ApiRequest.Listener listener) {
+        String key = keyFor(request);
+        Waiter waiter = new Waiter(request.getTag(), request.getTimings(), listener);
+
+        final Call call;
+        Call joined = null;
+        synchronized (this) {
+            List<Call> calls = inFlight.get(key);
+            if (calls == null) {
+                calls = new ArrayList<>(1);
+                inFlight.put(key, calls);
+            }
+            for (int i = 0; i < calls.size(); i++) {
+                if (calls.get(i).matches(request)) {
+                    joined = calls.get(i);
+                    break;
+                }
+            }
+            if (joined != null) {
+                joined.waiters.add(waiter);
+                coalescedCount++;
+                Log.d(TAG, "Joined in-flight " + request.getEndpoint()
+                        + " (" + joined.waiters.size() + " callers)");
+                call = null;
+            } else {
+                call = new Call(key, request);
+                call.waiters.add(waiter);
+                calls.add(call);
+                dispatchedCount++;
+            }
+        }
+
+        if (joined != null) {
+            // Outside the lock - the dispatcher may start the shared request from here
+            if (request.getPriority().ordinal() < joined.request.getPriority().ordinal()) {
+                dispatcher.raisePriority(joined.request, request.getPriority());
+            }
+            return;
+        }
+
+        dispatcher.enqueue(request, new ApiRequest.Listener() {
+            @Override
+            public void onResponse(ApiResponse response) {
+                List<Waiter> waiters = take(call);
+                for (int i = 0; i < waiters.size(); i++) {
+                    Waiter w = waiters.get(i);
+                    if (w.timings != request.getTimings()) {
+                        // The sending caller's timings were already marked by the dispatcher
+                        w.timings.markResponse(response.getNetworkTimeMs());
+                    }
+                    try {
+                        w.listener.onResponse(response);
+                    } catch (RuntimeException e) {
+                        // One failing caller must not stop the others being notified
+                        Log.e(TAG, "Listener failed", e);
+                    }
+                }
+            }
+
+            @Override
+            public void onError(ApiError error) {
+                List<Waiter> waiters = take(call);
+                for (int i = 0; i < waiters.size(); i++) {
+                    Waiter w = waiters.get(i);
+                    if (w.timings != request.getTimings()) {
+                        w.timings.markResponse(0);
+                    }
+                    try {
+                        w.listener.onError(error);
+                    } catch (RuntimeException e) {
+                        Log.e(TAG, "Listener failed", e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     Detach every caller whose request was tagged with the given owner
+     Shared requests keep running for the remaining callers; requests left without
+     callers are cancelled in the dispatcher.
+     */
+    public void cancelAll(Object tag) {
+        List<ApiRequest> orphaned = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<List<Call>> keys = inFlight.values().iterator();
+            while (keys.hasNext()) {
+                List<Call> calls = keys.next();
+                Iterator<Call> callsForKey = calls.iterator();
+                while (callsForKey.hasNext()) {
+                    Call call = callsForKey.next();
+                    Iterator<Waiter> waiters = call.waiters.iterator();
+                    while (waiters.hasNext()) {
+                        if (waiters.next().tag == tag) {
+                            waiters.remove();
+                        }
+                    }
+                    if (call.waiters.isEmpty()) {
+                        callsForKey.remove();
+                        orphaned.add(call.request);
+                    }
+                }
+                if (calls.isEmpty()) {
+                    keys.remove();
+                }
+            }
+        }
+
+        for (ApiRequest request : orphaned) {
+            dispatcher.cancel(request);
+        }
+    }
+
+    //Requests actually handed to the dispatcher
+    public synchronized long getDispatchedCount() {
+        return dispatchedCount;
+    }
+
+    //Calls that were answered by another caller's request
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    //Remove the waiters of a completed request; later identical calls start a new one
+    private synchronized List<Waiter> take(Call call) {
+        List<Call> calls = inFlight.get(call.key);
+        if (calls == null || !calls.remove(call)) {
+            // Cancelled by cancelAll - nobody is waiting any more
+            return new ArrayList<Waiter>();
+        }
+        if (calls.isEmpty()) {
+            inFlight.remove(call.key);
+        }
+        return call.waiters;
+    }
+
+    //Method + URL + body hash, plus headers so conditional GETs with different validators stay apart
+    //and the cache generation so nobody joins a read started before an invalidation.
+    //Only narrows the search - Call.matches() makes the exact comparison
+    private static String keyFor(ApiRequest request) {
+        return request.getMethod() + ' ' + request.getUrl()
+                + '#' + Arrays.hashCode(request.getBody())
+                + '#' + request.getHeaders().hashCode()
+                + '#' + request.getCacheGeneration();
+    }
+
+    private static final class Call {
+        final String key;
+        final ApiRequest request;
+        final List<Waiter> waiters = new ArrayList<>();
+
+        Call(String key, ApiRequest request) {
+            this.key = key;
+            this.request = request;
+        }
+
+        //Same request byte for byte - the key alone can collide
+        boolean matches(ApiRequest other) {
+            return request.getMethod().equals(other.getMethod())
+                    && request.getUrl().equals(other.getUrl())
+                    && Arrays.equals(request.getBody(), other.getBody())
+                    && request.getHeaders().equals(other.getHeaders())
+                    && request.getCacheGeneration() == other.getCacheGeneration();
+        }
+    }
+
+    private static final class Waiter {
+        final Object tag;
+        final RequestTimings timings;
+        final ApiRequest.Listener listener;
+
+        Waiter(Object tag, RequestTimings timings, ApiRequest.Listener listener) {
+            this.tag = tag;
+            this.timings = timings;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,560 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import android.util.Log;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ RequestDispatcher - Sends ApiRequests with bounded concurrency per host
+ Requests are handed straight to the HttpTransport from the calling thread,
+ without a separate build/enqueue thread pool in between. Each host has at most
+ maxPerHost requests on the wire; the rest wait here, highest priority first and
+ FIFO within a priority. Background requests never take the last free slot, and
+ only one may run while interactive requests are running or waiting.
+ raisePriority() lifts a request that a more urgent caller now waits on, e.g. a
+ background prefetch joined by an interactive read, so it is not stuck behind
+ the background limit.
+ Each request follows its endpoint's EndpointPolicy (timeout, attempts, jittered
+ backoff) within one overall deadline, and can be cancelled at any point.
+ A per-host CircuitBreaker fails requests fast while the server is down.
+ Responses are requested with gzip and decoded here; wire and decoded byte counts
+ go to ApiMetrics so the savings are visible.
+ Threading: enqueue() is safe from any thread. Listeners run on the network
+ thread that completed the request, callers post to the main thread themselves.
+ SOLID: Single Responsibility - Only schedules and sends requests
+ */
+public class RequestDispatcher {
+
+    private static final String TAG = "RequestDispatcher";
+
+    // Transport network threads shared by all hosts
+    private static final int NETWORK_THREADS = 4;
+
+    // Default cap of concurrent requests to one host
+    public static final int DEFAULT_MAX_PER_HOST = 4;
+
+    // Background requests allowed on the wire while interactive ones are running or waiting
+    private static final int BACKGROUND_WHILE_INTERACTIVE = 1;
+
+    // Circuit breaker: consecutive failures before opening, and how long it stays open
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long BREAKER_OPEN_MS = 15 * 1000;
+
+    private final HttpTransport transport;
+    private final int maxPerHost;
+    private final ApiMetrics metrics = ApiMetrics.getInstance();
+
+    // Waits out retry backoff without holding a host slot or a network thread
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    // Guarded by "this"
+    private final Map<String, HostState> hosts = new HashMap<>();
+    private final Map<ApiRequest, Pending> live = new HashMap<>();
+    private final Map<String, CircuitBreaker> breakers = new HashMap<>();
+
+    public RequestDispatcher(Context context, int maxPerHost) {
+        this(context, maxPerHost, HttpTransport.Type.VOLLEY);
+    }
+
+    public RequestDispatcher(Context context, int maxPerHost, HttpTransport.Type transportType) {
+        this.maxPerHost = maxPerHost;
+        this.transport = HttpTransport.create(transportType, context, NETWORK_THREADS);
+    }
+
+    /**
+     Send a request, or queue it until its host has a free slot
+     @param request Request to send
+     @param listener Receives the response or error on a network thread
+     */
+    public void enqueue(ApiRequest request, ApiRequest.Listener listener) {
+        metrics.increment("request." + request.getEndpoint());
+        EndpointPolicy policy = EndpointPolicy.forEndpoint(request.getEndpoint());
+        if (request.getDeadlineAt() == 0) {
+            request.setDeadlineAt(System.currentTimeMillis() + policy.getDeadlineMs());
+        }
+
+        Pending pending = new Pending(request, listener, policy);
+        synchronized (this) {
+            live.put(request, pending);
+        }
+        submit(pending);
+    }
+
+    /**
+     Cancel a request sent with enqueue()
+     A waiting request is dropped, a request on the wire has its slot freed at once and
+     its response is discarded unparsed. The listener is never called afterwards.
+     */
+    public void cancel(ApiRequest request) {
+        request.cancel();
+
+        Pending pending;
+        CircuitBreaker breaker;
+        synchronized (this) {
+            pending = live.remove(request);
+            if (pending == null) {
+                return; // already finished
+            }
+            hostFor(request.getHost()).waiting[pending.priority].remove(pending);
+            breaker = breakerFor(request.getHost());
+        }
+
+        metrics.increment("cancelled." + request.getEndpoint());
+        HttpTransport.Exchange exchange = pending.exchange;
+        if (exchange != null) {
+            exchange.cancel();
+        }
+        // The transport drops the callback, so hand a half-open trial back here
+        if (releasePermit(pending)) {
+            breaker.onCancelled();
+        }
+        onFinished(pending);
+    }
+
+    /**
+     Raise the priority of a request sent with enqueue(), e.g. when a more urgent caller joins it
+     A waiting request moves to the higher queue and starts at once if a slot allows it;
+     a running one counts against the higher priority from now on. Lowering is ignored.
+     */
+    public void raisePriority(ApiRequest request, ApiRequest.Priority priority) {
+        List<Pending> next = new ArrayList<>();
+
+        synchronized (this) {
+            Pending pending = live.get(request);
+            if (pending == null || priority.ordinal() >= pending.priority) {
+                return; // finished, or already at least this urgent
+            }
+            HostState host = hostFor(request.getHost());
+            boolean waiting = host.waiting[pending.priority].remove(pending);
+            if (pending.holdsSlot) {
+                host.runningByPriority[pending.priority]--;
+                host.runningByPriority[priority.ordinal()]++;
+            }
+            pending.priority = priority.ordinal();
+            request.setPriority(priority);
+            metrics.increment("priority_raised." + request.getEndpoint());
+
+            if (waiting) {
+                host.waiting[pending.priority].add(pending);
+                startWaiting(host, next);
+            }
+        }
+
+        for (Pending pending : next) {
+            send(pending);
+        }
+    }
+
+    //Take a host slot for the request, or queue it behind the running ones
+    private void submit(Pending pending) {
+        synchronized (this) {
+            int priority = pending.priority;
+            HostState host = hostFor(pending.request.getHost());
+            // Requests of the same priority that are already waiting go first
+            if (!host.waiting[priority].isEmpty() || !canStart(host, priority)) {
+                host.waiting[priority].add(pending);
+                return;
+            }
+            host.start(pending);
+        }
+
+        send(pending);
+    }
+
+    //Stop the transport's and retry threads; only for dispatchers that are thrown away, e.g. in benchmarks
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        transport.shutdown();
+    }
+
+    //Number of requests currently on the wire for a host
+    public synchronized int getInFlightCount(String host) {
+        return hostFor(host).running;
+    }
+
+    //Number of requests waiting for a free slot on a host
+    public synchronized int getWaitingCount(String host) {
+        HostState state = hostFor(host);
+        int count = 0;
+        for (ArrayDeque<Pending> queue : state.waiting) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    //Guarded by "this"
+    private boolean canStart(HostState host, int priority) {
+        if (host.running >= maxPerHost) {
+            return false;
+        }
+        if (priority != ApiRequest.Priority.BACKGROUND.ordinal()) {
+            return true;
+        }
+
+        int interactive = ApiRequest.Priority.INTERACTIVE.ordinal();
+        boolean interactiveBusy = host.runningByPriority[interactive] > 0
+                || !host.waiting[interactive].isEmpty();
+        int limit = interactiveBusy
+                ? BACKGROUND_WHILE_INTERACTIVE
+                : Math.max(1, maxPerHost - 1); // keep a slot free for interactive work
+        return host.runningByPriority[priority] < limit;
+    }
+
+    //Guarded by "this"
+    private HostState hostFor(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            state = new HostState();
+            hosts.put(host, state);
+        }
+        return state;
+    }
+
+    //Breaker state of a host, for metrics screens
+    public synchronized CircuitBreaker.State getBreakerState(String host) {
+        return breakerFor(host).getState();
+    }
+
+    private void send(Pending pending) {
+        CircuitBreaker breaker;
+        synchronized (this) {
+            breaker = breakerFor(pending.request.getHost());
+        }
+
+        // Cancelled while it was waiting for a slot or backing off
+        if (pending.request.isCancelled()) {
+            retire(pending);
+            onFinished(pending);
+            return;
+        }
+
+        long remainingMs = pending.request.getDeadlineAt() - System.currentTimeMillis();
+        if (remainingMs <= 0) {
+            failFast(pending, "deadline", "Deadline exceeded");
+            return;
+        }
+
+        if (!breaker.allowRequest()) {
+            // Fail fast: the server is known to be down, do not queue a doomed request
+            failFast(pending, "short_circuit", "Server unavailable (circuit open)");
+            return;
+        }
+        synchronized (this) {
+            pending.holdsPermit = true;
+        }
+
+        if (pending.wireBody == null) {
+            prepareBody(pending);
+        }
+
+        byte[] body = pending.request.getBody() != null ? pending.wireBody : null;
+        if (body != null) {
+            metrics.add("bytes.out.wire", body.length);
+        }
+
+        // Retries are done here with jittered backoff, the transport only applies the
+        // timeout, cut short so the last attempt cannot outlive the deadline
+        int timeoutMs = (int) Math.min(pending.policy.getTimeoutMs(), remainingMs);
+        pending.exchange = transport.send(pending.request.getMethod(), pending.request.getUrl(),
+                pending.wireHeaders, body, timeoutMs, pending.request.getPriority(),
+                new AttemptCallback(pending, breaker));
+    }
+
+    //End a request with an error without sending it
+    private void failFast(Pending pending, String reason, String message) {
+        metrics.increment(reason + "." + pending.request.getEndpoint());
+        retire(pending);
+        onFinished(pending);
+        pending.request.getTimings().markResponse(0);
+        pending.listener.onError(new ApiError(0, null, message));
+    }
+
+    //Forget a request that will not be sent again
+    private synchronized void retire(Pending pending) {
+        live.remove(pending.request);
+    }
+
+    //Give up the breaker permit of the current attempt; true if it was still held
+    private synchronized boolean releasePermit(Pending pending) {
+        boolean held = pending.holdsPermit;
+        pending.holdsPermit = false;
+        return held;
+    }
+
+    //Compress the body once per request (retries reuse it) if the endpoint allows it
+    private void prepareBody(Pending pending) {
+        byte[] body = pending.request.getBody();
+        Map<String, String> headers = new HashMap<>(pending.request.getHeaders());
+        headers.put("Accept-Encoding", Gzip.ENCODING);
+
+        if (body != null && pending.policy.shouldGzipRequest(body.length)) {
+            try {
+                byte[] compressed = Gzip.compress(body);
+                if (compressed.length < body.length) {
+                    body = compressed;
+                    headers.put("Content-Encoding", Gzip.ENCODING);
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Sending uncompressed body: " + e.getMessage());
+            }
+        }
+
+        pending.wireHeaders = headers;
+        pending.wireBody = body != null ? body : new byte[0];
+        if (pending.request.getBody() != null) {
+            metrics.add("bytes.out.raw", pending.request.getBody().length);
+            metrics.record("size.out." + pending.request.getEndpoint(), pending.request.getBody().length);
+        }
+    }
+
+    //Decode a gzip body and count wire vs. decoded bytes
+    private byte[] decodeBody(String endpoint, Map<String, String> headers, byte[] body) throws IOException {
+        if (body == null) {
+            return null;
+        }
+        metrics.add("bytes.in.wire", body.length);
+
+        byte[] data = body;
+        if (headers != null && Gzip.isGzip(headers.get("Content-Encoding"))) {
+            data = Gzip.decompress(data);
+        }
+        metrics.add("bytes.in.decoded", data.length);
+        metrics.record("size.in." + endpoint, data.length);
+        return data;
+    }
+
+    //Retry after a backoff delay if the policy allows it, returns false if the error is final
+    private boolean scheduleRetry(Pending pending, ApiError error) {
+        boolean canRetry = CircuitBreaker.isHealthFailure(error)
+                && pending.attempt < pending.policy.getMaxAttempts()
+                && isRetrySafe(pending.request);
+        if (!canRetry) {
+            return false;
+        }
+
+        long delay = pending.policy.nextBackoffMs(pending.lastBackoffMs);
+        if (System.currentTimeMillis() + delay >= pending.request.getDeadlineAt()) {
+            // The retry could not finish in time - report the error now instead
+            metrics.increment("deadline." + pending.request.getEndpoint());
+            return false;
+        }
+        pending.lastBackoffMs = delay;
+        pending.attempt++;
+        metrics.increment("retry." + pending.request.getEndpoint());
+        Log.d(TAG, pending.request.getEndpoint() + " attempt " + pending.attempt + " in " + delay + "ms");
+
+        retryScheduler.schedule(() -> submit(pending), delay, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    //GETs can always be repeated, writes only when the server can de-duplicate them
+    private static boolean isRetrySafe(ApiRequest request) {
+        return ApiRequest.GET.equals(request.getMethod())
+                || request.getHeaders().containsKey("Idempotency-Key");
+    }
+
+    //Short error class for metrics: timeout, no_connection or network
+    private static String errorClass(IOException error) {
+        if (error instanceof SocketTimeoutException) {
+            return "timeout";
+        } else if (error instanceof ConnectException || error instanceof UnknownHostException
+                || error instanceof NoRouteToHostException) {
+            return "no_connection";
+        }
+        return "network";
+    }
+
+    //Guarded by "this"
+    private CircuitBreaker breakerFor(String host) {
+        CircuitBreaker breaker = breakers.get(host);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(host, BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MS, metrics);
+            breakers.put(host, breaker);
+        }
+        return breaker;
+    }
+
+    //Free the host slot and start the waiting requests that may run now, highest priority first
+    private void onFinished(Pending finished) {
+        List<Pending> next = new ArrayList<>();
+
+        synchronized (this) {
+            HostState host = hostFor(finished.request.getHost());
+            if (!host.finish(finished)) {
+                return; // slot was already freed, e.g. by cancel()
+            }
+            startWaiting(host, next);
+        }
+
+        for (Pending pending : next) {
+            send(pending);
+        }
+    }
+
+    //Guarded by "this" - take slots for the waiting requests that may run now, highest priority first;
+    //the caller sends them after leaving the lock
+    private void startWaiting(HostState host, List<Pending> next) {
+        boolean started = true;
+        while (started) {
+            started = false;
+            for (int priority = 0; priority < host.waiting.length; priority++) {
+                if (!host.waiting[priority].isEmpty() && canStart(host, priority)) {
+                    Pending pending = host.waiting[priority].poll();
+                    host.start(pending);
+                    next.add(pending);
+                    started = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    //Slots and waiting queues of one host, indexed by priority ordinal
+    private static final class HostState {
+        int running;
+        final int[] runningByPriority = new int[ApiRequest.Priority.values().length];
+        final ArrayDeque<Pending>[] waiting;
+
+        @SuppressWarnings("unchecked")
+        HostState() {
+            waiting = new ArrayDeque[ApiRequest.Priority.values().length];
+            for (int i = 0; i < waiting.length; i++) {
+                waiting[i] = new ArrayDeque<>();
+            }
+        }
+
+        void start(Pending pending) {
+            running++;
+            runningByPriority[pending.priority]++;
+            pending.holdsSlot = true;
+        }
+
+        //Returns false if the request did not hold a slot
+        boolean finish(Pending pending) {
+            if (!pending.holdsSlot) {
+                return false;
+            }
+            pending.holdsSlot = false;
+            running--;
+            runningByPriority[pending.priority]--;
+            return true;
+        }
+    }
+
+    //Request waiting for (or holding) a host slot
+    private static final class Pending {
+        final ApiRequest request;
+        final ApiRequest.Listener listener;
+        final EndpointPolicy policy;
+
+        // Guarded by the dispatcher - only raised, see raisePriority()
+        int priority;
+
+        // Guarded by the dispatcher - true while the request counts against its host
+        boolean holdsSlot;
+        // Guarded by the dispatcher - true while the attempt on the wire owes its breaker an outcome
+        boolean holdsPermit;
+        // Current attempt on the wire, cancelled together with the request
+        volatile HttpTransport.Exchange exchange;
+
+        // Only changed between attempts, never while the request is on the wire
+        volatile int attempt = 1;
+        volatile long lastBackoffMs;
+
+        // Headers and (possibly gzipped) body as sent, prepared on the first attempt
+        volatile Map<String, String> wireHeaders;
+        volatile byte[] wireBody;
+
+        Pending(ApiRequest request, ApiRequest.Listener listener, EndpointPolicy policy) {
+            this.request = request;
+            this.listener = listener;
+            this.policy = policy;
+            this.priority = request.getPriority().ordinal();
+        }
+    }
+
+    //Turns the outcome of one attempt into a response, a retry or an error
+    private final class AttemptCallback implements HttpTransport.Callback {
+
+        private final Pending pending;
+        private final CircuitBreaker breaker;
+
+        AttemptCallback(Pending pending, CircuitBreaker breaker) {
+            this.pending = pending;
+            this.breaker = breaker;
+        }
+
+        @Override
+        public void onResponse(int statusCode, Map<String, String> headers, byte[] body, long networkTimeMs) {
+            String endpoint = pending.request.getEndpoint();
+            byte[] data;
+            try {
+                data = decodeBody(endpoint, headers, body);
+            } catch (IOException e) {
+                metrics.increment("error." + endpoint + ".parse");
+                onAttemptFailed(new ApiError(0, null, "Could not decode response: " + e.getMessage()),
+                        networkTimeMs);
+                return;
+            }
+
+            boolean success = (statusCode >= 200 && statusCode < 300) || statusCode == 304;
+            if (!success) {
+                metrics.increment("error." + endpoint + ".http_" + statusCode / 100 + "xx");
+                onAttemptFailed(new ApiError(statusCode, data, "HTTP " + statusCode), networkTimeMs);
+                return;
+            }
+
+            if (releasePermit(pending)) {
+                breaker.onSuccess();
+            }
+            onFinished(pending);
+            if (pending.request.isCancelled()) {
+                return; // cancelled while the response was being read
+            }
+            metrics.increment("success." + endpoint);
+            pending.request.getTimings().markResponse(networkTimeMs);
+            retire(pending);
+            pending.listener.onResponse(new ApiResponse(statusCode, headers, data, networkTimeMs));
+        }
+
+        @Override
+        public void onFailure(IOException error, long networkTimeMs) {
+            metrics.increment("error." + pending.request.getEndpoint() + "." + errorClass(error));
+            String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+            onAttemptFailed(new ApiError(0, null, message), networkTimeMs);
+        }
+
+        private void onAttemptFailed(ApiError apiError, long networkTimeMs) {
+            // A 4xx is a healthy server answering; only outages count against the breaker
+            if (releasePermit(pending)) {
+                if (CircuitBreaker.isHealthFailure(apiError)) {
+                    breaker.onFailure();
+                } else {
+                    breaker.onSuccess();
+                }
+            }
+            onFinished(pending);
+
+            if (pending.request.isCancelled() || scheduleRetry(pending, apiError)) {
+                return;
+            }
+
+            retire(pending);
+            metrics.increment("failure." + pending.request.getEndpoint());
+            pending.request.getTimings().markResponse(networkTimeMs);
+            pending.listener.onError(apiError);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.restaurantmanager.api;
+
+import android.util.Log;
+import java.util.Locale;
+
+/**
+ RequestTimings - Latency breakdown of one API call
+ Stages: build (caller -> request ready), queue (ready -> network I/O starts),
+ network (I/O as measured by the HTTP stack), parse (response -> result object)
+ and delivery (result posted -> running on the main thread).
+ Threading: Each mark is written by the thread that owns that stage; the
+ stages are sequential, so no locking is needed.
+ */
+public class RequestTimings {
+
+    private static final String TAG = "ApiTimings";
+
+    private final String endpoint;
+    private final long createdNanos;
+    private volatile long builtNanos;
+    private volatile long responseNanos;
+    private volatile long networkMs;
+    private volatile long parsedNanos;
+    private volatile long deliveredNanos;
+    private volatile boolean cacheHit;
+
+    public RequestTimings(String endpoint) {
+        this.endpoint = endpoint;
+        this.createdNanos = System.nanoTime();
+    }
+
+    //Request object is built and about to be handed to the dispatcher
+    public void markBuilt() {
+        builtNanos = System.nanoTime();
+    }
+
+    //Response (or error) arrived on the network thread
+    public void markResponse(long networkTimeMs) {
+        responseNanos = System.nanoTime();
+        networkMs = networkTimeMs;
+    }
+
+    //Response was served from ResponseCache without a network round trip
+    public void markCacheHit() {
+        cacheHit = true;
+        markResponse(0);
+    }
+
+    //Response has been turned into the result object
+    public void markParsed() {
+        parsedNanos = System.nanoTime();
+    }
+
+    //Result is running on the main thread
+    public void markDelivered() {
+        deliveredNanos = System.nanoTime();
+    }
+
+    public String getEndpoint() { return endpoint; }
+
+    public boolean isCacheHit() { return cacheHit; }
+
+    public double getBuildMs() { return toMs(builtNanos - createdNanos); }
+
+    //Time from built until the network stack started I/O
+    public double getQueueMs() {
+        long networkStart = responseNanos - networkMs * 1_000_000L;
+        return Math.max(0, toMs(networkStart - builtNanos));
+    }
+
+    public double getNetworkMs() { return networkMs; }
+
+    public double getParseMs() { return toMs(parsedNanos - responseNanos); }
+
+    public double getDeliveryMs() { return toMs(deliveredNanos - parsedNanos); }
+
+    public double getTotalMs() { return toMs(deliveredNanos - createdNanos); }
+
+    //Log the breakdown once the call has completed
+    public void log() {
+        Log.d(TAG, String.format(Locale.UK,
+                "%s%s total=%.1fms build=%.2fms queue=%.1fms network=%.1fms parse=%.2fms delivery=%.1fms",
+                endpoint, cacheHit ? " (cache)" : "", getTotalMs(), getBuildMs(), getQueueMs(), getNetworkMs(),
+                getParseMs(), getDeliveryMs()));
+    }
+
+    private static double toMs(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
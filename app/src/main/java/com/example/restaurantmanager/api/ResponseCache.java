@@ -0,0 +1,328 @@
+package com.example.restaurantmanager.api;
+
+import android.util.Log;
+import android.util.LruCache;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ ResponseCache - Two level cache for GET responses
+ Level 1 is an in-memory LRU sized in bytes, level 2 is a bounded directory of
+ files (one per URL). Entries keep the ETag and Last-Modified validators so an
+ expired entry can be revalidated with a conditional GET instead of re-downloaded.
+ How long an entry counts as fresh is decided by the caller (per-endpoint TTL).
+ Every key has a generation that invalidate() bumps. Callers read it before they
+ start a request and pass it to put(), so a response that was already on its way
+ when the key was invalidated is dropped instead of bringing the old data back.
+ Threading: Memory lookups run on the calling thread. Disk reads and writes run
+ on one background thread, so the main thread never touches the file system.
+ SOLID: Single Responsibility - Only stores and looks up responses
+ */
+public class ResponseCache {
+
+    private static final String TAG = "ResponseCache";
+
+    // File format version, bump when the layout or the stored bodies change.
+    // Version 1 files could hold read_user bodies with passwords and are deleted on sight.
+    private static final int FILE_VERSION = 2;
+
+    /**
+     Result of a lookup
+     Threading: Called on the calling thread for memory hits, otherwise on the disk thread
+     */
+    public interface LookupCallback {
+        void onLookup(Entry entry);
+    }
+
+    private final LruCache<String, Entry> memory;
+    private final File directory;
+    private final long maxDiskBytes;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+
+    // Only touched on the disk thread, -1 until the directory has been measured
+    private long diskBytes = -1;
+
+    // Guarded by "this" - times each key was invalidated, missing means 0
+    private final Map<String, Long> generations = new HashMap<>();
+
+    /**
+     @param directory Directory for cache files (created if missing)
+     @param maxMemoryBytes Size cap of the in-memory level
+     @param maxDiskBytes Size cap of the disk level
+     */
+    public ResponseCache(File directory, int maxMemoryBytes, long maxDiskBytes) {
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.memory = new LruCache<String, Entry>(maxMemoryBytes) {
+            @Override
+            protected int sizeOf(String key, Entry entry) {
+                return entry.size();
+            }
+        };
+        diskExecutor.execute(this::deleteOldVersions);
+    }
+
+    //Stop the disk thread once queued writes are done; only for caches that are thrown away
+    public void shutdown() {
+        diskExecutor.shutdown();
+    }
+
+    /**
+     Look up a cached response, checking memory first and then disk
+     @param key Cache key (the request URL)
+     @param callback Receives the entry, or null on a miss
+     */
+    public void lookup(String key, LookupCallback callback) {
+        Entry entry = memory.get(key);
+        if (entry != null) {
+            callback.onLookup(entry);
+            return;
+        }
+
+        long generation = getGeneration(key);
+        diskExecutor.execute(() -> {
+            Entry fromDisk = readFromDisk(key);
+            if (fromDisk != null) {
+                // Not if the key was invalidated while the file was being read
+                promote(key, fromDisk, generation);
+            }
+            callback.onLookup(fromDisk);
+        });
+    }
+
+    //Current generation of a key - read it before sending the request whose answer is put()
+    public synchronized long getGeneration(String key) {
+        Long generation = generations.get(key);
+        return generation != null ? generation : 0;
+    }
+
+    /**
+     Store a response in memory now and on disk in the background
+     @param generation getGeneration(key) from before the request was sent; if the key
+     has been invalidated since, the response may be stale and is not stored
+     @return false if the response was dropped
+     */
+    public synchronized boolean put(String key, Entry entry, long generation) {
+        if (generation != getGeneration(key)) {
+            return false;
+        }
+        memory.put(key, entry);
+        diskExecutor.execute(() -> writeToDisk(key, entry));
+        return true;
+    }
+
+    private synchronized void promote(String key, Entry entry, long generation) {
+        if (generation == getGeneration(key)) {
+            memory.put(key, entry);
+        }
+    }
+
+    //Drop a response from both levels and turn away responses requested before now
+    public synchronized void invalidate(String key) {
+        generations.put(key, getGeneration(key) + 1);
+        memory.remove(key);
+        diskExecutor.execute(() -> {
+            File file = fileFor(key);
+            long length = file.length();
+            if (file.delete() && diskBytes >= 0) {
+                diskBytes -= length;
+            }
+        });
+    }
+
+    //DISK LEVEL
+
+    private Entry readFromDisk(String key) {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != FILE_VERSION) {
+                file.delete();
+                return null;
+            }
+            if (!key.equals(in.readUTF())) {
+                return null;
+            }
+            long storedAt = in.readLong();
+            String etag = emptyToNull(in.readUTF());
+            String lastModified = emptyToNull(in.readUTF());
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+
+            // Touch the file so eviction removes the least recently used entries first
+            file.setLastModified(System.currentTimeMillis());
+            return new Entry(data, etag, lastModified, storedAt);
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable cache file " + file.getName(), e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            return;
+        }
+        measureDirectory();
+
+        File file = fileFor(key);
+        long oldLength = file.length();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(FILE_VERSION);
+            out.writeUTF(key);
+            out.writeLong(entry.getStoredAt());
+            out.writeUTF(entry.getEtag() != null ? entry.getEtag() : "");
+            out.writeUTF(entry.getLastModified() != null ? entry.getLastModified() : "");
+            out.writeInt(entry.getData().length);
+            out.write(entry.getData());
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write cache file", e);
+            file.delete();
+            return;
+        }
+
+        diskBytes += file.length() - oldLength;
+        if (diskBytes > maxDiskBytes) {
+            trimDisk();
+        }
+    }
+
+    //Delete files written in an older format, before anything is measured or read
+    private void deleteOldVersions() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            int version;
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                version = in.readInt();
+            } catch (IOException e) {
+                version = -1;
+            }
+            if (version != FILE_VERSION) {
+                file.delete();
+            }
+        }
+    }
+
+    private void measureDirectory() {
+        if (diskBytes >= 0) {
+            return;
+        }
+        diskBytes = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                diskBytes += file.length();
+            }
+        }
+    }
+
+    //Delete least recently used files until the directory is under its cap
+    private void trimDisk() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+
+        for (File file : files) {
+            if (diskBytes <= maxDiskBytes) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                diskBytes -= length;
+            }
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(directory, sha1Hex(key));
+    }
+
+    private static String sha1Hex(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                        .append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-1 is always available on Android
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     Entry - One cached response body with its validators
+     Immutable, so it can be shared between threads
+     */
+    public static final class Entry {
+        private final byte[] data;
+        private final String etag;
+        private final String lastModified;
+        private final long storedAt;
+
+        public Entry(byte[] data, String etag, String lastModified, long storedAt) {
+            this.data = data;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storedAt = storedAt;
+        }
+
+        // Getters
+        public byte[] getData() { return data; }
+        public String getEtag() { return etag; }
+        public String getLastModified() { return lastModified; }
+        public long getStoredAt() { return storedAt; }
+
+        //True if the entry was stored less than ttlMillis ago
+        public boolean isFresh(long ttlMillis, long now) {
+            return now - storedAt < ttlMillis;
+        }
+
+        //True if the server can answer a conditional GET for this entry
+        public boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+
+        //Same body and validators, stored again at a new time (after a 304)
+        public Entry refreshedAt(long now) {
+            return new Entry(data, etag, lastModified, now);
+        }
+
+        int size() {
+            return data.length + 64;
+        }
+    }
+}
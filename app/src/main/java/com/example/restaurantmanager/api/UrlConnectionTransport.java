@@ -0,0 +1,198 @@
+package com.example.restaurantmanager.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ UrlConnectionTransport - HttpTransport on plain HttpURLConnection
+ - Connection reuse: responses are read to the end and the stream closed (never
+   disconnect()), so the socket goes back to the platform's keep-alive pool.
+ - Streaming: request bodies use fixed-length streaming mode instead of being
+   buffered again by the connection, and responses with a Content-Length are read
+   straight into one array of the right size.
+ - Cancelling an attempt on the wire disconnects it, freeing the socket at once.
+ Threading: A fixed pool of network threads takes attempts highest priority first,
+ FIFO within a priority. Callbacks run on those threads.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private static final int READ_BUFFER_BYTES = 8 * 1024;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public UrlConnectionTransport(int threads) {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>());
+    }
+
+    @Override
+    public Exchange send(String method, String url, Map<String, String> headers, byte[] body,
+                         int timeoutMs, ApiRequest.Priority priority, Callback callback) {
+        Attempt attempt = new Attempt(method, url, headers, body, timeoutMs,
+                priority.ordinal(), sequence.getAndIncrement(), callback);
+        executor.execute(attempt);
+        return attempt;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    //Read a whole body, into a single exact-size array when the length is known
+    private static byte[] readBody(InputStream in, int contentLength) throws IOException {
+        if (in == null) {
+            return new byte[0];
+        }
+        try {
+            if (contentLength >= 0) {
+                byte[] data = new byte[contentLength];
+                int offset = 0;
+                while (offset < contentLength) {
+                    int read = in.read(data, offset, contentLength - offset);
+                    if (read < 0) {
+                        throw new IOException("Body ended after " + offset + " of " + contentLength + " bytes");
+                    }
+                    offset += read;
+                }
+                return data;
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(READ_BUFFER_BYTES);
+            byte[] buffer = new byte[READ_BUFFER_BYTES];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            // Closing a fully read stream returns the connection to the pool
+            in.close();
+        }
+    }
+
+    //Response headers with repeated fields joined, case-insensitive like Volley's
+    private static Map<String, String> readHeaders(HttpURLConnection connection) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> field : connection.getHeaderFields().entrySet()) {
+            if (field.getKey() == null) {
+                continue; // status line
+            }
+            StringBuilder value = new StringBuilder();
+            for (String part : field.getValue()) {
+                if (value.length() > 0) {
+                    value.append(", ");
+                }
+                value.append(part);
+            }
+            headers.put(field.getKey(), value.toString());
+        }
+        return headers;
+    }
+
+    //One attempt, ordered in the executor queue by priority and then arrival
+    private final class Attempt implements Runnable, Comparable<Attempt>, Exchange {
+
+        private final String method;
+        private final String url;
+        private final Map<String, String> headers;
+        private final byte[] body;
+        private final int timeoutMs;
+        private final int priority;
+        private final long sequenceNumber;
+        private final Callback callback;
+
+        private volatile boolean cancelled;
+        private volatile HttpURLConnection connection;
+
+        Attempt(String method, String url, Map<String, String> headers, byte[] body, int timeoutMs,
+                int priority, long sequenceNumber, Callback callback) {
+            this.method = method;
+            this.url = url;
+            this.headers = headers;
+            this.body = body;
+            this.timeoutMs = timeoutMs;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+            this.callback = callback;
+        }
+
+        @Override
+        public int compareTo(Attempt other) {
+            if (priority != other.priority) {
+                return priority < other.priority ? -1 : 1;
+            }
+            return Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if (!executor.remove(this)) {
+                HttpURLConnection current = connection;
+                if (current != null) {
+                    current.disconnect();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            long start = System.nanoTime();
+
+            try {
+                HttpURLConnection c = (HttpURLConnection) new URL(url).openConnection();
+                connection = c;
+                c.setConnectTimeout(timeoutMs);
+                c.setReadTimeout(timeoutMs);
+                c.setUseCaches(false);
+                c.setRequestMethod(method);
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    c.setRequestProperty(header.getKey(), header.getValue());
+                }
+
+                if (body != null) {
+                    c.setDoOutput(true);
+                    c.setFixedLengthStreamingMode(body.length);
+                    try (OutputStream out = c.getOutputStream()) {
+                        out.write(body);
+                    }
+                }
+
+                int status = c.getResponseCode();
+                InputStream in = status >= 400 ? c.getErrorStream() : c.getInputStream();
+                byte[] data = readBody(in, c.getContentLength());
+                Map<String, String> responseHeaders = readHeaders(c);
+
+                if (!cancelled) {
+                    callback.onResponse(status, responseHeaders, data, elapsedMs(start));
+                }
+            } catch (IOException e) {
+                if (!cancelled) {
+                    callback.onFailure(e, elapsedMs(start));
+                }
+            } finally {
+                connection = null;
+            }
+        }
+
+        private long elapsedMs(long startNanos) {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.restaurantmanager.api;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import com.example.restaurantmanager.models.User;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ UserBatchLoader - Collects user lookups and fetches them in one request
+ Lookups made within BATCH_WINDOW_MS of each other are sent together to the bulk
+ read_users endpoint. If the server does not have that endpoint (404, 405, 501)
+ the loader remembers it and from then on uses single read_user calls, at most
+ MAX_PARALLEL_FALLBACK at a time. Any other batch failure also falls back to
+ single reads for that batch, since they have their own retries.
+ Every caller still gets its own callback, and lookups for the same username
+ inside one window share one result. Users with a fresh read_user cache entry
+ are answered from it and never join a batch.
+ Threading: load() is safe from any thread. Callbacks run on the main thread.
+ SOLID: Single Responsibility - Only batches user lookups
+ */
+public class UserBatchLoader {
+
+    private static final String TAG = "UserBatchLoader";
+
+    // How long lookups are collected before a batch is sent
+    private static final long BATCH_WINDOW_MS = 20;
+
+    // Largest batch - a full batch is sent without waiting for the window
+    private static final int MAX_BATCH_SIZE = 50;
+
+    // Concurrent single reads when batching is not available
+    private static final int MAX_PARALLEL_FALLBACK = 4;
+
+    private final ApiService apiService;
+    private final String batchUrl;
+    private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+
+    // Guarded by "this"
+    private Map<String, List<ApiService.UserCallback>> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private final ArrayDeque<String> fallbackQueue = new ArrayDeque<>();
+    private final Map<String, List<ApiService.UserCallback>> fallbackCallbacks = new HashMap<>();
+    private int fallbackRunning;
+
+    private volatile boolean batchUnsupported;
+
+    UserBatchLoader(ApiService apiService, String batchUrl) {
+        this.apiService = apiService;
+        this.batchUrl = batchUrl;
+    }
+
+    /**
+     Look up a user from the cache, or queue the lookup for the next batch
+     @param username User to fetch
+     @param callback Called on the main thread with the user or an error
+     */
+    public void load(String username, ApiService.UserCallback callback) {
+        apiService.lookupFreshUser(username, entry -> {
+            User cached = entry != null ? readCached(entry) : null;
+            if (cached != null) {
+                RequestTimings timings = new RequestTimings("read_user");
+                timings.markBuilt();
+                timings.markCacheHit();
+                apiService.deliver(timings, () -> callback.onSuccess(cached));
+            } else {
+                enqueue(username, callback);
+            }
+        });
+    }
+
+    //Profile in a cached read_user entry, null if it cannot be read
+    private static User readCached(ResponseCache.Entry entry) {
+        try {
+            return UserTypeAdapter.INSTANCE.readProfileEnvelope(entry.getData());
+        } catch (IOException e) {
+            Log.w(TAG, "Unreadable cached user, fetching it: " + e.getMessage());
+            return null;
+        }
+    }
+
+    //Add a lookup to the pending batch, sending it at once if it is full
+    private void enqueue(String username, ApiService.UserCallback callback) {
+        Map<String, List<ApiService.UserCallback>> fullBatch = null;
+
+        synchronized (this) {
+            List<ApiService.UserCallback> callbacks = pending.get(username);
+            if (callbacks == null) {
+                callbacks = new ArrayList<>();
+                pending.put(username, callbacks);
+            }
+            callbacks.add(callback);
+
+            if (pending.size() >= MAX_BATCH_SIZE) {
+                fullBatch = takePending();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                mainThreadHandler.postDelayed(this::flush, BATCH_WINDOW_MS);
+            }
+        }
+
+        if (fullBatch != null) {
+            send(fullBatch);
+        }
+    }
+
+    private void flush() {
+        Map<String, List<ApiService.UserCallback>> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    //Guarded by "this"
+    private Map<String, List<ApiService.UserCallback>> takePending() {
+        Map<String, List<ApiService.UserCallback>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void send(Map<String, List<ApiService.UserCallback>> batch) {
+        if (batchUnsupported || batch.size() == 1) {
+            fallBack(batch);
+            return;
+        }
+
+        RequestTimings timings = new RequestTimings("read_users");
+        String body = UserTypeAdapter.INSTANCE.writeBatchRequest(batch.keySet());
+
+        // Users written while the batch is on its way must not be cached from its answer
+        Map<String, Long> generations = new HashMap<>();
+        for (String username : batch.keySet()) {
+            generations.put(username, apiService.userCacheGeneration(username));
+        }
+
+        apiService.send(new ApiRequest("read_users", ApiRequest.POST, batchUrl,
+                        ApiRequest.jsonBody(body), timings),
+                new ApiRequest.Listener() {
+                    @Override
+                    public void onResponse(ApiResponse response) {
+                        List<User> users;
+                        try {
+                            users = UserTypeAdapter.INSTANCE.readBatchEnvelope(response.getData());
+                        } catch (IOException e) {
+                            Log.w(TAG, "Unreadable batch response, using single reads: " + e.getMessage());
+                            fallBack(batch);
+                            return;
+                        }
+
+                        Map<String, User> found = new HashMap<>();
+                        for (User user : users) {
+                            found.put(user.getUsername(), user);
+                            Long generation = generations.get(user.getUsername());
+                            if (generation != null) {
+                                apiService.cacheUser(user, generation);
+                            }
+                        }
+
+                        apiService.deliver(timings, () -> {
+                            for (Map.Entry<String, List<ApiService.UserCallback>> entry : batch.entrySet()) {
+                                User user = found.get(entry.getKey());
+                                for (ApiService.UserCallback callback : entry.getValue()) {
+                                    if (user != null) {
+                                        callback.onSuccess(user);
+                                    } else {
+                                        callback.onError("User not found");
+                                    }
+                                }
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onError(ApiError error) {
+                        int status = error.getStatusCode();
+                        if (status == 404 || status == 405 || status == 501) {
+                            Log.i(TAG, "Server has no batch endpoint, using single reads");
+                            batchUnsupported = true;
+                        }
+                        fallBack(batch);
+                    }
+                });
+    }
+
+    //Fetch each user with its own read_user call, bounded to MAX_PARALLEL_FALLBACK at a time
+    private void fallBack(Map<String, List<ApiService.UserCallback>> batch) {
+        synchronized (this) {
+            for (Map.Entry<String, List<ApiService.UserCallback>> entry : batch.entrySet()) {
+                List<ApiService.UserCallback> callbacks = fallbackCallbacks.get(entry.getKey());
+                if (callbacks == null) {
+                    fallbackCallbacks.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+                    fallbackQueue.add(entry.getKey());
+                } else {
+                    // Already queued or running - just attach
+                    callbacks.addAll(entry.getValue());
+                }
+            }
+        }
+        startFallbackReads();
+    }
+
+    private void startFallbackReads() {
+        while (true) {
+            final String username;
+            synchronized (this) {
+                if (fallbackRunning >= MAX_PARALLEL_FALLBACK || fallbackQueue.isEmpty()) {
+                    return;
+                }
+                username = fallbackQueue.poll();
+                fallbackRunning++;
+            }
+
+            apiService.readUser(username, new ApiService.UserCallback() {
+                @Override
+                public void onSuccess(User user) {
+                    for (ApiService.UserCallback callback : finishFallback(username)) {
+                        callback.onSuccess(user);
+                    }
+                    startFallbackReads();
+                }
+
+                @Override
+                public void onError(String error) {
+                    for (ApiService.UserCallback callback : finishFallback(username)) {
+                        callback.onError(error);
+                    }
+                    startFallbackReads();
+                }
+            });
+        }
+    }
+
+    private synchronized List<ApiService.UserCallback> finishFallback(String username) {
+        fallbackRunning--;
+        List<ApiService.UserCallback> callbacks = fallbackCallbacks.remove(username);
+        return callbacks != null ? callbacks : new ArrayList<ApiService.UserCallback>();
+    }
+}
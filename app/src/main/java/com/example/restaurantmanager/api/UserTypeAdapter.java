@@ -0,0 +1,270 @@
+package com.example.restaurantmanager.api;
+
+import com.example.restaurantmanager.models.User;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ UserTypeAdapter - Streaming JSON conversion for User
+ Reads fields straight off a JsonReader and writes them straight to a JsonWriter,
+ so no intermediate JSONObject tree or reflection is involved.
+ Threading: Stateless, one instance can be shared by all threads
+ */
+public class UserTypeAdapter extends TypeAdapter<User> {
+
+    public static final UserTypeAdapter INSTANCE = new UserTypeAdapter();
+
+    // Field names used by the coursework API
+    private static final String FIELD_USER = "user";
+    private static final String FIELD_USERS = "users";
+    private static final String FIELD_USERNAMES = "usernames";
+    private static final String FIELD_USERNAME = "username";
+    private static final String FIELD_PASSWORD = "password";
+    private static final String FIELD_FIRSTNAME = "firstname";
+    private static final String FIELD_LASTNAME = "lastname";
+    private static final String FIELD_EMAIL = "email";
+    private static final String FIELD_CONTACT = "contact";
+    private static final String FIELD_USERTYPE = "usertype";
+
+    @Override
+    public void write(JsonWriter out, User user) throws IOException {
+        if (user == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeField(out, FIELD_USERNAME, user.getUsername());
+        writeField(out, FIELD_PASSWORD, user.getPassword());
+        writeField(out, FIELD_FIRSTNAME, user.getFirstname());
+        writeField(out, FIELD_LASTNAME, user.getLastname());
+        writeField(out, FIELD_EMAIL, user.getEmail());
+        writeField(out, FIELD_CONTACT, user.getContact());
+        writeField(out, FIELD_USERTYPE, user.getUsertype());
+        out.endObject();
+    }
+
+    @Override
+    public User read(JsonReader in) throws IOException {
+        return read(in, true);
+    }
+
+    //Read one user object; profiles skip the password and do not require it
+    private User read(JsonReader in, boolean withPassword) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String username = null;
+        String password = null;
+        String firstname = null;
+        String lastname = null;
+        String email = null;
+        String contact = null;
+        String usertype = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case FIELD_USERNAME:
+                    username = readString(in);
+                    break;
+                case FIELD_PASSWORD:
+                    if (withPassword) {
+                        password = readString(in);
+                    } else {
+                        in.skipValue();
+                    }
+                    break;
+                case FIELD_FIRSTNAME:
+                    firstname = readString(in);
+                    break;
+                case FIELD_LASTNAME:
+                    lastname = readString(in);
+                    break;
+                case FIELD_EMAIL:
+                    email = readString(in);
+                    break;
+                case FIELD_CONTACT:
+                    contact = readString(in);
+                    break;
+                case FIELD_USERTYPE:
+                    usertype = readString(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+
+        if (username == null || (withPassword && password == null)) {
+            throw new IOException("User without username or password");
+        }
+        return new User(username, password, firstname, lastname, email, contact, usertype);
+    }
+
+    /**
+     Read the user out of a {"user": {...}} response envelope
+     Other envelope fields are skipped without being materialised
+     @param data Raw response body (UTF-8)
+     */
+    public User readEnvelope(byte[] data) throws IOException {
+        return readEnvelope(data, true);
+    }
+
+    /**
+     Read the user out of a read_user envelope without the password
+     The password is skipped even if the body has one, so a profile never carries it
+     @param data Raw response body (UTF-8), e.g. from the response cache
+     */
+    public User readProfileEnvelope(byte[] data) throws IOException {
+        return readEnvelope(data, false);
+    }
+
+    private User readEnvelope(byte[] data, boolean withPassword) throws IOException {
+        try (JsonReader in = new JsonReader(new InputStreamReader(
+                new ByteArrayInputStream(data), StandardCharsets.UTF_8))) {
+            User user = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (FIELD_USER.equals(in.nextName())) {
+                    user = read(in, withPassword);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (user == null) {
+                throw new IOException("Response has no user");
+            }
+            return user;
+        } catch (IllegalStateException e) {
+            // Unexpected token types, e.g. an array where an object was expected
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     Read one user object that may have no password, e.g. a queued update_user body
+     A password in the JSON is skipped as well
+     @return The user, or null for a JSON null
+     */
+    public User readProfile(String json) throws IOException {
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            return read(in, false);
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     Read the users out of a {"users": [{...}, ...]} batch response
+     Batch results are only used as profiles, so passwords are skipped
+     @param data Raw response body (UTF-8)
+     */
+    public List<User> readBatchEnvelope(byte[] data) throws IOException {
+        try (JsonReader in = new JsonReader(new InputStreamReader(
+                new ByteArrayInputStream(data), StandardCharsets.UTF_8))) {
+            List<User> users = new ArrayList<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (FIELD_USERS.equals(in.nextName())) {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        User user = read(in, false);
+                        if (user != null) {
+                            users.add(user);
+                        }
+                    }
+                    in.endArray();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return users;
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     Write a read_user envelope without the password, used to seed the response cache
+     The cache is kept in memory and on disk, so it must never hold a password
+     */
+    public byte[] writeProfileEnvelope(User user) {
+        StringWriter json = new StringWriter();
+        try (JsonWriter out = new JsonWriter(json)) {
+            out.beginObject();
+            out.name(FIELD_USER);
+            if (user == null) {
+                out.nullValue();
+            } else {
+                out.beginObject();
+                writeField(out, FIELD_USERNAME, user.getUsername());
+                writeField(out, FIELD_FIRSTNAME, user.getFirstname());
+                writeField(out, FIELD_LASTNAME, user.getLastname());
+                writeField(out, FIELD_EMAIL, user.getEmail());
+                writeField(out, FIELD_CONTACT, user.getContact());
+                writeField(out, FIELD_USERTYPE, user.getUsertype());
+                out.endObject();
+            }
+            out.endObject();
+        } catch (IOException e) {
+            // StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    //Rewrite a read_user response body without the password
+    public byte[] stripPassword(byte[] data) throws IOException {
+        return writeProfileEnvelope(readProfileEnvelope(data));
+    }
+
+    //Write a {"usernames": [...]} batch request body
+    public String writeBatchRequest(Collection<String> usernames) {
+        StringWriter json = new StringWriter();
+        try (JsonWriter out = new JsonWriter(json)) {
+            out.beginObject();
+            out.name(FIELD_USERNAMES).beginArray();
+            for (String username : usernames) {
+                out.value(username);
+            }
+            out.endArray();
+            out.endObject();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return json.toString();
+    }
+
+    private static void writeField(JsonWriter out, String name, String value) throws IOException {
+        // Same as JSONObject.put: null values are left out
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    //Strings may arrive as JSON numbers (e.g. contact numbers) or null
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
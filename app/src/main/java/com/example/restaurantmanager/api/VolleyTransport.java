@@ -0,0 +1,148 @@
+package com.example.restaurantmanager.api;
+
+import android.content.Context;
+import com.android.volley.AuthFailureError;
+import com.android.volley.DefaultRetryPolicy;
+import com.android.volley.ExecutorDelivery;
+import com.android.volley.NetworkResponse;
+import com.android.volley.NoConnectionError;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.Response;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.HurlStack;
+import com.android.volley.toolbox.NoCache;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+
+/**
+ VolleyTransport - HttpTransport on top of a Volley RequestQueue
+ Volley buffers each response in a pooled byte array before handing it over, and
+ runs its own cache and network dispatcher threads. Its cache is off here
+ (ApiService decides what may be reused) and results are delivered on the network
+ thread instead of being posted to the main thread, so parsing never blocks the UI.
+ Cancelling stops delivery but does not abort a read that has already started.
+ */
+public class VolleyTransport implements HttpTransport {
+
+    private final RequestQueue requestQueue;
+
+    public VolleyTransport(Context context, int threads) {
+        requestQueue = new RequestQueue(
+                new NoCache(),
+                new BasicNetwork(new HurlStack()),
+                threads,
+                new ExecutorDelivery(Runnable::run));
+        requestQueue.start();
+    }
+
+    @Override
+    public Exchange send(String method, String url, Map<String, String> headers, byte[] body,
+                         int timeoutMs, ApiRequest.Priority priority, Callback callback) {
+        TransportRequest request = new TransportRequest(method, url, headers, body, priority, callback);
+        // Retries are done by the dispatcher, Volley only applies the timeout
+        request.setRetryPolicy(new DefaultRetryPolicy(timeoutMs, 0, 1f));
+        requestQueue.add(request);
+        return request::cancel;
+    }
+
+    @Override
+    public void shutdown() {
+        requestQueue.stop();
+    }
+
+    private static int toVolleyMethod(String method) {
+        if (ApiRequest.POST.equals(method)) {
+            return Request.Method.POST;
+        } else if (ApiRequest.PUT.equals(method)) {
+            return Request.Method.PUT;
+        }
+        return Request.Method.GET;
+    }
+
+    //Volley reports timeouts and unreachable hosts as its own error types
+    private static IOException toIOException(VolleyError error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        if (error instanceof TimeoutError) {
+            return new SocketTimeoutException(message);
+        } else if (error.getCause() instanceof IOException) {
+            return (IOException) error.getCause();
+        } else if (error instanceof NoConnectionError) {
+            return new ConnectException(message);
+        }
+        return new IOException(message, error);
+    }
+
+    //Returns the raw NetworkResponse, leaving decoding and parsing to the dispatcher
+    private static final class TransportRequest extends Request<NetworkResponse> {
+
+        private final Map<String, String> headers;
+        private final byte[] body;
+        private final ApiRequest.Priority priority;
+        private final Callback callback;
+
+        TransportRequest(String method, String url, Map<String, String> headers, byte[] body,
+                         ApiRequest.Priority priority, Callback callback) {
+            super(toVolleyMethod(method), url, null);
+            this.headers = headers;
+            this.body = body;
+            this.priority = priority;
+            this.callback = callback;
+            setShouldCache(false);
+        }
+
+        //Volley's network threads take higher priorities first
+        @Override
+        public Priority getPriority() {
+            switch (priority) {
+                case INTERACTIVE:
+                    return Priority.IMMEDIATE;
+                case BACKGROUND:
+                    return Priority.LOW;
+                default:
+                    return Priority.HIGH;
+            }
+        }
+
+        @Override
+        public Map<String, String> getHeaders() throws AuthFailureError {
+            return headers;
+        }
+
+        @Override
+        public String getBodyContentType() {
+            String contentType = headers.get("Content-Type");
+            return contentType != null ? contentType : super.getBodyContentType();
+        }
+
+        @Override
+        public byte[] getBody() throws AuthFailureError {
+            return body;
+        }
+
+        @Override
+        protected Response<NetworkResponse> parseNetworkResponse(NetworkResponse response) {
+            return Response.success(response, null);
+        }
+
+        @Override
+        protected void deliverResponse(NetworkResponse response) {
+            callback.onResponse(response.statusCode, response.headers, response.data, response.networkTimeMs);
+        }
+
+        @Override
+        public void deliverError(VolleyError error) {
+            NetworkResponse response = error.networkResponse;
+            if (response != null) {
+                // 4xx / 5xx - an answer, not a transport failure
+                callback.onResponse(response.statusCode, response.headers, response.data, response.networkTimeMs);
+            } else {
+                callback.onFailure(toIOException(error), error.getNetworkTimeMs());
+            }
+        }
+    }
+}
@@ -3,22 +3,48 @@ package com.example.restaurantmanager.database;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDatabaseLockedException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import com.example.restaurantmanager.models.MenuItem;
+import com.example.restaurantmanager.models.OutboxEntry;
+import com.example.restaurantmanager.models.RecurringReservation;
 import com.example.restaurantmanager.models.Reservation;
+import com.example.restaurantmanager.models.WaitlistEntry;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     // Database configuration
     private static final String DATABASE_NAME = "RestaurantManager.db";
-    private static final int DATABASE_VERSION = 2;
+    private static final int DATABASE_VERSION = 6;
+
+    // Maximum number of guests seated in a single date/time slot
+    public static final int MAX_GUESTS_PER_SLOT = 40;
+
+    // Returned by reserveIfAvailable when the slot cannot fit the party
+    public static final long RESERVATION_SLOT_FULL = -2;
+
+    // How far ahead an open-ended standing reservation is checked for capacity
+    private static final int STANDING_CHECK_DAYS = 366;
+
+    // Busy retries for write transactions
+    private static final int MAX_BUSY_RETRIES = 5;
+    private static final long BUSY_RETRY_DELAY_MS = 10;
 
     // Table names
     private static final String TABLE_MENU = "menu_items";
     private static final String TABLE_RESERVATIONS = "reservations";
+    private static final String TABLE_WAITLIST = "waitlist";
+    private static final String TABLE_RECURRING = "recurring_reservations";
+    private static final String TABLE_RECURRING_EXCEPTIONS = "recurring_exceptions";
+    private static final String TABLE_OUTBOX = "api_outbox";
 
     // Menu table columns
     private static final String KEY_MENU_ID = "id";
@@ -27,6 +53,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String KEY_MENU_IMAGE = "image_url";
     private static final String KEY_MENU_DESC = "description";
     private static final String KEY_MENU_CATEGORY = "category";
+    private static final String KEY_MENU_THUMBNAIL = "thumbnail_url";
+    private static final String KEY_MENU_DETAIL = "detail_url";
 
     // Reservations table columns
     private static final String KEY_RES_ID = "id";
@@ -36,6 +64,39 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String KEY_RES_GUESTS = "number_of_guests";
     private static final String KEY_RES_STATUS = "status";
 
+    // Waitlist table columns
+    private static final String KEY_WAIT_ID = "id";
+    private static final String KEY_WAIT_GUEST = "guest_username";
+    private static final String KEY_WAIT_DATE = "date";
+    private static final String KEY_WAIT_TIME = "time";
+    private static final String KEY_WAIT_GUESTS = "number_of_guests";
+    private static final String KEY_WAIT_PRIORITY = "priority";
+    private static final String KEY_WAIT_CREATED = "created_at";
+
+    // Recurring reservations table columns
+    private static final String KEY_REC_ID = "id";
+    private static final String KEY_REC_GUEST = "guest_username";
+    private static final String KEY_REC_TIME = "time";
+    private static final String KEY_REC_GUESTS = "number_of_guests";
+    private static final String KEY_REC_FREQUENCY = "frequency";
+    private static final String KEY_REC_START = "start_date";
+    private static final String KEY_REC_END = "end_date";
+
+    // Recurring exceptions table columns
+    private static final String KEY_EXC_RULE = "recurring_id";
+    private static final String KEY_EXC_DATE = "date";
+
+    // API outbox table columns
+    private static final String KEY_OUT_ID = "id";
+    private static final String KEY_OUT_ENDPOINT = "endpoint";
+    private static final String KEY_OUT_METHOD = "method";
+    private static final String KEY_OUT_URL = "url";
+    private static final String KEY_OUT_BODY = "body";
+    private static final String KEY_OUT_IDEMPOTENCY_KEY = "idempotency_key";
+    private static final String KEY_OUT_ATTEMPTS = "attempts";
+    private static final String KEY_OUT_NEXT_ATTEMPT = "next_attempt_at";
+    private static final String KEY_OUT_CREATED = "created_at";
+
     // Singleton instance
     private static DatabaseHelper instance;
 
@@ -47,9 +108,17 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
     }
 
+    //Separate database file, for tests, benchmarks and ApiService.create() - never the app's data
+    public DatabaseHelper(Context context, String databaseName) {
+        super(context, databaseName, null, DATABASE_VERSION);
+    }
+
     /**
      Get singleton instance - thread-safe
      Design Pattern: Singleton
+     The connection is shared by the UI and worker threads (waitlist promotion,
+     outbox drain, image collection), so methods never close it; SQLiteOpenHelper
+     keeps it open for the life of the process.
      @param context Application context
      @return Single DatabaseHelper instance
      */
@@ -69,7 +138,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 + KEY_MENU_PRICE + " REAL NOT NULL,"
                 + KEY_MENU_IMAGE + " TEXT,"
                 + KEY_MENU_DESC + " TEXT,"
-                + KEY_MENU_CATEGORY + " TEXT DEFAULT 'Other'"
+                + KEY_MENU_CATEGORY + " TEXT DEFAULT 'Other',"
+                + KEY_MENU_THUMBNAIL + " TEXT,"
+                + KEY_MENU_DETAIL + " TEXT"
                 + ")";
         db.execSQL(CREATE_MENU_TABLE);
 
@@ -84,6 +155,15 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 + ")";
         db.execSQL(CREATE_RES_TABLE);
 
+        // Create Waitlist table
+        createWaitlistTable(db);
+
+        // Create Recurring reservation tables
+        createRecurringTables(db);
+
+        // Create API outbox table
+        createOutboxTable(db);
+
         // Insert sample data
         insertSampleData(db);
     }
@@ -94,6 +174,76 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             // Add category column to existing table
             db.execSQL("ALTER TABLE " + TABLE_MENU + " ADD COLUMN " + KEY_MENU_CATEGORY + " TEXT DEFAULT 'Other'");
         }
+        if (oldVersion < 3) {
+            createWaitlistTable(db);
+        }
+        if (oldVersion < 4) {
+            createRecurringTables(db);
+        }
+        if (oldVersion < 5) {
+            createOutboxTable(db);
+        }
+        if (oldVersion < 6) {
+            // Image renditions; existing items keep using the original until re-picked
+            db.execSQL("ALTER TABLE " + TABLE_MENU + " ADD COLUMN " + KEY_MENU_THUMBNAIL + " TEXT");
+            db.execSQL("ALTER TABLE " + TABLE_MENU + " ADD COLUMN " + KEY_MENU_DETAIL + " TEXT");
+        }
+    }
+
+    //Create outbox table for API writes waiting to be sent
+    private void createOutboxTable(SQLiteDatabase db) {
+        String CREATE_OUTBOX_TABLE = "CREATE TABLE " + TABLE_OUTBOX + "("
+                + KEY_OUT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + KEY_OUT_ENDPOINT + " TEXT NOT NULL,"
+                + KEY_OUT_METHOD + " TEXT NOT NULL,"
+                + KEY_OUT_URL + " TEXT NOT NULL,"
+                + KEY_OUT_BODY + " TEXT,"
+                + KEY_OUT_IDEMPOTENCY_KEY + " TEXT NOT NULL UNIQUE,"
+                + KEY_OUT_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0,"
+                + KEY_OUT_NEXT_ATTEMPT + " INTEGER NOT NULL DEFAULT 0,"
+                + KEY_OUT_CREATED + " INTEGER NOT NULL"
+                + ")";
+        db.execSQL(CREATE_OUTBOX_TABLE);
+    }
+
+    //Create recurring rule and exception tables, plus a slot index for date-range queries
+    private void createRecurringTables(SQLiteDatabase db) {
+        String CREATE_RECURRING_TABLE = "CREATE TABLE " + TABLE_RECURRING + "("
+                + KEY_REC_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + KEY_REC_GUEST + " TEXT NOT NULL,"
+                + KEY_REC_TIME + " TEXT NOT NULL,"
+                + KEY_REC_GUESTS + " INTEGER NOT NULL,"
+                + KEY_REC_FREQUENCY + " TEXT NOT NULL,"
+                + KEY_REC_START + " TEXT NOT NULL,"
+                + KEY_REC_END + " TEXT"
+                + ")";
+        db.execSQL(CREATE_RECURRING_TABLE);
+
+        String CREATE_EXCEPTIONS_TABLE = "CREATE TABLE " + TABLE_RECURRING_EXCEPTIONS + "("
+                + KEY_EXC_RULE + " INTEGER NOT NULL,"
+                + KEY_EXC_DATE + " TEXT NOT NULL,"
+                + "PRIMARY KEY (" + KEY_EXC_RULE + ", " + KEY_EXC_DATE + ")"
+                + ")";
+        db.execSQL(CREATE_EXCEPTIONS_TABLE);
+
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_reservations_slot ON " + TABLE_RESERVATIONS + "("
+                + KEY_RES_DATE + ", " + KEY_RES_TIME + ")");
+    }
+
+    //Create waitlist table, indexed by slot so promotion only scans one date/time
+    private void createWaitlistTable(SQLiteDatabase db) {
+        String CREATE_WAITLIST_TABLE = "CREATE TABLE " + TABLE_WAITLIST + "("
+                + KEY_WAIT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
+                + KEY_WAIT_GUEST + " TEXT NOT NULL,"
+                + KEY_WAIT_DATE + " TEXT NOT NULL,"
+                + KEY_WAIT_TIME + " TEXT NOT NULL,"
+                + KEY_WAIT_GUESTS + " INTEGER NOT NULL,"
+                + KEY_WAIT_PRIORITY + " INTEGER NOT NULL DEFAULT 0,"
+                + KEY_WAIT_CREATED + " INTEGER NOT NULL"
+                + ")";
+        db.execSQL(CREATE_WAITLIST_TABLE);
+        db.execSQL("CREATE INDEX idx_waitlist_slot ON " + TABLE_WAITLIST + "("
+                + KEY_WAIT_DATE + ", " + KEY_WAIT_TIME + ")");
     }
 
     //Insert sample menu items for testing
@@ -133,6 +283,22 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.insert(TABLE_MENU, null, values);
     }
 
+    // Bulk insert statements, used by SyntheticDataGenerator inside its own transactions
+
+    //Bind order: name, price, image_url, description, category
+    SQLiteStatement compileMenuInsert(SQLiteDatabase db) {
+        return db.compileStatement("INSERT INTO " + TABLE_MENU + " ("
+                + KEY_MENU_NAME + ", " + KEY_MENU_PRICE + ", " + KEY_MENU_IMAGE + ", "
+                + KEY_MENU_DESC + ", " + KEY_MENU_CATEGORY + ") VALUES (?, ?, ?, ?, ?)");
+    }
+
+    //Bind order: guest_username, date, time, number_of_guests, status
+    SQLiteStatement compileReservationInsert(SQLiteDatabase db) {
+        return db.compileStatement("INSERT INTO " + TABLE_RESERVATIONS + " ("
+                + KEY_RES_GUEST + ", " + KEY_RES_DATE + ", " + KEY_RES_TIME + ", "
+                + KEY_RES_GUESTS + ", " + KEY_RES_STATUS + ") VALUES (?, ?, ?, ?, ?)");
+    }
+
     //Menu operations:
 
     /**
@@ -148,9 +314,10 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(KEY_MENU_IMAGE, item.getImageUrl());
         values.put(KEY_MENU_DESC, item.getDescription());
         values.put(KEY_MENU_CATEGORY, item.getCategory());
+        values.put(KEY_MENU_THUMBNAIL, item.getThumbnailUrl());
+        values.put(KEY_MENU_DETAIL, item.getDetailUrl());
 
         long id = db.insert(TABLE_MENU, null, values);
-        db.close();
         return id;
     }
 
@@ -167,25 +334,56 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
         if (cursor.moveToFirst()) {
             do {
-                MenuItem item = new MenuItem(
-                        cursor.getInt(0),       // id
-                        cursor.getString(1),    // name
-                        cursor.getDouble(2),    // price
-                        cursor.getString(3),    // image
-                        cursor.getString(4),     // description
-                        cursor.getString(5)     // category
-                );
-                menuList.add(item);
+                menuList.add(readMenuItem(cursor));
             } while (cursor.moveToNext());
         }
 
         cursor.close();
-        db.close();
         return menuList;
     }
 
 
 
+    /**
+     Get every image file menu items refer to, originals and renditions
+     @return Set of file paths (no nulls or "placeholder")
+     */
+    public Set<String> getMenuImagePaths() {
+        Set<String> paths = new HashSet<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        Cursor cursor = db.query(TABLE_MENU,
+                new String[]{KEY_MENU_IMAGE, KEY_MENU_THUMBNAIL, KEY_MENU_DETAIL},
+                null, null, null, null, null);
+
+        while (cursor.moveToNext()) {
+            for (int i = 0; i < 3; i++) {
+                String path = cursor.getString(i);
+                if (path != null && !path.isEmpty() && !path.equals("placeholder")) {
+                    paths.add(path);
+                }
+            }
+        }
+
+        cursor.close();
+        return paths;
+    }
+
+    //Build a MenuItem from a "SELECT *" row of menu_items
+    private MenuItem readMenuItem(Cursor cursor) {
+        MenuItem item = new MenuItem(
+                cursor.getInt(0),       // id
+                cursor.getString(1),    // name
+                cursor.getDouble(2),    // price
+                cursor.getString(3),    // image
+                cursor.getString(4),    // description
+                cursor.getString(5)     // category
+        );
+        item.setThumbnailUrl(cursor.getString(6));
+        item.setDetailUrl(cursor.getString(7));
+        return item;
+    }
+
     /**
      Update existing menu item
      @param item MenuItem with updated information
@@ -199,10 +397,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(KEY_MENU_IMAGE, item.getImageUrl());
         values.put(KEY_MENU_DESC, item.getDescription());
         values.put(KEY_MENU_CATEGORY, item.getCategory());
+        values.put(KEY_MENU_THUMBNAIL, item.getThumbnailUrl());
+        values.put(KEY_MENU_DETAIL, item.getDetailUrl());
 
         int rowsAffected = db.update(TABLE_MENU, values, KEY_MENU_ID + " = ?",
                 new String[]{String.valueOf(item.getId())});
-        db.close();
         return rowsAffected;
     }
 
@@ -214,7 +413,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete(TABLE_MENU, KEY_MENU_ID + " = ?",
                 new String[]{String.valueOf(id)});
-        db.close();
     }
 
     // Reservation operations:
@@ -234,10 +432,107 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(KEY_RES_STATUS, reservation.getStatus());
 
         long id = db.insert(TABLE_RESERVATIONS, null, values);
-        db.close();
         return id;
     }
 
+    /**
+     Atomically check slot capacity and insert the reservation.
+     Both steps run inside one BEGIN IMMEDIATE transaction, so two bookings for the
+     same slot can never both pass the capacity check. If the database is busy the
+     transaction is retried a few times with a short, growing delay.
+     @param reservation Reservation object to add
+     @param capacity Maximum number of guests for the slot
+     @return row ID of inserted reservation, RESERVATION_SLOT_FULL if it does not fit, -1 if error
+     */
+    public long reserveIfAvailable(Reservation reservation, int capacity) {
+        return writeIfAvailable(reservation, capacity, false);
+    }
+
+    /**
+     Atomically check slot capacity and apply an edit to an existing reservation.
+     Same transaction and retries as reserveIfAvailable. The booking's own seats are
+     not counted against it while it stays in its slot, so keeping or shrinking a
+     party always fits.
+     @param reservation Reservation with its ID and the updated information
+     @param capacity Maximum number of guests for the slot
+     @return number of rows affected, RESERVATION_SLOT_FULL if it does not fit, -1 if error
+     */
+    public int updateIfAvailable(Reservation reservation, int capacity) {
+        return (int) writeIfAvailable(reservation, capacity, true);
+    }
+
+    //Capacity check plus insert (or update by ID) in one BEGIN IMMEDIATE transaction
+    private long writeIfAvailable(Reservation reservation, int capacity, boolean update) {
+        return runImmediate(db -> {
+            int booked = queryBookedGuestCount(db, reservation.getDate(), reservation.getTime());
+            if (update) {
+                booked -= queryOwnSeats(db, reservation);
+            }
+            if (booked + reservation.getNumberOfGuests() > capacity) {
+                return RESERVATION_SLOT_FULL;
+            }
+
+            ContentValues values = new ContentValues();
+            values.put(KEY_RES_DATE, reservation.getDate());
+            values.put(KEY_RES_TIME, reservation.getTime());
+            values.put(KEY_RES_GUESTS, reservation.getNumberOfGuests());
+            values.put(KEY_RES_STATUS, reservation.getStatus());
+
+            long result;
+            if (update) {
+                result = db.update(TABLE_RESERVATIONS, values, KEY_RES_ID + " = ?",
+                        new String[]{String.valueOf(reservation.getId())});
+                if (result > 0) {
+                    db.setTransactionSuccessful();
+                }
+            } else {
+                values.put(KEY_RES_GUEST, reservation.getGuestUsername());
+                result = db.insert(TABLE_RESERVATIONS, null, values);
+                if (result != -1) {
+                    db.setTransactionSuccessful();
+                }
+            }
+            return result;
+        });
+    }
+
+    //Work done inside a write transaction; it commits by calling setTransactionSuccessful
+    private interface TransactionWork {
+        long run(SQLiteDatabase db);
+    }
+
+    /**
+     Run work inside one BEGIN IMMEDIATE transaction, so the write lock is held before
+     any capacity read. If the database is busy the transaction is retried a few
+     times with a short, growing delay.
+     @return What the work returned, -1 if the database stayed busy
+     */
+    private long runImmediate(TransactionWork work) {
+        SQLiteDatabase db = this.getWritableDatabase();
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                // Issues BEGIN IMMEDIATE - takes the write lock before the capacity read
+                db.beginTransactionNonExclusive();
+                try {
+                    return work.run(db);
+                } finally {
+                    db.endTransaction();
+                }
+            } catch (SQLiteDatabaseLockedException e) {
+                if (attempt >= MAX_BUSY_RETRIES) {
+                    return -1;
+                }
+                try {
+                    Thread.sleep(BUSY_RETRY_DELAY_MS * (attempt + 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                }
+            }
+        }
+    }
+
     /**
      Get all reservations (for staff view)
      @return List of all Reservation objects
@@ -265,7 +560,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         cursor.close();
-        db.close();
         return reservationList;
     }
 
@@ -300,7 +594,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         cursor.close();
-        db.close();
         return reservationList;
     }
 
@@ -321,20 +614,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
         if (cursor.moveToFirst()) {
             do {
-                MenuItem item = new MenuItem(
-                        cursor.getInt(0),
-                        cursor.getString(1),
-                        cursor.getDouble(2),
-                        cursor.getString(3),
-                        cursor.getString(4),
-                        cursor.getString(5)
-                );
-                menuList.add(item);
+                menuList.add(readMenuItem(cursor));
             } while (cursor.moveToNext());
         }
 
         cursor.close();
-        db.close();
         return menuList;
     }
 
@@ -358,7 +642,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         cursor.close();
-        db.close();
         return categories;
     }
 
@@ -378,7 +661,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
         int rowsAffected = db.update(TABLE_RESERVATIONS, values, KEY_RES_ID + " = ?",
                 new String[]{String.valueOf(reservation.getId())});
-        db.close();
         return rowsAffected;
     }
 
@@ -390,7 +672,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete(TABLE_RESERVATIONS, KEY_RES_ID + " = ?",
                 new String[]{String.valueOf(id)});
-        db.close();
     }
 
     /**
@@ -419,7 +700,549 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         cursor.close();
-        db.close();
         return reservation;
     }
+
+    /**
+     Get number of guests already booked into a slot (cancelled reservations excluded)
+     @param date Slot date
+     @param time Slot time
+     @return total number of guests booked
+     */
+    public int getBookedGuestCount(String date, String time) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        int booked = queryBookedGuestCount(db, date, time);
+        return booked;
+    }
+
+    //Seats a stored reservation already holds in the slot it is being saved into
+    private int queryOwnSeats(SQLiteDatabase db, Reservation reservation) {
+        Cursor cursor = db.query(TABLE_RESERVATIONS,
+                new String[]{KEY_RES_GUESTS},
+                KEY_RES_ID + " = ? AND " + KEY_RES_DATE + " = ? AND " + KEY_RES_TIME + " = ?" +
+                        " AND LOWER(" + KEY_RES_STATUS + ") != 'cancelled'",
+                new String[]{String.valueOf(reservation.getId()), reservation.getDate(), reservation.getTime()},
+                null, null, null);
+
+        int seats = 0;
+        if (cursor.moveToFirst()) {
+            seats = cursor.getInt(0);
+        }
+        cursor.close();
+        return seats;
+    }
+
+    private int queryBookedGuestCount(SQLiteDatabase db, String date, String time) {
+        Cursor cursor = db.rawQuery(
+                "SELECT COALESCE(SUM(" + KEY_RES_GUESTS + "), 0) FROM " + TABLE_RESERVATIONS +
+                        " WHERE " + KEY_RES_DATE + " = ? AND " + KEY_RES_TIME + " = ?" +
+                        " AND LOWER(" + KEY_RES_STATUS + ") != 'cancelled'",
+                new String[]{date, time});
+
+        int booked = 0;
+        if (cursor.moveToFirst()) {
+            booked = cursor.getInt(0);
+        }
+        cursor.close();
+
+        // Standing reservations occupy the slot without a stored row
+        for (RecurringReservation rule : queryRecurringInWindow(db, date, date)) {
+            if (rule.getTime().equals(time) && RecurrenceExpander.occursOn(rule, date)) {
+                booked += rule.getNumberOfGuests();
+            }
+        }
+        return booked;
+    }
+
+    // Waitlist operations:
+
+    /**
+     Add guest to the waitlist for a full slot
+     @param entry WaitlistEntry to add
+     @return row ID of inserted entry, -1 if error
+     */
+    public long addToWaitlist(WaitlistEntry entry) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(KEY_WAIT_GUEST, entry.getGuestUsername());
+        values.put(KEY_WAIT_DATE, entry.getDate());
+        values.put(KEY_WAIT_TIME, entry.getTime());
+        values.put(KEY_WAIT_GUESTS, entry.getNumberOfGuests());
+        values.put(KEY_WAIT_PRIORITY, entry.getPriority());
+        values.put(KEY_WAIT_CREATED, entry.getCreatedAt());
+
+        long id = db.insert(TABLE_WAITLIST, null, values);
+        return id;
+    }
+
+    /**
+     Get waitlist for one slot in promotion order
+     @param date Slot date
+     @param time Slot time
+     @return List of WaitlistEntry objects, highest priority first
+     */
+    public List<WaitlistEntry> getWaitlistForSlot(String date, String time) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<WaitlistEntry> entries = queryWaitlistForSlot(db, date, time);
+        return entries;
+    }
+
+    /**
+     Get waitlist entries for specific guest
+     @param username Username of guest
+     @return List of WaitlistEntry objects for this guest
+     */
+    public List<WaitlistEntry> getWaitlistByGuest(String username) {
+        List<WaitlistEntry> entries = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        Cursor cursor = db.query(TABLE_WAITLIST,
+                null,
+                KEY_WAIT_GUEST + "=?",
+                new String[]{username},
+                null, null,
+                KEY_WAIT_DATE + " ASC, " + KEY_WAIT_TIME + " ASC");
+
+        if (cursor.moveToFirst()) {
+            do {
+                entries.add(readWaitlistEntry(cursor));
+            } while (cursor.moveToNext());
+        }
+
+        cursor.close();
+        return entries;
+    }
+
+    /**
+     Remove entry from the waitlist
+     @param id ID of waitlist entry to remove
+     */
+    public void removeFromWaitlist(int id) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.delete(TABLE_WAITLIST, KEY_WAIT_ID + " = ?",
+                new String[]{String.valueOf(id)});
+    }
+
+    /**
+     Promote waitlisted guests into a slot until it is full.
+     Capacity check, reservation inserts and waitlist deletes share one transaction
+     so a promotion is never half applied. Entries that do not fit are skipped so a
+     smaller party further down the list can still take the freed seats.
+     Runs on WaitlistManager's worker threads, so the shared connection is left open.
+     Uses BEGIN IMMEDIATE, like reserveIfAvailable, so promotion and new bookings serialise.
+     @param date Slot date
+     @param time Slot time
+     @param capacity Maximum number of guests for the slot
+     @return List of newly created reservations (empty if nothing was promoted)
+     */
+    public List<Reservation> promoteFromWaitlist(String date, String time, int capacity) {
+        List<Reservation> promoted = new ArrayList<>();
+        SQLiteDatabase db = this.getWritableDatabase();
+
+        db.beginTransactionNonExclusive();
+        try {
+            int remaining = capacity - queryBookedGuestCount(db, date, time);
+
+            for (WaitlistEntry entry : queryWaitlistForSlot(db, date, time)) {
+                if (remaining <= 0) {
+                    break;
+                }
+                if (entry.getNumberOfGuests() > remaining) {
+                    continue;
+                }
+
+                ContentValues values = new ContentValues();
+                values.put(KEY_RES_GUEST, entry.getGuestUsername());
+                values.put(KEY_RES_DATE, entry.getDate());
+                values.put(KEY_RES_TIME, entry.getTime());
+                values.put(KEY_RES_GUESTS, entry.getNumberOfGuests());
+                values.put(KEY_RES_STATUS, "confirmed");
+
+                long id = db.insert(TABLE_RESERVATIONS, null, values);
+                if (id == -1) {
+                    continue;
+                }
+                db.delete(TABLE_WAITLIST, KEY_WAIT_ID + " = ?",
+                        new String[]{String.valueOf(entry.getId())});
+
+                remaining -= entry.getNumberOfGuests();
+                promoted.add(new Reservation(
+                        (int) id,
+                        entry.getGuestUsername(),
+                        entry.getDate(),
+                        entry.getTime(),
+                        entry.getNumberOfGuests(),
+                        "confirmed"
+                ));
+            }
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        return promoted;
+    }
+
+    private List<WaitlistEntry> queryWaitlistForSlot(SQLiteDatabase db, String date, String time) {
+        List<WaitlistEntry> entries = new ArrayList<>();
+
+        Cursor cursor = db.query(TABLE_WAITLIST,
+                null,
+                KEY_WAIT_DATE + "=? AND " + KEY_WAIT_TIME + "=?",
+                new String[]{date, time},
+                null, null,
+                KEY_WAIT_PRIORITY + " DESC, " + KEY_WAIT_CREATED + " ASC");
+
+        if (cursor.moveToFirst()) {
+            do {
+                entries.add(readWaitlistEntry(cursor));
+            } while (cursor.moveToNext());
+        }
+
+        cursor.close();
+        return entries;
+    }
+
+    private WaitlistEntry readWaitlistEntry(Cursor cursor) {
+        return new WaitlistEntry(
+                cursor.getInt(0),       // id
+                cursor.getString(1),    // guest_username
+                cursor.getString(2),    // date
+                cursor.getString(3),    // time
+                cursor.getInt(4),       // number_of_guests
+                cursor.getInt(5),       // priority
+                cursor.getLong(6)       // created_at
+        );
+    }
+
+    // API outbox operations:
+    // Called from ApiOutbox's worker thread, so the shared connection is left open.
+
+    /**
+     Persist an API write so it survives restarts until it has been sent
+     @param entry OutboxEntry to add
+     @return row ID of inserted entry, -1 if error
+     */
+    public long addOutboxEntry(OutboxEntry entry) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(KEY_OUT_ENDPOINT, entry.getEndpoint());
+        values.put(KEY_OUT_METHOD, entry.getMethod());
+        values.put(KEY_OUT_URL, entry.getUrl());
+        values.put(KEY_OUT_BODY, entry.getBody());
+        values.put(KEY_OUT_IDEMPOTENCY_KEY, entry.getIdempotencyKey());
+        values.put(KEY_OUT_ATTEMPTS, entry.getAttempts());
+        values.put(KEY_OUT_NEXT_ATTEMPT, entry.getNextAttemptAt());
+        values.put(KEY_OUT_CREATED, entry.getCreatedAt());
+
+        return db.insert(TABLE_OUTBOX, null, values);
+    }
+
+    /**
+     Get the oldest outbox entries in replay order
+     @param limit Maximum number of entries
+     @return List of OutboxEntry objects, oldest first
+     */
+    public List<OutboxEntry> getOutboxBatch(int limit) {
+        List<OutboxEntry> entries = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        Cursor cursor = db.query(TABLE_OUTBOX,
+                null, null, null, null, null,
+                KEY_OUT_ID + " ASC",
+                String.valueOf(limit));
+
+        if (cursor.moveToFirst()) {
+            do {
+                entries.add(new OutboxEntry(
+                        cursor.getLong(0),      // id
+                        cursor.getString(1),    // endpoint
+                        cursor.getString(2),    // method
+                        cursor.getString(3),    // url
+                        cursor.getString(4),    // body
+                        cursor.getString(5),    // idempotency_key
+                        cursor.getInt(6),       // attempts
+                        cursor.getLong(7),      // next_attempt_at
+                        cursor.getLong(8)       // created_at
+                ));
+            } while (cursor.moveToNext());
+        }
+
+        cursor.close();
+        return entries;
+    }
+
+    //Number of API writes still waiting to be sent
+    public long getOutboxCount() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return DatabaseUtils.queryNumEntries(db, TABLE_OUTBOX);
+    }
+
+    /**
+     Remove sent (or permanently rejected) entries in one transaction
+     @param ids IDs of outbox entries
+     */
+    public void deleteOutboxEntries(List<Long> ids) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (long id : ids) {
+                db.delete(TABLE_OUTBOX, KEY_OUT_ID + " = ?",
+                        new String[]{String.valueOf(id)});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     Record a failed attempt and when the entry may be retried
+     @param entry OutboxEntry with updated attempts and nextAttemptAt
+     */
+    public void updateOutboxAttempt(OutboxEntry entry) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(KEY_OUT_ATTEMPTS, entry.getAttempts());
+        values.put(KEY_OUT_NEXT_ATTEMPT, entry.getNextAttemptAt());
+
+        db.update(TABLE_OUTBOX, values, KEY_OUT_ID + " = ?",
+                new String[]{String.valueOf(entry.getId())});
+    }
+
+    // Recurring reservation operations:
+
+    /**
+     Atomically check every occurrence of a standing reservation and store the rule
+     (stored once, expanded on read). All occurrences up to the end date are checked;
+     an open-ended rule is checked for STANDING_CHECK_DAYS, or up to the last stored
+     booking at its time if that is later. Dates beyond that are protected by the
+     capacity check of the bookings made there, which counts standing reservations.
+     Same transaction and retries as reserveIfAvailable.
+     @param rule RecurringReservation to add, including any initial exceptions
+     @param capacity Maximum number of guests per slot
+     @return row ID of inserted rule, RESERVATION_SLOT_FULL if an occurrence does not fit, -1 if error
+     */
+    public long addRecurringIfAvailable(RecurringReservation rule, int capacity) {
+        return runImmediate(db -> {
+            String lastDate = rule.getEndDate();
+            if (lastDate == null) {
+                lastDate = RecurrenceExpander.addDays(rule.getStartDate(), STANDING_CHECK_DAYS);
+                String lastBooked = queryLastBookedDate(db, rule.getTime());
+                if (lastBooked != null && lastBooked.compareTo(lastDate) > 0) {
+                    lastDate = lastBooked;
+                }
+            }
+
+            List<Reservation> occurrences = new ArrayList<>();
+            RecurrenceExpander.expand(rule, rule.getStartDate(), lastDate, occurrences);
+            for (Reservation occurrence : occurrences) {
+                int booked = queryBookedGuestCount(db, occurrence.getDate(), occurrence.getTime());
+                if (booked + rule.getNumberOfGuests() > capacity) {
+                    return RESERVATION_SLOT_FULL;
+                }
+            }
+
+            ContentValues values = new ContentValues();
+            values.put(KEY_REC_GUEST, rule.getGuestUsername());
+            values.put(KEY_REC_TIME, rule.getTime());
+            values.put(KEY_REC_GUESTS, rule.getNumberOfGuests());
+            values.put(KEY_REC_FREQUENCY, rule.getFrequency());
+            values.put(KEY_REC_START, rule.getStartDate());
+            values.put(KEY_REC_END, rule.getEndDate());
+
+            long id = db.insert(TABLE_RECURRING, null, values);
+            if (id != -1) {
+                for (String date : rule.getExceptions()) {
+                    insertRecurrenceException(db, id, date);
+                }
+                db.setTransactionSuccessful();
+            }
+            return id;
+        });
+    }
+
+    //Latest date with an active stored booking at a time, or null if there is none
+    private String queryLastBookedDate(SQLiteDatabase db, String time) {
+        Cursor cursor = db.rawQuery(
+                "SELECT MAX(" + KEY_RES_DATE + ") FROM " + TABLE_RESERVATIONS +
+                        " WHERE " + KEY_RES_TIME + " = ? AND LOWER(" + KEY_RES_STATUS + ") != 'cancelled'",
+                new String[]{time});
+
+        String date = null;
+        if (cursor.moveToFirst()) {
+            date = cursor.getString(0);
+        }
+        cursor.close();
+        return date;
+    }
+
+    /**
+     Skip a single occurrence of a standing reservation (e.g. guest cancels one week)
+     @param ruleId ID of the recurring rule
+     @param date Date of the occurrence to skip
+     */
+    public void addRecurrenceException(int ruleId, String date) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        insertRecurrenceException(db, ruleId, date);
+    }
+
+    /**
+     Delete a standing reservation rule and its exceptions
+     @param id ID of recurring rule to delete
+     */
+    public void deleteRecurringReservation(int id) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.delete(TABLE_RECURRING_EXCEPTIONS, KEY_EXC_RULE + " = ?",
+                new String[]{String.valueOf(id)});
+        db.delete(TABLE_RECURRING, KEY_REC_ID + " = ?",
+                new String[]{String.valueOf(id)});
+    }
+
+    /**
+     Get reservations between two dates, including expanded standing reservations
+     Standing reservations are expanded only inside the requested window.
+     @param fromDate First date (inclusive), "yyyy-MM-dd"
+     @param toDate Last date (inclusive), "yyyy-MM-dd"
+     @return List of Reservation objects, newest first like getAllReservations
+     */
+    public List<Reservation> getReservationsInRange(String fromDate, String toDate) {
+        List<Reservation> reservationList = new ArrayList<>();
+        SQLiteDatabase db = this.getReadableDatabase();
+
+        Cursor cursor = db.query(TABLE_RESERVATIONS,
+                null,
+                KEY_RES_DATE + " BETWEEN ? AND ?",
+                new String[]{fromDate, toDate},
+                null, null, null);
+
+        if (cursor.moveToFirst()) {
+            do {
+                reservationList.add(new Reservation(
+                        cursor.getInt(0),
+                        cursor.getString(1),
+                        cursor.getString(2),
+                        cursor.getString(3),
+                        cursor.getInt(4),
+                        cursor.getString(5)
+                ));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+
+        for (RecurringReservation rule : queryRecurringInWindow(db, fromDate, toDate)) {
+            RecurrenceExpander.expand(rule, fromDate, toDate, reservationList);
+        }
+
+        sortNewestFirst(reservationList);
+        return reservationList;
+    }
+
+    /**
+     Get all stored reservations plus standing reservations expanded inside a window
+     (standing reservations are open-ended, so they can only be listed for a window)
+     @param fromDate First date to expand standing reservations for
+     @param toDate Last date to expand standing reservations for
+     @return List of Reservation objects, newest first like getAllReservations
+     */
+    public List<Reservation> getAllReservationsWithStanding(String fromDate, String toDate) {
+        List<Reservation> reservationList = getAllReservations();
+
+        SQLiteDatabase db = this.getReadableDatabase();
+        for (RecurringReservation rule : queryRecurringInWindow(db, fromDate, toDate)) {
+            RecurrenceExpander.expand(rule, fromDate, toDate, reservationList);
+        }
+
+        sortNewestFirst(reservationList);
+        return reservationList;
+    }
+
+    /**
+     Get a guest's stored reservations plus their standing reservations expanded inside a window
+     @param username Username of guest
+     @param fromDate First date to expand standing reservations for
+     @param toDate Last date to expand standing reservations for
+     @return List of Reservation objects, newest first like getReservationsByGuest
+     */
+    public List<Reservation> getReservationsByGuestWithStanding(String username, String fromDate, String toDate) {
+        List<Reservation> reservationList = getReservationsByGuest(username);
+
+        SQLiteDatabase db = this.getReadableDatabase();
+        for (RecurringReservation rule : queryRecurringInWindow(db, fromDate, toDate, username)) {
+            RecurrenceExpander.expand(rule, fromDate, toDate, reservationList);
+        }
+
+        sortNewestFirst(reservationList);
+        return reservationList;
+    }
+
+    //Same order as getAllReservations: date DESC, time DESC
+    private void sortNewestFirst(List<Reservation> reservationList) {
+        Collections.sort(reservationList, (a, b) -> {
+            int byDate = b.getDate().compareTo(a.getDate());
+            return byDate != 0 ? byDate : b.getTime().compareTo(a.getTime());
+        });
+    }
+
+    //Load rules that can have occurrences inside the window, with their exceptions in that window
+    private List<RecurringReservation> queryRecurringInWindow(SQLiteDatabase db, String fromDate, String toDate) {
+        return queryRecurringInWindow(db, fromDate, toDate, null);
+    }
+
+    //Same, limited to one guest's rules unless username is null
+    private List<RecurringReservation> queryRecurringInWindow(SQLiteDatabase db, String fromDate, String toDate,
+                                                              String username) {
+        List<RecurringReservation> rules = new ArrayList<>();
+
+        String selection = KEY_REC_START + " <= ? AND (" + KEY_REC_END + " IS NULL OR " + KEY_REC_END + " >= ?)";
+        String[] selectionArgs = new String[]{toDate, fromDate};
+        if (username != null) {
+            selection += " AND " + KEY_REC_GUEST + " = ?";
+            selectionArgs = new String[]{toDate, fromDate, username};
+        }
+
+        Cursor cursor = db.query(TABLE_RECURRING,
+                null,
+                selection,
+                selectionArgs,
+                null, null, null);
+
+        if (cursor.moveToFirst()) {
+            do {
+                rules.add(new RecurringReservation(
+                        cursor.getInt(0),       // id
+                        cursor.getString(1),    // guest_username
+                        cursor.getString(2),    // time
+                        cursor.getInt(3),       // number_of_guests
+                        cursor.getString(4),    // frequency
+                        cursor.getString(5),    // start_date
+                        cursor.getString(6),    // end_date
+                        new HashSet<>()
+                ));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+
+        for (RecurringReservation rule : rules) {
+            Cursor exceptions = db.query(TABLE_RECURRING_EXCEPTIONS,
+                    new String[]{KEY_EXC_DATE},
+                    KEY_EXC_RULE + " = ? AND " + KEY_EXC_DATE + " BETWEEN ? AND ?",
+                    new String[]{String.valueOf(rule.getId()), fromDate, toDate},
+                    null, null, null);
+            while (exceptions.moveToNext()) {
+                rule.getExceptions().add(exceptions.getString(0));
+            }
+            exceptions.close();
+        }
+
+        return rules;
+    }
+
+    private void insertRecurrenceException(SQLiteDatabase db, long ruleId, String date) {
+        ContentValues values = new ContentValues();
+        values.put(KEY_EXC_RULE, ruleId);
+        values.put(KEY_EXC_DATE, date);
+        db.insertWithOnConflict(TABLE_RECURRING_EXCEPTIONS, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+    }
 }
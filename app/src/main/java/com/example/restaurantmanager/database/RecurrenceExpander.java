@@ -0,0 +1,203 @@
+package com.example.restaurantmanager.database;
+
+import com.example.restaurantmanager.models.RecurringReservation;
+import com.example.restaurantmanager.models.Reservation;
+import java.util.List;
+
+/**
+ RecurrenceExpander - Turns a recurring reservation rule into concrete occurrences
+ Only the occurrences inside the queried window are produced, nothing is written
+ to the database. Date keys ("yyyy-MM-dd") are converted to epoch days with plain
+ integer arithmetic, so expansion needs no Calendar or SimpleDateFormat.
+ Occurrences carry the negated rule ID so they can be told apart from stored rows.
+ SOLID: Single Responsibility - Only handles recurrence expansion
+ */
+public final class RecurrenceExpander {
+
+    private RecurrenceExpander() {
+    }
+
+    //Check if a reservation is an expanded occurrence rather than a stored row
+    public static boolean isOccurrence(Reservation reservation) {
+        return reservation.getId() < 0;
+    }
+
+    //Get the rule ID an expanded occurrence came from
+    public static int getRuleId(Reservation reservation) {
+        return -reservation.getId();
+    }
+
+    /**
+     Append the rule's occurrences between two dates (inclusive) to a list
+     @param rule Recurring reservation rule
+     @param fromDate First date of the window
+     @param toDate Last date of the window
+     @param out List receiving the occurrences
+     */
+    public static void expand(RecurringReservation rule, String fromDate, String toDate,
+                              List<Reservation> out) {
+        long startDay = toEpochDay(rule.getStartDate());
+        long fromDay = Math.max(toEpochDay(fromDate), startDay);
+        long toDay = toEpochDay(toDate);
+        if (rule.getEndDate() != null) {
+            toDay = Math.min(toDay, toEpochDay(rule.getEndDate()));
+        }
+        if (fromDay > toDay) {
+            return;
+        }
+
+        if (RecurringReservation.FREQUENCY_MONTHLY.equals(rule.getFrequency())) {
+            int startDayOfMonth = dayOfMonth(rule.getStartDate());
+            int month = monthIndex(fromDay);
+            int lastMonth = monthIndex(toDay);
+
+            for (; month <= lastMonth; month++) {
+                long day = dayInMonth(month, startDayOfMonth);
+                if (day >= fromDay && day <= toDay) {
+                    addOccurrence(rule, day, out);
+                }
+            }
+        } else {
+            int step = stepDays(rule.getFrequency());
+
+            // Jump straight to the first occurrence on or after the window start
+            long offset = fromDay - startDay;
+            long day = startDay + ((offset + step - 1) / step) * step;
+
+            for (; day <= toDay; day += step) {
+                addOccurrence(rule, day, out);
+            }
+        }
+    }
+
+    /**
+     Check if the rule has an occurrence on a given date
+     @param rule Recurring reservation rule
+     @param date Date key to check
+     */
+    public static boolean occursOn(RecurringReservation rule, String date) {
+        if (rule.getExceptions().contains(date)) {
+            return false;
+        }
+
+        long day = toEpochDay(date);
+        long startDay = toEpochDay(rule.getStartDate());
+        if (day < startDay) {
+            return false;
+        }
+        if (rule.getEndDate() != null && day > toEpochDay(rule.getEndDate())) {
+            return false;
+        }
+
+        if (RecurringReservation.FREQUENCY_MONTHLY.equals(rule.getFrequency())) {
+            return day == dayInMonth(monthIndex(day), dayOfMonth(rule.getStartDate()));
+        }
+        return (day - startDay) % stepDays(rule.getFrequency()) == 0;
+    }
+
+    private static void addOccurrence(RecurringReservation rule, long epochDay, List<Reservation> out) {
+        String date = toDateKey(epochDay);
+        if (rule.getExceptions().contains(date)) {
+            return;
+        }
+        out.add(new Reservation(
+                -rule.getId(),
+                rule.getGuestUsername(),
+                date,
+                rule.getTime(),
+                rule.getNumberOfGuests(),
+                "confirmed"
+        ));
+    }
+
+    private static int stepDays(String frequency) {
+        return RecurringReservation.FREQUENCY_BIWEEKLY.equals(frequency) ? 14 : 7;
+    }
+
+    //Epoch day of the given day-of-month in a month, clamped to the month's last day
+    private static long dayInMonth(int monthIndex, int dayOfMonth) {
+        int year = monthIndex / 12;
+        int month = monthIndex % 12 + 1;
+        return daysFromCivil(year, month, Math.min(dayOfMonth, daysInMonth(year, month)));
+    }
+
+    //Months since year 0 for an epoch day
+    private static int monthIndex(long epochDay) {
+        int[] civil = civilFromDays(epochDay);
+        return civil[0] * 12 + civil[1] - 1;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int dayOfMonth(String date) {
+        return (date.charAt(8) - '0') * 10 + (date.charAt(9) - '0');
+    }
+
+    //Date key a number of days after another date key
+    public static String addDays(String date, int days) {
+        return toDateKey(toEpochDay(date) + days);
+    }
+
+    //Parse "yyyy-MM-dd" into days since 1970-01-01
+    static long toEpochDay(String date) {
+        int year = (date.charAt(0) - '0') * 1000 + (date.charAt(1) - '0') * 100
+                + (date.charAt(2) - '0') * 10 + (date.charAt(3) - '0');
+        int month = (date.charAt(5) - '0') * 10 + (date.charAt(6) - '0');
+        return daysFromCivil(year, month, dayOfMonth(date));
+    }
+
+    //Format days since 1970-01-01 as "yyyy-MM-dd"
+    static String toDateKey(long epochDay) {
+        int[] civil = civilFromDays(epochDay);
+        char[] out = new char[10];
+        out[0] = (char) ('0' + civil[0] / 1000);
+        out[1] = (char) ('0' + civil[0] / 100 % 10);
+        out[2] = (char) ('0' + civil[0] / 10 % 10);
+        out[3] = (char) ('0' + civil[0] % 10);
+        out[4] = '-';
+        out[5] = (char) ('0' + civil[1] / 10);
+        out[6] = (char) ('0' + civil[1] % 10);
+        out[7] = '-';
+        out[8] = (char) ('0' + civil[2] / 10);
+        out[9] = (char) ('0' + civil[2] % 10);
+        return new String(out);
+    }
+
+    // Proleptic Gregorian calendar conversions (H. Hinnant's days_from_civil / civil_from_days)
+    // Booking dates are always after year 0, so plain division is enough
+
+    private static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        long era = year / 400;
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int[] civilFromDays(long epochDay) {
+        long z = epochDay + 719468;
+        long era = z / 146097;
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        return new int[]{year, month, day};
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.restaurantmanager.database;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.util.Log;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ SyntheticDataGenerator - Fills DatabaseHelper with realistic load-test data
+ Deterministic: the same seed and arguments always produce the same rows,
+ so results from unit tests and benchmarks can be compared over time.
+ Threading: Long running - call from a worker thread, never the main thread
+ SOLID: Single Responsibility - Only generates test data
+ */
+public class SyntheticDataGenerator {
+
+    private static final String TAG = "SyntheticDataGenerator";
+
+    // Rows written per transaction - keeps the journal small without per-row commits
+    private static final int BATCH_SIZE = 5000;
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private static final String[] CATEGORIES = {
+            "Starters", "Mains", "Desserts", "Drinks", "Pasta", "Other"
+    };
+
+    // Price range per category (same order as CATEGORIES)
+    private static final double[] MIN_PRICE = {4.50, 10.00, 4.00, 2.50, 9.00, 3.00};
+    private static final double[] MAX_PRICE = {9.50, 28.00, 8.50, 12.00, 17.00, 9.00};
+
+    private static final String[] ADJECTIVES = {
+            "Roasted", "Grilled", "Smoked", "Crispy", "Spiced", "Braised", "Pan-fried",
+            "Seared", "Glazed", "Classic", "Rustic", "Homemade", "Wild", "Charred"
+    };
+    private static final String[] DISHES = {
+            "Salmon", "Chicken", "Risotto", "Burger", "Lamb", "Tart", "Soup", "Salad",
+            "Gnocchi", "Cheesecake", "Lemonade", "Linguine", "Pork Belly", "Halloumi",
+            "Mushrooms", "Brownie", "Sea Bass", "Ravioli", "Steak", "Cauliflower"
+    };
+    private static final String[] DESCRIPTION_WORDS = {
+            "served", "with", "fresh", "seasonal", "herbs", "garlic", "butter", "lemon",
+            "local", "slow-cooked", "sauce", "roasted", "vegetables", "finished", "olive",
+            "oil", "house", "made", "crispy", "tender", "sweet", "toasted", "cream",
+            "pepper", "chilli", "on", "a", "bed", "of", "greens", "and", "our", "own"
+    };
+
+    // Opening hours 11:00 - 21:45, weighted towards the lunch and dinner peaks
+    private static final int[] HOURS = {11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21};
+    private static final int[] HOUR_WEIGHTS = {4, 14, 12, 5, 2, 2, 6, 16, 18, 13, 8};
+
+    // Party sizes, couples and groups of four dominate
+    private static final int[] PARTY_SIZES = {1, 2, 3, 4, 5, 6, 7, 8, 10, 12};
+    private static final int[] PARTY_WEIGHTS = {8, 35, 12, 22, 6, 8, 2, 3, 2, 2};
+
+    // Share of reservations that end up cancelled
+    private static final double CANCELLATION_RATE = 0.08;
+
+    // Bookable slots per hour (every 15 minutes)
+    private static final int SLOTS_PER_HOUR = 4;
+
+    // Slot picks tried for a party before the date range is considered full
+    private static final int MAX_SLOT_ATTEMPTS = 1000;
+
+    private final DatabaseHelper databaseHelper;
+    private final Random random;
+
+    /**
+     @param databaseHelper Database to fill
+     @param seed Random seed - identical seeds give identical data
+     */
+    public SyntheticDataGenerator(DatabaseHelper databaseHelper, long seed) {
+        this.databaseHelper = databaseHelper;
+        this.random = new Random(seed);
+    }
+
+    /**
+     Generate placeholder JPEG images to reference from menu items
+     @param directory Directory to write into (created if missing)
+     @param count Number of distinct images
+     @param width Image width in pixels
+     @param height Image height in pixels
+     @return Absolute paths of the written images
+     */
+    public List<String> generateImages(File directory, int count, int width, int height) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        List<String> paths = new ArrayList<>();
+        Paint paint = new Paint();
+
+        for (int i = 0; i < count; i++) {
+            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            int startColor = Color.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+            int endColor = Color.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+            paint.setShader(new LinearGradient(0, 0, width, height,
+                    startColor, endColor, Shader.TileMode.CLAMP));
+            new Canvas(bitmap).drawRect(0, 0, width, height, paint);
+
+            File file = new File(directory, "synthetic_" + i + ".jpg");
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+            }
+            bitmap.recycle();
+            paths.add(file.getAbsolutePath());
+        }
+
+        return paths;
+    }
+
+    /**
+     Insert menu items with category-dependent prices and varied descriptions
+     @param count Number of menu items to insert
+     @param imagePaths Images to assign round-robin, or null/empty for "placeholder"
+     @return Number of rows inserted
+     */
+    public int generateMenuItems(int count, List<String> imagePaths) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        SQLiteStatement insert = databaseHelper.compileMenuInsert(db);
+        StringBuilder text = new StringBuilder();
+        int inserted = 0;
+
+        try {
+            while (inserted < count) {
+                int batchEnd = Math.min(count, inserted + BATCH_SIZE);
+                db.beginTransaction();
+                try {
+                    for (; inserted < batchEnd; inserted++) {
+                        int category = random.nextInt(CATEGORIES.length);
+                        double price = MIN_PRICE[category]
+                                + random.nextDouble() * (MAX_PRICE[category] - MIN_PRICE[category]);
+
+                        text.setLength(0);
+                        text.append(ADJECTIVES[random.nextInt(ADJECTIVES.length)])
+                                .append(' ')
+                                .append(DISHES[random.nextInt(DISHES.length)])
+                                .append(" #").append(inserted + 1);
+                        insert.bindString(1, text.toString());
+                        insert.bindDouble(2, Math.round(price * 100) / 100.0);
+                        insert.bindString(3, imagePaths == null || imagePaths.isEmpty()
+                                ? "placeholder"
+                                : imagePaths.get(inserted % imagePaths.size()));
+                        insert.bindString(4, buildDescription(text));
+                        insert.bindString(5, CATEGORIES[category]);
+                        insert.executeInsert();
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+        } finally {
+            insert.close();
+        }
+
+        Log.d(TAG, "Inserted " + inserted + " menu items");
+        return inserted;
+    }
+
+    /**
+     Insert reservations spread over a date range with peak-hour clustering,
+     busier Fridays and Saturdays, realistic party sizes and some cancellations.
+     Guests follow a skewed distribution so a small set of regulars books most tables.
+     No slot gets more than DatabaseHelper.MAX_GUESTS_PER_SLOT confirmed guests; only
+     rows written by this call are counted, so fill an empty date range.
+     @param count Number of reservations to insert
+     @param startDate First date, "yyyy-MM-dd"
+     @param days Number of days covered (e.g. 3 * 365 for three years)
+     @param guestCount Number of distinct guest usernames
+     @return Number of rows inserted
+     @throws IllegalArgumentException if the date range has no room for count parties
+     */
+    public int generateReservations(int count, String startDate, int days, int guestCount) {
+        long startMillis = parseDateUtc(startDate);
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        char[] dateChars = new char[10];
+        char[] timeChars = new char[5];
+
+        // Confirmed guests per slot, indexed by day, hour and quarter
+        int[] slotGuests = new int[days * HOURS.length * SLOTS_PER_HOUR];
+
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        SQLiteStatement insert = databaseHelper.compileReservationInsert(db);
+        int inserted = 0;
+
+        try {
+            while (inserted < count) {
+                int batchEnd = Math.min(count, inserted + BATCH_SIZE);
+                db.beginTransaction();
+                try {
+                    for (; inserted < batchEnd; inserted++) {
+                        int party = pick(PARTY_SIZES, PARTY_WEIGHTS);
+                        boolean cancelled = random.nextDouble() < CANCELLATION_RATE;
+
+                        // Re-pick the slot until the party fits; cancelled rows take no seats
+                        int day;
+                        int hour;
+                        int quarter;
+                        int slot;
+                        int attempts = 0;
+                        do {
+                            if (++attempts > MAX_SLOT_ATTEMPTS) {
+                                throw new IllegalArgumentException("No room for " + count
+                                        + " reservations in " + days + " days");
+                            }
+                            day = pickDay(calendar, startMillis, days);
+                            hour = pick(HOURS, HOUR_WEIGHTS);
+                            quarter = random.nextInt(SLOTS_PER_HOUR);
+                            slot = (day * HOURS.length + hour - HOURS[0]) * SLOTS_PER_HOUR + quarter;
+                        } while (!cancelled && slotGuests[slot] + party > DatabaseHelper.MAX_GUESTS_PER_SLOT);
+                        if (!cancelled) {
+                            slotGuests[slot] += party;
+                        }
+
+                        calendar.setTimeInMillis(startMillis + day * DAY_MILLIS);
+                        formatDate(calendar, dateChars);
+                        formatTime(hour, quarter * 15, timeChars);
+
+                        // Squaring a uniform value skews picks towards the low (regular) indexes
+                        double skew = random.nextDouble();
+                        int guest = (int) (skew * skew * guestCount);
+
+                        insert.bindString(1, "guest_" + guest);
+                        insert.bindString(2, new String(dateChars));
+                        insert.bindString(3, new String(timeChars));
+                        insert.bindLong(4, party);
+                        insert.bindString(5, cancelled ? "Cancelled" : "confirmed");
+                        insert.executeInsert();
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+            }
+        } finally {
+            insert.close();
+        }
+
+        Log.d(TAG, "Inserted " + inserted + " reservations");
+        return inserted;
+    }
+
+    //Pick a day offset, accepting Fridays and Saturdays more often than quiet weekdays
+    private int pickDay(Calendar calendar, long startMillis, int days) {
+        while (true) {
+            int offset = random.nextInt(days);
+            calendar.setTimeInMillis(startMillis + offset * DAY_MILLIS);
+            int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+
+            double acceptance;
+            if (dayOfWeek == Calendar.FRIDAY || dayOfWeek == Calendar.SATURDAY) {
+                acceptance = 1.0;
+            } else if (dayOfWeek == Calendar.MONDAY || dayOfWeek == Calendar.TUESDAY) {
+                acceptance = 0.45;
+            } else {
+                acceptance = 0.7;
+            }
+
+            if (random.nextDouble() < acceptance) {
+                return offset;
+            }
+        }
+    }
+
+    //Weighted random choice
+    private int pick(int[] values, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+
+        int roll = random.nextInt(total);
+        for (int i = 0; i < values.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    private String buildDescription(StringBuilder name) {
+        name.setLength(0);
+        int words = 8 + random.nextInt(40);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                name.append(' ');
+            }
+            name.append(DESCRIPTION_WORDS[random.nextInt(DESCRIPTION_WORDS.length)]);
+        }
+        return name.append('.').toString();
+    }
+
+    private static long parseDateUtc(String date) {
+        String[] parts = date.split("-");
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]) - 1, Integer.parseInt(parts[2]));
+        return calendar.getTimeInMillis();
+    }
+
+    //Format "yyyy-MM-dd" without a SimpleDateFormat or String.format per row
+    private static void formatDate(Calendar calendar, char[] out) {
+        int year = calendar.get(Calendar.YEAR);
+        int month = calendar.get(Calendar.MONTH) + 1;
+        int day = calendar.get(Calendar.DAY_OF_MONTH);
+        out[0] = (char) ('0' + year / 1000);
+        out[1] = (char) ('0' + year / 100 % 10);
+        out[2] = (char) ('0' + year / 10 % 10);
+        out[3] = (char) ('0' + year % 10);
+        out[4] = '-';
+        out[5] = (char) ('0' + month / 10);
+        out[6] = (char) ('0' + month % 10);
+        out[7] = '-';
+        out[8] = (char) ('0' + day / 10);
+        out[9] = (char) ('0' + day % 10);
+    }
+
+    //Format "HH:mm"
+    private static void formatTime(int hour, int minute, char[] out) {
+        out[0] = (char) ('0' + hour / 10);
+        out[1] = (char) ('0' + hour % 10);
+        out[2] = ':';
+        out[3] = (char) ('0' + minute / 10);
+        out[4] = (char) ('0' + minute % 10);
+    }
+}
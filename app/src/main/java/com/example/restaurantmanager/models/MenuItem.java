@@ -7,6 +7,9 @@ public class MenuItem {
     private String imageUrl;
     private String description;
     private String category;
+    // Smaller copies made when the image was picked, null for older items
+    private String thumbnailUrl;
+    private String detailUrl;
 
     //Constructor with ID (for existing items from database)
     public MenuItem(int id, String name, double price, String imageUrl, String description, String category) {
@@ -34,6 +37,14 @@ public class MenuItem {
     public String getImageUrl() { return imageUrl; }
     public String getDescription() { return description; }
     public String getCategory() { return category; }
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    public String getDetailUrl() { return detailUrl; }
+
+    //Image for list rows: the thumbnail if there is one, otherwise the original
+    public String getListImageUrl() { return thumbnailUrl != null ? thumbnailUrl : imageUrl; }
+
+    //Image for larger views: the detail rendition if there is one, otherwise the original
+    public String getDetailImageUrl() { return detailUrl != null ? detailUrl : imageUrl; }
 
     // Setters
     public void setId(int id) { this.id = id; }
@@ -42,4 +53,6 @@ public class MenuItem {
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
     public void setDescription(String description) { this.description = description; }
     public void setCategory(String category) { this.category = category; }
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    public void setDetailUrl(String detailUrl) { this.detailUrl = detailUrl; }
 }
@@ -0,0 +1,55 @@
+package com.example.restaurantmanager.models;
+
+import java.util.UUID;
+
+public class OutboxEntry {
+    private long id;                //Insertion order, entries are replayed by ascending ID
+    private String endpoint;        //e.g. "update_user"
+    private String method;          //"POST" or "PUT"
+    private String url;
+    private String body;            //JSON request body
+    private String idempotencyKey;  //Sent with every attempt so the server can drop duplicates
+    private int attempts;
+    private long nextAttemptAt;     //Epoch millis, 0 = send as soon as possible
+    private long createdAt;
+
+    //Constructor with ID (for existing entries from database)
+    public OutboxEntry(long id, String endpoint, String method, String url, String body,
+                       String idempotencyKey, int attempts, long nextAttemptAt, long createdAt) {
+        this.id = id;
+        this.endpoint = endpoint;
+        this.method = method;
+        this.url = url;
+        this.body = body;
+        this.idempotencyKey = idempotencyKey;
+        this.attempts = attempts;
+        this.nextAttemptAt = nextAttemptAt;
+        this.createdAt = createdAt;
+    }
+
+    //Constructor without ID (for new entries before database insertion)
+    public OutboxEntry(String endpoint, String method, String url, String body) {
+        this.endpoint = endpoint;
+        this.method = method;
+        this.url = url;
+        this.body = body;
+        this.idempotencyKey = UUID.randomUUID().toString();
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    // Getters
+    public long getId() { return id; }
+    public String getEndpoint() { return endpoint; }
+    public String getMethod() { return method; }
+    public String getUrl() { return url; }
+    public String getBody() { return body; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public int getAttempts() { return attempts; }
+    public long getNextAttemptAt() { return nextAttemptAt; }
+    public long getCreatedAt() { return createdAt; }
+
+    // Setters
+    public void setId(long id) { this.id = id; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public void setNextAttemptAt(long nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+}
@@ -0,0 +1,67 @@
+package com.example.restaurantmanager.models;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class RecurringReservation {
+
+    // Supported frequencies
+    public static final String FREQUENCY_WEEKLY = "weekly";
+    public static final String FREQUENCY_BIWEEKLY = "biweekly";
+    public static final String FREQUENCY_MONTHLY = "monthly";
+
+    private int id;
+    private String guestUsername;
+    private String time;           //Format: "18:30"
+    private int numberOfGuests;
+    private String frequency;      //Format: "weekly" "biweekly" "monthly"
+    private String startDate;      //Format: "2025-12-25", first occurrence
+    private String endDate;        //Format: "2025-12-25", null for open-ended
+    private Set<String> exceptions; //Dates on which the booking is skipped
+
+    //Constructor with ID (for existing rules from database)
+    public RecurringReservation(int id, String guestUsername, String time, int numberOfGuests,
+                                String frequency, String startDate, String endDate,
+                                Set<String> exceptions) {
+        this.id = id;
+        this.guestUsername = guestUsername;
+        this.time = time;
+        this.numberOfGuests = numberOfGuests;
+        this.frequency = frequency;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.exceptions = exceptions;
+    }
+
+    //Constructor without ID (for new rules before database insertion)
+    public RecurringReservation(String guestUsername, String time, int numberOfGuests,
+                                String frequency, String startDate, String endDate) {
+        this.guestUsername = guestUsername;
+        this.time = time;
+        this.numberOfGuests = numberOfGuests;
+        this.frequency = frequency;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.exceptions = new HashSet<>();
+    }
+
+    // Getters
+    public int getId() { return id; }
+    public String getGuestUsername() { return guestUsername; }
+    public String getTime() { return time; }
+    public int getNumberOfGuests() { return numberOfGuests; }
+    public String getFrequency() { return frequency; }
+    public String getStartDate() { return startDate; }
+    public String getEndDate() { return endDate; }
+    public Set<String> getExceptions() { return exceptions; }
+
+    // Setters
+    public void setId(int id) { this.id = id; }
+    public void setGuestUsername(String guestUsername) { this.guestUsername = guestUsername; }
+    public void setTime(String time) { this.time = time; }
+    public void setNumberOfGuests(int numberOfGuests) { this.numberOfGuests = numberOfGuests; }
+    public void setFrequency(String frequency) { this.frequency = frequency; }
+    public void setStartDate(String startDate) { this.startDate = startDate; }
+    public void setEndDate(String endDate) { this.endDate = endDate; }
+    public void setExceptions(Set<String> exceptions) { this.exceptions = exceptions; }
+}
@@ -0,0 +1,52 @@
+package com.example.restaurantmanager.models;
+
+public class WaitlistEntry {
+    private int id;
+    private String guestUsername;
+    private String date;           //Format: "2025-12-25"
+    private String time;           //Format: "18:30"
+    private int numberOfGuests;
+    private int priority;          //Higher value is promoted first
+    private long createdAt;        //Epoch millis, breaks ties between equal priorities
+
+    //Constructor with ID (for existing entries from database)
+    public WaitlistEntry(int id, String guestUsername, String date, String time,
+                         int numberOfGuests, int priority, long createdAt) {
+        this.id = id;
+        this.guestUsername = guestUsername;
+        this.date = date;
+        this.time = time;
+        this.numberOfGuests = numberOfGuests;
+        this.priority = priority;
+        this.createdAt = createdAt;
+    }
+
+    //Constructor without ID (for new entries before database insertion)
+    public WaitlistEntry(String guestUsername, String date, String time,
+                         int numberOfGuests, int priority) {
+        this.guestUsername = guestUsername;
+        this.date = date;
+        this.time = time;
+        this.numberOfGuests = numberOfGuests;
+        this.priority = priority;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    // Getters
+    public int getId() { return id; }
+    public String getGuestUsername() { return guestUsername; }
+    public String getDate() { return date; }
+    public String getTime() { return time; }
+    public int getNumberOfGuests() { return numberOfGuests; }
+    public int getPriority() { return priority; }
+    public long getCreatedAt() { return createdAt; }
+
+    // Setters
+    public void setId(int id) { this.id = id; }
+    public void setGuestUsername(String guestUsername) { this.guestUsername = guestUsername; }
+    public void setDate(String date) { this.date = date; }
+    public void setTime(String time) { this.time = time; }
+    public void setNumberOfGuests(int numberOfGuests) { this.numberOfGuests = numberOfGuests; }
+    public void setPriority(int priority) { this.priority = priority; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+}
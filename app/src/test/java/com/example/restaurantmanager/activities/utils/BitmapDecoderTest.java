@@ -0,0 +1,45 @@
+package com.example.restaurantmanager.activities.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ BitmapDecoderTest - inSampleSize choice for camera photos shown as thumbnails
+ Decoding itself needs BitmapFactory, see BitmapDecoderHeapTest in androidTest.
+ */
+public class BitmapDecoderTest {
+
+    @Test
+    public void twelveMegapixelPhotoForAThumbnail() {
+        // 4000 / 16 = 250, 3000 / 16 = 187; 32 would drop below 180
+        assertEquals(16, BitmapDecoder.calculateInSampleSize(4000, 3000, 180, 180));
+    }
+
+    @Test
+    public void portraitPhotoIsLimitedByItsShortSide() {
+        assertEquals(16, BitmapDecoder.calculateInSampleSize(3000, 4000, 180, 180));
+        assertEquals(8, BitmapDecoder.calculateInSampleSize(3000, 4000, 180, 400));
+    }
+
+    @Test
+    public void sampledSizeNeverDropsBelowTheTarget() {
+        int[][] cases = {{4000, 3000, 180, 180}, {4032, 3024, 540, 300}, {1920, 1080, 96, 96},
+                {1000, 1000, 499, 499}, {1000, 1000, 500, 500}, {640, 480, 1, 1}};
+        for (int[] c : cases) {
+            int sampleSize = BitmapDecoder.calculateInSampleSize(c[0], c[1], c[2], c[3]);
+            assertEquals(0, sampleSize & (sampleSize - 1)); // power of two
+            assertTrue(c[0] / sampleSize >= c[2] && c[1] / sampleSize >= c[3]);
+            // The next power of two would undershoot one side
+            assertTrue(c[0] / (sampleSize * 2) < c[2] || c[1] / (sampleSize * 2) < c[3]);
+        }
+    }
+
+    @Test
+    public void imageSmallerThanTheTargetIsNotSampled() {
+        assertEquals(1, BitmapDecoder.calculateInSampleSize(100, 80, 180, 180));
+        assertEquals(1, BitmapDecoder.calculateInSampleSize(180, 180, 180, 180));
+        assertEquals(1, BitmapDecoder.calculateInSampleSize(359, 359, 180, 180));
+        assertEquals(2, BitmapDecoder.calculateInSampleSize(360, 360, 180, 180));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.restaurantmanager.activities.utils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ ClockServiceTest - Day keys and comparisons across midnight and DST changes
+ Drives a FakeClock in Europe/London, where 31 March 2024 is 23 hours long
+ and 27 October 2024 is 25 hours long.
+ */
+public class ClockServiceTest {
+
+    private static final TimeZone LONDON = TimeZone.getTimeZone("Europe/London");
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+
+    @After
+    public void tearDown() {
+        ClockService.setInstance(null);
+    }
+
+    @Test
+    public void dayRollsOverAtMidnight() {
+        // 23:59:59.999 BST
+        ClockService.FakeClock clock = new ClockService.FakeClock(utc(2024, 5, 10, 22, 59) + 59_999);
+        ClockService clockService = new ClockService(clock, LONDON);
+
+        assertEquals("2024-05-10", clockService.todayKey());
+        assertEquals("2024-05-11", clockService.tomorrowKey());
+        assertTrue(clockService.isToday("2024-05-10"));
+        assertTrue(clockService.isAfterToday("2024-05-11"));
+        assertFalse(clockService.isAfterToday("2024-05-10"));
+
+        clock.advance(1);
+
+        assertEquals("2024-05-11", clockService.todayKey());
+        assertEquals("2024-05-12", clockService.tomorrowKey());
+        assertFalse(clockService.isToday("2024-05-10"));
+        assertTrue(clockService.isBeforeToday("2024-05-10"));
+        assertTrue(clockService.isToday("2024-05-11"));
+        assertFalse(clockService.isAfterToday("2024-05-11"));
+        assertTrue(clockService.isAfterToday("2024-05-12"));
+        assertEquals(clock.currentTimeMillis(), clockService.todayStartMillis());
+    }
+
+    @Test
+    public void springForwardDayIsTwentyThreeHours() {
+        // Clocks go from 01:00 GMT to 02:00 BST
+        ClockService.FakeClock clock = new ClockService.FakeClock(utc(2024, 3, 31, 12, 0));
+        ClockService clockService = new ClockService(clock, LONDON);
+
+        assertEquals("2024-03-31", clockService.todayKey());
+        assertEquals(utc(2024, 3, 31, 0, 0), clockService.todayStartMillis());
+        assertEquals(23 * HOUR_MS, clockService.tomorrowStartMillis() - clockService.todayStartMillis());
+
+        // Last millisecond of the day, then midnight BST
+        clock.setTime(utc(2024, 3, 31, 23, 0) - 1);
+        assertTrue(clockService.isToday("2024-03-31"));
+        clock.advance(1);
+        assertEquals("2024-04-01", clockService.todayKey());
+        assertTrue(clockService.isAfterToday("2024-04-02"));
+        assertFalse(clockService.isAfterToday("2024-04-01"));
+    }
+
+    @Test
+    public void fallBackDayIsTwentyFiveHours() {
+        // Clocks go from 02:00 BST back to 01:00 GMT
+        ClockService.FakeClock clock = new ClockService.FakeClock(utc(2024, 10, 27, 0, 30));
+        ClockService clockService = new ClockService(clock, LONDON);
+
+        assertEquals("2024-10-27", clockService.todayKey());
+        assertEquals(utc(2024, 10, 26, 23, 0), clockService.todayStartMillis());
+        assertEquals(25 * HOUR_MS, clockService.tomorrowStartMillis() - clockService.todayStartMillis());
+
+        // 23:30 GMT is still the 27th, although 24 hours have passed since midnight
+        clock.setTime(utc(2024, 10, 27, 23, 30));
+        assertTrue(clockService.isToday("2024-10-27"));
+        assertTrue(clockService.isToday(clock.currentTimeMillis()));
+        clock.advance(HOUR_MS);
+        assertEquals("2024-10-28", clockService.todayKey());
+        assertFalse(clockService.isToday("2024-10-27"));
+    }
+
+    @Test
+    public void clockMovedBackRecomputesTheDay() {
+        ClockService.FakeClock clock = new ClockService.FakeClock(utc(2024, 5, 10, 12, 0));
+        ClockService clockService = new ClockService(clock, LONDON);
+        assertEquals("2024-05-10", clockService.todayKey());
+
+        clock.setTime(utc(2024, 5, 8, 12, 0));
+
+        assertEquals("2024-05-08", clockService.todayKey());
+        assertTrue(clockService.isAfterToday("2024-05-10"));
+    }
+
+    @Test
+    public void isTodayForTimestampsUsesTheDayBoundaries() {
+        ClockService.FakeClock clock = new ClockService.FakeClock(utc(2024, 5, 10, 12, 0));
+        ClockService clockService = new ClockService(clock, LONDON);
+
+        assertTrue(clockService.isToday(clockService.todayStartMillis()));
+        assertFalse(clockService.isToday(clockService.todayStartMillis() - 1));
+        assertFalse(clockService.isToday(clockService.tomorrowStartMillis()));
+    }
+
+    @Test
+    public void nullDatesAreNeverToday() {
+        ClockService clockService = new ClockService(new ClockService.FakeClock(0), LONDON);
+
+        assertFalse(clockService.isToday((String) null));
+        assertFalse(clockService.isTomorrow(null));
+        assertFalse(clockService.isAfterToday(null));
+        assertFalse(clockService.isBeforeToday(null));
+    }
+
+    @Test
+    public void injectedInstanceIsShared() {
+        ClockService.FakeClock clock = new ClockService.FakeClock(utc(2024, 12, 31, 23, 59));
+        ClockService.setInstance(new ClockService(clock, LONDON));
+
+        assertEquals("2024-12-31", ClockService.getInstance().todayKey());
+        clock.advance(60 * 1000L);
+        assertEquals("2025-01-01", ClockService.getInstance().todayKey());
+
+        ClockService.setInstance(null);
+        // Back on the system clock
+        assertTrue(Math.abs(System.currentTimeMillis() - ClockService.getInstance().now()) < 60_000);
+    }
+
+    //Epoch millis of a UTC date and time, month 1-12
+    private static long utc(int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.restaurantmanager.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ CircuitBreakerTest - State changes of the per-host breaker
+ */
+public class CircuitBreakerTest {
+
+    private static final int THRESHOLD = 3;
+    private static final long OPEN_MS = 500;
+
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        breaker = new CircuitBreaker("test", THRESHOLD, OPEN_MS, ApiMetrics.getInstance());
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        for (int i = 0; i < THRESHOLD - 1; i++) {
+            assertTrue(breaker.allowRequest());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        assertTrue(breaker.allowRequest());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void successResetsTheFailureCount() {
+        for (int i = 0; i < THRESHOLD - 1; i++) {
+            breaker.onFailure();
+        }
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenAllowsOneTrial() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void failedTrialOpensAgain() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+
+        assertTrue(breaker.allowRequest());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void cancelledTrialLetsTheNextRequestThrough() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+
+        assertTrue(breaker.allowRequest());
+        breaker.onCancelled();
+
+        // Still half-open, but the trial slot is free again
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void onlyOutagesAreHealthFailures() {
+        assertTrue(CircuitBreaker.isHealthFailure(new ApiError(0, null, "timeout")));
+        assertTrue(CircuitBreaker.isHealthFailure(new ApiError(503, null, "HTTP 503")));
+        assertTrue(CircuitBreaker.isHealthFailure(new ApiError(429, null, "HTTP 429")));
+        assertFalse(CircuitBreaker.isHealthFailure(new ApiError(404, null, "HTTP 404")));
+        assertFalse(CircuitBreaker.isHealthFailure(new ApiError(400, null, "HTTP 400")));
+    }
+
+    private void open() {
+        for (int i = 0; i < THRESHOLD; i++) {
+            assertTrue(breaker.allowRequest());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
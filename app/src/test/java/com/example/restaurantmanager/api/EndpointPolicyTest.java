@@ -0,0 +1,74 @@
+package com.example.restaurantmanager.api;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ EndpointPolicyTest - Decorrelated jitter bounds of the retry backoff
+ */
+public class EndpointPolicyTest {
+
+    private static final int DRAWS = 1000;
+
+    @Test
+    public void firstRetryIsJittered() {
+        EndpointPolicy policy = new EndpointPolicy(5000, 3, 100, 10_000);
+
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < DRAWS; i++) {
+            long delay = policy.nextBackoffMs(0);
+            assertTrue(delay + " below base", delay >= 100);
+            assertTrue(delay + " above 3 * base", delay <= 300);
+            delays.add(delay);
+        }
+        // Not every client may wait the same time
+        assertTrue(delays.size() > 10);
+    }
+
+    @Test
+    public void laterRetriesStayBetweenBaseAndThreeTimesPrevious() {
+        EndpointPolicy policy = new EndpointPolicy(5000, 3, 100, 10_000);
+
+        for (int i = 0; i < DRAWS; i++) {
+            long delay = policy.nextBackoffMs(1000);
+            assertTrue(delay >= 100);
+            assertTrue(delay <= 3000);
+        }
+    }
+
+    @Test
+    public void delaysAreCappedAtTheMaximum() {
+        EndpointPolicy policy = new EndpointPolicy(5000, 5, 400, 1000);
+
+        long previous = 0;
+        for (int i = 0; i < DRAWS; i++) {
+            previous = policy.nextBackoffMs(previous);
+            assertTrue(previous >= 400);
+            assertTrue(previous <= 1000);
+        }
+    }
+
+    @Test
+    public void noBackoffWithoutBase() {
+        EndpointPolicy policy = new EndpointPolicy(10000, 1, 0, 0);
+
+        assertEquals(0, policy.nextBackoffMs(0));
+        assertEquals(0, policy.nextBackoffMs(500));
+    }
+
+    @Test
+    public void deadlineCoversEveryAttemptAndBackoff() {
+        EndpointPolicy policy = new EndpointPolicy(5000, 3, 250, 2000);
+
+        assertEquals(3 * 5000 + 2 * 2000, policy.getDeadlineMs());
+    }
+
+    @Test
+    public void unknownEndpointsUseTheDefault() {
+        assertSame(EndpointPolicy.DEFAULT, EndpointPolicy.forEndpoint("no_such_endpoint"));
+        assertEquals(1, EndpointPolicy.forEndpoint("update_user").getMaxAttempts());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.restaurantmanager.api;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ GzipTest - Body compression round trips, Content-Encoding detection and the
+ request gzip threshold of EndpointPolicy
+ */
+public class GzipTest {
+
+    //A read_users answer of the size the staff screens fetch
+    private static byte[] usersJson(int count) {
+        StringBuilder json = new StringBuilder("{\"users\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"username\":\"guest_").append(i)
+                    .append("\",\"firstname\":\"Guest\",\"lastname\":\"Number ").append(i)
+                    .append("\",\"email\":\"guest_").append(i).append("@example.com\",\"usertype\":\"guest\"}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void jsonRoundTripsAndShrinks() throws IOException {
+        byte[] json = usersJson(200);
+        byte[] compressed = Gzip.compress(json);
+
+        assertTrue(compressed.length * 4 < json.length);
+        assertArrayEquals(json, Gzip.decompress(compressed));
+    }
+
+    @Test
+    public void emptyBodyRoundTrips() throws IOException {
+        assertArrayEquals(new byte[0], Gzip.decompress(Gzip.compress(new byte[0])));
+    }
+
+    @Test
+    public void incompressibleBodyRoundTrips() throws IOException {
+        byte[] random = new byte[64 * 1024];
+        new Random(42).nextBytes(random);
+
+        assertArrayEquals(random, Gzip.decompress(Gzip.compress(random)));
+    }
+
+    @Test
+    public void highlyCompressibleBodyOutgrowsTheInitialBuffer() throws IOException {
+        // Decompresses to far more than 4x the compressed size
+        byte[] zeros = new byte[1024 * 1024];
+
+        assertArrayEquals(zeros, Gzip.decompress(Gzip.compress(zeros)));
+    }
+
+    @Test(expected = IOException.class)
+    public void plainBodyCannotBeDecompressed() throws IOException {
+        Gzip.decompress(usersJson(1));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedBodyFails() throws IOException {
+        byte[] compressed = Gzip.compress(usersJson(50));
+        byte[] truncated = new byte[compressed.length / 2];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+
+        Gzip.decompress(truncated);
+    }
+
+    @Test
+    public void contentEncodingHeaderIsMatchedLoosely() {
+        assertTrue(Gzip.isGzip("gzip"));
+        assertTrue(Gzip.isGzip(" GZIP "));
+        assertFalse(Gzip.isGzip(null));
+        assertFalse(Gzip.isGzip("identity"));
+        assertFalse(Gzip.isGzip("br"));
+    }
+
+    @Test
+    public void requestBodiesAreGzippedOnlyAboveTheThreshold() {
+        EndpointPolicy plain = new EndpointPolicy(5000, 3, 100, 10_000);
+        EndpointPolicy gzipped = plain.withRequestGzip(1024);
+
+        assertFalse(plain.shouldGzipRequest(1024 * 1024));
+        assertFalse(gzipped.shouldGzipRequest(1023));
+        assertTrue(gzipped.shouldGzipRequest(1024));
+        assertEquals(plain.getTimeoutMs(), gzipped.getTimeoutMs());
+        assertEquals(plain.getMaxAttempts(), gzipped.getMaxAttempts());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.restaurantmanager.api;
+
+import com.example.restaurantmanager.models.User;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ UserParsingBenchmarkTest - Streaming UserTypeAdapter vs the old JSONObject parsing
+ Parses one large read_users envelope repeatedly with each and prints time and bytes
+ allocated per parse. The JSONObject path is the one ApiService used before the
+ adapter: the body as a String, a full tree, then getString() per field.
+ Allocation is measured per thread where the JVM supports it (HotSpot).
+ */
+public class UserParsingBenchmarkTest {
+
+    private static final int USERS = 2000;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+
+    private interface Parser {
+        List<User> parse(byte[] data) throws Exception;
+    }
+
+    @Test
+    public void streamingParsesTheSameUsersWithFewerAllocations() throws Exception {
+        byte[] envelope = envelope(USERS);
+        Parser streaming = UserTypeAdapter.INSTANCE::readBatchEnvelope;
+        Parser tree = UserParsingBenchmarkTest::parseWithJsonObject;
+
+        List<User> fromStreaming = streaming.parse(envelope);
+        List<User> fromTree = tree.parse(envelope);
+        assertEquals(USERS, fromStreaming.size());
+        assertEquals(USERS, fromTree.size());
+        for (int i = 0; i < USERS; i++) {
+            assertEquals(fromTree.get(i).getUsername(), fromStreaming.get(i).getUsername());
+            assertEquals(fromTree.get(i).getContact(), fromStreaming.get(i).getContact());
+        }
+
+        long[] streamingResult = measure(streaming, envelope);
+        long[] treeResult = measure(tree, envelope);
+        System.out.println(String.format(Locale.UK, "read_users, %d users, %d KB", USERS, envelope.length / 1024));
+        report("UserTypeAdapter", streamingResult);
+        report("JSONObject", treeResult);
+
+        if (streamingResult[1] >= 0 && treeResult[1] >= 0) {
+            assertTrue(streamingResult[1] < treeResult[1]);
+        }
+    }
+
+    //{nanos per parse, bytes allocated per parse or -1}
+    private static long[] measure(Parser parser, byte[] data) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            parser.parse(data);
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parser.parse(data);
+        }
+        long nanos = (System.nanoTime() - start) / ITERATIONS;
+        long allocatedAfter = allocatedBytes();
+        long allocated = allocatedBefore < 0 ? -1 : (allocatedAfter - allocatedBefore) / ITERATIONS;
+        return new long[]{nanos, allocated};
+    }
+
+    private static void report(String name, long[] result) {
+        System.out.println(String.format(Locale.UK, "  %-16s %8.2f ms/parse %10s KB allocated/parse",
+                name, result[0] / 1_000_000.0, result[1] < 0 ? "n/a" : String.valueOf(result[1] / 1024)));
+    }
+
+    //Bytes allocated by this thread so far, -1 if the JVM does not report it
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    //As ApiService parsed users before UserTypeAdapter
+    private static List<User> parseWithJsonObject(byte[] data) throws JSONException {
+        JSONArray array = new JSONObject(new String(data, StandardCharsets.UTF_8)).getJSONArray("users");
+        List<User> users = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject userJson = array.getJSONObject(i);
+            users.add(new User(
+                    userJson.getString("username"),
+                    userJson.getString("password"),
+                    userJson.getString("firstname"),
+                    userJson.getString("lastname"),
+                    userJson.getString("email"),
+                    userJson.getString("contact"),
+                    userJson.getString("usertype")));
+        }
+        return users;
+    }
+
+    //A read_users answer as the coursework server sends it, contact numbers as JSON numbers
+    private static byte[] envelope(int count) {
+        StringBuilder json = new StringBuilder("{\"message\":\"ok\",\"users\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"username\":\"guest_").append(i)
+                    .append("\",\"password\":\"password").append(i)
+                    .append("\",\"firstname\":\"Guest\",\"lastname\":\"Number ").append(i)
+                    .append("\",\"email\":\"guest_").append(i).append("@example.com\",\"contact\":")
+                    .append(7700900000L + i).append(",\"usertype\":\"guest\",\"id\":").append(i).append('}');
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
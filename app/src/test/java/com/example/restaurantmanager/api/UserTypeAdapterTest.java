@@ -0,0 +1,176 @@
+package com.example.restaurantmanager.api;
+
+import com.example.restaurantmanager.models.User;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ UserTypeAdapterTest - Streaming User JSON: envelopes, batches, malformed bodies,
+ and passwords kept out of cached profiles
+ */
+public class UserTypeAdapterTest {
+
+    private static final String READ_USER_BODY = "{\"message\":\"ok\",\"user\":{\"username\":\"amy\","
+            + "\"password\":\"secret\",\"firstname\":\"Amy\",\"lastname\":\"Pond\","
+            + "\"email\":\"amy@example.com\",\"contact\":7700900123,\"usertype\":\"guest\",\"id\":4}}";
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void readEnvelopeKeepsThePassword() throws IOException {
+        User user = UserTypeAdapter.INSTANCE.readEnvelope(bytes(READ_USER_BODY));
+
+        assertEquals("amy", user.getUsername());
+        assertEquals("secret", user.getPassword());
+        assertEquals("Amy", user.getFirstname());
+        assertEquals("Pond", user.getLastname());
+        assertEquals("amy@example.com", user.getEmail());
+        assertEquals("7700900123", user.getContact());
+        assertEquals("guest", user.getUsertype());
+    }
+
+    @Test
+    public void profileEnvelopeSkipsThePassword() throws IOException {
+        User user = UserTypeAdapter.INSTANCE.readProfileEnvelope(bytes(READ_USER_BODY));
+
+        assertEquals("amy", user.getUsername());
+        assertNull(user.getPassword());
+        assertEquals("Amy", user.getFirstname());
+    }
+
+    @Test
+    public void writtenProfileHasNoPassword() throws IOException {
+        User user = new User("amy", "secret", "Amy", "Pond", "amy@example.com", "07700", "guest");
+        byte[] profile = UserTypeAdapter.INSTANCE.writeProfileEnvelope(user);
+
+        assertFalse(string(profile).contains("secret"));
+        assertFalse(string(profile).contains("password"));
+
+        User read = UserTypeAdapter.INSTANCE.readProfileEnvelope(profile);
+        assertEquals("amy", read.getUsername());
+        assertEquals("07700", read.getContact());
+        assertEquals("guest", read.getUsertype());
+    }
+
+    @Test
+    public void strippedResponseHasNoPassword() throws IOException {
+        byte[] stripped = UserTypeAdapter.INSTANCE.stripPassword(bytes(READ_USER_BODY));
+
+        assertFalse(string(stripped).contains("secret"));
+        assertEquals("Pond", UserTypeAdapter.INSTANCE.readProfileEnvelope(stripped).getLastname());
+    }
+
+    @Test(expected = IOException.class)
+    public void strippedProfileCannotBeReadAsLogin() throws IOException {
+        byte[] stripped = UserTypeAdapter.INSTANCE.stripPassword(bytes(READ_USER_BODY));
+        UserTypeAdapter.INSTANCE.readEnvelope(stripped);
+    }
+
+    @Test
+    public void batchResultsHaveNoPasswords() throws IOException {
+        List<User> users = UserTypeAdapter.INSTANCE.readBatchEnvelope(bytes(
+                "{\"users\":[{\"username\":\"amy\",\"password\":\"a\"},{\"username\":\"rory\",\"password\":\"b\"}]}"));
+
+        assertEquals(2, users.size());
+        for (User user : users) {
+            assertNull(user.getPassword());
+        }
+        assertEquals(Arrays.asList("amy", "rory"),
+                Arrays.asList(users.get(0).getUsername(), users.get(1).getUsername()));
+    }
+
+    @Test
+    public void unknownAndNestedFieldsAreSkipped() throws IOException {
+        User user = UserTypeAdapter.INSTANCE.readEnvelope(bytes("{\"meta\":{\"page\":[1,2]},"
+                + "\"user\":{\"username\":\"amy\",\"password\":\"secret\",\"bookings\":[{\"id\":1}],"
+                + "\"email\":null},\"message\":\"ok\"}"));
+
+        assertEquals("amy", user.getUsername());
+        assertNull(user.getEmail());
+        assertNull(user.getFirstname());
+    }
+
+    @Test(expected = IOException.class)
+    public void envelopeWithoutUserFails() throws IOException {
+        UserTypeAdapter.INSTANCE.readEnvelope(bytes("{\"message\":\"not found\"}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void nullUserFails() throws IOException {
+        UserTypeAdapter.INSTANCE.readProfileEnvelope(bytes("{\"user\":null}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void userWithoutUsernameFails() throws IOException {
+        UserTypeAdapter.INSTANCE.readProfileEnvelope(bytes("{\"user\":{\"firstname\":\"Amy\"}}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void arrayInsteadOfUserFails() throws IOException {
+        UserTypeAdapter.INSTANCE.readEnvelope(bytes("{\"user\":[\"amy\"]}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void objectInsteadOfUsersArrayFails() throws IOException {
+        UserTypeAdapter.INSTANCE.readBatchEnvelope(bytes("{\"users\":{\"username\":\"amy\"}}"));
+    }
+
+    @Test
+    public void batchSkipsNullEntries() throws IOException {
+        List<User> users = UserTypeAdapter.INSTANCE.readBatchEnvelope(bytes(
+                "{\"users\":[null,{\"username\":\"amy\"}],\"missing\":[\"rory\"]}"));
+
+        assertEquals(1, users.size());
+        assertEquals("amy", users.get(0).getUsername());
+    }
+
+    @Test
+    public void writeThenReadKeepsEveryField() throws IOException {
+        User user = new User("amy", "secret", "Amy", "Pond", "amy@example.com", "07700", "staff");
+        User read = UserTypeAdapter.INSTANCE.fromJson(UserTypeAdapter.INSTANCE.toJson(user));
+
+        assertEquals("amy", read.getUsername());
+        assertEquals("secret", read.getPassword());
+        assertEquals("Amy", read.getFirstname());
+        assertEquals("Pond", read.getLastname());
+        assertEquals("amy@example.com", read.getEmail());
+        assertEquals("07700", read.getContact());
+        assertEquals("staff", read.getUsertype());
+    }
+
+    @Test
+    public void nullFieldsAreLeftOut() {
+        String json = UserTypeAdapter.INSTANCE.toJson(new User("amy", "secret", null, null, null, null, "guest"));
+
+        assertEquals("{\"username\":\"amy\",\"password\":\"secret\",\"usertype\":\"guest\"}", json);
+    }
+
+    @Test
+    public void batchRequestListsUsernames() {
+        assertEquals("{\"usernames\":[\"amy\",\"rory\"]}",
+                UserTypeAdapter.INSTANCE.writeBatchRequest(Arrays.asList("amy", "rory")));
+        assertEquals("{\"usernames\":[]}",
+                UserTypeAdapter.INSTANCE.writeBatchRequest(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void profileWithoutPasswordIsRead() throws IOException {
+        User user = UserTypeAdapter.INSTANCE.readProfile("{\"username\":\"amy\",\"firstname\":\"Amy\"}");
+
+        assertEquals("amy", user.getUsername());
+        assertNull(user.getPassword());
+        assertNull(UserTypeAdapter.INSTANCE.readProfile("{\"username\":\"amy\",\"password\":\"x\"}").getPassword());
+    }
+}
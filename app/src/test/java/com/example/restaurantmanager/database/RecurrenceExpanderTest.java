@@ -0,0 +1,117 @@
+package com.example.restaurantmanager.database;
+
+import com.example.restaurantmanager.models.RecurringReservation;
+import com.example.restaurantmanager.models.Reservation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ RecurrenceExpanderTest - Occurrences of standing reservations inside a window
+ */
+public class RecurrenceExpanderTest {
+
+    private static RecurringReservation rule(String frequency, String startDate, String endDate) {
+        return new RecurringReservation(7, "regular", "19:00", 4, frequency, startDate, endDate, new HashSet<>());
+    }
+
+    private static List<String> datesBetween(RecurringReservation rule, String fromDate, String toDate) {
+        List<Reservation> occurrences = new ArrayList<>();
+        RecurrenceExpander.expand(rule, fromDate, toDate, occurrences);
+
+        List<String> dates = new ArrayList<>();
+        for (Reservation occurrence : occurrences) {
+            dates.add(occurrence.getDate());
+        }
+        return dates;
+    }
+
+    @Test
+    public void weeklyStartsOnFirstOccurrenceInsideWindow() {
+        RecurringReservation weekly = rule(RecurringReservation.FREQUENCY_WEEKLY, "2025-01-06", null);
+
+        assertEquals(Arrays.asList("2025-01-20", "2025-01-27", "2025-02-03"),
+                datesBetween(weekly, "2025-01-15", "2025-02-05"));
+    }
+
+    @Test
+    public void biweeklySkipsAlternateWeeks() {
+        RecurringReservation biweekly = rule(RecurringReservation.FREQUENCY_BIWEEKLY, "2025-01-06", null);
+
+        assertEquals(Arrays.asList("2025-01-06", "2025-01-20", "2025-02-03"),
+                datesBetween(biweekly, "2025-01-01", "2025-02-09"));
+    }
+
+    @Test
+    public void monthlyClampsToShortMonths() {
+        RecurringReservation monthly = rule(RecurringReservation.FREQUENCY_MONTHLY, "2024-01-31", null);
+
+        assertEquals(Arrays.asList("2024-01-31", "2024-02-29", "2024-03-31", "2024-04-30"),
+                datesBetween(monthly, "2024-01-01", "2024-04-30"));
+    }
+
+    @Test
+    public void nothingBeforeStartOrAfterEnd() {
+        RecurringReservation weekly = rule(RecurringReservation.FREQUENCY_WEEKLY, "2025-03-03", "2025-03-17");
+
+        assertTrue(datesBetween(weekly, "2025-01-01", "2025-03-02").isEmpty());
+        assertEquals(Arrays.asList("2025-03-03", "2025-03-10", "2025-03-17"),
+                datesBetween(weekly, "2025-01-01", "2025-12-31"));
+    }
+
+    @Test
+    public void exceptionsAreSkipped() {
+        RecurringReservation weekly = rule(RecurringReservation.FREQUENCY_WEEKLY, "2025-03-03", null);
+        weekly.getExceptions().add("2025-03-10");
+
+        assertEquals(Arrays.asList("2025-03-03", "2025-03-17"),
+                datesBetween(weekly, "2025-03-01", "2025-03-20"));
+        assertFalse(RecurrenceExpander.occursOn(weekly, "2025-03-10"));
+        assertTrue(RecurrenceExpander.occursOn(weekly, "2025-03-17"));
+    }
+
+    @Test
+    public void occursOnAgreesWithExpand() {
+        RecurringReservation[] rules = {
+                rule(RecurringReservation.FREQUENCY_WEEKLY, "2024-02-29", "2026-01-01"),
+                rule(RecurringReservation.FREQUENCY_BIWEEKLY, "2024-12-30", null),
+                rule(RecurringReservation.FREQUENCY_MONTHLY, "2024-05-31", null)
+        };
+
+        for (RecurringReservation recurring : rules) {
+            List<String> expanded = datesBetween(recurring, "2024-01-01", "2026-12-31");
+            for (long day = RecurrenceExpander.toEpochDay("2024-01-01");
+                 day <= RecurrenceExpander.toEpochDay("2026-12-31"); day++) {
+                String date = RecurrenceExpander.toDateKey(day);
+                assertEquals(recurring.getFrequency() + " " + date,
+                        expanded.contains(date), RecurrenceExpander.occursOn(recurring, date));
+            }
+        }
+    }
+
+    @Test
+    public void occurrencesCarryNegatedRuleId() {
+        RecurringReservation weekly = rule(RecurringReservation.FREQUENCY_WEEKLY, "2025-03-03", null);
+        List<Reservation> occurrences = new ArrayList<>();
+        RecurrenceExpander.expand(weekly, "2025-03-03", "2025-03-03", occurrences);
+
+        assertEquals(1, occurrences.size());
+        assertTrue(RecurrenceExpander.isOccurrence(occurrences.get(0)));
+        assertEquals(7, RecurrenceExpander.getRuleId(occurrences.get(0)));
+        assertEquals("19:00", occurrences.get(0).getTime());
+        assertEquals(4, occurrences.get(0).getNumberOfGuests());
+    }
+
+    @Test
+    public void dateKeysRoundTripAcrossLeapYears() {
+        assertEquals(0, RecurrenceExpander.toEpochDay("1970-01-01"));
+        assertEquals("2000-02-29", RecurrenceExpander.toDateKey(RecurrenceExpander.toEpochDay("2000-02-29")));
+        assertEquals("2100-03-01", RecurrenceExpander.addDays("2100-02-28", 1));
+        assertEquals("2025-01-01", RecurrenceExpander.addDays("2024-12-31", 1));
+        assertEquals("2024-03-01", RecurrenceExpander.addDays("2024-02-28", 2));
+    }
+}